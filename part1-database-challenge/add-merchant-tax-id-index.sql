@@ -0,0 +1,25 @@
+-- ============================================================================
+-- MERCHANT TAX ID INDEX
+-- ============================================================================
+-- A tax ID belongs to at most one merchant. This unique partial index enforces
+-- it (merchants without a tax ID are not constrained), and keeps the duplicate
+-- check of bulk merchant import (POST /api/v1/merchants/bulk), one
+-- WHERE tax_id IN (...) query per batch, an index probe per tax ID. Inserts
+-- that race that check fail on the index and are reported per row.
+--
+-- create-merchants-table.sql already creates it; run this on databases built
+-- before it did. It replaces the earlier non-unique index of the same name and
+-- fails if tax IDs are already shared; list them with:
+--
+--   SELECT tax_id, array_agg(merchant_id) FROM operators.merchants
+--   WHERE tax_id IS NOT NULL GROUP BY tax_id HAVING COUNT(*) > 1;
+-- ============================================================================
+
+BEGIN;
+
+DROP INDEX IF EXISTS operators.idx_merchants_tax_id;
+CREATE UNIQUE INDEX idx_merchants_tax_id ON operators.merchants(tax_id) WHERE tax_id IS NOT NULL;
+
+COMMIT;
+
+SELECT '✅ Merchant tax ID unique index created' AS status;
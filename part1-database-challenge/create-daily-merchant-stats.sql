@@ -0,0 +1,89 @@
+-- ============================================================================
+-- DAILY MERCHANT STATS ROLLUP
+-- ============================================================================
+-- Pre-aggregated transaction counts and amounts per
+-- (txn_date, merchant_id, status, card_type, currency).
+--
+-- The backend keeps this table current by upserting one row per new
+-- transaction, and a nightly reconciliation job rebuilds recent closed days
+-- from transaction_master. Both take a per-day transaction-scoped advisory
+-- lock (hashtext('operators.daily_merchant_stats'), days since 1970-01-01):
+-- inserts shared, a rebuild exclusive, so a rebuild never overwrites an
+-- increment it did not read. This script creates the table and backfills it
+-- from all existing transactions.
+-- ============================================================================
+
+DROP TABLE IF EXISTS operators.daily_merchant_stats CASCADE;
+
+CREATE TABLE operators.daily_merchant_stats (
+    stats_id BIGSERIAL PRIMARY KEY,
+    txn_date DATE NOT NULL,
+    merchant_id VARCHAR(50) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    -- Empty string stands for "no card type" so the unique key below also
+    -- covers transactions without one (NULLs are never equal in a UNIQUE constraint)
+    card_type VARCHAR(20) NOT NULL DEFAULT '',
+    currency VARCHAR(3) NOT NULL DEFAULT 'USD',
+    txn_count BIGINT NOT NULL DEFAULT 0,
+    total_amount DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+
+    CONSTRAINT uq_daily_merchant_stats UNIQUE (txn_date, merchant_id, status, card_type, currency)
+);
+
+-- The unique constraint index leads with txn_date and serves date range scans;
+-- this one serves per-merchant lookups
+CREATE INDEX idx_daily_merchant_stats_merchant ON operators.daily_merchant_stats(merchant_id, txn_date);
+
+COMMENT ON TABLE operators.daily_merchant_stats IS 'Daily transaction rollup per merchant, status, card type and currency';
+
+-- ============================================================================
+-- BACKFILL FROM EXISTING TRANSACTION DATA
+-- ============================================================================
+
+INSERT INTO operators.daily_merchant_stats (
+    txn_date,
+    merchant_id,
+    status,
+    card_type,
+    currency,
+    txn_count,
+    total_amount
+)
+SELECT
+    txn_date,
+    merchant_id,
+    status,
+    COALESCE(card_type, ''),
+    currency,
+    COUNT(*),
+    SUM(amount)
+FROM operators.transaction_master
+GROUP BY txn_date, merchant_id, status, COALESCE(card_type, ''), currency;
+
+-- ============================================================================
+-- VERIFICATION QUERIES
+-- ============================================================================
+
+-- Rollup totals must match the raw table
+SELECT
+    (SELECT COUNT(*) FROM operators.transaction_master) as raw_transactions,
+    (SELECT SUM(txn_count) FROM operators.daily_merchant_stats) as rollup_transactions,
+    (SELECT SUM(amount) FROM operators.transaction_master) as raw_amount,
+    (SELECT SUM(total_amount) FROM operators.daily_merchant_stats) as rollup_amount;
+
+-- Rows per day
+SELECT txn_date, COUNT(*) as rollup_rows, SUM(txn_count) as transactions
+FROM operators.daily_merchant_stats
+GROUP BY txn_date
+ORDER BY txn_date DESC
+LIMIT 10;
+
+-- ============================================================================
+-- UPDATE STATISTICS
+-- ============================================================================
+
+VACUUM ANALYZE operators.daily_merchant_stats;
+
+SELECT '✅ Daily merchant stats rollup created and populated successfully!' AS status;
+SELECT '📊 Rollup rows: ' || COUNT(*) FROM operators.daily_merchant_stats;
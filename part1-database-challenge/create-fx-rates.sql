@@ -0,0 +1,41 @@
+-- ============================================================================
+-- FX RATES
+-- ============================================================================
+-- One conversion rate per currency into the reporting base currency
+-- (analytics.fx.base-currency, USD by default): amount_in_base =
+-- amount_in_currency * rate_to_base.
+--
+-- The backend loads the whole table into memory and refreshes it periodically,
+-- and converts currency subtotals after aggregation, so reports never join
+-- this table against transactions. This script creates the table and seeds
+-- one rate per currency found in transaction_master.
+-- ============================================================================
+
+DROP TABLE IF EXISTS operators.fx_rates CASCADE;
+
+CREATE TABLE operators.fx_rates (
+    currency VARCHAR(3) PRIMARY KEY,
+    rate_to_base DECIMAL(18, 8) NOT NULL CHECK (rate_to_base > 0),
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+COMMENT ON TABLE operators.fx_rates IS 'Conversion rate per currency into the reporting base currency';
+
+-- ============================================================================
+-- SEED RATES
+-- ============================================================================
+
+INSERT INTO operators.fx_rates (currency, rate_to_base) VALUES
+    ('USD', 1.00000000),
+    ('EUR', 1.08000000),
+    ('GBP', 1.27000000),
+    ('NPR', 0.00750000),
+    ('INR', 0.01200000);
+
+-- Currencies in use without a rate; reports normalizing them will be rejected
+SELECT DISTINCT t.currency AS missing_rate
+FROM operators.transaction_master t
+LEFT JOIN operators.fx_rates r ON r.currency = t.currency
+WHERE r.currency IS NULL;
+
+SELECT '✅ FX rates table created and seeded successfully!' AS status;
@@ -0,0 +1,30 @@
+-- ============================================================================
+-- MERCHANT CHANGE NOTIFICATIONS
+-- ============================================================================
+-- Every API instance caches merchant profiles in memory and LISTENs on the
+-- merchant_changed channel. This trigger sends the merchant ID of every
+-- updated or deleted row, once the writing transaction commits, so each
+-- instance evicts it whoever made the change (another instance, a script or
+-- psql). Inserts need no notice: merchants that do not exist yet are never
+-- cached.
+-- ============================================================================
+
+CREATE OR REPLACE FUNCTION operators.notify_merchant_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM pg_notify('merchant_changed', OLD.merchant_id);
+    IF TG_OP = 'UPDATE' AND NEW.merchant_id IS DISTINCT FROM OLD.merchant_id THEN
+        PERFORM pg_notify('merchant_changed', NEW.merchant_id);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_merchants_notify_changed ON operators.merchants;
+
+CREATE TRIGGER trg_merchants_notify_changed
+    AFTER UPDATE OR DELETE ON operators.merchants
+    FOR EACH ROW
+    EXECUTE FUNCTION operators.notify_merchant_changed();
+
+SELECT '✅ Merchant change notifications enabled' AS status;
@@ -0,0 +1,34 @@
+-- ============================================================================
+-- MERCHANT ID SEQUENCE
+-- ============================================================================
+-- Source of new merchant IDs (MCH-00051, MCH-00052, ...). Each API instance
+-- takes a block of INCREMENT BY numbers with one nextval() call and hands them
+-- out from memory, so creates neither count the merchants table nor wait on
+-- each other, and instances can never issue the same ID. Numbers left in a
+-- block when an instance stops are skipped, not reused.
+--
+-- The block size is the sequence increment; change it with
+-- ALTER SEQUENCE ... INCREMENT BY, never in application config.
+-- ============================================================================
+
+DROP SEQUENCE IF EXISTS operators.merchant_id_seq;
+
+CREATE SEQUENCE operators.merchant_id_seq
+    INCREMENT BY 50
+    MINVALUE 1
+    NO CYCLE;
+
+-- Start after the highest MCH-number already in use, in profiles or transactions
+SELECT setval('operators.merchant_id_seq', COALESCE(MAX(n), 0) + 1, false)
+FROM (
+    SELECT SUBSTRING(merchant_id FROM 5)::BIGINT AS n
+    FROM operators.merchants
+    WHERE merchant_id ~ '^MCH-[0-9]+$'
+    UNION ALL
+    SELECT SUBSTRING(merchant_id FROM 5)::BIGINT
+    FROM operators.merchant_stats
+    WHERE merchant_id ~ '^MCH-[0-9]+$'
+) used;
+
+SELECT '✅ Merchant ID sequence created, next block starts at ' ||
+       (SELECT last_value FROM operators.merchant_id_seq) AS status;
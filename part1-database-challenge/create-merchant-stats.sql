@@ -0,0 +1,78 @@
+-- ============================================================================
+-- MERCHANT LIFETIME STATS
+-- ============================================================================
+-- One row per merchant with lifetime transaction count, revenue, status
+-- counts and first/last transaction date, so the merchant list and merchant
+-- details are primary key reads instead of a GROUP BY per request.
+--
+-- The backend adds every new transaction to its merchant's row in the same
+-- database transaction as the insert, and the nightly rollup reconciliation
+-- recomputes the table from daily_merchant_stats. Run
+-- create-daily-merchant-stats.sql first; this script creates the table and
+-- backfills it from the rollup.
+-- ============================================================================
+
+DROP TABLE IF EXISTS operators.merchant_stats CASCADE;
+
+CREATE TABLE operators.merchant_stats (
+    -- Not a foreign key: transactions may reference merchants that have no
+    -- profile in operators.merchants yet; reads LEFT JOIN the profile
+    merchant_id VARCHAR(50) PRIMARY KEY,
+    total_transactions BIGINT NOT NULL DEFAULT 0,
+    total_revenue DECIMAL(18, 2) NOT NULL DEFAULT 0,
+    completed_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    pending_count BIGINT NOT NULL DEFAULT 0,
+    first_transaction_date DATE,
+    last_transaction_date DATE,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW()
+);
+
+COMMENT ON TABLE operators.merchant_stats IS 'Lifetime transaction statistics per merchant';
+
+-- ============================================================================
+-- BACKFILL FROM THE DAILY ROLLUP
+-- ============================================================================
+
+INSERT INTO operators.merchant_stats (
+    merchant_id,
+    total_transactions,
+    total_revenue,
+    completed_count,
+    failed_count,
+    pending_count,
+    first_transaction_date,
+    last_transaction_date
+)
+SELECT
+    merchant_id,
+    SUM(txn_count),
+    SUM(total_amount),
+    SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END),
+    SUM(CASE WHEN status = 'failed' THEN txn_count ELSE 0 END),
+    SUM(CASE WHEN status = 'pending' THEN txn_count ELSE 0 END),
+    MIN(txn_date),
+    MAX(txn_date)
+FROM operators.daily_merchant_stats
+GROUP BY merchant_id;
+
+-- ============================================================================
+-- VERIFICATION QUERIES
+-- ============================================================================
+
+-- Lifetime totals must match the raw table
+SELECT
+    (SELECT COUNT(*) FROM operators.transaction_master) as raw_transactions,
+    (SELECT SUM(total_transactions) FROM operators.merchant_stats) as stats_transactions,
+    (SELECT COUNT(DISTINCT merchant_id) FROM operators.transaction_master) as raw_merchants,
+    (SELECT COUNT(*) FROM operators.merchant_stats) as stats_merchants;
+
+-- Merchants with transactions but no profile
+SELECT s.merchant_id
+FROM operators.merchant_stats s
+LEFT JOIN operators.merchants m ON m.merchant_id = s.merchant_id
+WHERE m.merchant_id IS NULL;
+
+VACUUM ANALYZE operators.merchant_stats;
+
+SELECT '✅ Merchant stats table created and populated successfully!' AS status;
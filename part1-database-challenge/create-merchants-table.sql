@@ -50,6 +50,8 @@ CREATE INDEX idx_merchants_status ON operators.merchants(status);
 CREATE INDEX idx_merchants_business_name ON operators.merchants(business_name);
 CREATE INDEX idx_merchants_country ON operators.merchants(country);
 CREATE INDEX idx_merchants_created_at ON operators.merchants(created_at);
+-- One merchant per tax ID; merchants without one are not constrained
+CREATE UNIQUE INDEX idx_merchants_tax_id ON operators.merchants(tax_id) WHERE tax_id IS NOT NULL;
 
 -- Add comment
 COMMENT ON TABLE operators.merchants IS 'Merchant master data with business and contact information';
@@ -0,0 +1,352 @@
+package com.payment.analytics;
+
+import com.payment.repository.TransactionCursorRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Transaction amount percentiles per merchant, per card type or overall, from
+ * {@link QuantileSketch}es kept per day.
+ *
+ * Each day holds one sketch per merchant and one per card type, indexed by
+ * {@link DimensionDictionary} code. A day is seeded the first time it is asked for, from the
+ * cube when the snapshot was loaded after the day ended and has every back-dated write to it,
+ * otherwise with one streaming pass over transaction_master, and then kept up to date by
+ * {@link #record}. A range query merges the day sketches of the requested groups, so it costs
+ * the number of buckets, not the number of transactions. At most
+ * {@code analytics.quantiles.max-days} days are kept (least recently used first out). Seeding
+ * reads the database outside the lock, so recording a transaction never waits for it; see
+ * {@link PendingSeed} for days written to meanwhile.
+ */
+@Singleton
+public class AmountQuantileTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AmountQuantileTracker.class);
+
+    private final TransactionCube transactionCube;
+    private final TransactionCursorRepository transactionCursorRepository;
+    private final DimensionDictionary dimensionDictionary;
+    private final double relativeAccuracy;
+    private final int maxDays;
+    private final Map<Long, DaySketches> days;
+    private final List<PendingSeed> seeding = new ArrayList<>();
+
+    public AmountQuantileTracker(TransactionCube transactionCube,
+                                 TransactionCursorRepository transactionCursorRepository,
+                                 DimensionDictionary dimensionDictionary,
+                                 @Value("${analytics.quantiles.relative-accuracy:0.01}") double relativeAccuracy,
+                                 @Value("${analytics.quantiles.max-days:62}") int maxDays) {
+        this.transactionCube = transactionCube;
+        this.transactionCursorRepository = transactionCursorRepository;
+        this.dimensionDictionary = dimensionDictionary;
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxDays = maxDays;
+        // Access-ordered, so the eldest entry is the least recently used day
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DaySketches> eldest) {
+                return size() > AmountQuantileTracker.this.maxDays;
+            }
+        };
+        // Fail at startup rather than on the first request
+        new QuantileSketch(relativeAccuracy);
+    }
+
+    /**
+     * Add one transaction to its day, if that day is tracked. Untracked days pick the
+     * transaction up when they are seeded.
+     */
+    public synchronized void record(LocalDate txnDate, String merchantId, String cardType, BigDecimal amount) {
+        DaySketches day = days.get(txnDate.toEpochDay());
+        if (day == null) {
+            for (PendingSeed seed : seeding) {
+                seed.markStale(txnDate.toEpochDay());
+            }
+        } else if (amount != null) {
+            day.add(MoneyAccumulator.toCents(amount),
+                dimensionDictionary.encode(TransactionDimension.MERCHANT, merchantId),
+                dimensionDictionary.encode(TransactionDimension.CARD_TYPE, cardType));
+        }
+    }
+
+    /**
+     * Forget the sketches of the given days (inclusive).
+     */
+    public synchronized void invalidate(LocalDate startDate, LocalDate endDate) {
+        for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+            days.remove(day);
+            for (PendingSeed seed : seeding) {
+                seed.markStale(day);
+            }
+        }
+    }
+
+    /**
+     * Amount distributions for the range, most transactions first.
+     *
+     * @param groupBy MERCHANT, CARD_TYPE, or null for all transactions as one group
+     * @param value   only this merchant or card type, or null for every group
+     */
+    public List<AmountDistribution> distributions(LocalDate startDate, LocalDate endDate,
+                                                  TransactionDimension groupBy, String value, int limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (groupBy != null && groupBy != TransactionDimension.MERCHANT && groupBy != TransactionDimension.CARD_TYPE) {
+            throw new IllegalArgumentException("Amount percentiles can be grouped by merchant or card type");
+        }
+        long firstDay = startDate.toEpochDay();
+        long lastDay = endDate.toEpochDay();
+        if (lastDay - firstDay + 1 > maxDays) {
+            throw new IllegalArgumentException("Amount percentiles cover at most " + maxDays + " days");
+        }
+
+        List<DaySketches> range = getDays(firstDay, lastDay);
+        synchronized (this) {
+            return merge(range, groupBy, value, limit);
+        }
+    }
+
+    private List<AmountDistribution> merge(List<DaySketches> range, TransactionDimension groupBy, String value,
+                                           int limit) {
+        // Card type sketches partition every day's transactions, so they also give the total
+        TransactionDimension source = groupBy != null ? groupBy : TransactionDimension.CARD_TYPE;
+        int onlyCode = -1;
+        if (value != null) {
+            onlyCode = dimensionDictionary.codeOf(source, value);
+            if (onlyCode < 0) {
+                return new ArrayList<>();
+            }
+        }
+
+        QuantileSketch[] merged = new QuantileSketch[dimensionDictionary.size(source)];
+        for (DaySketches day : range) {
+            QuantileSketch[] sketches = day.sketches(source);
+            int from = onlyCode >= 0 ? onlyCode : 0;
+            int to = onlyCode >= 0 ? Math.min(onlyCode + 1, sketches.length) : sketches.length;
+            for (int code = from; code < to; code++) {
+                QuantileSketch sketch = sketches[code];
+                if (sketch == null) {
+                    continue;
+                }
+                int target = groupBy != null ? code : 0;
+                if (merged[target] == null) {
+                    merged[target] = new QuantileSketch(relativeAccuracy);
+                }
+                merged[target].merge(sketch);
+            }
+        }
+
+        TopKHeap heap = new TopKHeap(limit, merged.length, (a, b) -> {
+            int result = Long.compare(count(merged[a]), count(merged[b]));
+            return result != 0 ? result : Integer.compare(b, a);
+        });
+        for (int code = 0; code < merged.length; code++) {
+            if (merged[code] != null && merged[code].getCount() > 0) {
+                heap.offer(code);
+            }
+        }
+
+        List<AmountDistribution> result = new ArrayList<>();
+        for (int code : heap.drainBestFirst()) {
+            String key = groupBy != null ? dimensionDictionary.decode(groupBy, code) : value;
+            result.add(new AmountDistribution(key, merged[code]));
+        }
+        return result;
+    }
+
+    public double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    private List<DaySketches> getDays(long firstDay, long lastDay) {
+        DaySketches[] range = new DaySketches[(int) (lastDay - firstDay + 1)];
+        Map<Long, DaySketches> seeded = new LinkedHashMap<>();
+        PendingSeed pending;
+        synchronized (this) {
+            // get() marks tracked days as recently used, so seeding evicts days outside the range
+            for (long day = firstDay; day <= lastDay; day++) {
+                range[(int) (day - firstDay)] = days.get(day);
+                if (range[(int) (day - firstDay)] == null) {
+                    seeded.put(day, new DaySketches(relativeAccuracy));
+                }
+            }
+            if (seeded.isEmpty()) {
+                return Arrays.asList(range);
+            }
+            pending = new PendingSeed(firstDay, lastDay);
+            seeding.add(pending);
+        }
+
+        try {
+            seed(seeded);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                seeding.remove(pending);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            seeding.remove(pending);
+            for (Map.Entry<Long, DaySketches> entry : seeded.entrySet()) {
+                long day = entry.getKey();
+                // Another request may have seeded the day meanwhile; keep the sketches that get recorded into
+                DaySketches tracked = days.get(day);
+                if (tracked == null && !pending.isStale(day)) {
+                    days.put(day, entry.getValue());
+                }
+                range[(int) (day - firstDay)] = tracked != null ? tracked : entry.getValue();
+            }
+        }
+        return Arrays.asList(range);
+    }
+
+    /**
+     * Fill the given (untracked) days' sketches. Runs without the lock.
+     */
+    private void seed(Map<Long, DaySketches> seeded) {
+        long started = System.currentTimeMillis();
+        long firstDay = Collections.min(seeded.keySet());
+        long lastDay = Collections.max(seeded.keySet());
+
+        // The cube only has a complete copy of days that ended before it was loaded and were not
+        // written to since; every other day is streamed
+        long streamFrom = firstDay;
+        Set<Long> fromCube = new HashSet<>();
+        Optional<CubeSnapshot> cube = transactionCube.snapshotCovering(
+            LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay));
+        if (cube.isPresent()) {
+            long completeBefore = LocalDate.ofInstant(cube.get().getLoadedAt(), ZoneId.systemDefault()).toEpochDay();
+            Set<Long> changed = transactionCube.changedDays(cube.get(),
+                LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay));
+            streamFrom = Long.MAX_VALUE;
+            for (long day = firstDay; day <= lastDay; day++) {
+                DaySketches sketches = seeded.get(day);
+                if (day < completeBefore && !changed.contains(day)) {
+                    if (sketches != null) {
+                        cube.get().forEachRow(LocalDate.ofEpochDay(day), sketches::add);
+                    }
+                    fromCube.add(day);
+                } else {
+                    streamFrom = Math.min(streamFrom, day);
+                }
+            }
+        }
+        if (streamFrom <= lastDay) {
+            transactionCursorRepository.streamByDateRange(LocalDate.ofEpochDay(streamFrom), LocalDate.ofEpochDay(lastDay),
+                row -> {
+                    DaySketches sketches = seeded.get((long) row.getEpochDay());
+                    if (sketches != null && !fromCube.contains((long) row.getEpochDay())) {
+                        sketches.add(row.getAmountCents(),
+                            dimensionDictionary.encode(TransactionDimension.MERCHANT, row.getMerchantId()),
+                            dimensionDictionary.encode(TransactionDimension.CARD_TYPE, row.getCardType()));
+                    }
+                });
+        }
+        LOG.debug("Seeded amount quantile sketches for {} day(s) from {} to {} in {} ms", seeded.size(),
+            LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay), System.currentTimeMillis() - started);
+    }
+
+    private static long count(QuantileSketch sketch) {
+        return sketch != null ? sketch.getCount() : 0L;
+    }
+
+    private static final class DaySketches {
+        private final double relativeAccuracy;
+        private QuantileSketch[] byMerchant = new QuantileSketch[0];
+        private QuantileSketch[] byCardType = new QuantileSketch[0];
+
+        DaySketches(double relativeAccuracy) {
+            this.relativeAccuracy = relativeAccuracy;
+        }
+
+        void add(long cents, int merchantCode, int cardTypeCode) {
+            if (merchantCode >= byMerchant.length) {
+                byMerchant = Arrays.copyOf(byMerchant, Math.max(merchantCode + 1, byMerchant.length * 2));
+            }
+            if (cardTypeCode >= byCardType.length) {
+                byCardType = Arrays.copyOf(byCardType, cardTypeCode + 1);
+            }
+            sketch(byMerchant, merchantCode).add(cents);
+            sketch(byCardType, cardTypeCode).add(cents);
+        }
+
+        QuantileSketch[] sketches(TransactionDimension dimension) {
+            return dimension == TransactionDimension.MERCHANT ? byMerchant : byCardType;
+        }
+
+        private QuantileSketch sketch(QuantileSketch[] sketches, int code) {
+            if (sketches[code] == null) {
+                sketches[code] = new QuantileSketch(relativeAccuracy);
+            }
+            return sketches[code];
+        }
+    }
+
+    /**
+     * Count, exact min and max, and estimated p50/p90/p99 in cents for one group.
+     */
+    public static final class AmountDistribution {
+        private final String key;
+        private final long count;
+        private final long minCents;
+        private final long p50Cents;
+        private final long p90Cents;
+        private final long p99Cents;
+        private final long maxCents;
+
+        AmountDistribution(String key, QuantileSketch sketch) {
+            this.key = key;
+            this.count = sketch.getCount();
+            this.minCents = sketch.getMin();
+            this.p50Cents = sketch.quantile(0.50);
+            this.p90Cents = sketch.quantile(0.90);
+            this.p99Cents = sketch.quantile(0.99);
+            this.maxCents = sketch.getMax();
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getMinCents() {
+            return minCents;
+        }
+
+        public long getP50Cents() {
+            return p50Cents;
+        }
+
+        public long getP90Cents() {
+            return p90Cents;
+        }
+
+        public long getP99Cents() {
+            return p99Cents;
+        }
+
+        public long getMaxCents() {
+            return maxCents;
+        }
+    }
+}
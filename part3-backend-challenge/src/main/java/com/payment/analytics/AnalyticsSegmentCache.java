@@ -0,0 +1,372 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.DailyBreakdownProjection;
+import com.payment.repository.DailyMerchantStatsRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-day cache of {@link RangeMetrics} that every analytics, revenue and chart query is built from.
+ *
+ * A requested range is split into days. Closed days (before today) stay cached until evicted
+ * or invalidated. Today is recomputed after {@code analytics.segment-cache.today-ttl}, so a
+ * 90-day range costs one day of work once the other 89 are cached.
+ *
+ * Missing days are loaded in contiguous runs: from the cube when it covers the run, otherwise
+ * with one grouped query on daily_merchant_stats. The cube is only used for days that ended
+ * before its snapshot was loaded; later days (today included) and days it reports as written
+ * after the snapshot was read (back-dated transactions) come from the rollup, which is
+ * updated with every insert, so neither a refresh nor an invalidation rebuilds them from a
+ * stale snapshot.
+ *
+ * A day holds one accumulator per merchant, status, card type and currency that occurred on
+ * it, so its size follows the number of active merchants. The cache is bounded by the total
+ * of those slots ({@code analytics.segment-cache.max-slots}), not by days, and evicts the
+ * least recently used days first.
+ *
+ * Long ranges go through the {@link ParallelSliceExecutor}: missing runs are loaded as
+ * parallel slices, and the days are merged slice by slice before the partial results are
+ * combined.
+ */
+@Singleton
+public class AnalyticsSegmentCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AnalyticsSegmentCache.class);
+
+    private final TransactionCube transactionCube;
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private final ParallelSliceExecutor sliceExecutor;
+    private final DimensionDictionary dimensionDictionary;
+    private final long maxSlots;
+    private final long todayTtlNanos;
+
+    // Access-ordered, so the first entry is the least recently used day
+    private final Map<Long, Segment> segments = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation, so days loaded across one are not cached; guarded by segments
+    private long generation;
+    // Total slots of the cached days; guarded by segments
+    private long slots;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public AnalyticsSegmentCache(TransactionCube transactionCube,
+                                 DailyMerchantStatsRepository dailyMerchantStatsRepository,
+                                 ParallelSliceExecutor sliceExecutor,
+                                 DimensionDictionary dimensionDictionary,
+                                 @Value("${analytics.segment-cache.max-slots:1000000}") long maxSlots,
+                                 @Value("${analytics.segment-cache.today-ttl:30s}") Duration todayTtl) {
+        this.transactionCube = transactionCube;
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+        this.sliceExecutor = sliceExecutor;
+        this.dimensionDictionary = dimensionDictionary;
+        if (maxSlots <= 0) {
+            throw new IllegalArgumentException("analytics.segment-cache.max-slots must be positive");
+        }
+        this.maxSlots = maxSlots;
+        this.todayTtlNanos = todayTtl.toNanos();
+    }
+
+    /**
+     * Metrics for the whole range, merged from its day segments.
+     */
+    public RangeMetrics getRange(LocalDate startDate, LocalDate endDate) {
+        List<RangeMetrics> days = getDays(startDate, endDate);
+        if (!sliceExecutor.shouldSplit(startDate, endDate)) {
+            return RangeMetrics.merge(dimensionDictionary, startDate, endDate, days);
+        }
+
+        // Merge each slice's days in parallel, then combine the partial results
+        long firstDay = startDate.toEpochDay();
+        List<RangeMetrics> partials = sliceExecutor.map(sliceExecutor.slices(startDate, endDate), slice ->
+            RangeMetrics.merge(dimensionDictionary, slice[0], slice[1], days.subList(
+                (int) (slice[0].toEpochDay() - firstDay), (int) (slice[1].toEpochDay() - firstDay + 1))));
+        return RangeMetrics.merge(dimensionDictionary, startDate, endDate, partials);
+    }
+
+    /**
+     * One single-day {@link RangeMetrics} per day of the range, in date order.
+     */
+    public List<RangeMetrics> getDays(LocalDate startDate, LocalDate endDate) {
+        return getDays(startDate, endDate, false);
+    }
+
+    /**
+     * Like {@link #getDays}, for days that have all ended: a day cached while it was still open
+     * (it may have been read just before midnight) is reloaded rather than returned.
+     */
+    public List<RangeMetrics> getClosedDays(LocalDate startDate, LocalDate endDate) {
+        if (!endDate.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("End date must be before today");
+        }
+        return getDays(startDate, endDate, true);
+    }
+
+    private List<RangeMetrics> getDays(LocalDate startDate, LocalDate endDate, boolean closedOnly) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        long firstDay = startDate.toEpochDay();
+        int dayCount = (int) (endDate.toEpochDay() - firstDay + 1);
+        RangeMetrics[] days = new RangeMetrics[dayCount];
+        long now = System.nanoTime();
+
+        synchronized (segments) {
+            for (int d = 0; d < dayCount; d++) {
+                Segment segment = segments.get(firstDay + d);
+                if (segment != null && (closedOnly ? segment.closed : !segment.isExpired(now))) {
+                    days[d] = segment.metrics;
+                }
+            }
+        }
+
+        // Each run of consecutive missing days is loaded with one query; long runs are cut into slices
+        List<LocalDate[]> runs = new ArrayList<>();
+        int missing = 0;
+        int d = 0;
+        while (d < dayCount) {
+            if (days[d] != null) {
+                d++;
+                continue;
+            }
+            int runEnd = d;
+            while (runEnd + 1 < dayCount && days[runEnd + 1] == null) {
+                runEnd++;
+            }
+
+            LocalDate runStart = LocalDate.ofEpochDay(firstDay + d);
+            LocalDate runStop = LocalDate.ofEpochDay(firstDay + runEnd);
+            if (sliceExecutor.shouldSplit(runStart, runStop)) {
+                runs.addAll(sliceExecutor.slices(runStart, runStop));
+            } else {
+                runs.add(new LocalDate[] {runStart, runStop});
+            }
+            missing += runEnd - d + 1;
+            d = runEnd + 1;
+        }
+
+        List<List<RangeMetrics>> loadedRuns = sliceExecutor.shouldSplit(startDate, endDate)
+            ? sliceExecutor.map(runs, this::loadAndStore)
+            : runs.stream().map(this::loadAndStore).collect(Collectors.toList());
+        for (List<RangeMetrics> run : loadedRuns) {
+            for (RangeMetrics day : run) {
+                days[(int) (day.getStartDate().toEpochDay() - firstDay)] = day;
+            }
+        }
+
+        hits.addAndGet(dayCount - missing);
+        misses.addAndGet(missing);
+
+        List<RangeMetrics> result = new ArrayList<>(dayCount);
+        for (RangeMetrics day : days) {
+            result.add(day);
+        }
+        return result;
+    }
+
+    /**
+     * True if every day of the range is cached and current, so {@link #getRange} needs no query.
+     */
+    public boolean isCached(LocalDate startDate, LocalDate endDate) {
+        long now = System.nanoTime();
+        synchronized (segments) {
+            for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+                Segment segment = segments.get(day);
+                if (segment == null || segment.isExpired(now)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public void invalidate(LocalDate date) {
+        invalidate(date, date);
+    }
+
+    public void invalidate(LocalDate startDate, LocalDate endDate) {
+        synchronized (segments) {
+            generation++;
+            for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+                Segment removed = segments.remove(day);
+                if (removed != null) {
+                    slots -= removed.slots;
+                }
+            }
+        }
+        LOG.info("Analytics segment cache invalidated for {} to {}", startDate, endDate);
+    }
+
+    public void invalidateAll() {
+        synchronized (segments) {
+            generation++;
+            segments.clear();
+            slots = 0;
+        }
+        LOG.info("Analytics segment cache cleared");
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public int getSize() {
+        synchronized (segments) {
+            return segments.size();
+        }
+    }
+
+    public long getSlotCount() {
+        synchronized (segments) {
+            return slots;
+        }
+    }
+
+    public long getMaxSlots() {
+        return maxSlots;
+    }
+
+    private List<RangeMetrics> loadAndStore(LocalDate[] run) {
+        long loadedAt;
+        synchronized (segments) {
+            loadedAt = generation;
+        }
+        List<RangeMetrics> runDays = new ArrayList<>();
+        store(runDays, load(run[0], run[1], runDays), loadedAt);
+        return runDays;
+    }
+
+    /**
+     * Compute the days of the range into the given list.
+     *
+     * @return the first epoch day that may still change in the source; earlier days are closed
+     */
+    private long load(LocalDate startDate, LocalDate endDate, List<RangeMetrics> days) {
+        // Taken before reading, so a load that runs past midnight does not close the day it read
+        long today = LocalDate.now().toEpochDay();
+        LocalDate day = startDate;
+        Optional<CubeSnapshot> cube = transactionCube.snapshotCovering(startDate, endDate);
+        if (cube.isPresent()) {
+            // A day is only complete in the cube if the snapshot was loaded after the day ended
+            LocalDate open = LocalDate.ofInstant(cube.get().getLoadedAt(), ZoneId.systemDefault());
+            LocalDate cubeEnd = endDate.isBefore(open) ? endDate : open.minusDays(1);
+            if (!day.isAfter(cubeEnd)) {
+                Set<Long> changed = transactionCube.changedDays(cube.get(), startDate, cubeEnd);
+                for (; !day.isAfter(cubeEnd); day = day.plusDays(1)) {
+                    if (changed.contains(day.toEpochDay())) {
+                        loadFromRollup(day, day, days);
+                    } else {
+                        days.add(cube.get().getRangeMetrics(day, day));
+                    }
+                }
+            }
+        }
+
+        // Days the cube does not have in full come from the rollup
+        if (!day.isAfter(endDate)) {
+            loadFromRollup(day, endDate, days);
+        }
+        // The rollup is updated in the same transaction as each insert
+        return today;
+    }
+
+    private void loadFromRollup(LocalDate startDate, LocalDate endDate, List<RangeMetrics> days) {
+        // One builder per day, so days without transactions still get an (empty) segment
+        Map<Long, RangeMetrics.Builder> builders = new LinkedHashMap<>();
+        for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+            LocalDate date = LocalDate.ofEpochDay(day);
+            builders.put(day, new RangeMetrics.Builder(dimensionDictionary, date, date, false));
+        }
+        for (DailyBreakdownProjection row : dailyMerchantStatsRepository.getDailyBreakdown(
+                Date.valueOf(startDate), Date.valueOf(endDate))) {
+            long count = row.getCount() != null ? row.getCount() : 0L;
+            long cents = row.getAmountCents() != null ? row.getAmountCents() : 0L;
+            RangeMetrics.Builder builder = builders.get(row.getEpochDay());
+            builder.addDay(row.getEpochDay(), count, cents);
+            int merchantCode = dimensionDictionary.encode(TransactionDimension.MERCHANT, row.getMerchantId());
+            builder.add(TransactionDimension.MERCHANT, merchantCode, count, cents);
+            if (CubeSnapshot.COMPLETED.equalsIgnoreCase(row.getStatus())) {
+                builder.addMerchantCompleted(merchantCode, count);
+            }
+            builder.add(TransactionDimension.STATUS,
+                dimensionDictionary.encode(TransactionDimension.STATUS, row.getStatus()), count, cents);
+            builder.add(TransactionDimension.CARD_TYPE,
+                dimensionDictionary.encode(TransactionDimension.CARD_TYPE, row.getCardType()), count, cents);
+            int currencyCode = dimensionDictionary.encode(TransactionDimension.CURRENCY, row.getCurrency());
+            builder.add(TransactionDimension.CURRENCY, currencyCode, count, cents);
+            builder.addCurrencyDay(currencyCode, row.getEpochDay(), count, cents);
+        }
+        builders.values().forEach(builder -> days.add(builder.build()));
+    }
+
+    private void store(List<RangeMetrics> days, long closedBefore, long loadedAt) {
+        long expiresAt = System.nanoTime() + todayTtlNanos;
+        synchronized (segments) {
+            // An invalidation since the load started may have been for one of these days
+            if (generation != loadedAt) {
+                return;
+            }
+            for (RangeMetrics day : days) {
+                long epochDay = day.getStartDate().toEpochDay();
+                Segment segment = new Segment(day, epochDay < closedBefore, expiresAt);
+                Segment replaced = segments.put(epochDay, segment);
+                slots += segment.slots - (replaced != null ? replaced.slots : 0);
+            }
+            evictOverweight();
+        }
+    }
+
+    private void evictOverweight() {
+        Iterator<Segment> leastRecentlyUsed = segments.values().iterator();
+        while (slots > maxSlots && leastRecentlyUsed.hasNext()) {
+            slots -= leastRecentlyUsed.next().slots;
+            leastRecentlyUsed.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static final class Segment {
+        private final RangeMetrics metrics;
+        private final boolean closed;
+        private final long expiresAt;
+        // The day itself counts as one, so empty days are bounded too
+        private final int slots;
+
+        Segment(RangeMetrics metrics, boolean closed, long expiresAt) {
+            this.metrics = metrics;
+            this.closed = closed;
+            this.expiresAt = expiresAt;
+            this.slots = metrics.getSlotCount() + 1;
+        }
+
+        boolean isExpired(long now) {
+            return !closed && now - expiresAt >= 0;
+        }
+    }
+}
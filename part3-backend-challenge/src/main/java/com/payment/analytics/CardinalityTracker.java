@@ -0,0 +1,241 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.DailyValueProjection;
+import com.payment.repository.DailyMerchantStatsRepository;
+import com.payment.repository.TransactionRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Approximate distinct counts of merchants and cards from {@link HyperLogLog} sketches.
+ *
+ * Each day has one sketch of the merchant IDs that transacted and, when
+ * {@code analytics.cardinality.track-cards} is on, one of card fingerprints (card type plus
+ * last four digits, the most transaction_master keeps about a card). A day is seeded the
+ * first time it is asked for, merchants from the daily rollup and cards from that day's
+ * transactions, and then kept up to date by {@link #record}. Range counts merge the day
+ * sketches, so they never scan more than the days not seen before. At most
+ * {@code analytics.cardinality.max-days} days are kept (least recently used first out). Seeding
+ * reads the database outside the lock, so recording a transaction never waits for it; see
+ * {@link PendingSeed} for days written to meanwhile.
+ */
+@Singleton
+public class CardinalityTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CardinalityTracker.class);
+
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private final TransactionRepository transactionRepository;
+    private final int precision;
+    private final int maxDays;
+    private final boolean trackCards;
+    private final Map<Long, DaySketches> days;
+    private final List<PendingSeed> seeding = new ArrayList<>();
+
+    public CardinalityTracker(DailyMerchantStatsRepository dailyMerchantStatsRepository,
+                              TransactionRepository transactionRepository,
+                              @Value("${analytics.cardinality.precision:12}") int precision,
+                              @Value("${analytics.cardinality.max-days:400}") int maxDays,
+                              @Value("${analytics.cardinality.track-cards:true}") boolean trackCards) {
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+        this.transactionRepository = transactionRepository;
+        this.precision = precision;
+        this.maxDays = maxDays;
+        this.trackCards = trackCards;
+        // Access-ordered, so the eldest entry is the least recently used day
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DaySketches> eldest) {
+                return size() > CardinalityTracker.this.maxDays;
+            }
+        };
+        // Fail at startup rather than on the first request
+        new HyperLogLog(precision);
+    }
+
+    /**
+     * Add one transaction. Days that are not tracked yet pick it up when they are seeded;
+     * adding a value twice is harmless.
+     */
+    public synchronized void record(LocalDate txnDate, String merchantId, String cardType, String cardLast4) {
+        DaySketches day = days.get(txnDate.toEpochDay());
+        if (day == null) {
+            for (PendingSeed seed : seeding) {
+                seed.markStale(txnDate.toEpochDay());
+            }
+        } else {
+            day.merchants.add(merchantId);
+            if (day.cards != null && cardLast4 != null) {
+                day.cards.add(fingerprint(cardType, cardLast4));
+            }
+        }
+    }
+
+    /**
+     * Forget the sketches of the given days (inclusive).
+     */
+    public synchronized void invalidate(LocalDate startDate, LocalDate endDate) {
+        for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+            days.remove(day);
+            for (PendingSeed seed : seeding) {
+                seed.markStale(day);
+            }
+        }
+    }
+
+    /**
+     * Estimated number of distinct merchants, and of cards if tracked, active in the range.
+     */
+    public ActiveCounts countActive(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        long firstDay = startDate.toEpochDay();
+        long lastDay = endDate.toEpochDay();
+        if (lastDay - firstDay + 1 > maxDays) {
+            throw new IllegalArgumentException("Active counts cover at most " + maxDays + " days");
+        }
+
+        List<DaySketches> range = getDays(firstDay, lastDay);
+        HyperLogLog merchants = new HyperLogLog(precision);
+        HyperLogLog cards = trackCards ? new HyperLogLog(precision) : null;
+        synchronized (this) {
+            for (DaySketches sketches : range) {
+                merchants.merge(sketches.merchants);
+                if (cards != null) {
+                    cards.merge(sketches.cards);
+                }
+            }
+        }
+        return new ActiveCounts(merchants.estimate(), cards != null ? cards.estimate() : null,
+            HyperLogLog.relativeStandardError(precision));
+    }
+
+    public double getRelativeStandardError() {
+        return HyperLogLog.relativeStandardError(precision);
+    }
+
+    private List<DaySketches> getDays(long firstDay, long lastDay) {
+        DaySketches[] range = new DaySketches[(int) (lastDay - firstDay + 1)];
+        Map<Long, DaySketches> seeded = new LinkedHashMap<>();
+        PendingSeed pending;
+        synchronized (this) {
+            // get() marks tracked days as recently used, so seeding evicts days outside the range
+            for (long day = firstDay; day <= lastDay; day++) {
+                range[(int) (day - firstDay)] = days.get(day);
+                if (range[(int) (day - firstDay)] == null) {
+                    seeded.put(day, new DaySketches(precision, trackCards));
+                }
+            }
+            if (seeded.isEmpty()) {
+                return Arrays.asList(range);
+            }
+            pending = new PendingSeed(firstDay, lastDay);
+            seeding.add(pending);
+        }
+
+        try {
+            seed(seeded);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                seeding.remove(pending);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            seeding.remove(pending);
+            for (Map.Entry<Long, DaySketches> entry : seeded.entrySet()) {
+                long day = entry.getKey();
+                // Another request may have seeded the day meanwhile; keep the sketches that get recorded into
+                DaySketches tracked = days.get(day);
+                if (tracked == null && !pending.isStale(day)) {
+                    days.put(day, entry.getValue());
+                }
+                range[(int) (day - firstDay)] = tracked != null ? tracked : entry.getValue();
+            }
+        }
+        return Arrays.asList(range);
+    }
+
+    /**
+     * Fill the given (untracked) days' sketches. Runs without the lock.
+     */
+    private void seed(Map<Long, DaySketches> seeded) {
+        long started = System.currentTimeMillis();
+        long firstDay = Collections.min(seeded.keySet());
+        long lastDay = Collections.max(seeded.keySet());
+
+        Date start = Date.valueOf(LocalDate.ofEpochDay(firstDay));
+        Date end = Date.valueOf(LocalDate.ofEpochDay(lastDay));
+        for (DailyValueProjection row : dailyMerchantStatsRepository.getDailyMerchantIds(start, end)) {
+            DaySketches day = seeded.get(row.getEpochDay());
+            if (day != null) {
+                day.merchants.add(row.getValue());
+            }
+        }
+        if (trackCards) {
+            for (DailyValueProjection row : transactionRepository.getDailyCardFingerprints(start, end)) {
+                DaySketches day = seeded.get(row.getEpochDay());
+                if (day != null) {
+                    day.cards.add(row.getValue());
+                }
+            }
+        }
+        LOG.debug("Seeded cardinality sketches for {} day(s) from {} to {} in {} ms", seeded.size(),
+            LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay), System.currentTimeMillis() - started);
+    }
+
+    // Must match TransactionRepository.getDailyCardFingerprints
+    private static String fingerprint(String cardType, String cardLast4) {
+        return (cardType != null ? cardType : "") + ":" + cardLast4;
+    }
+
+    private static final class DaySketches {
+        private final HyperLogLog merchants;
+        private final HyperLogLog cards;
+
+        DaySketches(int precision, boolean trackCards) {
+            this.merchants = new HyperLogLog(precision);
+            this.cards = trackCards ? new HyperLogLog(precision) : null;
+        }
+    }
+
+    /**
+     * Estimated distinct counts for a range; cards is null when card tracking is off.
+     */
+    public static final class ActiveCounts {
+        private final long merchants;
+        private final Long cards;
+        private final double relativeStandardError;
+
+        ActiveCounts(long merchants, Long cards, double relativeStandardError) {
+            this.merchants = merchants;
+            this.cards = cards;
+            this.relativeStandardError = relativeStandardError;
+        }
+
+        public long getMerchants() {
+            return merchants;
+        }
+
+        public Long getCards() {
+            return cards;
+        }
+
+        public double getRelativeStandardError() {
+            return relativeStandardError;
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.payment.analytics;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Immutable column-oriented copy of transaction_master for a contiguous range of days.
+ *
+ * Rows are stored sorted by txn_date, so a date range maps to one contiguous slice of
+ * every column. Each column is a primitive array:
+ * - dates as per-day row offsets over epoch days (run-length encoded, no per-row date)
+ * - amounts as long cents
+ * - merchant as int and status, card type and currency as short {@link DimensionDictionary} codes
+ * - hour of week (day of week * 24 + hour, UTC, Sunday = 0) for the peak times heatmap
+ *
+ * {@link #getRangeMetrics} aggregates any range of days into the same {@link RangeMetrics}
+ * the daily rollup produces, so callers can use either source interchangeably.
+ */
+public final class CubeSnapshot {
+
+    static final int HOURS_PER_WEEK = 7 * 24;
+    static final String COMPLETED = "completed";
+
+    private final int firstDay;
+    private final int lastDay;
+    private final int[] dayStart;
+    private final long[] amountCents;
+    private final int[] merchantCodes;
+    private final short[] statusCodes;
+    private final short[] cardTypeCodes;
+    private final short[] currencyCodes;
+    private final short[] hourOfWeek;
+    private final DimensionDictionary dictionary;
+    private final Instant loadedAt;
+
+    private CubeSnapshot(Builder builder) {
+        int size = builder.size;
+        this.firstDay = builder.firstDay;
+        this.lastDay = builder.lastDay;
+        this.amountCents = Arrays.copyOf(builder.amountCents, size);
+        this.merchantCodes = Arrays.copyOf(builder.merchantCodes, size);
+        this.statusCodes = Arrays.copyOf(builder.statusCodes, size);
+        this.cardTypeCodes = Arrays.copyOf(builder.cardTypeCodes, size);
+        this.currencyCodes = Arrays.copyOf(builder.currencyCodes, size);
+        this.hourOfWeek = Arrays.copyOf(builder.hourOfWeek, size);
+        this.dictionary = builder.dictionary;
+        this.loadedAt = builder.startedAt;
+
+        // Prefix sums turn per-day counts into row offsets: day d occupies [dayStart[d], dayStart[d + 1])
+        this.dayStart = new int[builder.dayCounts.length + 1];
+        for (int d = 0; d < builder.dayCounts.length; d++) {
+            dayStart[d + 1] = dayStart[d] + builder.dayCounts[d];
+        }
+    }
+
+    public LocalDate getFirstDate() {
+        return LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getLastDate() {
+        return LocalDate.ofEpochDay(lastDay);
+    }
+
+    /**
+     * When the load started: every transaction committed before then is in the snapshot.
+     */
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public int getRowCount() {
+        return amountCents.length;
+    }
+
+    public boolean covers(LocalDate startDate, LocalDate endDate) {
+        return startDate.toEpochDay() >= firstDay && endDate.toEpochDay() <= lastDay;
+    }
+
+    /**
+     * All dashboard metrics for the range in one pass over its rows.
+     */
+    public RangeMetrics getRangeMetrics(LocalDate startDate, LocalDate endDate) {
+        // Every code in this snapshot was assigned before it was built, so these arrays cover them all
+        MoneyAccumulator[] statusTotals = newAccumulators(TransactionDimension.STATUS);
+        MoneyAccumulator[] cardTotals = newAccumulators(TransactionDimension.CARD_TYPE);
+        MoneyAccumulator[] currencyTotals = newAccumulators(TransactionDimension.CURRENCY);
+        MoneyAccumulator[] merchantTotals = newAccumulators(TransactionDimension.MERCHANT);
+        long[] merchantCompleted = new long[merchantTotals.length];
+        long[] currencyDayCounts = new long[currencyTotals.length];
+        long[] currencyDayCents = new long[currencyTotals.length];
+        long[] hourCounts = new long[HOURS_PER_WEEK];
+        boolean[] completed = new boolean[statusTotals.length];
+        for (int code = 0; code < completed.length; code++) {
+            completed[code] = COMPLETED.equalsIgnoreCase(dictionary.decode(TransactionDimension.STATUS, code));
+        }
+
+        RangeMetrics.Builder metrics = new RangeMetrics.Builder(dictionary, startDate, endDate, true);
+        int from = dayIndex(startDate);
+        int to = dayIndex(endDate);
+
+        for (int d = from; d <= to; d++) {
+            long dayCents = 0;
+            for (int i = dayStart[d]; i < dayStart[d + 1]; i++) {
+                long cents = amountCents[i];
+                dayCents += cents;
+                statusTotals[statusCodes[i]].add(cents);
+                cardTotals[cardTypeCodes[i]].add(cents);
+                currencyTotals[currencyCodes[i]].add(cents);
+                currencyDayCounts[currencyCodes[i]]++;
+                currencyDayCents[currencyCodes[i]] += cents;
+                merchantTotals[merchantCodes[i]].add(cents);
+                if (completed[statusCodes[i]]) {
+                    merchantCompleted[merchantCodes[i]]++;
+                }
+                hourCounts[hourOfWeek[i]]++;
+            }
+            metrics.addDay(firstDay + d, dayStart[d + 1] - dayStart[d], dayCents);
+            for (int code = 0; code < currencyDayCounts.length; code++) {
+                if (currencyDayCounts[code] > 0) {
+                    metrics.addCurrencyDay(code, firstDay + d, currencyDayCounts[code], currencyDayCents[code]);
+                    currencyDayCounts[code] = 0;
+                    currencyDayCents[code] = 0;
+                }
+            }
+        }
+
+        addTotals(metrics, TransactionDimension.STATUS, statusTotals);
+        addTotals(metrics, TransactionDimension.CARD_TYPE, cardTotals);
+        addTotals(metrics, TransactionDimension.CURRENCY, currencyTotals);
+        addTotals(metrics, TransactionDimension.MERCHANT, merchantTotals);
+        for (int code = 0; code < merchantCompleted.length; code++) {
+            if (merchantCompleted[code] > 0) {
+                metrics.addMerchantCompleted(code, merchantCompleted[code]);
+            }
+        }
+        for (int slot = 0; slot < HOURS_PER_WEEK; slot++) {
+            if (hourCounts[slot] > 0) {
+                metrics.addHourOfWeek(slot, hourCounts[slot]);
+            }
+        }
+
+        return metrics.build();
+    }
+
+    /**
+     * Hand every row of the day to the consumer: amount in cents, merchant code, card type code.
+     */
+    void forEachRow(LocalDate day, RowConsumer consumer) {
+        int d = dayIndex(day);
+        for (int i = dayStart[d]; i < dayStart[d + 1]; i++) {
+            consumer.accept(amountCents[i], merchantCodes[i], cardTypeCodes[i]);
+        }
+    }
+
+    @FunctionalInterface
+    interface RowConsumer {
+        void accept(long amountCents, int merchantCode, int cardTypeCode);
+    }
+
+    private MoneyAccumulator[] newAccumulators(TransactionDimension dimension) {
+        MoneyAccumulator[] accumulators = new MoneyAccumulator[dictionary.size(dimension)];
+        for (int code = 0; code < accumulators.length; code++) {
+            accumulators[code] = new MoneyAccumulator();
+        }
+        return accumulators;
+    }
+
+    private static void addTotals(RangeMetrics.Builder metrics, TransactionDimension dimension, MoneyAccumulator[] byCode) {
+        for (int code = 0; code < byCode.length; code++) {
+            if (byCode[code].getCount() > 0) {
+                metrics.add(dimension, code, byCode[code]);
+            }
+        }
+    }
+
+    private int dayIndex(LocalDate date) {
+        long day = date.toEpochDay();
+        if (day < firstDay || day > lastDay) {
+            throw new IllegalArgumentException("Date " + date + " is outside the cube range "
+                + getFirstDate() + " to " + getLastDate());
+        }
+        return (int) (day - firstDay);
+    }
+
+    /**
+     * Accumulates rows, which must arrive in txn_date order, into growable primitive columns.
+     */
+    static final class Builder {
+        private final int firstDay;
+        private final int lastDay;
+        private final int[] dayCounts;
+        private final DimensionDictionary dictionary;
+        private final Instant startedAt = Instant.now();
+        private long[] amountCents;
+        private int[] merchantCodes;
+        private short[] statusCodes;
+        private short[] cardTypeCodes;
+        private short[] currencyCodes;
+        private short[] hourOfWeek;
+        private int size;
+
+        Builder(DimensionDictionary dictionary, LocalDate firstDate, LocalDate lastDate, int expectedRows) {
+            this.dictionary = dictionary;
+            this.firstDay = (int) firstDate.toEpochDay();
+            this.lastDay = (int) lastDate.toEpochDay();
+            this.dayCounts = new int[lastDay - firstDay + 1];
+            int capacity = Math.max(expectedRows, 16);
+            this.amountCents = new long[capacity];
+            this.merchantCodes = new int[capacity];
+            this.statusCodes = new short[capacity];
+            this.cardTypeCodes = new short[capacity];
+            this.currencyCodes = new short[capacity];
+            this.hourOfWeek = new short[capacity];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void add(int epochDay, long cents, String merchantId, String status, String cardType, String currency,
+                 int hourOfWeekSlot) {
+            if (epochDay < firstDay || epochDay > lastDay) {
+                throw new IllegalArgumentException("Row date outside cube range: " + LocalDate.ofEpochDay(epochDay));
+            }
+            if (size == amountCents.length) {
+                grow();
+            }
+            amountCents[size] = cents;
+            merchantCodes[size] = dictionary.encode(TransactionDimension.MERCHANT, merchantId);
+            statusCodes[size] = smallCode(TransactionDimension.STATUS, status);
+            cardTypeCodes[size] = smallCode(TransactionDimension.CARD_TYPE, cardType);
+            currencyCodes[size] = smallCode(TransactionDimension.CURRENCY, currency);
+            hourOfWeek[size] = (short) hourOfWeekSlot;
+            dayCounts[epochDay - firstDay]++;
+            size++;
+        }
+
+        CubeSnapshot build() {
+            return new CubeSnapshot(this);
+        }
+
+        private short smallCode(TransactionDimension dimension, String value) {
+            int code = dictionary.encode(dimension, value);
+            if (code > Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many distinct " + dimension + " values for the cube (max " + (Short.MAX_VALUE + 1) + ")");
+            }
+            return (short) code;
+        }
+
+        private void grow() {
+            int capacity = amountCents.length * 2;
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            merchantCodes = Arrays.copyOf(merchantCodes, capacity);
+            statusCodes = Arrays.copyOf(statusCodes, capacity);
+            cardTypeCodes = Arrays.copyOf(cardTypeCodes, capacity);
+            currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+            hourOfWeek = Arrays.copyOf(hourOfWeek, capacity);
+        }
+    }
+}
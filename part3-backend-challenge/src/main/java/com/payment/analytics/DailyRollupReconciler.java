@@ -0,0 +1,110 @@
+package com.payment.analytics;
+
+import com.payment.repository.DailyMerchantStatsRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+
+/**
+ * Rebuilds daily_merchant_stats from transaction_master.
+ *
+ * The write path keeps the rollup current transaction by transaction; this job repairs
+ * anything that bypassed it (bulk loads, manual fixes, deletes). Every night it recomputes
+ * the last {@code analytics.rollup.reconcile-days} closed days; today is left to the write path.
+ *
+ * Days are rebuilt one at a time, each in its own transaction holding that day's advisory
+ * lock exclusively. Inserts take the same lock shared before their rollup upsert and keep it
+ * until they commit, so a back-dated insert either commits before the rebuild reads
+ * transaction_master or waits and adds its increment to the rebuilt row; it is never
+ * overwritten. Only inserts dated the day being rebuilt wait, and only for that day.
+ * The lifetime totals in merchant_stats are then recomputed from the repaired rollup.
+ */
+@Singleton
+public class DailyRollupReconciler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DailyRollupReconciler.class);
+
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private final AnalyticsSegmentCache segmentCache;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final CardinalityTracker cardinalityTracker;
+    private final AmountQuantileTracker amountQuantileTracker;
+    private final MerchantStatsReconciler merchantStatsReconciler;
+    private final TransactionOperations<Connection> transactionOperations;
+    private final boolean enabled;
+    private final int reconcileDays;
+
+    public DailyRollupReconciler(DailyMerchantStatsRepository dailyMerchantStatsRepository,
+                                 AnalyticsSegmentCache segmentCache,
+                                 HeavyHitterTracker heavyHitterTracker,
+                                 CardinalityTracker cardinalityTracker,
+                                 AmountQuantileTracker amountQuantileTracker,
+                                 MerchantStatsReconciler merchantStatsReconciler,
+                                 TransactionOperations<Connection> transactionOperations,
+                                 @Value("${analytics.rollup.reconcile-enabled:true}") boolean enabled,
+                                 @Value("${analytics.rollup.reconcile-days:7}") int reconcileDays) {
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+        this.segmentCache = segmentCache;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.cardinalityTracker = cardinalityTracker;
+        this.amountQuantileTracker = amountQuantileTracker;
+        this.merchantStatsReconciler = merchantStatsReconciler;
+        this.transactionOperations = transactionOperations;
+        this.enabled = enabled;
+        this.reconcileDays = reconcileDays;
+    }
+
+    @Scheduled(cron = "${analytics.rollup.reconcile-cron:0 15 0 * * ?}")
+    public void reconcileRecentDays() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate endDate = LocalDate.now().minusDays(1);
+        LocalDate startDate = endDate.minusDays(reconcileDays - 1L);
+
+        try {
+            reconcile(startDate, endDate);
+        } catch (Exception e) {
+            LOG.error("Failed to reconcile daily merchant stats: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Recompute the rollup for every day between the given dates (inclusive).
+     * Also used to backfill history after the table is created.
+     */
+    public void reconcile(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        long started = System.currentTimeMillis();
+        for (LocalDate day = startDate; !day.isAfter(endDate); day = day.plusDays(1)) {
+            Date date = Date.valueOf(day);
+            transactionOperations.executeWrite(status -> {
+                dailyMerchantStatsRepository.lockDayForRebuild(date);
+                dailyMerchantStatsRepository.deleteStaleByDateRange(date, date);
+                dailyMerchantStatsRepository.rebuildByDateRange(date, date);
+                return null;
+            });
+        }
+        // Cached day segments and sketches may have been built from the rows that were just corrected
+        segmentCache.invalidate(startDate, endDate);
+        heavyHitterTracker.invalidate(startDate, endDate);
+        cardinalityTracker.invalidate(startDate, endDate);
+        amountQuantileTracker.invalidate(startDate, endDate);
+
+        LOG.info("Reconciled daily merchant stats for {} to {} in {} ms",
+            startDate, endDate, System.currentTimeMillis() - started);
+
+        merchantStatsReconciler.reconcile();
+    }
+}
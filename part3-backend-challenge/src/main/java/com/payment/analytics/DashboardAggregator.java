@@ -0,0 +1,43 @@
+package com.payment.analytics;
+
+import jakarta.inject.Singleton;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Computes {@link RangeMetrics} for the analytics, revenue and chart services.
+ *
+ * The dashboard asks for volume, success rate, trends, peak times and card distribution for
+ * the same range at the same moment. Metrics are merged from the day segments in
+ * {@link AnalyticsSegmentCache} (loading missing days with one pass over the cube or one
+ * grouped rollup query), and concurrent requests for the same range share one computation
+ * through the {@link RequestCoalescer}.
+ */
+@Singleton
+public class DashboardAggregator {
+
+    private final AnalyticsSegmentCache segmentCache;
+    private final RequestCoalescer requestCoalescer;
+
+    public DashboardAggregator(AnalyticsSegmentCache segmentCache, RequestCoalescer requestCoalescer) {
+        this.segmentCache = segmentCache;
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    public RangeMetrics getMetrics(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        return requestCoalescer.execute("range-metrics", startDate + "/" + endDate,
+            () -> segmentCache.getRange(startDate, endDate));
+    }
+
+    /**
+     * The range's day segments, for callers that need to tell days apart (e.g. which carry peak times).
+     */
+    public List<RangeMetrics> getDays(LocalDate startDate, LocalDate endDate) {
+        return segmentCache.getDays(startDate, endDate);
+    }
+}
@@ -0,0 +1,103 @@
+package com.payment.analytics;
+
+import jakarta.inject.Singleton;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide mapping of dimension values (merchant, status, card type, currency) to small int codes.
+ *
+ * Values are encoded once when rows are loaded into the cube or a day segment; from then on
+ * aggregation groups by indexing arrays with the code instead of hashing strings. Codes are
+ * assigned in first-seen order, never change and are never reused, so metrics built at
+ * different times (cached day segments, successive cube snapshots) can be merged by code.
+ * Null is a regular value with its own code.
+ */
+@Singleton
+public class DimensionDictionary {
+
+    private final Codebook[] codebooks;
+
+    public DimensionDictionary() {
+        TransactionDimension[] dimensions = TransactionDimension.values();
+        this.codebooks = new Codebook[dimensions.length];
+        for (TransactionDimension dimension : dimensions) {
+            codebooks[dimension.ordinal()] = new Codebook();
+        }
+    }
+
+    /**
+     * Code for the value, assigning the next free code on first sight.
+     */
+    public int encode(TransactionDimension dimension, String value) {
+        return codebooks[dimension.ordinal()].encode(value);
+    }
+
+    /**
+     * Code for the value, or -1 if it has never been encoded.
+     */
+    public int codeOf(TransactionDimension dimension, String value) {
+        return codebooks[dimension.ordinal()].codeOf(value);
+    }
+
+    public String decode(TransactionDimension dimension, int code) {
+        return codebooks[dimension.ordinal()].decode(code);
+    }
+
+    /**
+     * Number of codes assigned so far; every code is below this.
+     */
+    public int size(TransactionDimension dimension) {
+        return codebooks[dimension.ordinal()].size;
+    }
+
+    private static final class Codebook {
+        // ConcurrentHashMap does not accept null keys
+        private static final Object NULL_KEY = new Object();
+
+        private final Map<Object, Integer> codes = new ConcurrentHashMap<>();
+        private volatile String[] values = new String[16];
+        private volatile int size;
+
+        int encode(String value) {
+            Integer code = codes.get(key(value));
+            return code != null ? code : assign(value);
+        }
+
+        int codeOf(String value) {
+            Integer code = codes.get(key(value));
+            return code != null ? code : -1;
+        }
+
+        String decode(int code) {
+            if (code < 0 || code >= size) {
+                throw new IllegalArgumentException("Unknown dimension code " + code);
+            }
+            return values[code];
+        }
+
+        private synchronized int assign(String value) {
+            Integer existing = codes.get(key(value));
+            if (existing != null) {
+                return existing;
+            }
+            int code = size;
+            String[] current = values;
+            if (code == current.length) {
+                current = Arrays.copyOf(current, code * 2);
+            }
+            current[code] = value;
+            // Publish the value before the code, so a reader that sees the code can decode it
+            values = current;
+            size = code + 1;
+            codes.put(key(value), code);
+            return code;
+        }
+
+        private static Object key(String value) {
+            return value != null ? value : NULL_KEY;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.payment.analytics;
+
+import com.payment.entity.FxRate;
+import com.payment.repository.FxRateRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * In-memory copy of operators.fx_rates, for converting aggregated amounts between currencies.
+ *
+ * The table is small and read in full on first use and then every
+ * {@code analytics.fx.refresh-interval}; lookups never touch the database. Each rate converts
+ * into {@code analytics.fx.base-currency}, and a rate between two other currencies goes
+ * through it. A failed refresh keeps the previous rates.
+ */
+@Singleton
+public class FxRateTable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(FxRateTable.class);
+
+    private final FxRateRepository fxRateRepository;
+    private final String baseCurrency;
+
+    private volatile Map<String, BigDecimal> ratesToBase;
+
+    public FxRateTable(FxRateRepository fxRateRepository,
+                       @Value("${analytics.fx.base-currency:USD}") String baseCurrency) {
+        this.fxRateRepository = fxRateRepository;
+        this.baseCurrency = baseCurrency.toUpperCase(Locale.ROOT);
+    }
+
+    @Scheduled(fixedDelay = "${analytics.fx.refresh-interval:1h}", initialDelay = "${analytics.fx.refresh-interval:1h}")
+    public void refresh() {
+        try {
+            load();
+        } catch (Exception e) {
+            LOG.error("Failed to refresh FX rates: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Rate that converts an amount in currency {@code from} into currency {@code to}.
+     *
+     * @throws IllegalArgumentException if either currency has no rate
+     */
+    public BigDecimal rate(String from, String to) {
+        String source = normalize(from);
+        String target = normalize(to);
+        if (source.equals(target)) {
+            return BigDecimal.ONE;
+        }
+        Map<String, BigDecimal> rates = getRates();
+        BigDecimal sourceToBase = toBase(rates, source);
+        BigDecimal targetToBase = toBase(rates, target);
+        return sourceToBase.divide(targetToBase, MathContext.DECIMAL64);
+    }
+
+    public String getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    private Map<String, BigDecimal> getRates() {
+        Map<String, BigDecimal> rates = ratesToBase;
+        return rates != null ? rates : load();
+    }
+
+    private BigDecimal toBase(Map<String, BigDecimal> rates, String currency) {
+        if (currency.equals(baseCurrency)) {
+            return BigDecimal.ONE;
+        }
+        BigDecimal rate = rates.get(currency);
+        if (rate == null) {
+            throw new IllegalArgumentException("No FX rate for currency " + currency);
+        }
+        return rate;
+    }
+
+    private synchronized Map<String, BigDecimal> load() {
+        long started = System.currentTimeMillis();
+        Map<String, BigDecimal> rates = new HashMap<>();
+        for (FxRate fxRate : fxRateRepository.findAll()) {
+            if (fxRate.getRateToBase() != null && fxRate.getRateToBase().signum() > 0) {
+                rates.put(normalize(fxRate.getCurrency()), fxRate.getRateToBase());
+            }
+        }
+        ratesToBase = Collections.unmodifiableMap(rates);
+        LOG.debug("Loaded {} FX rate(s) in {} ms", rates.size(), System.currentTimeMillis() - started);
+        return ratesToBase;
+    }
+
+    private static String normalize(String currency) {
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        return currency.trim().toUpperCase(Locale.ROOT);
+    }
+}
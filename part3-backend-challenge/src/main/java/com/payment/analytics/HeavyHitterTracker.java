@@ -0,0 +1,302 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.repository.TransactionCursorRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Approximate top merchants by revenue or transaction count in memory that does not grow with
+ * the number of merchants.
+ *
+ * Each day has two {@link SpaceSavingSketch}es of {@code analytics.heavy-hitters.capacity}
+ * counters, one weighted by amount in cents and one by transaction count. A day is seeded
+ * from the daily rollup the first time it is asked for and then kept up to date by
+ * {@link #record} as transactions are created. At most {@code max-days} days are kept
+ * (least recently used first out). Seeding streams one total per day and merchant straight
+ * into the sketches, so it holds no more than the sketches themselves however many merchants
+ * are active. The query runs outside the lock, so recording a transaction never waits for it;
+ * see {@link PendingSeed} for days written to meanwhile.
+ *
+ * For a range, a merchant's estimate is the sum over its days of the day counter, or of the
+ * day's floor where the merchant is not monitored. Estimates never underestimate, and
+ * overestimate by at most the sum of the day floors, which is reported with the result and
+ * is at most the range total divided by the capacity. Every merchant whose true value exceeds
+ * that bound is monitored on at least one day of the range, so it is among the candidates.
+ */
+@Singleton
+public class HeavyHitterTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HeavyHitterTracker.class);
+
+    private final TransactionCursorRepository transactionCursorRepository;
+    private final int capacity;
+    private final int maxDays;
+    private final Map<Long, DaySketches> days;
+    private final List<PendingSeed> seeding = new ArrayList<>();
+
+    public HeavyHitterTracker(TransactionCursorRepository transactionCursorRepository,
+                              @Value("${analytics.heavy-hitters.capacity:256}") int capacity,
+                              @Value("${analytics.heavy-hitters.max-days:92}") int maxDays) {
+        this.transactionCursorRepository = transactionCursorRepository;
+        this.capacity = capacity;
+        this.maxDays = maxDays;
+        // Access-ordered, so the eldest entry is the least recently used day
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, DaySketches> eldest) {
+                return size() > HeavyHitterTracker.this.maxDays;
+            }
+        };
+        // Fail at startup rather than on the first request
+        new SpaceSavingSketch(capacity);
+    }
+
+    /**
+     * Add one transaction to its day, if that day is tracked. Untracked days pick the
+     * transaction up from the rollup when they are seeded.
+     */
+    public synchronized void record(LocalDate txnDate, String merchantId, BigDecimal amount) {
+        DaySketches day = days.get(txnDate.toEpochDay());
+        if (day != null) {
+            day.add(merchantId, 1L, amount != null ? MoneyAccumulator.toCents(amount) : 0L);
+        } else {
+            for (PendingSeed seed : seeding) {
+                seed.markStale(txnDate.toEpochDay());
+            }
+        }
+    }
+
+    /**
+     * Forget the sketches of the given days (inclusive), e.g. after the rollup was rebuilt.
+     */
+    public synchronized void invalidate(LocalDate startDate, LocalDate endDate) {
+        for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+            days.remove(day);
+            for (PendingSeed seed : seeding) {
+                seed.markStale(day);
+            }
+        }
+    }
+
+    /**
+     * The estimated top merchants for the range by revenue or by count, best first.
+     */
+    public HeavyHitters topMerchants(LocalDate startDate, LocalDate endDate,
+                                     MerchantRankingMetric metric, int limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+        if (metric == MerchantRankingMetric.SUCCESS_RATE) {
+            throw new IllegalArgumentException("Approximate ranking supports revenue or count only");
+        }
+        long firstDay = startDate.toEpochDay();
+        long lastDay = endDate.toEpochDay();
+        if (lastDay - firstDay + 1 > maxDays) {
+            throw new IllegalArgumentException("Approximate ranking covers at most " + maxDays + " days");
+        }
+
+        List<DaySketches> range = getDays(firstDay, lastDay);
+        synchronized (this) {
+            return rank(range, metric, limit);
+        }
+    }
+
+    private HeavyHitters rank(List<DaySketches> range, MerchantRankingMetric metric, int limit) {
+        boolean byRevenue = metric == MerchantRankingMetric.REVENUE;
+
+        // Candidates: every merchant monitored on at least one day for the ranking metric
+        Set<String> candidateSet = new LinkedHashSet<>();
+        long revenueError = 0;
+        long countError = 0;
+        long totalCents = 0;
+        long totalCount = 0;
+        for (DaySketches day : range) {
+            SpaceSavingSketch ranking = byRevenue ? day.revenue : day.count;
+            for (int i = 0; i < ranking.size(); i++) {
+                candidateSet.add(ranking.keyAt(i));
+            }
+            revenueError += day.revenue.getFloor();
+            countError += day.count.getFloor();
+            totalCents += day.revenue.getTotalWeight();
+            totalCount += day.count.getTotalWeight();
+        }
+
+        String[] candidates = candidateSet.toArray(new String[0]);
+        long[] cents = new long[candidates.length];
+        long[] counts = new long[candidates.length];
+        for (int i = 0; i < candidates.length; i++) {
+            for (DaySketches day : range) {
+                cents[i] += day.revenue.getUpperBound(candidates[i]);
+                counts[i] += day.count.getUpperBound(candidates[i]);
+            }
+        }
+
+        long[] primary = byRevenue ? cents : counts;
+        long[] secondary = byRevenue ? counts : cents;
+        TopKHeap heap = new TopKHeap(limit, candidates.length, (a, b) -> {
+            int result = Long.compare(primary[a], primary[b]);
+            if (result == 0) {
+                result = Long.compare(secondary[a], secondary[b]);
+            }
+            return result != 0 ? result : compareIds(candidates[b], candidates[a]);
+        });
+        for (int i = 0; i < candidates.length; i++) {
+            heap.offer(i);
+        }
+
+        int[] best = heap.drainBestFirst();
+        List<MerchantRankingProjection> merchants = new ArrayList<>(best.length);
+        for (int i : best) {
+            merchants.add(new MerchantRankingProjection(candidates[i], counts[i], MoneyAccumulator.toAmount(cents[i]), null));
+        }
+        return new HeavyHitters(merchants, revenueError, countError, totalCents, totalCount, capacity);
+    }
+
+    private List<DaySketches> getDays(long firstDay, long lastDay) {
+        DaySketches[] range = new DaySketches[(int) (lastDay - firstDay + 1)];
+        Map<Long, DaySketches> seeded = new LinkedHashMap<>();
+        PendingSeed pending;
+        synchronized (this) {
+            // get() marks tracked days as recently used, so seeding evicts days outside the range
+            for (long day = firstDay; day <= lastDay; day++) {
+                range[(int) (day - firstDay)] = days.get(day);
+                if (range[(int) (day - firstDay)] == null) {
+                    seeded.put(day, new DaySketches(capacity));
+                }
+            }
+            if (seeded.isEmpty()) {
+                return Arrays.asList(range);
+            }
+            pending = new PendingSeed(firstDay, lastDay);
+            seeding.add(pending);
+        }
+
+        try {
+            seed(seeded);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                seeding.remove(pending);
+            }
+            throw e;
+        }
+
+        synchronized (this) {
+            seeding.remove(pending);
+            for (Map.Entry<Long, DaySketches> entry : seeded.entrySet()) {
+                long day = entry.getKey();
+                // Another request may have seeded the day meanwhile; keep the sketches that get recorded into
+                DaySketches tracked = days.get(day);
+                if (tracked == null && !pending.isStale(day)) {
+                    days.put(day, entry.getValue());
+                }
+                range[(int) (day - firstDay)] = tracked != null ? tracked : entry.getValue();
+            }
+        }
+        return Arrays.asList(range);
+    }
+
+    /**
+     * Fill the given (untracked) days' sketches from one streamed rollup query. Runs without the lock.
+     */
+    private void seed(Map<Long, DaySketches> seeded) {
+        long started = System.currentTimeMillis();
+        long firstDay = Collections.min(seeded.keySet());
+        long lastDay = Collections.max(seeded.keySet());
+        transactionCursorRepository.streamDailyMerchantTotals(LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay),
+            (epochDay, merchantId, count, amountCents) -> {
+                DaySketches day = seeded.get((long) epochDay);
+                if (day != null) {
+                    day.add(merchantId, count, amountCents);
+                }
+            });
+
+        LOG.debug("Seeded heavy hitter sketches for {} day(s) from {} to {} in {} ms", seeded.size(),
+            LocalDate.ofEpochDay(firstDay), LocalDate.ofEpochDay(lastDay), System.currentTimeMillis() - started);
+    }
+
+    private static int compareIds(String first, String second) {
+        if (first == null || second == null) {
+            return first == null ? (second == null ? 0 : -1) : 1;
+        }
+        return first.compareTo(second);
+    }
+
+    private static final class DaySketches {
+        private final SpaceSavingSketch revenue;
+        private final SpaceSavingSketch count;
+
+        DaySketches(int capacity) {
+            this.revenue = new SpaceSavingSketch(capacity);
+            this.count = new SpaceSavingSketch(capacity);
+        }
+
+        void add(String merchantId, long transactions, long cents) {
+            revenue.add(merchantId, cents);
+            count.add(merchantId, transactions);
+        }
+    }
+
+    /**
+     * Estimated top merchants for a range. Each estimate is at least the true value and at
+     * most the matching error bound above it.
+     */
+    public static final class HeavyHitters {
+        private final List<MerchantRankingProjection> merchants;
+        private final long revenueErrorCents;
+        private final long countError;
+        private final long totalCents;
+        private final long totalCount;
+        private final int capacity;
+
+        HeavyHitters(List<MerchantRankingProjection> merchants, long revenueErrorCents, long countError,
+                     long totalCents, long totalCount, int capacity) {
+            this.merchants = merchants;
+            this.revenueErrorCents = revenueErrorCents;
+            this.countError = countError;
+            this.totalCents = totalCents;
+            this.totalCount = totalCount;
+            this.capacity = capacity;
+        }
+
+        public List<MerchantRankingProjection> getMerchants() {
+            return merchants;
+        }
+
+        public long getRevenueErrorCents() {
+            return revenueErrorCents;
+        }
+
+        public long getCountError() {
+            return countError;
+        }
+
+        /**
+         * Exact range total, which every sketch sees in full.
+         */
+        public long getTotalCents() {
+            return totalCents;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.payment.analytics;
+
+/**
+ * Additive Holt-Winters (triple exponential smoothing) over a daily series with weekly seasonality.
+ *
+ * Observations are fed one day at a time with {@link #update}; the state is a level, a trend,
+ * seven day-of-week offsets and the running squared one-step-ahead error. The seasonal slot is
+ * the epoch day modulo 7, so forecasts line up with the calendar regardless of where the series
+ * started. The model is initialised from the first two weeks of observations; until then
+ * {@link #isReady()} is false.
+ *
+ * Prediction intervals use the standard additive Holt-Winters variance
+ * sigma^2 * (1 + sum over j &lt; h of (alpha * (1 + j * beta) + gamma * [j is a multiple of 7])^2),
+ * with sigma^2 estimated from the one-step errors seen so far.
+ */
+public final class HoltWintersModel {
+
+    static final int SEASON = 7;
+    private static final int WARM_UP = 2 * SEASON;
+
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+
+    private final double[] warmUp = new double[WARM_UP];
+    private long firstDay = Long.MIN_VALUE;
+    private long lastDay = Long.MIN_VALUE;
+    private int observations;
+
+    private double level;
+    private double trend;
+    private final double[] seasonal = new double[SEASON];
+    private double squaredErrors;
+    private int errorCount;
+
+    public HoltWintersModel(double alpha, double beta, double gamma) {
+        if (alpha <= 0 || alpha >= 1 || beta < 0 || beta >= 1 || gamma < 0 || gamma >= 1) {
+            throw new IllegalArgumentException("Smoothing parameters must be in [0, 1) and alpha must be positive");
+        }
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+    }
+
+    /**
+     * Add the value for the day after the last one added (the first call may use any day).
+     */
+    public void update(long epochDay, double value) {
+        if (lastDay != Long.MIN_VALUE && epochDay != lastDay + 1) {
+            throw new IllegalArgumentException("Expected day " + (lastDay + 1) + " but got " + epochDay);
+        }
+        if (firstDay == Long.MIN_VALUE) {
+            firstDay = epochDay;
+        }
+        lastDay = epochDay;
+        observations++;
+
+        if (observations < WARM_UP) {
+            warmUp[observations - 1] = value;
+            return;
+        }
+        if (observations == WARM_UP) {
+            warmUp[WARM_UP - 1] = value;
+            initialise();
+            return;
+        }
+        smooth(epochDay, value);
+    }
+
+    public boolean isReady() {
+        return observations >= WARM_UP;
+    }
+
+    public long getLastDay() {
+        return lastDay;
+    }
+
+    public int getObservations() {
+        return observations;
+    }
+
+    /**
+     * Point forecast h days after the last observation (h >= 1).
+     */
+    public double forecast(int h) {
+        requireReady();
+        return level + h * trend + seasonal[slot(lastDay + h)];
+    }
+
+    /**
+     * Standard deviation of the h-step forecast error.
+     */
+    public double forecastStdDev(int h) {
+        requireReady();
+        double sigmaSquared = errorCount > 0 ? squaredErrors / errorCount : 0.0;
+        double factor = 1.0;
+        for (int j = 1; j < h; j++) {
+            double c = alpha * (1 + j * beta) + (j % SEASON == 0 ? gamma : 0.0);
+            factor += c * c;
+        }
+        return Math.sqrt(sigmaSquared * factor);
+    }
+
+    /**
+     * Initial level and trend from the two warm-up weeks, seasonal offsets from their
+     * deviations, then replay the warm-up so its one-step errors count towards sigma.
+     */
+    private void initialise() {
+        double firstWeek = 0;
+        double secondWeek = 0;
+        for (int i = 0; i < SEASON; i++) {
+            firstWeek += warmUp[i];
+            secondWeek += warmUp[SEASON + i];
+        }
+        firstWeek /= SEASON;
+        secondWeek /= SEASON;
+
+        for (int i = 0; i < SEASON; i++) {
+            seasonal[slot(firstDay + i)] = ((warmUp[i] - firstWeek) + (warmUp[SEASON + i] - secondWeek)) / 2;
+        }
+        trend = (secondWeek - firstWeek) / SEASON;
+        // Level just before the first observation
+        level = firstWeek - trend * (SEASON + 1) / 2.0;
+
+        for (int i = 0; i < WARM_UP; i++) {
+            smooth(firstDay + i, warmUp[i]);
+        }
+    }
+
+    private void smooth(long epochDay, double value) {
+        int slot = slot(epochDay);
+        double error = value - (level + trend + seasonal[slot]);
+        squaredErrors += error * error;
+        errorCount++;
+
+        double previousLevel = level;
+        level = alpha * (value - seasonal[slot]) + (1 - alpha) * (level + trend);
+        trend = beta * (level - previousLevel) + (1 - beta) * trend;
+        seasonal[slot] = gamma * (value - level) + (1 - gamma) * seasonal[slot];
+    }
+
+    private void requireReady() {
+        if (!isReady()) {
+            throw new IllegalStateException("Holt-Winters model needs " + WARM_UP + " days of history, has " + observations);
+        }
+    }
+
+    private static int slot(long epochDay) {
+        return Math.floorMod(epochDay, SEASON);
+    }
+}
@@ -0,0 +1,108 @@
+package com.payment.analytics;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * HyperLogLog distinct counter (Flajolet et al.) with 2^precision one-byte registers.
+ *
+ * Adding a value is idempotent and sketches with the same precision merge by taking the
+ * register-wise maximum, so per-day sketches can be combined into any range. The relative
+ * standard error of {@link #estimate()} is about 1.04 / sqrt(2^precision): 1.6% at precision
+ * 12 (4 KB). Small cardinalities use linear counting, which is close to exact. Not thread-safe.
+ */
+final class HyperLogLog {
+
+    static final int MIN_PRECISION = 4;
+    static final int MAX_PRECISION = 18;
+
+    private final int precision;
+    private final byte[] registers;
+
+    HyperLogLog(int precision) {
+        if (precision < MIN_PRECISION || precision > MAX_PRECISION) {
+            throw new IllegalArgumentException("HyperLogLog precision must be between "
+                + MIN_PRECISION + " and " + MAX_PRECISION);
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    void add(String value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Leading zeros of the remaining bits, plus one; the sentinel bit caps the run
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge HyperLogLog sketches of different precision");
+        }
+        for (int i = 0; i < registers.length; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * Relative standard error of the estimate for the given precision.
+     */
+    static double relativeStandardError(int precision) {
+        return 1.04 / Math.sqrt(1 << precision);
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the UTF-8 bytes, finished with the MurmurHash3 mixer so every
+     * output bit depends on every input bit.
+     */
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        if (value != null) {
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xff;
+                hash *= 0x100000001b3L;
+            }
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
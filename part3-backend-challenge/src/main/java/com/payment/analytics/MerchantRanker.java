@@ -0,0 +1,61 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.repository.DailyMerchantStatsRepository;
+import jakarta.inject.Singleton;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Top-K merchants for a date range by revenue, transaction count or success rate.
+ *
+ * When the range is already in memory (every day cached in the {@link AnalyticsSegmentCache},
+ * or covered by the cube) the merchants are selected from the merged {@link RangeMetrics} with
+ * a bounded heap. Otherwise the ranking is pushed down to the daily rollup as
+ * {@code ORDER BY ... LIMIT k}, so only k rows come back instead of every merchant's totals.
+ */
+@Singleton
+public class MerchantRanker {
+
+    private final DashboardAggregator dashboardAggregator;
+    private final AnalyticsSegmentCache segmentCache;
+    private final TransactionCube transactionCube;
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+
+    public MerchantRanker(DashboardAggregator dashboardAggregator,
+                          AnalyticsSegmentCache segmentCache,
+                          TransactionCube transactionCube,
+                          DailyMerchantStatsRepository dailyMerchantStatsRepository) {
+        this.dashboardAggregator = dashboardAggregator;
+        this.segmentCache = segmentCache;
+        this.transactionCube = transactionCube;
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+    }
+
+    /**
+     * The best merchants for the range, best first.
+     */
+    public List<MerchantRankingProjection> topMerchants(LocalDate startDate, LocalDate endDate,
+                                                        MerchantRankingMetric metric, int limit) {
+        if (startDate.isAfter(endDate)) {
+            throw new IllegalArgumentException("Start date must not be after end date");
+        }
+
+        if (segmentCache.isCached(startDate, endDate) || transactionCube.snapshotCovering(startDate, endDate).isPresent()) {
+            return dashboardAggregator.getMetrics(startDate, endDate).getTopMerchants(metric, limit);
+        }
+
+        Date start = Date.valueOf(startDate);
+        Date end = Date.valueOf(endDate);
+        switch (metric) {
+            case COUNT:
+                return dailyMerchantStatsRepository.findTopMerchantsByCount(start, end, limit);
+            case SUCCESS_RATE:
+                return dailyMerchantStatsRepository.findTopMerchantsBySuccessRate(start, end, limit);
+            default:
+                return dailyMerchantStatsRepository.findTopMerchantsByRevenue(start, end, limit);
+        }
+    }
+}
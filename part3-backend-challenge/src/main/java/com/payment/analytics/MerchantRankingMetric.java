@@ -0,0 +1,30 @@
+package com.payment.analytics;
+
+/**
+ * Order used when ranking merchants, always highest first.
+ * Accepts the top performers sortBy values ("revenue", "count"/"volume"/"transactions",
+ * "successrate"/"success_rate"/"success").
+ */
+public enum MerchantRankingMetric {
+    REVENUE,
+    COUNT,
+    SUCCESS_RATE;
+
+    public static MerchantRankingMetric from(String sortBy) {
+        if (sortBy == null) {
+            return REVENUE;
+        }
+        switch (sortBy.toLowerCase()) {
+            case "count":
+            case "volume":
+            case "transactions":
+                return COUNT;
+            case "successrate":
+            case "success_rate":
+            case "success":
+                return SUCCESS_RATE;
+            default:
+                return REVENUE;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.payment.analytics;
+
+import com.payment.repository.MerchantStatsRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Recomputes merchant_stats from daily_merchant_stats.
+ *
+ * Run by {@link DailyRollupReconciler} after it repairs the rollup. The full aggregate of the
+ * rollup runs without locks and only finds the merchants whose totals have drifted. Those are
+ * then recomputed {@code analytics.rollup.merchant-batch-size} at a time, each batch in its own
+ * transaction that locks the table against writers: lifetime rows always include today, so a
+ * rebuild racing with live inserts could otherwise overwrite their increments. New
+ * transactions are only held back while one batch is rewritten.
+ */
+@Singleton
+public class MerchantStatsReconciler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MerchantStatsReconciler.class);
+
+    private final MerchantStatsRepository merchantStatsRepository;
+    private final TransactionOperations<Connection> transactionOperations;
+    private final int batchSize;
+
+    public MerchantStatsReconciler(MerchantStatsRepository merchantStatsRepository,
+                                   TransactionOperations<Connection> transactionOperations,
+                                   @Value("${analytics.rollup.merchant-batch-size:1000}") int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("analytics.rollup.merchant-batch-size must be at least 1");
+        }
+        this.merchantStatsRepository = merchantStatsRepository;
+        this.transactionOperations = transactionOperations;
+        this.batchSize = batchSize;
+    }
+
+    public void reconcile() {
+        long started = System.currentTimeMillis();
+        List<String> drifted = merchantStatsRepository.findDriftedMerchantIds();
+        for (int from = 0; from < drifted.size(); from += batchSize) {
+            List<String> batch = drifted.subList(from, Math.min(from + batchSize, drifted.size()));
+            transactionOperations.executeWrite(status -> {
+                merchantStatsRepository.lockForRebuild();
+                merchantStatsRepository.deleteStale(batch);
+                merchantStatsRepository.rebuildFromRollup(batch);
+                return null;
+            });
+        }
+        LOG.info("Reconciled merchant stats in {} ms ({} merchant(s) corrected)",
+            System.currentTimeMillis() - started, drifted.size());
+    }
+}
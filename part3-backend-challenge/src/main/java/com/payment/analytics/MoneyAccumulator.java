@@ -0,0 +1,139 @@
+package com.payment.analytics;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Exact running count, sum, min, max and sum of squares of amounts in cents.
+ *
+ * Everything is held in primitives (the sum of squares in two longs, so it cannot overflow),
+ * so adding a row allocates nothing. Amounts become BigDecimal only in the getters used to
+ * build DTOs. A sum that would overflow a long throws ArithmeticException rather than
+ * wrapping, and leaves the accumulator unchanged.
+ *
+ * Pre-grouped totals (e.g. rows of daily_merchant_stats) can be added with
+ * {@link #addGroup}; they carry no per-row amounts, so min, max and standard deviation are
+ * only available while {@link #hasRowStatistics()} is true.
+ */
+public final class MoneyAccumulator {
+
+    private long count;
+    private long sumCents;
+    private long minCents = Long.MAX_VALUE;
+    private long maxCents = Long.MIN_VALUE;
+    private long sumSquaresHigh;
+    private long sumSquaresLow;
+    private boolean rowStatistics = true;
+
+    public static long toCents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    public void add(long cents) {
+        sumCents = Math.addExact(sumCents, cents);
+        count++;
+        if (cents < minCents) {
+            minCents = cents;
+        }
+        if (cents > maxCents) {
+            maxCents = cents;
+        }
+        addSquares(Math.multiplyHigh(cents, cents), cents * cents);
+    }
+
+    public void add(BigDecimal amount) {
+        add(toCents(amount));
+    }
+
+    /**
+     * Add a group of rows known only by its count and total.
+     */
+    public void addGroup(long groupCount, long groupCents) {
+        if (groupCount == 0) {
+            return;
+        }
+        sumCents = Math.addExact(sumCents, groupCents);
+        count += groupCount;
+        rowStatistics = false;
+    }
+
+    public void merge(MoneyAccumulator other) {
+        if (other.count == 0) {
+            return;
+        }
+        sumCents = Math.addExact(sumCents, other.sumCents);
+        count += other.count;
+        minCents = Math.min(minCents, other.minCents);
+        maxCents = Math.max(maxCents, other.maxCents);
+        addSquares(other.sumSquaresHigh, other.sumSquaresLow);
+        rowStatistics &= other.rowStatistics;
+    }
+
+    public MoneyAccumulator copy() {
+        MoneyAccumulator copy = new MoneyAccumulator();
+        copy.merge(this);
+        copy.rowStatistics = rowStatistics;
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getSumCents() {
+        return sumCents;
+    }
+
+    public BigDecimal getSum() {
+        return toAmount(sumCents);
+    }
+
+    public BigDecimal getAverage() {
+        if (count == 0) {
+            return BigDecimal.ZERO;
+        }
+        return toAmount(sumCents).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * True when every value was added as a single row, so min, max and standard deviation are known.
+     */
+    public boolean hasRowStatistics() {
+        return count > 0 && rowStatistics;
+    }
+
+    public BigDecimal getMin() {
+        return hasRowStatistics() ? toAmount(minCents) : null;
+    }
+
+    public BigDecimal getMax() {
+        return hasRowStatistics() ? toAmount(maxCents) : null;
+    }
+
+    /**
+     * Population standard deviation, or null without row statistics.
+     */
+    public BigDecimal getStandardDeviation() {
+        if (!hasRowStatistics()) {
+            return null;
+        }
+        // n * sum(x^2) - sum(x)^2 is exact in integers; only the final division and root are approximate
+        BigInteger sumSquares = BigInteger.valueOf(sumSquaresHigh).shiftLeft(64)
+            .add(new BigInteger(Long.toUnsignedString(sumSquaresLow)));
+        BigInteger sum = BigInteger.valueOf(sumCents);
+        BigInteger n = BigInteger.valueOf(count);
+        double varianceCents = sumSquares.multiply(n).subtract(sum.multiply(sum)).doubleValue() / ((double) count * count);
+        return BigDecimal.valueOf(Math.sqrt(Math.max(varianceCents, 0.0)) / 100.0).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private void addSquares(long high, long low) {
+        long newLow = sumSquaresLow + low;
+        sumSquaresHigh += high + (Long.compareUnsigned(newLow, sumSquaresLow) < 0 ? 1 : 0);
+        sumSquaresLow = newLow;
+    }
+}
@@ -0,0 +1,94 @@
+package com.payment.analytics;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * Splits long date ranges into slices and processes the slices in parallel.
+ *
+ * Ranges longer than {@code analytics.parallel.threshold-days} are cut into slices of
+ * {@code analytics.parallel.slice-days} days. Slices run on a dedicated fork-join pool with at
+ * most {@code analytics.parallel.max-threads} workers, so a long report never takes more
+ * threads (and database connections) than that, whatever the request load. Shorter ranges
+ * run on the calling thread.
+ */
+@Singleton
+public class ParallelSliceExecutor {
+
+    private final int thresholdDays;
+    private final int sliceDays;
+    private final ForkJoinPool pool;
+
+    public ParallelSliceExecutor(@Value("${analytics.parallel.threshold-days:62}") int thresholdDays,
+                                 @Value("${analytics.parallel.slice-days:7}") int sliceDays,
+                                 @Value("${analytics.parallel.max-threads:4}") int maxThreads) {
+        if (sliceDays < 1 || maxThreads < 1) {
+            throw new IllegalArgumentException("analytics.parallel.slice-days and max-threads must be positive");
+        }
+        this.thresholdDays = thresholdDays;
+        this.sliceDays = sliceDays;
+        this.pool = new ForkJoinPool(maxThreads);
+    }
+
+    public boolean shouldSplit(LocalDate startDate, LocalDate endDate) {
+        return endDate.toEpochDay() - startDate.toEpochDay() + 1 > thresholdDays;
+    }
+
+    /**
+     * Consecutive {startDate, endDate} slices covering the range, in date order.
+     */
+    public List<LocalDate[]> slices(LocalDate startDate, LocalDate endDate) {
+        List<LocalDate[]> slices = new ArrayList<>();
+        for (LocalDate sliceStart = startDate; !sliceStart.isAfter(endDate); sliceStart = sliceStart.plusDays(sliceDays)) {
+            LocalDate sliceEnd = sliceStart.plusDays(sliceDays - 1L);
+            slices.add(new LocalDate[] {sliceStart, sliceEnd.isAfter(endDate) ? endDate : sliceEnd});
+        }
+        return slices;
+    }
+
+    /**
+     * Apply the function to every item on the pool and return the results in input order.
+     * The first failure is rethrown once all tasks have finished.
+     */
+    public <T, R> List<R> map(List<T> items, Function<T, R> function) {
+        if (items.size() < 2) {
+            List<R> results = new ArrayList<>(items.size());
+            items.forEach(item -> results.add(function.apply(item)));
+            return results;
+        }
+
+        List<ForkJoinTask<R>> tasks = new ArrayList<>(items.size());
+        for (T item : items) {
+            tasks.add(pool.submit(() -> function.apply(item)));
+        }
+
+        List<R> results = new ArrayList<>(items.size());
+        RuntimeException failure = null;
+        for (ForkJoinTask<R> task : tasks) {
+            try {
+                results.add(task.join());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
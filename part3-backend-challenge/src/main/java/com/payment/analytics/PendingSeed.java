@@ -0,0 +1,34 @@
+package com.payment.analytics;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Days a tracker is seeding from the database outside its lock.
+ *
+ * A transaction recorded for one of these days, or an invalidation of one, arrives while the
+ * seed query runs, so the query may or may not have seen it. Such days are marked stale: the
+ * request that seeded them still uses them, but the tracker does not keep them and the next
+ * request seeds them again. Not thread-safe; guarded by the tracker's lock.
+ */
+final class PendingSeed {
+
+    private final long firstDay;
+    private final long lastDay;
+    private final Set<Long> staleDays = new HashSet<>();
+
+    PendingSeed(long firstDay, long lastDay) {
+        this.firstDay = firstDay;
+        this.lastDay = lastDay;
+    }
+
+    void markStale(long day) {
+        if (day >= firstDay && day <= lastDay) {
+            staleDays.add(day);
+        }
+    }
+
+    boolean isStale(long day) {
+        return staleDays.contains(day);
+    }
+}
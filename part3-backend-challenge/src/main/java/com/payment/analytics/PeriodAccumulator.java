@@ -0,0 +1,60 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.VolumeProjection;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running count and amount (in cents) per reporting period.
+ *
+ * Rows are added one at a time as primitives, so callers can aggregate a scan of any length
+ * while holding only one entry per period. Input sorted by date hits a one-entry cache
+ * and avoids the period lookup for consecutive rows of the same day.
+ */
+public final class PeriodAccumulator {
+
+    private final PeriodGrain grain;
+    private final Map<Long, long[]> periods = new TreeMap<>();
+
+    private long cachedDay = Long.MIN_VALUE;
+    private long[] cachedTotals;
+
+    public PeriodAccumulator(PeriodGrain grain) {
+        this.grain = grain;
+    }
+
+    public void add(long epochDay, long amountCents) {
+        add(epochDay, 1, amountCents);
+    }
+
+    public void add(long epochDay, long count, long amountCents) {
+        if (epochDay != cachedDay) {
+            long periodStart = grain.truncate(LocalDate.ofEpochDay(epochDay)).toEpochDay();
+            cachedTotals = periods.computeIfAbsent(periodStart, k -> new long[2]);
+            cachedDay = epochDay;
+        }
+        cachedTotals[0] += count;
+        cachedTotals[1] += amountCents;
+    }
+
+    /**
+     * One row per period that received at least one transaction, ordered by period start.
+     */
+    public List<VolumeProjection> toProjections() {
+        List<VolumeProjection> result = new ArrayList<>(periods.size());
+        for (Map.Entry<Long, long[]> entry : periods.entrySet()) {
+            long[] totals = entry.getValue();
+            if (totals[0] == 0) {
+                continue;
+            }
+            result.add(new VolumeProjection(LocalDate.ofEpochDay(entry.getKey()).toString(),
+                totals[0], BigDecimal.valueOf(totals[1], 2)));
+        }
+        return result;
+    }
+}
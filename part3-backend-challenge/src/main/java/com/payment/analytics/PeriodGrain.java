@@ -0,0 +1,64 @@
+package com.payment.analytics;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Time bucket used when grouping transactions into reporting periods.
+ * Accepts both the analytics ("day", "week", "month", "quarter") and report ("daily", "weekly", "monthly",
+ * "quarterly") spellings.
+ */
+public enum PeriodGrain {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    QUARTER("quarter");
+
+    private final String dateTruncUnit;
+
+    PeriodGrain(String dateTruncUnit) {
+        this.dateTruncUnit = dateTruncUnit;
+    }
+
+    public static PeriodGrain from(String groupBy) {
+        if (groupBy == null) {
+            return DAY;
+        }
+        switch (groupBy.toLowerCase()) {
+            case "weekly":
+            case "week":
+                return WEEK;
+            case "monthly":
+            case "month":
+                return MONTH;
+            case "quarterly":
+            case "quarter":
+                return QUARTER;
+            default:
+                return DAY;
+        }
+    }
+
+    /**
+     * First day of the period containing the given date (weeks start on Monday).
+     */
+    public LocalDate truncate(LocalDate date) {
+        switch (this) {
+            case WEEK:
+                return date.with(DayOfWeek.MONDAY);
+            case MONTH:
+                return date.withDayOfMonth(1);
+            case QUARTER:
+                return LocalDate.of(date.getYear(), (date.getMonthValue() - 1) / 3 * 3 + 1, 1);
+            default:
+                return date;
+        }
+    }
+
+    /**
+     * PostgreSQL date_trunc unit matching this grain.
+     */
+    public String getDateTruncUnit() {
+        return dateTruncUnit;
+    }
+}
@@ -0,0 +1,139 @@
+package com.payment.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch over amounts in cents, with relative-error buckets (DDSketch,
+ * Masson et al.).
+ *
+ * A positive amount x falls in bucket ceil(log(x) / log(gamma)) with
+ * gamma = (1 + alpha) / (1 - alpha), and a bucket is reported as the value whose relative
+ * distance to every amount in it is at most alpha. Any quantile is therefore within alpha
+ * (relative) of the true amount at that rank, and merging two sketches just adds bucket counts,
+ * so per-day sketches combine into any range without losing accuracy. Amounts of zero or
+ * less share one bucket. Min and max are exact.
+ *
+ * Buckets are stored sparsely (sorted indices and counts), so a merchant-day with a handful
+ * of transactions costs a handful of entries. Not thread-safe.
+ */
+final class QuantileSketch {
+
+    private final double relativeAccuracy;
+    private final double logGamma;
+
+    private int[] indices = new int[4];
+    private long[] counts = new long[4];
+    private int size;
+    private long zeroCount;
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+
+    QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.relativeAccuracy = relativeAccuracy;
+        this.logGamma = Math.log((1 + relativeAccuracy) / (1 - relativeAccuracy));
+    }
+
+    void add(long cents) {
+        count++;
+        min = Math.min(min, cents);
+        max = Math.max(max, cents);
+        if (cents <= 0) {
+            zeroCount++;
+            return;
+        }
+
+        int index = (int) Math.ceil(Math.log(cents) / logGamma);
+        int position = Arrays.binarySearch(indices, 0, size, index);
+        if (position >= 0) {
+            counts[position]++;
+            return;
+        }
+        position = -position - 1;
+        if (size == indices.length) {
+            indices = Arrays.copyOf(indices, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+        }
+        System.arraycopy(indices, position, indices, position + 1, size - position);
+        System.arraycopy(counts, position, counts, position + 1, size - position);
+        indices[position] = index;
+        counts[position] = 1;
+        size++;
+    }
+
+    void merge(QuantileSketch other) {
+        if (other.relativeAccuracy != relativeAccuracy) {
+            throw new IllegalArgumentException("Cannot merge quantile sketches of different accuracy");
+        }
+        if (other.count == 0) {
+            return;
+        }
+
+        int[] mergedIndices = new int[size + other.size];
+        long[] mergedCounts = new long[size + other.size];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < size || j < other.size) {
+            if (j == other.size || (i < size && indices[i] < other.indices[j])) {
+                mergedIndices[n] = indices[i];
+                mergedCounts[n++] = counts[i++];
+            } else if (i == size || other.indices[j] < indices[i]) {
+                mergedIndices[n] = other.indices[j];
+                mergedCounts[n++] = other.counts[j++];
+            } else {
+                mergedIndices[n] = indices[i];
+                mergedCounts[n++] = counts[i++] + other.counts[j++];
+            }
+        }
+        indices = mergedIndices;
+        counts = mergedCounts;
+        size = n;
+        zeroCount += other.zeroCount;
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    long getMin() {
+        return min;
+    }
+
+    long getMax() {
+        return max;
+    }
+
+    /**
+     * Estimated amount in cents at quantile q (0 to 1), clamped to the exact min and max.
+     */
+    long quantile(double q) {
+        if (count == 0) {
+            throw new IllegalStateException("Quantile of an empty sketch");
+        }
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+
+        double rank = q * (count - 1);
+        long cumulative = zeroCount;
+        if (cumulative > rank) {
+            return Math.min(0L, max);
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative += counts[i];
+            if (cumulative > rank) {
+                double gamma = Math.exp(logGamma);
+                double value = 2 * Math.pow(gamma, indices[i]) / (gamma + 1);
+                return Math.max(min, Math.min(max, Math.round(value)));
+            }
+        }
+        return max;
+    }
+}
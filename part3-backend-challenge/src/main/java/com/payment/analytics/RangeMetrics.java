@@ -0,0 +1,483 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.CardDistributionProjection;
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.dto.projection.PeakTimesProjection;
+import com.payment.dto.projection.StatusDistributionProjection;
+import com.payment.dto.projection.VolumeProjection;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Every dashboard metric for one date range, produced by a single pass over the data.
+ *
+ * Volume is kept per day so any {@link PeriodGrain} can be derived without another scan.
+ * Totals per {@link TransactionDimension} value are kept as {@link MoneyAccumulator}s keyed by
+ * {@link DimensionDictionary} code: only the codes present in the range are stored (ascending),
+ * and building or merging indexes a code-sized array, so single-day instances can be cached
+ * and merged into longer ranges (see {@link #merge}) without hashing strings.
+ * Each merchant also carries its completed transaction count, for success rate rankings, and
+ * each currency its own daily volume, so periods can be reported per currency or converted
+ * to one currency by multiplying currency subtotals (never individual rows) by an FX rate.
+ * Peak times are only present when the source carries the time of day (the cube does,
+ * the daily rollup does not).
+ */
+public final class RangeMetrics {
+
+    private static final TransactionDimension[] DIMENSIONS = TransactionDimension.values();
+
+    private final DimensionDictionary dictionary;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final long[] dayCounts;
+    private final long[] dayCents;
+    private final int[][] codes;
+    private final MoneyAccumulator[][] totals;
+    private final long[] merchantCompletedCounts;
+    private final long[][] currencyDayCounts;
+    private final long[][] currencyDayCents;
+    private final long[] hourOfWeekCounts;
+
+    private RangeMetrics(Builder builder) {
+        this.dictionary = builder.dictionary;
+        this.startDate = builder.startDate;
+        this.endDate = builder.endDate;
+        this.dayCounts = builder.dayCounts;
+        this.dayCents = builder.dayCents;
+        this.hourOfWeekCounts = builder.hourOfWeekCounts;
+        this.codes = new int[DIMENSIONS.length][];
+        this.totals = new MoneyAccumulator[DIMENSIONS.length][];
+
+        // Keep only the codes that occurred
+        for (int dim = 0; dim < DIMENSIONS.length; dim++) {
+            MoneyAccumulator[] dense = builder.dense[dim];
+            int present = 0;
+            for (MoneyAccumulator amounts : dense) {
+                if (amounts != null && amounts.getCount() > 0) {
+                    present++;
+                }
+            }
+            codes[dim] = new int[present];
+            totals[dim] = new MoneyAccumulator[present];
+            int i = 0;
+            for (int code = 0; code < dense.length; code++) {
+                if (dense[code] != null && dense[code].getCount() > 0) {
+                    codes[dim][i] = code;
+                    totals[dim][i++] = dense[code];
+                }
+            }
+        }
+
+        int[] merchantCodes = codes[TransactionDimension.MERCHANT.ordinal()];
+        this.merchantCompletedCounts = new long[merchantCodes.length];
+        for (int i = 0; i < merchantCodes.length; i++) {
+            if (merchantCodes[i] < builder.merchantCompleted.length) {
+                merchantCompletedCounts[i] = builder.merchantCompleted[merchantCodes[i]];
+            }
+        }
+
+        int[] currencyCodes = codes[TransactionDimension.CURRENCY.ordinal()];
+        this.currencyDayCounts = new long[currencyCodes.length][];
+        this.currencyDayCents = new long[currencyCodes.length][];
+        for (int i = 0; i < currencyCodes.length; i++) {
+            int code = currencyCodes[i];
+            boolean tracked = code < builder.currencyDayCounts.length && builder.currencyDayCounts[code] != null;
+            currencyDayCounts[i] = tracked ? builder.currencyDayCounts[code] : new long[dayCounts.length];
+            currencyDayCents[i] = tracked ? builder.currencyDayCents[code] : new long[dayCounts.length];
+        }
+    }
+
+    /**
+     * Combine per-range metrics that together cover startDate to endDate.
+     * Peak times survive only if every part has them.
+     */
+    public static RangeMetrics merge(DimensionDictionary dictionary, LocalDate startDate, LocalDate endDate,
+                                     List<RangeMetrics> parts) {
+        boolean withPeakTimes = parts.stream().allMatch(RangeMetrics::hasPeakTimes);
+        Builder merged = new Builder(dictionary, startDate, endDate, withPeakTimes);
+        for (RangeMetrics part : parts) {
+            merged.addAll(part);
+        }
+        return merged.build();
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public long getTotalCount() {
+        long total = 0;
+        for (long count : dayCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Count and total amount per period, ordered by period start.
+     */
+    public List<VolumeProjection> getVolumeByPeriod(PeriodGrain grain) {
+        PeriodAccumulator periods = new PeriodAccumulator(grain);
+        long firstDay = startDate.toEpochDay();
+        for (int d = 0; d < dayCounts.length; d++) {
+            if (dayCounts[d] > 0) {
+                periods.add(firstDay + d, dayCounts[d], dayCents[d]);
+            }
+        }
+        return periods.toProjections();
+    }
+
+    /**
+     * Count and total amount per period for one currency only, ordered by period start.
+     */
+    public List<VolumeProjection> getVolumeByPeriod(PeriodGrain grain, String currency) {
+        PeriodAccumulator periods = new PeriodAccumulator(grain);
+        int i = indexOf(TransactionDimension.CURRENCY, currency);
+        if (i >= 0) {
+            long firstDay = startDate.toEpochDay();
+            for (int d = 0; d < dayCounts.length; d++) {
+                if (currencyDayCounts[i][d] > 0) {
+                    periods.add(firstDay + d, currencyDayCounts[i][d], currencyDayCents[i][d]);
+                }
+            }
+        }
+        return periods.toProjections();
+    }
+
+    /**
+     * Count and total amount per period with every currency converted by rateOf (amount in the
+     * currency times rate gives the target amount), ordered by period start. Each currency's
+     * period subtotal is converted once and rounded to cents.
+     */
+    public List<VolumeProjection> getVolumeByPeriod(PeriodGrain grain, Function<String, BigDecimal> rateOf) {
+        int[] currencyCodes = codes[TransactionDimension.CURRENCY.ordinal()];
+        Map<String, long[]> counts = new TreeMap<>();
+        Map<String, BigDecimal> amounts = new TreeMap<>();
+        for (int i = 0; i < currencyCodes.length; i++) {
+            BigDecimal rate = rateOf.apply(dictionary.decode(TransactionDimension.CURRENCY, currencyCodes[i]));
+            PeriodAccumulator periods = new PeriodAccumulator(grain);
+            long firstDay = startDate.toEpochDay();
+            for (int d = 0; d < dayCounts.length; d++) {
+                if (currencyDayCounts[i][d] > 0) {
+                    periods.add(firstDay + d, currencyDayCounts[i][d], currencyDayCents[i][d]);
+                }
+            }
+            for (VolumeProjection row : periods.toProjections()) {
+                counts.computeIfAbsent(row.getPeriod(), k -> new long[1])[0] += row.getCount();
+                amounts.merge(row.getPeriod(), row.getTotalAmount().multiply(rate).setScale(2, RoundingMode.HALF_UP),
+                    BigDecimal::add);
+            }
+        }
+
+        List<VolumeProjection> result = new ArrayList<>(counts.size());
+        for (Map.Entry<String, long[]> entry : counts.entrySet()) {
+            result.add(new VolumeProjection(entry.getKey(), entry.getValue()[0], amounts.get(entry.getKey())));
+        }
+        return result;
+    }
+
+    public List<StatusDistributionProjection> getStatusDistribution() {
+        int dim = TransactionDimension.STATUS.ordinal();
+        List<StatusDistributionProjection> result = new ArrayList<>(codes[dim].length);
+        for (int i = 0; i < codes[dim].length; i++) {
+            result.add(new StatusDistributionProjection(
+                dictionary.decode(TransactionDimension.STATUS, codes[dim][i]), totals[dim][i].getCount()));
+        }
+        return result;
+    }
+
+    public List<CardDistributionProjection> getCardDistribution() {
+        int dim = TransactionDimension.CARD_TYPE.ordinal();
+        List<CardDistributionProjection> result = new ArrayList<>(codes[dim].length);
+        for (int i = 0; i < codes[dim].length; i++) {
+            result.add(new CardDistributionProjection(dictionary.decode(TransactionDimension.CARD_TYPE, codes[dim][i]),
+                totals[dim][i].getCount(), totals[dim][i].getSum()));
+        }
+        return result;
+    }
+
+    /**
+     * The best merchants by the given metric, best first. Selected with a bounded heap, so
+     * only the returned merchants are decoded and converted to BigDecimal.
+     * Ties are broken by transaction count, then revenue, then merchant id.
+     */
+    public List<MerchantRankingProjection> getTopMerchants(MerchantRankingMetric metric, int limit) {
+        int dim = TransactionDimension.MERCHANT.ordinal();
+        MoneyAccumulator[] merchantTotals = totals[dim];
+        TopKHeap heap = new TopKHeap(limit, merchantTotals.length, (a, b) -> compareMerchants(metric, a, b));
+        for (int i = 0; i < merchantTotals.length; i++) {
+            heap.offer(i);
+        }
+
+        int[] best = heap.drainBestFirst();
+        List<MerchantRankingProjection> result = new ArrayList<>(best.length);
+        for (int i : best) {
+            result.add(new MerchantRankingProjection(merchantId(i), merchantTotals[i].getCount(),
+                merchantTotals[i].getSum(), merchantCompletedCounts[i]));
+        }
+        return result;
+    }
+
+    private int compareMerchants(MerchantRankingMetric metric, int a, int b) {
+        MoneyAccumulator first = totals[TransactionDimension.MERCHANT.ordinal()][a];
+        MoneyAccumulator second = totals[TransactionDimension.MERCHANT.ordinal()][b];
+        int result;
+        switch (metric) {
+            case COUNT:
+                result = Long.compare(first.getCount(), second.getCount());
+                break;
+            case SUCCESS_RATE:
+                result = Double.compare((double) merchantCompletedCounts[a] / first.getCount(),
+                    (double) merchantCompletedCounts[b] / second.getCount());
+                break;
+            default:
+                result = Long.compare(first.getSumCents(), second.getSumCents());
+        }
+        if (result == 0) {
+            result = Long.compare(first.getCount(), second.getCount());
+        }
+        if (result == 0) {
+            result = Long.compare(first.getSumCents(), second.getSumCents());
+        }
+        // Lower merchant id ranks higher, as in ORDER BY merchant_id
+        return result != 0 ? result : merchantId(b).compareTo(merchantId(a));
+    }
+
+    /**
+     * Position of the value among this range's codes for the dimension, or -1 if absent.
+     */
+    private int indexOf(TransactionDimension dimension, String value) {
+        int code = dictionary.codeOf(dimension, value);
+        return code >= 0 ? Math.max(-1, Arrays.binarySearch(codes[dimension.ordinal()], code)) : -1;
+    }
+
+    private String merchantId(int i) {
+        return dictionary.decode(TransactionDimension.MERCHANT, codes[TransactionDimension.MERCHANT.ordinal()][i]);
+    }
+
+    /**
+     * Totals per value of the dimension, for callers that rank or filter before building DTOs.
+     * The accumulators are shared with this (possibly cached) instance and must not be modified.
+     */
+    public Map<String, MoneyAccumulator> getTotalsBy(TransactionDimension dimension) {
+        int dim = dimension.ordinal();
+        Map<String, MoneyAccumulator> result = new LinkedHashMap<>();
+        for (int i = 0; i < codes[dim].length; i++) {
+            result.put(dictionary.decode(dimension, codes[dim][i]), totals[dim][i]);
+        }
+        return result;
+    }
+
+    /**
+     * Totals over every transaction in the range.
+     */
+    public MoneyAccumulator getTotal() {
+        MoneyAccumulator total = new MoneyAccumulator();
+        // Every transaction has exactly one status, so the status totals partition the range
+        for (MoneyAccumulator amounts : totals[TransactionDimension.STATUS.ordinal()]) {
+            total.merge(amounts);
+        }
+        return total;
+    }
+
+    /**
+     * Totals for one dimension value, or null if no transaction has it.
+     * A null dimension returns the range total.
+     */
+    public MoneyAccumulator getTotals(TransactionDimension dimension, String value) {
+        if (dimension == null) {
+            return getTotal();
+        }
+
+        int code = dictionary.codeOf(dimension, value);
+        if (code < 0) {
+            return null;
+        }
+        int i = Arrays.binarySearch(codes[dimension.ordinal()], code);
+        return i >= 0 ? totals[dimension.ordinal()][i].copy() : null;
+    }
+
+    public boolean hasPeakTimes() {
+        return hourOfWeekCounts != null;
+    }
+
+    /**
+     * Transactions per hour and day of week (UTC), or null when {@link #hasPeakTimes()} is false.
+     */
+    public List<PeakTimesProjection> getPeakTimes() {
+        if (hourOfWeekCounts == null) {
+            return null;
+        }
+        List<PeakTimesProjection> result = new ArrayList<>();
+        for (int slot = 0; slot < CubeSnapshot.HOURS_PER_WEEK; slot++) {
+            if (hourOfWeekCounts[slot] > 0) {
+                result.add(new PeakTimesProjection(slot % 24, slot / 24, hourOfWeekCounts[slot]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Number of per-value accumulators held (one per merchant, status, card type and currency
+     * present); they make up nearly all of the instance's memory.
+     */
+    int getSlotCount() {
+        int slots = 0;
+        for (int[] dimensionCodes : codes) {
+            slots += dimensionCodes.length;
+        }
+        return slots;
+    }
+
+    /**
+     * Collects pre-grouped totals by dimension code; the same code may be added more than once.
+     */
+    static final class Builder {
+        private final DimensionDictionary dictionary;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+        private final long firstDay;
+        private final long[] dayCounts;
+        private final long[] dayCents;
+        private final MoneyAccumulator[][] dense = new MoneyAccumulator[DIMENSIONS.length][];
+        private long[] merchantCompleted;
+        private long[][] currencyDayCounts;
+        private long[][] currencyDayCents;
+        private final long[] hourOfWeekCounts;
+
+        Builder(DimensionDictionary dictionary, LocalDate startDate, LocalDate endDate, boolean withPeakTimes) {
+            this.dictionary = dictionary;
+            this.startDate = startDate;
+            this.endDate = endDate;
+            this.firstDay = startDate.toEpochDay();
+            int days = (int) (endDate.toEpochDay() - firstDay + 1);
+            this.dayCounts = new long[days];
+            this.dayCents = new long[days];
+            this.hourOfWeekCounts = withPeakTimes ? new long[CubeSnapshot.HOURS_PER_WEEK] : null;
+            for (TransactionDimension dimension : DIMENSIONS) {
+                dense[dimension.ordinal()] = new MoneyAccumulator[dictionary.size(dimension)];
+            }
+            this.merchantCompleted = new long[dictionary.size(TransactionDimension.MERCHANT)];
+            this.currencyDayCounts = new long[dictionary.size(TransactionDimension.CURRENCY)][];
+            this.currencyDayCents = new long[currencyDayCounts.length][];
+        }
+
+        void addDay(long epochDay, long count, long amountCents) {
+            int d = (int) (epochDay - firstDay);
+            dayCounts[d] += count;
+            dayCents[d] += amountCents;
+        }
+
+        /**
+         * Add to one currency's volume for the day; addDay must also be called for the day total.
+         */
+        void addCurrencyDay(int currencyCode, long epochDay, long count, long amountCents) {
+            if (currencyCode >= currencyDayCounts.length) {
+                int size = Math.max(currencyCode + 1, dictionary.size(TransactionDimension.CURRENCY));
+                currencyDayCounts = Arrays.copyOf(currencyDayCounts, size);
+                currencyDayCents = Arrays.copyOf(currencyDayCents, size);
+            }
+            if (currencyDayCounts[currencyCode] == null) {
+                currencyDayCounts[currencyCode] = new long[dayCounts.length];
+                currencyDayCents[currencyCode] = new long[dayCounts.length];
+            }
+            int d = (int) (epochDay - firstDay);
+            currencyDayCounts[currencyCode][d] += count;
+            currencyDayCents[currencyCode][d] += amountCents;
+        }
+
+        /**
+         * Add a group of transactions known only by count and total.
+         */
+        void add(TransactionDimension dimension, int code, long count, long amountCents) {
+            totals(dimension.ordinal(), code).addGroup(count, amountCents);
+        }
+
+        void add(TransactionDimension dimension, int code, MoneyAccumulator amounts) {
+            totals(dimension.ordinal(), code).merge(amounts);
+        }
+
+        void addMerchantCompleted(int merchantCode, long count) {
+            if (merchantCode >= merchantCompleted.length) {
+                merchantCompleted = Arrays.copyOf(merchantCompleted,
+                    Math.max(merchantCode + 1, dictionary.size(TransactionDimension.MERCHANT)));
+            }
+            merchantCompleted[merchantCode] += count;
+        }
+
+        void addHourOfWeek(int slot, long count) {
+            hourOfWeekCounts[slot] += count;
+        }
+
+        /**
+         * Add everything from metrics whose range lies inside this builder's range.
+         */
+        void addAll(RangeMetrics other) {
+            long otherFirstDay = other.startDate.toEpochDay();
+            for (int d = 0; d < other.dayCounts.length; d++) {
+                if (other.dayCounts[d] > 0) {
+                    addDay(otherFirstDay + d, other.dayCounts[d], other.dayCents[d]);
+                }
+            }
+            for (int dim = 0; dim < DIMENSIONS.length; dim++) {
+                int[] otherCodes = other.codes[dim];
+                MoneyAccumulator[] otherTotals = other.totals[dim];
+                for (int i = 0; i < otherCodes.length; i++) {
+                    totals(dim, otherCodes[i]).merge(otherTotals[i]);
+                }
+            }
+            int[] otherMerchants = other.codes[TransactionDimension.MERCHANT.ordinal()];
+            for (int i = 0; i < otherMerchants.length; i++) {
+                if (other.merchantCompletedCounts[i] > 0) {
+                    addMerchantCompleted(otherMerchants[i], other.merchantCompletedCounts[i]);
+                }
+            }
+            int[] otherCurrencies = other.codes[TransactionDimension.CURRENCY.ordinal()];
+            for (int i = 0; i < otherCurrencies.length; i++) {
+                for (int d = 0; d < other.dayCounts.length; d++) {
+                    if (other.currencyDayCounts[i][d] > 0) {
+                        addCurrencyDay(otherCurrencies[i], otherFirstDay + d,
+                            other.currencyDayCounts[i][d], other.currencyDayCents[i][d]);
+                    }
+                }
+            }
+            if (hourOfWeekCounts != null && other.hourOfWeekCounts != null) {
+                for (int slot = 0; slot < hourOfWeekCounts.length; slot++) {
+                    hourOfWeekCounts[slot] += other.hourOfWeekCounts[slot];
+                }
+            }
+        }
+
+        RangeMetrics build() {
+            return new RangeMetrics(this);
+        }
+
+        private MoneyAccumulator totals(int dim, int code) {
+            MoneyAccumulator[] byCode = dense[dim];
+            if (code >= byCode.length) {
+                // Codes assigned after this builder was created
+                byCode = Arrays.copyOf(byCode, Math.max(code + 1, dictionary.size(DIMENSIONS[dim])));
+                dense[dim] = byCode;
+            }
+            MoneyAccumulator amounts = byCode[code];
+            if (amounts == null) {
+                amounts = new MoneyAccumulator();
+                byCode[code] = amounts;
+            }
+            return amounts;
+        }
+    }
+}
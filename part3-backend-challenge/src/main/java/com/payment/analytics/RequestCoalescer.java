@@ -0,0 +1,95 @@
+package com.payment.analytics;
+
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution for expensive read operations.
+ *
+ * Concurrent calls with the same operation name and key share one computation: the first
+ * caller runs it, the others block until it finishes and receive the same result (or the
+ * same exception). Nothing is kept once the computation completes, so a later call always
+ * recomputes. Callers must build the key from normalized arguments and must not mutate the
+ * shared result.
+ */
+@Singleton
+public class RequestCoalescer {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, OperationStats> stats = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <V> V execute(String operation, String key, Supplier<V> computation) {
+        OperationStats operationStats = stats.computeIfAbsent(operation, k -> new OperationStats());
+        operationStats.calls.increment();
+
+        String flightKey = operation + ':' + key;
+        CompletableFuture<Object> created = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, created);
+
+        if (existing != null) {
+            operationStats.coalesced.increment();
+            return (V) join(existing);
+        }
+
+        try {
+            V result = computation.get();
+            created.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, created);
+        }
+    }
+
+    /**
+     * Calls and coalesced calls per operation, ordered by operation name.
+     */
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> result = new TreeMap<>();
+        stats.forEach((operation, operationStats) -> {
+            Map<String, Long> counts = new LinkedHashMap<>();
+            counts.put("calls", operationStats.calls.sum());
+            counts.put("coalesced", operationStats.coalesced.sum());
+            result.put(operation, counts);
+        });
+        return result;
+    }
+
+    public long getCoalescedCount() {
+        long total = 0;
+        for (OperationStats operationStats : stats.values()) {
+            total += operationStats.coalesced.sum();
+        }
+        return total;
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class OperationStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+}
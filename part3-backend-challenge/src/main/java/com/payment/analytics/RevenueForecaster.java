@@ -0,0 +1,255 @@
+package com.payment.analytics;
+
+import com.payment.exception.NotFoundException;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps a daily revenue series and a {@link HoltWintersModel} for the platform total and for
+ * every merchant, so a forecast is read from model state instead of recomputed from history.
+ *
+ * On first use the models are trained on the last {@code analytics.forecast.training-days}
+ * closed days. After that each newly closed day is fed in once, by the nightly job or by the
+ * first forecast that notices the models are behind. Day totals come from the
+ * {@link AnalyticsSegmentCache} (cube or daily rollup), never from a scan of transaction_master,
+ * and only from segments loaded after the day ended ({@link AnalyticsSegmentCache#getClosedDays}),
+ * so a model never learns a partial day. Corrections to a day after it was fed in are not
+ * picked up until the models are retrained, which happens when they fall more than
+ * training-days behind.
+ *
+ * Model state lives in memory only; after a restart the models are retrained from the rollup.
+ * A merchant with no transactions for {@code analytics.forecast.merchant-idle-days} days loses
+ * its model (and gets a new one from its next transaction), so the number of models follows
+ * the merchants active recently rather than every merchant ever seen.
+ */
+@Singleton
+public class RevenueForecaster {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RevenueForecaster.class);
+
+    private final AnalyticsSegmentCache segmentCache;
+    private final int trainingDays;
+    private final int historyDays;
+    private final double alpha;
+    private final double beta;
+    private final double gamma;
+    private final int merchantIdleDays;
+
+    private Series total;
+    private final Map<String, Series> merchants = new HashMap<>();
+    private long lastClosedDay = Long.MIN_VALUE;
+
+    public RevenueForecaster(AnalyticsSegmentCache segmentCache,
+                             @Value("${analytics.forecast.training-days:56}") int trainingDays,
+                             @Value("${analytics.forecast.history-days:30}") int historyDays,
+                             @Value("${analytics.forecast.alpha:0.3}") double alpha,
+                             @Value("${analytics.forecast.beta:0.05}") double beta,
+                             @Value("${analytics.forecast.gamma:0.3}") double gamma,
+                             @Value("${analytics.forecast.merchant-idle-days:28}") int merchantIdleDays) {
+        if (merchantIdleDays < 1) {
+            throw new IllegalArgumentException("analytics.forecast.merchant-idle-days must be at least 1");
+        }
+        this.segmentCache = segmentCache;
+        this.trainingDays = trainingDays;
+        this.historyDays = historyDays;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.gamma = gamma;
+        this.merchantIdleDays = merchantIdleDays;
+        // Fail at startup rather than on the first forecast
+        new HoltWintersModel(alpha, beta, gamma);
+    }
+
+    @Scheduled(cron = "${analytics.forecast.update-cron:0 30 0 * * ?}")
+    public void updateClosedDays() {
+        try {
+            synchronized (this) {
+                advance();
+            }
+        } catch (Exception e) {
+            LOG.error("Failed to update revenue forecast models: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Forecast daily revenue for the given number of days after the last closed day.
+     *
+     * @param merchantId merchant to forecast, or null for the platform total
+     */
+    public synchronized Forecast forecast(String merchantId, int periods) {
+        advance();
+
+        Series series = merchantId == null ? total : merchants.get(merchantId);
+        if (series == null) {
+            throw new NotFoundException("No recent revenue history for merchant " + merchantId);
+        }
+        return series.forecast(periods);
+    }
+
+    /**
+     * Feed every closed day not seen yet into the models.
+     */
+    private void advance() {
+        long yesterday = LocalDate.now().minusDays(1).toEpochDay();
+        if (lastClosedDay >= yesterday) {
+            return;
+        }
+
+        long fromDay;
+        if (total == null || yesterday - lastClosedDay > trainingDays) {
+            // First use, or too far behind to catch up day by day: retrain from scratch
+            total = new Series(historyDays, new HoltWintersModel(alpha, beta, gamma));
+            merchants.clear();
+            fromDay = yesterday - trainingDays + 1;
+        } else {
+            fromDay = lastClosedDay + 1;
+        }
+
+        long started = System.currentTimeMillis();
+        List<RangeMetrics> days = segmentCache.getClosedDays(LocalDate.ofEpochDay(fromDay), LocalDate.ofEpochDay(yesterday));
+        for (RangeMetrics day : days) {
+            long epochDay = day.getStartDate().toEpochDay();
+            MoneyAccumulator dayTotal = day.getTotal();
+            total.add(epochDay, dayTotal.getCount(), dayTotal.getSumCents());
+
+            Map<String, MoneyAccumulator> byMerchant = day.getTotalsBy(TransactionDimension.MERCHANT);
+            // Known merchants without transactions that day still get a zero observation
+            for (Map.Entry<String, Series> entry : merchants.entrySet()) {
+                MoneyAccumulator amounts = byMerchant.remove(entry.getKey());
+                entry.getValue().add(epochDay,
+                    amounts != null ? amounts.getCount() : 0L, amounts != null ? amounts.getSumCents() : 0L);
+            }
+            // The rest are merchants seen for the first time; their series start here
+            byMerchant.forEach((merchantId, amounts) -> {
+                Series series = new Series(historyDays, new HoltWintersModel(alpha, beta, gamma));
+                series.add(epochDay, amounts.getCount(), amounts.getSumCents());
+                merchants.put(merchantId, series);
+            });
+        }
+        lastClosedDay = yesterday;
+        int before = merchants.size();
+        merchants.values().removeIf(series -> series.lastActiveDay <= yesterday - merchantIdleDays);
+        int idle = before - merchants.size();
+
+        LOG.info("Revenue forecast models updated with {} day(s) up to {} for {} merchant(s) ({} idle dropped) in {} ms",
+            days.size(), LocalDate.ofEpochDay(yesterday), merchants.size(), idle, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * One daily series: its model plus the most recent days for the response's history.
+     */
+    private static final class Series {
+        private final HoltWintersModel model;
+        private final long[] recentCounts;
+        private final long[] recentCents;
+        private final MoneyAccumulator observed = new MoneyAccumulator();
+        private long lastActiveDay = Long.MIN_VALUE;
+
+        Series(int historyDays, HoltWintersModel model) {
+            this.model = model;
+            this.recentCounts = new long[historyDays];
+            this.recentCents = new long[historyDays];
+        }
+
+        void add(long epochDay, long count, long cents) {
+            model.update(epochDay, cents);
+            int slot = Math.floorMod(epochDay, recentCents.length);
+            recentCounts[slot] = count;
+            recentCents[slot] = cents;
+            observed.add(cents);
+            if (count > 0) {
+                lastActiveDay = epochDay;
+            }
+        }
+
+        Forecast forecast(int periods) {
+            long lastDay = model.getLastDay();
+            int historyLength = Math.min(model.getObservations(), recentCents.length);
+            long firstHistoryDay = lastDay - historyLength + 1;
+            long[] historyCounts = new long[historyLength];
+            long[] historyCents = new long[historyLength];
+            for (int i = 0; i < historyLength; i++) {
+                int slot = Math.floorMod(firstHistoryDay + i, recentCents.length);
+                historyCounts[i] = recentCounts[slot];
+                historyCents[i] = recentCents[slot];
+            }
+
+            double[] predictedCents = new double[periods];
+            double[] stdDevCents = new double[periods];
+            String method;
+            if (model.isReady()) {
+                method = "holt_winters";
+                for (int h = 1; h <= periods; h++) {
+                    predictedCents[h - 1] = model.forecast(h);
+                    stdDevCents[h - 1] = model.forecastStdDev(h);
+                }
+            } else {
+                // Less than two weeks of history: the daily mean and its spread
+                method = "mean";
+                double mean = observed.getCount() > 0 ? (double) observed.getSumCents() / observed.getCount() : 0.0;
+                double stdDev = observed.getStandardDeviation() != null
+                    ? observed.getStandardDeviation().doubleValue() * 100 : 0.0;
+                for (int h = 0; h < periods; h++) {
+                    predictedCents[h] = mean;
+                    stdDevCents[h] = stdDev;
+                }
+            }
+            return new Forecast(method, firstHistoryDay, historyCounts, historyCents, predictedCents, stdDevCents);
+        }
+    }
+
+    /**
+     * Recent daily history and per-day predictions (in cents) for one series.
+     * Prediction i is for the (i + 1)th day after the last history day.
+     */
+    public static final class Forecast {
+        private final String method;
+        private final long firstHistoryDay;
+        private final long[] historyCounts;
+        private final long[] historyCents;
+        private final double[] predictedCents;
+        private final double[] stdDevCents;
+
+        Forecast(String method, long firstHistoryDay, long[] historyCounts, long[] historyCents,
+                 double[] predictedCents, double[] stdDevCents) {
+            this.method = method;
+            this.firstHistoryDay = firstHistoryDay;
+            this.historyCounts = historyCounts;
+            this.historyCents = historyCents;
+            this.predictedCents = predictedCents;
+            this.stdDevCents = stdDevCents;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public LocalDate getFirstHistoryDate() {
+            return LocalDate.ofEpochDay(firstHistoryDay);
+        }
+
+        public long[] getHistoryCounts() {
+            return historyCounts;
+        }
+
+        public long[] getHistoryCents() {
+            return historyCents;
+        }
+
+        public double[] getPredictedCents() {
+            return predictedCents;
+        }
+
+        public double[] getStdDevCents() {
+            return stdDevCents;
+        }
+    }
+}
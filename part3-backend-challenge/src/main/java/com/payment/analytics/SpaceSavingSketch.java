@@ -0,0 +1,141 @@
+package com.payment.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary (Metwally et al.) of the heaviest keys in a stream.
+ *
+ * At most {@code capacity} keys are monitored. A monitored key's counter is its weight since
+ * it was last admitted plus the counter of the key it replaced, so the counter never
+ * underestimates the true weight and overestimates it by at most {@link #getError}. When the
+ * sketch is full, any key that is not monitored has a true weight of at most
+ * {@link #getFloor()}, and the floor is at most {@code totalWeight / capacity}; every key
+ * heavier than that is guaranteed to be monitored.
+ *
+ * Counters live in an indexed min-heap, so an update costs O(log capacity) whatever the
+ * number of distinct keys in the stream. Not thread-safe.
+ */
+final class SpaceSavingSketch {
+
+    private final String[] keys;
+    private final long[] counts;
+    private final long[] errors;
+    private final Map<String, Integer> positions;
+    private int size;
+    private long totalWeight;
+
+    SpaceSavingSketch(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Sketch capacity must be positive");
+        }
+        this.keys = new String[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.positions = new HashMap<>(capacity * 2);
+    }
+
+    void add(String key, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight += weight;
+
+        Integer position = positions.get(key);
+        if (position != null) {
+            counts[position] += weight;
+            siftDown(position);
+        } else if (size < keys.length) {
+            keys[size] = key;
+            counts[size] = weight;
+            errors[size] = 0;
+            positions.put(key, size);
+            siftUp(size++);
+        } else {
+            // Replace the lightest key; the newcomer inherits its counter as error
+            positions.remove(keys[0]);
+            errors[0] = counts[0];
+            counts[0] += weight;
+            keys[0] = key;
+            positions.put(key, 0);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Upper bound on the key's weight: its counter if monitored, otherwise {@link #getFloor()}.
+     */
+    long getUpperBound(String key) {
+        Integer position = positions.get(key);
+        return position != null ? counts[position] : getFloor();
+    }
+
+    /**
+     * Lower bound on the key's weight: counter minus error if monitored, otherwise 0.
+     */
+    long getLowerBound(String key) {
+        Integer position = positions.get(key);
+        return position != null ? counts[position] - errors[position] : 0L;
+    }
+
+    /**
+     * Largest possible weight of a key that is not monitored: the smallest counter once the
+     * sketch is full, and 0 before that (every key seen so far is monitored exactly).
+     */
+    long getFloor() {
+        return size == keys.length ? counts[0] : 0L;
+    }
+
+    long getTotalWeight() {
+        return totalWeight;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String keyAt(int i) {
+        return keys[i];
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[position] >= counts[parent]) {
+                break;
+            }
+            swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && counts[right] < counts[child]) {
+                child = right;
+            }
+            if (counts[position] <= counts[child]) {
+                break;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+
+    private void swap(int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        long count = counts[a];
+        counts[a] = counts[b];
+        counts[b] = count;
+        long error = errors[a];
+        errors[a] = errors[b];
+        errors[b] = error;
+        positions.put(keys[a], a);
+        positions.put(keys[b], b);
+    }
+}
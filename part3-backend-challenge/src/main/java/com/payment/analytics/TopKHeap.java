@@ -0,0 +1,93 @@
+package com.payment.analytics;
+
+/**
+ * Keeps the k best of a stream of int indices in a bounded binary heap.
+ *
+ * The heap root is the worst index kept, so each offer costs one comparison when the
+ * candidate does not qualify and O(log k) when it does; selecting k of n is O(n log k)
+ * instead of a full O(n log n) sort. Indices point into the caller's primitive arrays,
+ * so nothing is allocated per candidate.
+ */
+final class TopKHeap {
+
+    /**
+     * Positive if index a ranks above index b, negative if below, zero if equal.
+     */
+    @FunctionalInterface
+    interface IndexComparator {
+        int compare(int a, int b);
+    }
+
+    private final int[] heap;
+    private final IndexComparator ranking;
+    private int size;
+
+    /**
+     * @param candidates how many indices will be offered at most; the heap never grows past it,
+     *                   so a large k over few candidates allocates only what it can fill
+     */
+    TopKHeap(int k, int candidates, IndexComparator ranking) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative");
+        }
+        this.heap = new int[Math.min(k, Math.max(candidates, 0))];
+        this.ranking = ranking;
+    }
+
+    void offer(int index) {
+        if (size < heap.length) {
+            heap[size] = index;
+            siftUp(size++);
+        } else if (size > 0 && ranking.compare(index, heap[0]) > 0) {
+            heap[0] = index;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * The kept indices, best first. Empties the heap.
+     */
+    int[] drainBestFirst() {
+        int[] result = new int[size];
+        for (int i = result.length - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(0);
+        }
+        return result;
+    }
+
+    private void siftUp(int position) {
+        int index = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (ranking.compare(index, heap[parent]) >= 0) {
+                break;
+            }
+            heap[position] = heap[parent];
+            position = parent;
+        }
+        heap[position] = index;
+    }
+
+    private void siftDown(int position) {
+        if (size == 0) {
+            return;
+        }
+        int index = heap[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && ranking.compare(heap[right], heap[child]) < 0) {
+                child = right;
+            }
+            if (ranking.compare(index, heap[child]) <= 0) {
+                break;
+            }
+            heap[position] = heap[child];
+            position = child;
+        }
+        heap[position] = index;
+    }
+}
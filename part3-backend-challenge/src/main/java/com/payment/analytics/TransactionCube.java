@@ -0,0 +1,131 @@
+package com.payment.analytics;
+
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Holds the in-memory columnar copy of recent transactions used by the dashboard services.
+ *
+ * The cube covers the last {@code analytics.cube.window-days} days (by default enough for the
+ * 90-day dashboards) and is rebuilt every {@code analytics.cube.refresh-interval}; transactions
+ * written since the last refresh are not visible until the next one. If the window holds more
+ * than {@code analytics.cube.max-rows} transactions it is halved until it fits, so heavy
+ * volume shortens the window instead of dropping the cube. Days outside the window are
+ * answered from the daily rollup, and their peak times from transaction_master.
+ *
+ * Back-dated transactions are reported with {@link #markChanged}, so callers that treat the
+ * snapshot's past days as final can tell which of them it no longer has in full
+ * ({@link #changedDays}).
+ */
+@Singleton
+public class TransactionCube {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionCube.class);
+
+    private final TransactionCubeLoader loader;
+    private final boolean enabled;
+    private final int windowDays;
+    private final int maxRows;
+
+    private volatile CubeSnapshot snapshot;
+
+    // Epoch day of each back-dated write, with when it was reported; guarded by itself
+    private final Map<Long, Instant> changes = new HashMap<>();
+    // Marks reported before this were dropped, since the snapshot read then already has them
+    private Instant prunedBefore = Instant.MIN;
+
+    public TransactionCube(TransactionCubeLoader loader,
+                           @Value("${analytics.cube.enabled:true}") boolean enabled,
+                           @Value("${analytics.cube.window-days:92}") int windowDays,
+                           @Value("${analytics.cube.max-rows:8000000}") int maxRows) {
+        this.loader = loader;
+        this.enabled = enabled;
+        this.windowDays = windowDays;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Current snapshot if it contains every day of the requested range.
+     */
+    public Optional<CubeSnapshot> snapshotCovering(LocalDate startDate, LocalDate endDate) {
+        CubeSnapshot current = snapshot;
+        if (current == null || startDate.isAfter(endDate) || !current.covers(startDate, endDate)) {
+            return Optional.empty();
+        }
+        return Optional.of(current);
+    }
+
+    /**
+     * Report a committed transaction dated on the given day. Snapshots whose load started
+     * before now do not have it.
+     */
+    public void markChanged(LocalDate day) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (changes) {
+            changes.put(day.toEpochDay(), Instant.now());
+        }
+    }
+
+    /**
+     * Epoch days of the range written after the snapshot was read. If the marks needed were
+     * already dropped for a newer snapshot, every day of the range is returned.
+     */
+    public Set<Long> changedDays(CubeSnapshot cube, LocalDate startDate, LocalDate endDate) {
+        Set<Long> changed = new HashSet<>();
+        synchronized (changes) {
+            boolean outdated = cube.getLoadedAt().isBefore(prunedBefore);
+            for (long day = startDate.toEpochDay(); day <= endDate.toEpochDay(); day++) {
+                Instant changedAt = changes.get(day);
+                if (outdated || (changedAt != null && !changedAt.isBefore(cube.getLoadedAt()))) {
+                    changed.add(day);
+                }
+            }
+        }
+        return changed;
+    }
+
+    @Scheduled(fixedDelay = "${analytics.cube.refresh-interval:5m}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate endDate = LocalDate.now();
+        long started = System.currentTimeMillis();
+        Instant refreshStarted = Instant.now();
+
+        try {
+            Optional<CubeSnapshot> loaded = Optional.empty();
+            for (int days = windowDays; loaded.isEmpty() && days >= 1; days /= 2) {
+                loaded = loader.load(endDate.minusDays(days - 1L), endDate, maxRows);
+            }
+            snapshot = loaded.orElse(null);
+            pruneChanges(loaded.map(CubeSnapshot::getLoadedAt).orElse(refreshStarted));
+            loaded.ifPresent(cube -> LOG.info("Transaction cube loaded: {} rows for {} to {} in {} ms",
+                cube.getRowCount(), cube.getFirstDate(), cube.getLastDate(), System.currentTimeMillis() - started));
+        } catch (Exception e) {
+            // Keep serving the previous snapshot; services fall back to the database when it does not cover a range
+            LOG.error("Failed to refresh transaction cube: {}", e.getMessage(), e);
+        }
+    }
+
+    private void pruneChanges(Instant before) {
+        synchronized (changes) {
+            changes.values().removeIf(changedAt -> changedAt.isBefore(before));
+            prunedBefore = before;
+        }
+    }
+}
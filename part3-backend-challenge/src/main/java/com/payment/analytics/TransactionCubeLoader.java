@@ -0,0 +1,66 @@
+package com.payment.analytics;
+
+import com.payment.repository.TransactionCursorRepository;
+import com.payment.repository.TransactionRepository;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Reads transaction_master into a {@link CubeSnapshot}.
+ *
+ * Rows come from the streaming cursor path, so no TransactionMaster, BigDecimal or Instant
+ * is created per row.
+ */
+@Singleton
+public class TransactionCubeLoader {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionCubeLoader.class);
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionCursorRepository transactionCursorRepository;
+    private final DimensionDictionary dimensionDictionary;
+
+    public TransactionCubeLoader(TransactionRepository transactionRepository,
+                                 TransactionCursorRepository transactionCursorRepository,
+                                 DimensionDictionary dimensionDictionary) {
+        this.transactionRepository = transactionRepository;
+        this.transactionCursorRepository = transactionCursorRepository;
+        this.dimensionDictionary = dimensionDictionary;
+    }
+
+    /**
+     * Load all transactions between the given dates (inclusive).
+     *
+     * @return the snapshot, or empty if the range holds more than maxRows transactions
+     */
+    public Optional<CubeSnapshot> load(LocalDate startDate, LocalDate endDate, int maxRows) {
+        Long rowCount = transactionRepository.countByDateRange(Date.valueOf(startDate), Date.valueOf(endDate));
+        long expectedRows = rowCount != null ? rowCount : 0L;
+
+        if (expectedRows > maxRows) {
+            LOG.warn("Skipping cube load for {} to {}: {} rows exceeds max-rows {}", startDate, endDate, expectedRows, maxRows);
+            return Optional.empty();
+        }
+
+        // Leave headroom for rows inserted between the count and the scan
+        int capacity = (int) Math.min(maxRows, expectedRows + expectedRows / 10);
+
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dimensionDictionary, startDate, endDate, capacity);
+        transactionCursorRepository.streamByDateRange(startDate, endDate, row -> builder.add(
+            row.getEpochDay(),
+            row.getAmountCents(),
+            row.getMerchantId(),
+            row.getStatus(),
+            row.getCardType(),
+            row.getCurrency(),
+            row.getHourOfWeek()
+        ));
+
+        return Optional.of(builder.build());
+    }
+}
@@ -0,0 +1,35 @@
+package com.payment.analytics;
+
+/**
+ * Low-cardinality transaction attributes that analytics can group or filter by.
+ */
+public enum TransactionDimension {
+    MERCHANT,
+    STATUS,
+    CARD_TYPE,
+    CURRENCY;
+
+    /**
+     * Resolve a drill-down category name ("merchant", "status", "cardtype"/"card", "currency") to a dimension.
+     *
+     * @return the dimension, or null if the category is not recognised
+     */
+    public static TransactionDimension fromCategory(String category) {
+        if (category == null) {
+            return null;
+        }
+        switch (category.toLowerCase()) {
+            case "merchant":
+                return MERCHANT;
+            case "status":
+                return STATUS;
+            case "cardtype":
+            case "card":
+                return CARD_TYPE;
+            case "currency":
+                return CURRENCY;
+            default:
+                return null;
+        }
+    }
+}
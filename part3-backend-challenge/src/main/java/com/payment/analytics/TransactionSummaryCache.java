@@ -0,0 +1,221 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.TransactionSummaryProjection;
+import com.payment.repository.TransactionRepository;
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Summary statistics of the filtered transaction list, cached per filter set so that paging
+ * through one result runs its aggregate query once.
+ *
+ * A summary is computed by one aggregate query over transaction_master and kept for
+ * {@code transactions.summary-cache.ttl}. A transaction created through the API drops the
+ * summaries whose range contains its date straight away; the TTL bounds how long changes made
+ * elsewhere go unseen. At most {@code transactions.summary-cache.max-size} filter sets are kept
+ * (least recently used first out).
+ */
+@Singleton
+public class TransactionSummaryCache {
+
+    private final TransactionRepository transactionRepository;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final Map<Key, Entry> entries;
+
+    // Bumped by every invalidation, so a summary computed across one is not cached
+    private long generation;
+
+    public TransactionSummaryCache(TransactionRepository transactionRepository,
+                                   @Value("${transactions.summary-cache.max-size:1000}") int maxSize,
+                                   @Value("${transactions.summary-cache.ttl:60s}") Duration ttl) {
+        this.transactionRepository = transactionRepository;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        // Access-ordered, so the eldest entry is the least recently used filter set
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > TransactionSummaryCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Summary of the transactions between the given dates (inclusive), optionally for one
+     * merchant and/or one status.
+     */
+    public TransactionSummary get(String merchantId, String status, LocalDate startDate, LocalDate endDate) {
+        Key key = new Key(merchantId, status, startDate, endDate);
+        long now = System.nanoTime();
+        long loadedAt;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.createdAt < ttlNanos) {
+                return entry.summary;
+            }
+            loadedAt = generation;
+        }
+
+        TransactionSummary summary = new TransactionSummary(load(key));
+        synchronized (entries) {
+            if (generation == loadedAt) {
+                entries.put(key, new Entry(summary, now));
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * Drop every cached summary whose range contains the date.
+     */
+    public void invalidate(LocalDate txnDate) {
+        synchronized (entries) {
+            generation++;
+            Iterator<Key> keys = entries.keySet().iterator();
+            while (keys.hasNext()) {
+                Key key = keys.next();
+                if (!txnDate.isBefore(key.startDate) && !txnDate.isAfter(key.endDate)) {
+                    keys.remove();
+                }
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (entries) {
+            generation++;
+            entries.clear();
+        }
+    }
+
+    private TransactionSummaryProjection load(Key key) {
+        Date start = Date.valueOf(key.startDate);
+        Date end = Date.valueOf(key.endDate);
+        if (key.merchantId != null && key.status != null) {
+            return transactionRepository.getSummaryByMerchantAndStatus(key.merchantId, key.status, start, end);
+        } else if (key.merchantId != null) {
+            return transactionRepository.getSummaryByMerchant(key.merchantId, start, end);
+        } else if (key.status != null) {
+            return transactionRepository.getSummaryByStatus(key.status, start, end);
+        }
+        return transactionRepository.getSummary(start, end);
+    }
+
+    private static final class Key {
+        private final String merchantId;
+        private final String status;
+        private final LocalDate startDate;
+        private final LocalDate endDate;
+
+        Key(String merchantId, String status, LocalDate startDate, LocalDate endDate) {
+            this.merchantId = merchantId;
+            this.status = status;
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return Objects.equals(merchantId, other.merchantId) && Objects.equals(status, other.status)
+                && startDate.equals(other.startDate) && endDate.equals(other.endDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(merchantId, status, startDate, endDate);
+        }
+    }
+
+    private static final class Entry {
+        private final TransactionSummary summary;
+        private final long createdAt;
+
+        Entry(TransactionSummary summary, long createdAt) {
+            this.summary = summary;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Count, total, average, min and max amount, and counts per status. Min and max are null
+     * when no transaction matched.
+     */
+    public static final class TransactionSummary {
+        private final long totalCount;
+        private final BigDecimal totalAmount;
+        private final BigDecimal averageAmount;
+        private final BigDecimal minAmount;
+        private final BigDecimal maxAmount;
+        private final long completedCount;
+        private final long pendingCount;
+        private final long failedCount;
+
+        TransactionSummary(TransactionSummaryProjection row) {
+            this.totalCount = valueOf(row.getTotalCount());
+            long totalCents = valueOf(row.getTotalCents());
+            this.totalAmount = MoneyAccumulator.toAmount(totalCents);
+            this.averageAmount = totalCount > 0
+                ? totalAmount.divide(BigDecimal.valueOf(totalCount), 2, RoundingMode.HALF_UP)
+                : BigDecimal.ZERO;
+            this.minAmount = totalCount > 0 && row.getMinCents() != null ? MoneyAccumulator.toAmount(row.getMinCents()) : null;
+            this.maxAmount = totalCount > 0 && row.getMaxCents() != null ? MoneyAccumulator.toAmount(row.getMaxCents()) : null;
+            this.completedCount = valueOf(row.getCompletedCount());
+            this.pendingCount = valueOf(row.getPendingCount());
+            this.failedCount = valueOf(row.getFailedCount());
+        }
+
+        private static long valueOf(Long value) {
+            return value != null ? value : 0L;
+        }
+
+        public long getTotalCount() {
+            return totalCount;
+        }
+
+        public BigDecimal getTotalAmount() {
+            return totalAmount;
+        }
+
+        public BigDecimal getAverageAmount() {
+            return averageAmount;
+        }
+
+        public BigDecimal getMinAmount() {
+            return minAmount;
+        }
+
+        public BigDecimal getMaxAmount() {
+            return maxAmount;
+        }
+
+        public long getCompletedCount() {
+            return completedCount;
+        }
+
+        public long getPendingCount() {
+            return pendingCount;
+        }
+
+        public long getFailedCount() {
+            return failedCount;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.payment.controller;
+
+import com.payment.analytics.AnalyticsSegmentCache;
+import com.payment.analytics.RequestCoalescer;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.Delete;
+import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.QueryValue;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Operational endpoints for the analytics caches and request coalescing.
+ */
+@Controller("/api/v1/admin")
+@Tag(name = "Admin")
+public class AdminController {
+
+    private final AnalyticsSegmentCache segmentCache;
+    private final RequestCoalescer requestCoalescer;
+
+    public AdminController(AnalyticsSegmentCache segmentCache, RequestCoalescer requestCoalescer) {
+        this.segmentCache = segmentCache;
+        this.requestCoalescer = requestCoalescer;
+    }
+
+    @Get("/analytics-cache")
+    @Operation(
+        summary = "Analytics cache statistics",
+        description = "Returns hit, miss and eviction counts and the number of cached days and slots"
+    )
+    public HttpResponse<Map<String, Object>> getCacheStats() {
+        long hits = segmentCache.getHitCount();
+        long misses = segmentCache.getMissCount();
+        long lookups = hits + misses;
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("hitRate", lookups > 0 ? Math.round(hits * 10000.0 / lookups) / 100.0 : 0.0);
+        stats.put("evictions", segmentCache.getEvictionCount());
+        stats.put("cachedDays", segmentCache.getSize());
+        stats.put("cachedSlots", segmentCache.getSlotCount());
+        stats.put("maxSlots", segmentCache.getMaxSlots());
+        return HttpResponse.ok(stats);
+    }
+
+    @Delete("/analytics-cache")
+    @Operation(
+        summary = "Invalidate cached analytics",
+        description = "Drops cached days for one date, a date range, or everything when no date is given"
+    )
+    public HttpResponse<Map<String, Object>> invalidateCache(
+            @QueryValue Optional<LocalDate> date,
+            @QueryValue Optional<LocalDate> startDate,
+            @QueryValue Optional<LocalDate> endDate
+    ) {
+        String invalidated;
+
+        if (date.isPresent()) {
+            segmentCache.invalidate(date.get());
+            invalidated = date.get().toString();
+        } else if (startDate.isPresent() || endDate.isPresent()) {
+            LocalDate start = startDate.orElseGet(() -> endDate.get());
+            LocalDate end = endDate.orElse(start);
+            if (start.isAfter(end)) {
+                throw new IllegalArgumentException("startDate must not be after endDate");
+            }
+            segmentCache.invalidate(start, end);
+            invalidated = start + " to " + end;
+        } else {
+            segmentCache.invalidateAll();
+            invalidated = "all";
+        }
+
+        return HttpResponse.ok(Map.of(
+            "message", "Analytics cache invalidated",
+            "invalidated", invalidated,
+            "cachedDays", segmentCache.getSize()
+        ));
+    }
+
+    @Get("/request-coalescing")
+    @Operation(
+        summary = "Request coalescing statistics",
+        description = "Returns, per operation, how many calls were made and how many waited on an identical in-flight call"
+    )
+    public HttpResponse<Map<String, Object>> getCoalescingStats() {
+        return HttpResponse.ok(Map.of(
+            "totalCoalesced", requestCoalescer.getCoalescedCount(),
+            "operations", requestCoalescer.getStats()
+        ));
+    }
+}
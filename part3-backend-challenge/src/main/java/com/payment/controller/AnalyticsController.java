@@ -105,5 +105,57 @@ public class AnalyticsController {
         CardDistributionResponse response = analyticsService.getCardDistribution(start, end);
         return HttpResponse.ok(response);
     }
+
+    @Get("/transactions/amount-percentiles")
+    @Operation(
+        summary = "Get transaction amount percentiles",
+        description = "Returns p50/p90/p99 transaction amounts overall, per merchant or per card type, "
+            + "merged from per-day quantile sketches. Ranges are limited to analytics.quantiles.max-days "
+            + "(62) days; days not yet in memory are seeded by reading each of their transactions once"
+    )
+    public HttpResponse<AmountPercentilesResponse> getAmountPercentiles(
+            @QueryValue Optional<LocalDate> startDate,
+            @QueryValue Optional<LocalDate> endDate,
+            @QueryValue(defaultValue = "none") String groupBy,
+            @QueryValue Optional<String> merchantId,
+            @QueryValue Optional<String> cardType,
+            @QueryValue(defaultValue = "100") Integer limit
+    ) {
+        LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
+        LocalDate end = endDate.orElse(LocalDate.now());
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit must be between 1 and 1000");
+        }
+
+        // A merchant or card type filter implies grouping by it
+        String group = groupBy;
+        String value = null;
+        if (merchantId.isPresent()) {
+            group = "merchant";
+            value = merchantId.get();
+        } else if (cardType.isPresent()) {
+            group = "cardType";
+            value = cardType.get();
+        }
+
+        AmountPercentilesResponse response = analyticsService.getAmountPercentiles(start, end, group, value, limit);
+        return HttpResponse.ok(response);
+    }
+
+    @Get("/merchants/active")
+    @Operation(
+        summary = "Get active merchant count",
+        description = "Returns the approximate number of distinct merchants and cards with transactions in the range"
+    )
+    public HttpResponse<ActiveMerchantsResponse> getActiveMerchants(
+            @QueryValue Optional<LocalDate> startDate,
+            @QueryValue Optional<LocalDate> endDate
+    ) {
+        LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
+        LocalDate end = endDate.orElse(LocalDate.now());
+
+        ActiveMerchantsResponse response = analyticsService.getActiveMerchants(start, end);
+        return HttpResponse.ok(response);
+    }
 }
 
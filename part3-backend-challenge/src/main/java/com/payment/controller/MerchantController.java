@@ -3,6 +3,7 @@ package com.payment.controller;
 import com.payment.dto.merchant.*;
 import com.payment.service.MerchantService;
 import io.micronaut.http.HttpResponse;
+import io.micronaut.http.MediaType;
 import io.micronaut.http.annotation.*;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,6 +16,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URI;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -27,6 +30,8 @@ public class MerchantController {
 
     private static final Logger LOG = LoggerFactory.getLogger(MerchantController.class);
 
+    private static final String TEXT_CSV = "text/csv";
+
     private final MerchantService merchantService;
 
     public MerchantController(MerchantService merchantService) {
@@ -38,13 +43,14 @@ public class MerchantController {
      *
      * @param limit Maximum number of merchants per page (default: 10)
      * @param offset Number of merchants to skip (default: 0)
+     * @param after Cursor from the previous page's nextCursor; takes precedence over offset
      * @param search Optional search term to filter merchants by ID
      * @return Paginated list of merchants with statistics
      */
     @Get
     @Operation(
         summary = "List merchants with statistics",
-        description = "Returns a paginated list of merchants with aggregated transaction statistics including total revenue, transaction counts, success rates, and activity status. Supports search by merchant ID."
+        description = "Returns a paginated list of merchants with aggregated transaction statistics including total revenue, transaction counts, success rates, and activity status. Supports search by merchant ID, merchant name or business name. Pass the nextCursor of a page as 'after' to fetch the next one at constant cost."
     )
     @ApiResponse(
         responseCode = "200",
@@ -58,11 +64,14 @@ public class MerchantController {
             @Parameter(description = "Number of merchants to skip for pagination", example = "0")
             @QueryValue(defaultValue = "0") int offset,
 
-            @Parameter(description = "Search term to filter merchants by ID (case-insensitive)", example = "MCH-00001")
+            @Parameter(description = "Opaque cursor from pagination.nextCursor; the page starts after it")
+            @QueryValue Optional<String> after,
+
+            @Parameter(description = "Search term matched against merchant ID, merchant name and business name (case-insensitive)", example = "MCH-00001")
             @QueryValue Optional<String> search) {
 
-        LOG.info("GET /api/v1/merchants - limit={}, offset={}, search={}",
-                 limit, offset, search.orElse("none"));
+        LOG.info("GET /api/v1/merchants - limit={}, offset={}, after={}, search={}",
+                 limit, offset, after.orElse("none"), search.orElse("none"));
 
         // Validate pagination parameters
         if (limit < 1 || limit > 100) {
@@ -72,11 +81,78 @@ public class MerchantController {
             offset = 0;
         }
 
-        MerchantListResponse response = merchantService.listMerchants(limit, offset, search);
+        MerchantListResponse response = merchantService.listMerchants(limit, offset, after, search);
 
         return HttpResponse.ok(response);
     }
 
+    /**
+     * Get summaries for many merchants at once.
+     *
+     * @param ids Comma-separated merchant IDs
+     * @return Summaries in request order, and the IDs not found
+     */
+    @Get("/batch")
+    @Operation(
+        summary = "Get many merchants",
+        description = "Returns name and transaction statistics for up to merchants.batch.max-ids merchants in one call, e.g. to label a page of transactions. Uses one IN-list query for profiles not already cached and one for statistics."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Successful operation",
+        content = @Content(schema = @Schema(implementation = MerchantBatchResponse.class))
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "No IDs, or more than the limit"
+    )
+    public HttpResponse<MerchantBatchResponse> getMerchantsByIds(
+            @Parameter(description = "Comma-separated merchant IDs", example = "MCH-00001,MCH-00002", required = true)
+            @QueryValue String ids) {
+
+        List<String> merchantIds = Arrays.asList(ids.split(","));
+        LOG.info("GET /api/v1/merchants/batch - {} ids", merchantIds.size());
+
+        return HttpResponse.ok(merchantService.getMerchantsByIds(merchantIds));
+    }
+
+    /**
+     * Suggest merchants for a search box.
+     *
+     * @param q Text typed so far
+     * @param limit Maximum number of suggestions (default: 10)
+     * @return Ranked suggestions
+     */
+    @Get("/autocomplete")
+    @Operation(
+        summary = "Autocomplete merchants",
+        description = "Returns the best matches for the text typed so far from an in-memory trigram index over merchant ID, merchant name and business name. Exact, prefix, word-start and substring matches rank first (merchant ID before names), followed by near misses that share most of the query's trigrams."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Successful operation",
+        content = @Content(schema = @Schema(implementation = MerchantAutocompleteResponse.class))
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "Empty query"
+    )
+    public HttpResponse<MerchantAutocompleteResponse> autocomplete(
+            @Parameter(description = "Text typed so far", example = "glor", required = true)
+            @QueryValue String q,
+
+            @Parameter(description = "Maximum number of suggestions", example = "10")
+            @QueryValue(defaultValue = "10") int limit) {
+
+        LOG.debug("GET /api/v1/merchants/autocomplete - q={}, limit={}", q, limit);
+
+        if (limit < 1 || limit > 50) {
+            limit = 10;
+        }
+
+        return HttpResponse.ok(merchantService.autocomplete(q, limit));
+    }
+
     /**
      * Get detailed information for a specific merchant.
      *
@@ -141,6 +217,60 @@ public class MerchantController {
         return HttpResponse.created(response, URI.create("/api/v1/merchants/" + response.getMerchantId()));
     }
 
+    /**
+     * Create many merchants from a JSON array
+     *
+     * @param requests Merchants to create
+     * @return Per-row results
+     */
+    @Post("/bulk")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(
+        summary = "Bulk import merchants (JSON)",
+        description = "Create up to merchants.bulk.max-rows merchants from an array of create requests. Every row is validated, rows whose tax ID repeats in the request or is already registered are rejected as duplicates, and the rest are inserted in batches. Returns the outcome of every row."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Import processed; see results for each row",
+        content = @Content(schema = @Schema(implementation = BulkMerchantImportResponse.class))
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "Empty or oversized request"
+    )
+    public HttpResponse<BulkMerchantImportResponse> importMerchants(@Body List<CreateMerchantRequest> requests) {
+        LOG.info("POST /api/v1/merchants/bulk - Importing {} merchants", requests.size());
+
+        return HttpResponse.ok(merchantService.importMerchants(requests));
+    }
+
+    /**
+     * Create many merchants from CSV
+     *
+     * @param csv CSV text with a header row of field names
+     * @return Per-row results
+     */
+    @Post("/bulk")
+    @Consumes(TEXT_CSV)
+    @Operation(
+        summary = "Bulk import merchants (CSV)",
+        description = "Same as the JSON import, from CSV whose header row names the create request fields (camelCase or snake_case). Rows that cannot be read are reported as invalid."
+    )
+    @ApiResponse(
+        responseCode = "200",
+        description = "Import processed; see results for each row",
+        content = @Content(schema = @Schema(implementation = BulkMerchantImportResponse.class))
+    )
+    @ApiResponse(
+        responseCode = "400",
+        description = "Empty, oversized or unreadable CSV"
+    )
+    public HttpResponse<BulkMerchantImportResponse> importMerchantsCsv(@Body String csv) {
+        LOG.info("POST /api/v1/merchants/bulk - Importing merchants from CSV ({} chars)", csv.length());
+
+        return HttpResponse.ok(merchantService.importMerchantsCsv(csv));
+    }
+
     /**
      * Update an existing merchant
      *
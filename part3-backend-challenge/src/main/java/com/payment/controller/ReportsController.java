@@ -28,69 +28,116 @@ public class ReportsController {
     @Get("/revenue/by-period")
     @Operation(
         summary = "Get revenue by time period",
-        description = "Returns revenue breakdown by daily, weekly, or monthly periods"
+        description = "Returns revenue breakdown by daily, weekly, or monthly periods. currency limits it to "
+            + "one currency; normalizeTo converts every currency's subtotal with the FX rate table"
     )
     public HttpResponse<RevenueByPeriodResponse> getRevenueByPeriod(
             @QueryValue Optional<LocalDate> startDate,
             @QueryValue Optional<LocalDate> endDate,
-            @QueryValue(defaultValue = "daily") String period
+            @QueryValue(defaultValue = "daily") String period,
+            @QueryValue Optional<String> currency,
+            @QueryValue Optional<String> normalizeTo
     ) {
         LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
         LocalDate end = endDate.orElse(LocalDate.now());
 
-        RevenueByPeriodResponse response = revenueService.getRevenueByPeriod(start, end, period);
+        RevenueByPeriodResponse response = revenueService.getRevenueByPeriod(start, end, period,
+            currency.map(String::toUpperCase).orElse(null), normalizeTo.map(String::toUpperCase).orElse(null));
+        return HttpResponse.ok(response);
+    }
+
+    @Get("/revenue/by-currency")
+    @Operation(
+        summary = "Get revenue by currency",
+        description = "Returns revenue per currency. normalizeTo converts each currency total with the FX rate table "
+            + "and adds a combined total in that currency"
+    )
+    public HttpResponse<RevenueByCurrencyResponse> getRevenueByCurrency(
+            @QueryValue Optional<LocalDate> startDate,
+            @QueryValue Optional<LocalDate> endDate,
+            @QueryValue Optional<String> normalizeTo
+    ) {
+        LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
+        LocalDate end = endDate.orElse(LocalDate.now());
+
+        RevenueByCurrencyResponse response = revenueService.getRevenueByCurrency(start, end,
+            normalizeTo.map(String::toUpperCase).orElse(null));
         return HttpResponse.ok(response);
     }
 
     @Get("/revenue/by-merchant")
     @Operation(
         summary = "Get revenue by merchant",
-        description = "Returns revenue breakdown by merchant with rankings"
+        description = "Returns revenue breakdown by merchant with rankings. mode=approximate ranks from "
+            + "bounded heavy hitter sketches and reports the maximum overestimate"
     )
     public HttpResponse<RevenueByMerchantResponse> getRevenueByMerchant(
             @QueryValue Optional<LocalDate> startDate,
             @QueryValue Optional<LocalDate> endDate,
-            @QueryValue(defaultValue = "10") Integer limit
+            @QueryValue(defaultValue = "10") Integer limit,
+            @QueryValue(defaultValue = "revenue") String sortBy,
+            @QueryValue(defaultValue = "exact") String mode
     ) {
         LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
         LocalDate end = endDate.orElse(LocalDate.now());
 
-        RevenueByMerchantResponse response = revenueService.getRevenueByMerchant(start, end, limit);
+        // Validate limit
+        if (limit == null || limit < 1 || limit > 100) {
+            limit = 10;
+        }
+
+        boolean approximate;
+        switch (mode.toLowerCase()) {
+            case "exact":
+                approximate = false;
+                break;
+            case "approximate":
+            case "approx":
+                approximate = true;
+                break;
+            default:
+                throw new IllegalArgumentException("mode must be 'exact' or 'approximate'");
+        }
+
+        RevenueByMerchantResponse response = revenueService.getRevenueByMerchant(start, end, limit, sortBy, approximate);
         return HttpResponse.ok(response);
     }
 
     @Get("/revenue/forecast")
     @Operation(
         summary = "Get revenue forecast",
-        description = "Returns predicted revenue based on historical trends"
+        description = "Returns predicted daily revenue from a Holt-Winters model with weekly seasonality, "
+            + "for the platform or for one merchant"
     )
     public HttpResponse<RevenueForecastResponse> getForecast(
-            @QueryValue(defaultValue = "7") int periods
+            @QueryValue(defaultValue = "7") int periods,
+            @QueryValue Optional<String> merchantId
     ) {
-        RevenueForecastResponse response = revenueService.forecastRevenue(periods);
+        RevenueForecastResponse response = revenueService.forecastRevenue(periods, merchantId.orElse(null));
         return HttpResponse.ok(response);
     }
 
     @Get("/revenue/growth")
     @Operation(
         summary = "Get year-over-year growth analysis",
-        description = "Returns year-over-year revenue comparison and growth rates"
+        description = "Returns revenue comparison and growth rates for any two years, per month or per quarter"
     )
     public HttpResponse<GrowthAnalysisResponse> analyzeGrowth(
             @QueryValue Optional<Integer> currentYear,
-            @QueryValue Optional<Integer> comparisonYear
+            @QueryValue Optional<Integer> comparisonYear,
+            @QueryValue(defaultValue = "monthly") String grain
     ) {
         int current = currentYear.orElse(LocalDate.now().getYear());
         int comparison = comparisonYear.orElse(current - 1);
 
-        GrowthAnalysisResponse response = revenueService.analyzeGrowth(current, comparison);
+        GrowthAnalysisResponse response = revenueService.analyzeGrowth(current, comparison, grain);
         return HttpResponse.ok(response);
     }
 
     @Get("/merchants/top-performers")
     @Operation(
         summary = "Get top performing merchants",
-        description = "Returns ranked list of top merchants by revenue or transaction volume"
+        description = "Returns ranked list of top merchants by revenue, transaction count or success rate"
     )
     public HttpResponse<TopPerformersResponse> getTopPerformers(
             @QueryValue Optional<LocalDate> startDate,
@@ -101,6 +148,11 @@ public class ReportsController {
         LocalDate start = startDate.orElse(LocalDate.now().minusDays(30));
         LocalDate end = endDate.orElse(LocalDate.now());
 
+        // Validate limit
+        if (limit == null || limit < 1 || limit > 100) {
+            limit = 10;
+        }
+
         TopPerformersResponse response = revenueService.getTopPerformers(start, end, limit, sortBy);
         return HttpResponse.ok(response);
     }
@@ -13,6 +13,7 @@ import io.micronaut.http.annotation.Header;
 import io.swagger.v3.oas.annotations.Operation;
 import com.payment.entity.TransactionMaster;
 import com.payment.repository.TransactionRepository;
+import com.payment.service.TransactionService;
 
 import java.util.Map;
 import java.util.Optional;
@@ -34,9 +35,12 @@ import java.util.Optional;
 public class TransactionController {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
     
-    public TransactionController(TransactionRepository transactionRepository) {
+    public TransactionController(TransactionRepository transactionRepository,
+                                 TransactionService transactionService) {
         this.transactionRepository = transactionRepository;
+        this.transactionService = transactionService;
     }
 
     // TODO: Create TransactionService to handle business logic
@@ -79,9 +83,8 @@ public class TransactionController {
     ) {
         // TODO: Add validation
         // TODO: Add error handling
-        // TODO: Move to service layer
-        transaction.setMerchantId(merchantId);
-        TransactionMaster saved = transactionRepository.save(transaction);
+        // Saves the transaction and updates the daily merchant rollup
+        TransactionMaster saved = transactionService.createTransaction(merchantId, transaction);
         return HttpResponse.created(Map.of(
             "message", "Transaction created",
             "transactionId", saved.getTxnId(),
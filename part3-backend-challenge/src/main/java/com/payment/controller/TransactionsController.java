@@ -1,5 +1,7 @@
 package com.payment.controller;
 
+import com.payment.analytics.TransactionSummaryCache;
+import com.payment.analytics.TransactionSummaryCache.TransactionSummary;
 import com.payment.entity.TransactionMaster;
 import com.payment.repository.TransactionRepository;
 import io.micronaut.data.model.Page;
@@ -25,9 +27,11 @@ import java.util.Optional;
 public class TransactionsController {
 
     private final TransactionRepository transactionRepository;
+    private final TransactionSummaryCache summaryCache;
 
-    public TransactionsController(TransactionRepository transactionRepository) {
+    public TransactionsController(TransactionRepository transactionRepository, TransactionSummaryCache summaryCache) {
         this.transactionRepository = transactionRepository;
+        this.summaryCache = summaryCache;
     }
 
     @Get
@@ -72,7 +76,7 @@ public class TransactionsController {
         }
 
         // Calculate summary statistics across ALL filtered transactions (not just current page)
-        Map<String, Object> summary = calculateSummary(merchantId, status, sqlStartDate, sqlEndDate);
+        Map<String, Object> summary = calculateSummary(merchantId, status, start, end);
 
         Map<String, Object> response = new HashMap<>();
         response.put("transactions", transactionsPage.getContent());
@@ -86,50 +90,21 @@ public class TransactionsController {
     }
 
     /**
-     * Calculate summary statistics for filtered transactions
+     * Summary statistics for filtered transactions, from one aggregate query cached per filter set
      */
     private Map<String, Object> calculateSummary(Optional<String> merchantId, Optional<String> status,
-                                                   Date startDate, Date endDate) {
-        // Fetch all transactions matching the filter (not paginated) for statistics
-        java.util.List<TransactionMaster> allTransactions;
-
-        if (merchantId.isPresent() && status.isPresent()) {
-            allTransactions = transactionRepository.findByMerchantIdAndStatusAndDateRange(
-                merchantId.get(), status.get(), startDate, endDate);
-        } else if (merchantId.isPresent()) {
-            allTransactions = transactionRepository.findByMerchantIdAndDateRange(
-                merchantId.get(), startDate, endDate);
-        } else if (status.isPresent()) {
-            allTransactions = transactionRepository.findByStatusAndDateRange(
-                status.get(), startDate, endDate);
-        } else {
-            allTransactions = transactionRepository.findByDateRangeForAnalytics(startDate, endDate);
-        }
-
-        // Calculate statistics
-        long totalCount = allTransactions.size();
-        double totalAmount = allTransactions.stream()
-            .mapToDouble(txn -> txn.getAmount().doubleValue())
-            .sum();
-
-        long completedCount = allTransactions.stream()
-            .filter(txn -> "completed".equalsIgnoreCase(txn.getStatus()))
-            .count();
-
-        long pendingCount = allTransactions.stream()
-            .filter(txn -> "pending".equalsIgnoreCase(txn.getStatus()))
-            .count();
-
-        long failedCount = allTransactions.stream()
-            .filter(txn -> "failed".equalsIgnoreCase(txn.getStatus()))
-            .count();
+                                                   LocalDate startDate, LocalDate endDate) {
+        TransactionSummary totals = summaryCache.get(merchantId.orElse(null), status.orElse(null), startDate, endDate);
 
         Map<String, Object> summary = new HashMap<>();
-        summary.put("totalCount", totalCount);
-        summary.put("totalAmount", totalAmount);
-        summary.put("completedCount", completedCount);
-        summary.put("pendingCount", pendingCount);
-        summary.put("failedCount", failedCount);
+        summary.put("totalCount", totals.getTotalCount());
+        summary.put("totalAmount", totals.getTotalAmount());
+        summary.put("averageAmount", totals.getAverageAmount());
+        summary.put("minAmount", totals.getMinAmount());
+        summary.put("maxAmount", totals.getMaxAmount());
+        summary.put("completedCount", totals.getCompletedCount());
+        summary.put("pendingCount", totals.getPendingCount());
+        summary.put("failedCount", totals.getFailedCount());
 
         return summary;
     }
@@ -0,0 +1,53 @@
+package com.payment.dto.analytics;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+@Serdeable
+public class ActiveMerchantsResponse {
+    private Long activeMerchants;
+    private Long activeCards;
+    private Double relativeStandardError;
+    private String dateRange;
+
+    public ActiveMerchantsResponse() {
+    }
+
+    public ActiveMerchantsResponse(Long activeMerchants, Long activeCards, Double relativeStandardError, String dateRange) {
+        this.activeMerchants = activeMerchants;
+        this.activeCards = activeCards;
+        this.relativeStandardError = relativeStandardError;
+        this.dateRange = dateRange;
+    }
+
+    public Long getActiveMerchants() {
+        return activeMerchants;
+    }
+
+    public void setActiveMerchants(Long activeMerchants) {
+        this.activeMerchants = activeMerchants;
+    }
+
+    public Long getActiveCards() {
+        return activeCards;
+    }
+
+    public void setActiveCards(Long activeCards) {
+        this.activeCards = activeCards;
+    }
+
+    public Double getRelativeStandardError() {
+        return relativeStandardError;
+    }
+
+    public void setRelativeStandardError(Double relativeStandardError) {
+        this.relativeStandardError = relativeStandardError;
+    }
+
+    public String getDateRange() {
+        return dateRange;
+    }
+
+    public void setDateRange(String dateRange) {
+        this.dateRange = dateRange;
+    }
+}
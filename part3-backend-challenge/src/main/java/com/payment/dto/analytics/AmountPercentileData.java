@@ -0,0 +1,74 @@
+package com.payment.dto.analytics;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.math.BigDecimal;
+
+@Serdeable
+public class AmountPercentileData {
+    private String key;
+    private Long count;
+    private BigDecimal min;
+    private BigDecimal p50;
+    private BigDecimal p90;
+    private BigDecimal p99;
+    private BigDecimal max;
+
+    public AmountPercentileData() {
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getMin() {
+        return min;
+    }
+
+    public void setMin(BigDecimal min) {
+        this.min = min;
+    }
+
+    public BigDecimal getP50() {
+        return p50;
+    }
+
+    public void setP50(BigDecimal p50) {
+        this.p50 = p50;
+    }
+
+    public BigDecimal getP90() {
+        return p90;
+    }
+
+    public void setP90(BigDecimal p90) {
+        this.p90 = p90;
+    }
+
+    public BigDecimal getP99() {
+        return p99;
+    }
+
+    public void setP99(BigDecimal p99) {
+        this.p99 = p99;
+    }
+
+    public BigDecimal getMax() {
+        return max;
+    }
+
+    public void setMax(BigDecimal max) {
+        this.max = max;
+    }
+}
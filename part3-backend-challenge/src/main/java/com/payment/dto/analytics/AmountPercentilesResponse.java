@@ -0,0 +1,47 @@
+package com.payment.dto.analytics;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.util.List;
+
+@Serdeable
+public class AmountPercentilesResponse {
+    private List<AmountPercentileData> groups;
+    private String groupBy;
+    private Double relativeAccuracy;
+    private String dateRange;
+
+    public AmountPercentilesResponse() {
+    }
+
+    public List<AmountPercentileData> getGroups() {
+        return groups;
+    }
+
+    public void setGroups(List<AmountPercentileData> groups) {
+        this.groups = groups;
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public void setGroupBy(String groupBy) {
+        this.groupBy = groupBy;
+    }
+
+    public Double getRelativeAccuracy() {
+        return relativeAccuracy;
+    }
+
+    public void setRelativeAccuracy(Double relativeAccuracy) {
+        this.relativeAccuracy = relativeAccuracy;
+    }
+
+    public String getDateRange() {
+        return dateRange;
+    }
+
+    public void setDateRange(String dateRange) {
+        this.dateRange = dateRange;
+    }
+}
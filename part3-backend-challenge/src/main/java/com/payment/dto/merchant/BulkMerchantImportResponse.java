@@ -0,0 +1,57 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public class BulkMerchantImportResponse {
+    private Integer totalRows;
+    private Integer createdCount;
+    private Integer rejectedCount;
+    private Long elapsedMs;
+    private List<BulkMerchantRowResult> results;
+
+    public BulkMerchantImportResponse() {
+    }
+
+    public Integer getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(Integer totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public Integer getCreatedCount() {
+        return createdCount;
+    }
+
+    public void setCreatedCount(Integer createdCount) {
+        this.createdCount = createdCount;
+    }
+
+    public Integer getRejectedCount() {
+        return rejectedCount;
+    }
+
+    public void setRejectedCount(Integer rejectedCount) {
+        this.rejectedCount = rejectedCount;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public List<BulkMerchantRowResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BulkMerchantRowResult> results) {
+        this.results = results;
+    }
+}
@@ -0,0 +1,72 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+/**
+ * Outcome of one row of a bulk merchant import.
+ */
+@Serdeable
+public class BulkMerchantRowResult {
+
+    public static final String CREATED = "created";
+    public static final String INVALID = "invalid";
+    public static final String DUPLICATE = "duplicate";
+    public static final String FAILED = "failed";
+
+    // 1-based position in the JSON array or CSV data rows (header excluded)
+    private Integer row;
+    private String status;
+    private String merchantId;
+    private String businessName;
+    private List<String> errors;
+
+    public BulkMerchantRowResult() {
+    }
+
+    public BulkMerchantRowResult(Integer row, String businessName) {
+        this.row = row;
+        this.businessName = businessName;
+    }
+
+    public Integer getRow() {
+        return row;
+    }
+
+    public void setRow(Integer row) {
+        this.row = row;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public void setBusinessName(String businessName) {
+        this.businessName = businessName;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
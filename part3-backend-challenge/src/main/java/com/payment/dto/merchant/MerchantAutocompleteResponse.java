@@ -0,0 +1,35 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public class MerchantAutocompleteResponse {
+    private String query;
+    private List<MerchantSuggestion> suggestions;
+
+    public MerchantAutocompleteResponse() {
+    }
+
+    public MerchantAutocompleteResponse(String query, List<MerchantSuggestion> suggestions) {
+        this.query = query;
+        this.suggestions = suggestions;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public List<MerchantSuggestion> getSuggestions() {
+        return suggestions;
+    }
+
+    public void setSuggestions(List<MerchantSuggestion> suggestions) {
+        this.suggestions = suggestions;
+    }
+}
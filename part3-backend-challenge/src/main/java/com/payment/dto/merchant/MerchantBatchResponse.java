@@ -0,0 +1,35 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.util.List;
+
+@Serdeable
+public class MerchantBatchResponse {
+    private List<MerchantSummary> merchants;
+    private List<String> notFound;
+
+    public MerchantBatchResponse() {
+    }
+
+    public MerchantBatchResponse(List<MerchantSummary> merchants, List<String> notFound) {
+        this.merchants = merchants;
+        this.notFound = notFound;
+    }
+
+    public List<MerchantSummary> getMerchants() {
+        return merchants;
+    }
+
+    public void setMerchants(List<MerchantSummary> merchants) {
+        this.merchants = merchants;
+    }
+
+    public List<String> getNotFound() {
+        return notFound;
+    }
+
+    public void setNotFound(List<String> notFound) {
+        this.notFound = notFound;
+    }
+}
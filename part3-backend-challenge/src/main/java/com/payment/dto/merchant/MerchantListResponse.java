@@ -41,6 +41,7 @@ public class MerchantListResponse {
         private Integer totalPages;
         private Boolean hasNext;
         private Boolean hasPrevious;
+        private String nextCursor;
 
         public PaginationMetadata() {
         }
@@ -110,6 +111,14 @@ public class MerchantListResponse {
         public void setHasPrevious(Boolean hasPrevious) {
             this.hasPrevious = hasPrevious;
         }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
     }
 }
 
@@ -10,6 +10,10 @@ public class MerchantStatsDTO {
     @MappedProperty("merchant_id")
     private String merchantId;
 
+    // From operators.merchants; null when the merchant has no profile
+    @MappedProperty("merchant_name")
+    private String merchantName;
+
     @MappedProperty("total_transactions")
     private Long totalTransactions;
 
@@ -56,6 +60,14 @@ public class MerchantStatsDTO {
         this.merchantId = merchantId;
     }
 
+    public String getMerchantName() {
+        return merchantName;
+    }
+
+    public void setMerchantName(String merchantName) {
+        this.merchantName = merchantName;
+    }
+
     public Long getTotalTransactions() {
         return totalTransactions;
     }
@@ -0,0 +1,68 @@
+package com.payment.dto.merchant;
+
+import io.micronaut.serde.annotation.Serdeable;
+
+/**
+ * One autocomplete match. matchedField is merchantId, merchantName or businessName; matchType
+ * is exact, prefix, word (starts a word), substring, or similar (shares most trigrams).
+ */
+@Serdeable
+public class MerchantSuggestion {
+    private String merchantId;
+    private String merchantName;
+    private String businessName;
+    private String matchedField;
+    private String matchType;
+
+    public MerchantSuggestion() {
+    }
+
+    public MerchantSuggestion(String merchantId, String merchantName, String businessName,
+                              String matchedField, String matchType) {
+        this.merchantId = merchantId;
+        this.merchantName = merchantName;
+        this.businessName = businessName;
+        this.matchedField = matchedField;
+        this.matchType = matchType;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getMerchantName() {
+        return merchantName;
+    }
+
+    public void setMerchantName(String merchantName) {
+        this.merchantName = merchantName;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public void setBusinessName(String businessName) {
+        this.businessName = businessName;
+    }
+
+    public String getMatchedField() {
+        return matchedField;
+    }
+
+    public void setMatchedField(String matchedField) {
+        this.matchedField = matchedField;
+    }
+
+    public String getMatchType() {
+        return matchType;
+    }
+
+    public void setMatchType(String matchType) {
+        this.matchType = matchType;
+    }
+}
@@ -0,0 +1,84 @@
+package com.payment.dto.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public class DailyBreakdownProjection {
+    private Long epochDay;
+    private String merchantId;
+    private String status;
+    private String cardType;
+    private String currency;
+    private Long count;
+    private Long amountCents;
+
+    public DailyBreakdownProjection() {
+    }
+
+    public DailyBreakdownProjection(Long epochDay, String merchantId, String status, String cardType,
+                                    String currency, Long count, Long amountCents) {
+        this.epochDay = epochDay;
+        this.merchantId = merchantId;
+        this.status = status;
+        this.cardType = cardType;
+        this.currency = currency;
+        this.count = count;
+        this.amountCents = amountCents;
+    }
+
+    public Long getEpochDay() {
+        return epochDay;
+    }
+
+    public void setEpochDay(Long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCardType() {
+        return cardType;
+    }
+
+    public void setCardType(String cardType) {
+        this.cardType = cardType;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public Long getAmountCents() {
+        return amountCents;
+    }
+
+    public void setAmountCents(Long amountCents) {
+        this.amountCents = amountCents;
+    }
+}
@@ -0,0 +1,33 @@
+package com.payment.dto.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public class DailyValueProjection {
+    private Long epochDay;
+    private String value;
+
+    public DailyValueProjection() {
+    }
+
+    public DailyValueProjection(Long epochDay, String value) {
+        this.epochDay = epochDay;
+        this.value = value;
+    }
+
+    public Long getEpochDay() {
+        return epochDay;
+    }
+
+    public void setEpochDay(Long epochDay) {
+        this.epochDay = epochDay;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+}
@@ -0,0 +1,55 @@
+package com.payment.dto.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+
+@Introspected
+public class MerchantRankingProjection {
+    private String merchantId;
+    private Long count;
+    private BigDecimal totalAmount;
+    private Long completedCount;
+
+    public MerchantRankingProjection() {
+    }
+
+    public MerchantRankingProjection(String merchantId, Long count, BigDecimal totalAmount, Long completedCount) {
+        this.merchantId = merchantId;
+        this.count = count;
+        this.totalAmount = totalAmount;
+        this.completedCount = completedCount;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+}
@@ -0,0 +1,53 @@
+package com.payment.dto.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public class MerchantSearchProjection {
+    private String merchantId;
+    private String merchantName;
+    private String businessName;
+    private Boolean listed;
+
+    public MerchantSearchProjection() {
+    }
+
+    public MerchantSearchProjection(String merchantId, String merchantName, String businessName, Boolean listed) {
+        this.merchantId = merchantId;
+        this.merchantName = merchantName;
+        this.businessName = businessName;
+        this.listed = listed;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getMerchantName() {
+        return merchantName;
+    }
+
+    public void setMerchantName(String merchantName) {
+        this.merchantName = merchantName;
+    }
+
+    public String getBusinessName() {
+        return businessName;
+    }
+
+    public void setBusinessName(String businessName) {
+        this.businessName = businessName;
+    }
+
+    public Boolean getListed() {
+        return listed;
+    }
+
+    public void setListed(Boolean listed) {
+        this.listed = listed;
+    }
+}
@@ -1 +1,43 @@
+package com.payment.dto.projection;
 
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public class PeakTimesProjection {
+    private Integer hour;
+    private Integer dayOfWeek;
+    private Long count;
+
+    public PeakTimesProjection() {
+    }
+
+    public PeakTimesProjection(Integer hour, Integer dayOfWeek, Long count) {
+        this.hour = hour;
+        this.dayOfWeek = dayOfWeek;
+        this.count = count;
+    }
+
+    public Integer getHour() {
+        return hour;
+    }
+
+    public void setHour(Integer hour) {
+        this.hour = hour;
+    }
+
+    public Integer getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(Integer dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
@@ -1 +1,45 @@
+package com.payment.dto.projection;
 
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+
+@Introspected
+public class RevenueProjection {
+    private String merchantId;
+    private Long count;
+    private BigDecimal totalAmount;
+
+    public RevenueProjection() {
+    }
+
+    public RevenueProjection(String merchantId, Long count, BigDecimal totalAmount) {
+        this.merchantId = merchantId;
+        this.count = count;
+        this.totalAmount = totalAmount;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
@@ -1 +1,33 @@
+package com.payment.dto.projection;
 
+import io.micronaut.core.annotation.Introspected;
+
+@Introspected
+public class StatusDistributionProjection {
+    private String status;
+    private Long count;
+
+    public StatusDistributionProjection() {
+    }
+
+    public StatusDistributionProjection(String status, Long count) {
+        this.status = status;
+        this.count = count;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+}
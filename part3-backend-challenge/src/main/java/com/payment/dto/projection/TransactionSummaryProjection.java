@@ -0,0 +1,77 @@
+package com.payment.dto.projection;
+
+import io.micronaut.core.annotation.Introspected;
+
+/**
+ * Totals of the transactions matching a filter set. Amounts are in cents; min and max are
+ * null when nothing matched.
+ */
+@Introspected
+public class TransactionSummaryProjection {
+    private Long totalCount;
+    private Long totalCents;
+    private Long minCents;
+    private Long maxCents;
+    private Long completedCount;
+    private Long pendingCount;
+    private Long failedCount;
+
+    public TransactionSummaryProjection() {
+    }
+
+    public Long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(Long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public Long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(Long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public Long getMinCents() {
+        return minCents;
+    }
+
+    public void setMinCents(Long minCents) {
+        this.minCents = minCents;
+    }
+
+    public Long getMaxCents() {
+        return maxCents;
+    }
+
+    public void setMaxCents(Long maxCents) {
+        this.maxCents = maxCents;
+    }
+
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public Long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(Long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+}
@@ -1 +1,45 @@
+package com.payment.dto.projection;
 
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+
+@Introspected
+public class VolumeProjection {
+    private String period;
+    private Long count;
+    private BigDecimal totalAmount;
+
+    public VolumeProjection() {
+    }
+
+    public VolumeProjection(String period, Long count, BigDecimal totalAmount) {
+        this.period = period;
+        this.count = count;
+        this.totalAmount = totalAmount;
+    }
+
+    public String getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(String period) {
+        this.period = period;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
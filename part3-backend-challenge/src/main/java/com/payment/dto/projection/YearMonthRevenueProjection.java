@@ -1 +1,55 @@
+package com.payment.dto.projection;
 
+import io.micronaut.core.annotation.Introspected;
+
+import java.math.BigDecimal;
+
+@Introspected
+public class YearMonthRevenueProjection {
+    private Integer year;
+    private Integer month;
+    private Long count;
+    private BigDecimal totalAmount;
+
+    public YearMonthRevenueProjection() {
+    }
+
+    public YearMonthRevenueProjection(Integer year, Integer month, Long count, BigDecimal totalAmount) {
+        this.year = year;
+        this.month = month;
+        this.count = count;
+        this.totalAmount = totalAmount;
+    }
+
+    public Integer getYear() {
+        return year;
+    }
+
+    public void setYear(Integer year) {
+        this.year = year;
+    }
+
+    public Integer getMonth() {
+        return month;
+    }
+
+    public void setMonth(Integer month) {
+        this.month = month;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+}
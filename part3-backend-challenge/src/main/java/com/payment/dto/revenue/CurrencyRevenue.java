@@ -0,0 +1,75 @@
+package com.payment.dto.revenue;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.math.BigDecimal;
+
+@Serdeable
+public class CurrencyRevenue {
+    private String currency;
+    private BigDecimal revenue;
+    private Long transactionCount;
+    private BigDecimal averageTransaction;
+    private BigDecimal rate;
+    private BigDecimal normalizedRevenue;
+
+    public CurrencyRevenue() {
+    }
+
+    public CurrencyRevenue(String currency, BigDecimal revenue, Long transactionCount, BigDecimal averageTransaction,
+                           BigDecimal rate, BigDecimal normalizedRevenue) {
+        this.currency = currency;
+        this.revenue = revenue;
+        this.transactionCount = transactionCount;
+        this.averageTransaction = averageTransaction;
+        this.rate = rate;
+        this.normalizedRevenue = normalizedRevenue;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(BigDecimal revenue) {
+        this.revenue = revenue;
+    }
+
+    public Long getTransactionCount() {
+        return transactionCount;
+    }
+
+    public void setTransactionCount(Long transactionCount) {
+        this.transactionCount = transactionCount;
+    }
+
+    public BigDecimal getAverageTransaction() {
+        return averageTransaction;
+    }
+
+    public void setAverageTransaction(BigDecimal averageTransaction) {
+        this.averageTransaction = averageTransaction;
+    }
+
+    public BigDecimal getRate() {
+        return rate;
+    }
+
+    public void setRate(BigDecimal rate) {
+        this.rate = rate;
+    }
+
+    public BigDecimal getNormalizedRevenue() {
+        return normalizedRevenue;
+    }
+
+    public void setNormalizedRevenue(BigDecimal normalizedRevenue) {
+        this.normalizedRevenue = normalizedRevenue;
+    }
+}
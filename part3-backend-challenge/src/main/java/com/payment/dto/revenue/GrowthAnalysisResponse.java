@@ -8,6 +8,7 @@ import java.util.List;
 public class GrowthAnalysisResponse {
     private Integer currentYear;
     private Integer comparisonYear;
+    private String grain; // "monthly" or "quarterly"
     private Double overallGrowthRate;
     private BigDecimal currentYearTotal;
     private BigDecimal comparisonYearTotal;
@@ -32,6 +33,14 @@ public class GrowthAnalysisResponse {
         this.comparisonYear = comparisonYear;
     }
 
+    public String getGrain() {
+        return grain;
+    }
+
+    public void setGrain(String grain) {
+        this.grain = grain;
+    }
+
     public Double getOverallGrowthRate() {
         return overallGrowthRate;
     }
@@ -9,6 +9,7 @@ public class MerchantRevenueData {
     private BigDecimal revenue;
     private Long transactionCount;
     private BigDecimal averageTransaction;
+    private Double successRate;
     private Double percentageOfTotal;
     private Integer rank;
 
@@ -47,6 +48,14 @@ public class MerchantRevenueData {
         this.averageTransaction = averageTransaction;
     }
 
+    public Double getSuccessRate() {
+        return successRate;
+    }
+
+    public void setSuccessRate(Double successRate) {
+        this.successRate = successRate;
+    }
+
     public Double getPercentageOfTotal() {
         return percentageOfTotal;
     }
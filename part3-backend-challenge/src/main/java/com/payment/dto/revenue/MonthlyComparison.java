@@ -5,8 +5,9 @@ import java.math.BigDecimal;
 
 @Serdeable
 public class MonthlyComparison {
-    private Integer month;
+    private Integer month; // set for the monthly grain
     private String monthName;
+    private Integer quarter; // set for the quarterly grain
     private BigDecimal currentYearRevenue;
     private BigDecimal previousYearRevenue;
     private Double growthRate;
@@ -30,6 +31,14 @@ public class MonthlyComparison {
         this.monthName = monthName;
     }
 
+    public Integer getQuarter() {
+        return quarter;
+    }
+
+    public void setQuarter(Integer quarter) {
+        this.quarter = quarter;
+    }
+
     public BigDecimal getCurrentYearRevenue() {
         return currentYearRevenue;
     }
@@ -0,0 +1,48 @@
+package com.payment.dto.revenue;
+
+import io.micronaut.serde.annotation.Serdeable;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Serdeable
+public class RevenueByCurrencyResponse {
+    private List<CurrencyRevenue> currencies;
+    private Long totalTransactions;
+    private String normalizedTo;
+    private BigDecimal normalizedTotalRevenue;
+
+    public RevenueByCurrencyResponse() {
+    }
+
+    public List<CurrencyRevenue> getCurrencies() {
+        return currencies;
+    }
+
+    public void setCurrencies(List<CurrencyRevenue> currencies) {
+        this.currencies = currencies;
+    }
+
+    public Long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public void setTotalTransactions(Long totalTransactions) {
+        this.totalTransactions = totalTransactions;
+    }
+
+    public String getNormalizedTo() {
+        return normalizedTo;
+    }
+
+    public void setNormalizedTo(String normalizedTo) {
+        this.normalizedTo = normalizedTo;
+    }
+
+    public BigDecimal getNormalizedTotalRevenue() {
+        return normalizedTotalRevenue;
+    }
+
+    public void setNormalizedTotalRevenue(BigDecimal normalizedTotalRevenue) {
+        this.normalizedTotalRevenue = normalizedTotalRevenue;
+    }
+}
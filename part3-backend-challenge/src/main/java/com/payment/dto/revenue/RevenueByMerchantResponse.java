@@ -9,6 +9,9 @@ public class RevenueByMerchantResponse {
     private List<MerchantRevenueData> merchants;
     private BigDecimal totalRevenue;
     private Integer totalMerchants;
+    private Boolean approximate;
+    private BigDecimal revenueErrorBound;
+    private Long countErrorBound;
 
     public RevenueByMerchantResponse() {
     }
@@ -36,5 +39,29 @@ public class RevenueByMerchantResponse {
     public void setTotalMerchants(Integer totalMerchants) {
         this.totalMerchants = totalMerchants;
     }
+
+    public Boolean getApproximate() {
+        return approximate;
+    }
+
+    public void setApproximate(Boolean approximate) {
+        this.approximate = approximate;
+    }
+
+    public BigDecimal getRevenueErrorBound() {
+        return revenueErrorBound;
+    }
+
+    public void setRevenueErrorBound(BigDecimal revenueErrorBound) {
+        this.revenueErrorBound = revenueErrorBound;
+    }
+
+    public Long getCountErrorBound() {
+        return countErrorBound;
+    }
+
+    public void setCountErrorBound(Long countErrorBound) {
+        this.countErrorBound = countErrorBound;
+    }
 }
 
@@ -10,6 +10,7 @@ public class RevenueByPeriodResponse {
     private BigDecimal totalRevenue;
     private Long totalTransactions;
     private String groupBy;
+    private String currency;
 
     public RevenueByPeriodResponse() {
     }
@@ -45,5 +46,12 @@ public class RevenueByPeriodResponse {
     public void setGroupBy(String groupBy) {
         this.groupBy = groupBy;
     }
-}
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+}
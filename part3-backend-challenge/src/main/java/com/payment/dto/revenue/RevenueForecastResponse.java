@@ -5,14 +5,23 @@ import java.util.List;
 
 @Serdeable
 public class RevenueForecastResponse {
+    private String merchantId; // null for the platform total
     private List<ForecastDataPoint> forecast;
     private List<PeriodRevenue> historicalData;
-    private String method; // "linear_regression" or "moving_average"
+    private String method; // "holt_winters", or "mean" while there is less than two weeks of history
     private Double confidence;
 
     public RevenueForecastResponse() {
     }
 
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
     public List<ForecastDataPoint> getForecast() {
         return forecast;
     }
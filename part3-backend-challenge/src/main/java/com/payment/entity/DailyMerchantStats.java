@@ -0,0 +1,128 @@
+package com.payment.entity;
+
+import io.micronaut.data.annotation.GeneratedValue;
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.annotation.MappedProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One row of the daily_merchant_stats rollup: transaction count and total amount for a
+ * (txn_date, merchant_id, status, card_type, currency) combination.
+ *
+ * Transactions without a card type are stored under an empty card_type.
+ */
+@Serdeable
+@MappedEntity(value = "daily_merchant_stats", schema = "operators")
+public class DailyMerchantStats {
+
+    @Id
+    @GeneratedValue(GeneratedValue.Type.IDENTITY)
+    @MappedProperty("stats_id")
+    private Long statsId;
+
+    @MappedProperty("txn_date")
+    private LocalDate txnDate;
+
+    @MappedProperty("merchant_id")
+    private String merchantId;
+
+    @MappedProperty("status")
+    private String status;
+
+    @MappedProperty("card_type")
+    private String cardType;
+
+    @MappedProperty("currency")
+    private String currency;
+
+    @MappedProperty("txn_count")
+    private Long txnCount;
+
+    @MappedProperty("total_amount")
+    private BigDecimal totalAmount;
+
+    @MappedProperty("updated_at")
+    private Instant updatedAt;
+
+    // Constructors
+    public DailyMerchantStats() {
+    }
+
+    // Getters and Setters
+    public Long getStatsId() {
+        return statsId;
+    }
+
+    public void setStatsId(Long statsId) {
+        this.statsId = statsId;
+    }
+
+    public LocalDate getTxnDate() {
+        return txnDate;
+    }
+
+    public void setTxnDate(LocalDate txnDate) {
+        this.txnDate = txnDate;
+    }
+
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getCardType() {
+        return cardType;
+    }
+
+    public void setCardType(String cardType) {
+        this.cardType = cardType;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getTxnCount() {
+        return txnCount;
+    }
+
+    public void setTxnCount(Long txnCount) {
+        this.txnCount = txnCount;
+    }
+
+    public BigDecimal getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(BigDecimal totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
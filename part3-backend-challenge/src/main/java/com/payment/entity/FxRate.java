@@ -0,0 +1,57 @@
+package com.payment.entity;
+
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.annotation.MappedProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Conversion rate of one currency into the reporting base currency:
+ * amount in base = amount in currency * rateToBase.
+ */
+@Serdeable
+@MappedEntity(value = "fx_rates", schema = "operators")
+public class FxRate {
+
+    @Id
+    @MappedProperty("currency")
+    private String currency;
+
+    @MappedProperty("rate_to_base")
+    private BigDecimal rateToBase;
+
+    @MappedProperty("updated_at")
+    private Instant updatedAt;
+
+    // Constructors
+    public FxRate() {
+    }
+
+    // Getters and Setters
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public BigDecimal getRateToBase() {
+        return rateToBase;
+    }
+
+    public void setRateToBase(BigDecimal rateToBase) {
+        this.rateToBase = rateToBase;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
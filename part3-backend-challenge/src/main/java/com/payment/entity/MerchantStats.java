@@ -0,0 +1,124 @@
+package com.payment.entity;
+
+import io.micronaut.data.annotation.Id;
+import io.micronaut.data.annotation.MappedEntity;
+import io.micronaut.data.annotation.MappedProperty;
+import io.micronaut.serde.annotation.Serdeable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One row of merchant_stats: lifetime transaction totals for a merchant, kept current by the
+ * write path and recomputed from daily_merchant_stats during reconciliation.
+ */
+@Serdeable
+@MappedEntity(value = "merchant_stats", schema = "operators")
+public class MerchantStats {
+
+    @Id
+    @MappedProperty("merchant_id")
+    private String merchantId;
+
+    @MappedProperty("total_transactions")
+    private Long totalTransactions;
+
+    @MappedProperty("total_revenue")
+    private BigDecimal totalRevenue;
+
+    @MappedProperty("completed_count")
+    private Long completedCount;
+
+    @MappedProperty("failed_count")
+    private Long failedCount;
+
+    @MappedProperty("pending_count")
+    private Long pendingCount;
+
+    @MappedProperty("first_transaction_date")
+    private LocalDate firstTransactionDate;
+
+    @MappedProperty("last_transaction_date")
+    private LocalDate lastTransactionDate;
+
+    @MappedProperty("updated_at")
+    private Instant updatedAt;
+
+    // Constructors
+    public MerchantStats() {
+    }
+
+    // Getters and Setters
+    public String getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(String merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public Long getTotalTransactions() {
+        return totalTransactions;
+    }
+
+    public void setTotalTransactions(Long totalTransactions) {
+        this.totalTransactions = totalTransactions;
+    }
+
+    public BigDecimal getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public void setTotalRevenue(BigDecimal totalRevenue) {
+        this.totalRevenue = totalRevenue;
+    }
+
+    public Long getCompletedCount() {
+        return completedCount;
+    }
+
+    public void setCompletedCount(Long completedCount) {
+        this.completedCount = completedCount;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public Long getPendingCount() {
+        return pendingCount;
+    }
+
+    public void setPendingCount(Long pendingCount) {
+        this.pendingCount = pendingCount;
+    }
+
+    public LocalDate getFirstTransactionDate() {
+        return firstTransactionDate;
+    }
+
+    public void setFirstTransactionDate(LocalDate firstTransactionDate) {
+        this.firstTransactionDate = firstTransactionDate;
+    }
+
+    public LocalDate getLastTransactionDate() {
+        return lastTransactionDate;
+    }
+
+    public void setLastTransactionDate(LocalDate lastTransactionDate) {
+        this.lastTransactionDate = lastTransactionDate;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,156 @@
+package com.payment.repository;
+
+import com.payment.dto.projection.DailyBreakdownProjection;
+import com.payment.dto.projection.DailyValueProjection;
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.dto.projection.YearMonthRevenueProjection;
+import com.payment.entity.DailyMerchantStats;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.List;
+
+/**
+ * Access to the daily_merchant_stats rollup.
+ *
+ * Read queries sum txn_count/total_amount over at most one row per
+ * (day, merchant, status, card type, currency) instead of one row per transaction.
+ */
+@Repository
+@JdbcRepository(dialect = Dialect.POSTGRES)
+public interface DailyMerchantStatsRepository extends CrudRepository<DailyMerchantStats, Long> {
+
+    // Write path: taken before adding a transaction to the rollup and held until commit. Inserts
+    // share the day's lock; a rebuild of the day holds it exclusively (lockDayForRebuild)
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock_shared(hashtext('operators.daily_merchant_stats'), " +
+           "CAST(:txnDate AS date) - DATE '1970-01-01')",
+           nativeQuery = true)
+    Integer lockDayForInsert(Date txnDate);
+
+    // Reconciliation: wait for inserts dated that day to commit and hold new ones back until the
+    // surrounding transaction commits, so the rebuild cannot overwrite increments it did not read
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('operators.daily_merchant_stats'), " +
+           "CAST(:txnDate AS date) - DATE '1970-01-01')",
+           nativeQuery = true)
+    Integer lockDayForRebuild(Date txnDate);
+
+    // Write path: add one transaction to its rollup row, creating the row on first use
+    @Query(value = "INSERT INTO operators.daily_merchant_stats " +
+           "(txn_date, merchant_id, status, card_type, currency, txn_count, total_amount) " +
+           "VALUES (:txnDate, :merchantId, :status, COALESCE(:cardType, ''), :currency, 1, :amount) " +
+           "ON CONFLICT (txn_date, merchant_id, status, card_type, currency) DO UPDATE SET " +
+           "txn_count = daily_merchant_stats.txn_count + 1, " +
+           "total_amount = daily_merchant_stats.total_amount + EXCLUDED.total_amount, " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    void addTransaction(Date txnDate, String merchantId, String status, String cardType, String currency, BigDecimal amount);
+
+    // Reconciliation: drop rollup rows whose combination no longer exists in transaction_master
+    @Query(value = "DELETE FROM operators.daily_merchant_stats s " +
+           "WHERE s.txn_date BETWEEN :startDate AND :endDate " +
+           "AND NOT EXISTS (SELECT 1 FROM operators.transaction_master t " +
+           "WHERE t.txn_date = s.txn_date AND t.merchant_id = s.merchant_id AND t.status = s.status " +
+           "AND COALESCE(t.card_type, '') = s.card_type AND t.currency = s.currency)",
+           nativeQuery = true)
+    void deleteStaleByDateRange(Date startDate, Date endDate);
+
+    // Reconciliation: recompute every combination in the range and overwrite the stored totals
+    @Query(value = "INSERT INTO operators.daily_merchant_stats " +
+           "(txn_date, merchant_id, status, card_type, currency, txn_count, total_amount) " +
+           "SELECT txn_date, merchant_id, status, COALESCE(card_type, ''), currency, COUNT(*), SUM(amount) " +
+           "FROM operators.transaction_master " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY txn_date, merchant_id, status, COALESCE(card_type, ''), currency " +
+           "ON CONFLICT (txn_date, merchant_id, status, card_type, currency) DO UPDATE SET " +
+           "txn_count = EXCLUDED.txn_count, " +
+           "total_amount = EXCLUDED.total_amount, " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    void rebuildByDateRange(Date startDate, Date endDate);
+
+    // Monthly totals for two date ranges (normally two calendar years). Plain range predicates
+    // on txn_date, so both ranges are index scans on the rollup's leading txn_date column
+    @Query(value = "SELECT EXTRACT(YEAR FROM txn_date)::int as year, " +
+           "EXTRACT(MONTH FROM txn_date)::int as month, " +
+           "SUM(txn_count)::bigint as count, " +
+           "SUM(total_amount)::numeric as total_amount " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :firstStartDate AND :firstEndDate " +
+           "OR txn_date BETWEEN :secondStartDate AND :secondEndDate " +
+           "GROUP BY year, month " +
+           "ORDER BY year, month",
+           nativeQuery = true,
+           readOnly = true)
+    List<YearMonthRevenueProjection> getMonthlyRevenue(Date firstStartDate, Date firstEndDate,
+                                                       Date secondStartDate, Date secondEndDate);
+
+    // One row per (day, merchant, status, card type, currency);
+    // everything the dashboard needs except peak times
+    @Query(value = "SELECT (txn_date - DATE '1970-01-01')::bigint as epoch_day, " +
+           "merchant_id, " +
+           "status, " +
+           "NULLIF(card_type, '') as card_type, " +
+           "currency, " +
+           "SUM(txn_count)::bigint as count, " +
+           "(SUM(total_amount) * 100)::bigint as amount_cents " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY txn_date, merchant_id, status, card_type, currency " +
+           "ORDER BY txn_date",
+           nativeQuery = true,
+           readOnly = true)
+    List<DailyBreakdownProjection> getDailyBreakdown(Date startDate, Date endDate);
+
+    // Seeds the HyperLogLog sketches in CardinalityTracker: one row per (day, merchant)
+    @Query(value = "SELECT (txn_date - DATE '1970-01-01')::bigint as epoch_day, merchant_id as value " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY txn_date, merchant_id",
+           nativeQuery = true,
+           readOnly = true)
+    List<DailyValueProjection> getDailyMerchantIds(Date startDate, Date endDate);
+
+    // Top-K pushdown: rank merchants in the database when the range is not held in memory.
+    // Tie-breaks match RangeMetrics.getTopMerchants.
+    @Query(value = "SELECT merchant_id, SUM(txn_count)::bigint as count, " +
+           "SUM(total_amount)::numeric as total_amount, " +
+           "SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END)::bigint as completed_count " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY merchant_id " +
+           "ORDER BY SUM(total_amount) DESC, SUM(txn_count) DESC, merchant_id " +
+           "LIMIT :limit",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantRankingProjection> findTopMerchantsByRevenue(Date startDate, Date endDate, int limit);
+
+    @Query(value = "SELECT merchant_id, SUM(txn_count)::bigint as count, " +
+           "SUM(total_amount)::numeric as total_amount, " +
+           "SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END)::bigint as completed_count " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY merchant_id " +
+           "ORDER BY SUM(txn_count) DESC, SUM(total_amount) DESC, merchant_id " +
+           "LIMIT :limit",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantRankingProjection> findTopMerchantsByCount(Date startDate, Date endDate, int limit);
+
+    @Query(value = "SELECT merchant_id, SUM(txn_count)::bigint as count, " +
+           "SUM(total_amount)::numeric as total_amount, " +
+           "SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END)::bigint as completed_count " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY merchant_id " +
+           "ORDER BY SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END)::numeric / SUM(txn_count) DESC, " +
+           "SUM(txn_count) DESC, SUM(total_amount) DESC, merchant_id " +
+           "LIMIT :limit",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantRankingProjection> findTopMerchantsBySuccessRate(Date startDate, Date endDate, int limit);
+}
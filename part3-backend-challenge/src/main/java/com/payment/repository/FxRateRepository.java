@@ -0,0 +1,15 @@
+package com.payment.repository;
+
+import com.payment.entity.FxRate;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+
+/**
+ * Repository for FX rates, read in full by {@link com.payment.analytics.FxRateTable}.
+ */
+@Repository
+@JdbcRepository(dialect = Dialect.POSTGRES)
+public interface FxRateRepository extends CrudRepository<FxRate, String> {
+}
@@ -1,5 +1,6 @@
 package com.payment.repository;
 
+import com.payment.dto.projection.MerchantSearchProjection;
 import com.payment.entity.Merchant;
 import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
@@ -9,6 +10,7 @@ import io.micronaut.data.model.Pageable;
 import io.micronaut.data.model.query.builder.sql.Dialect;
 import io.micronaut.data.repository.PageableRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,8 @@ public interface MerchantRepository extends PageableRepository<Merchant, String>
 
     Optional<Merchant> findByMerchantId(String merchantId);
 
+    List<Merchant> findByMerchantIdIn(Collection<String> merchantIds);
+
     List<Merchant> findByStatus(String status);
 
     Page<Merchant> findByStatus(String status, Pageable pageable);
@@ -26,16 +30,14 @@ public interface MerchantRepository extends PageableRepository<Merchant, String>
 
     Page<Merchant> findByBusinessNameContainsIgnoreCase(String businessName, Pageable pageable);
 
-    @Query(value = "SELECT * FROM operators.merchants WHERE " +
-            "merchant_name ILIKE '%' || :search || '%' OR " +
-            "business_name ILIKE '%' || :search || '%' OR " +
-            "merchant_id ILIKE '%' || :search || '%'",
-            countQuery = "SELECT COUNT(*) FROM operators.merchants WHERE " +
-                    "merchant_name ILIKE '%' || :search || '%' OR " +
-                    "business_name ILIKE '%' || :search || '%' OR " +
-                    "merchant_id ILIKE '%' || :search || '%'",
-            nativeQuery = true)
-    Page<Merchant> searchMerchants(String search, Pageable pageable);
+    // Documents for MerchantSearchIndex: every merchant with a profile, transactions, or both
+    @Query(value = "SELECT COALESCE(m.merchant_id, s.merchant_id) AS merchant_id, " +
+            "m.merchant_name, m.business_name, (s.merchant_id IS NOT NULL) AS listed " +
+            "FROM operators.merchants m " +
+            "FULL OUTER JOIN operators.merchant_stats s ON s.merchant_id = m.merchant_id",
+            nativeQuery = true,
+            readOnly = true)
+    List<MerchantSearchProjection> findSearchEntries();
 
     @Query(value = "SELECT * FROM operators.merchants WHERE status = :status AND risk_level = :riskLevel",
             nativeQuery = true)
@@ -45,5 +47,25 @@ public interface MerchantRepository extends PageableRepository<Merchant, String>
             nativeQuery = true)
     Long countByStatus(String status);
 
-    boolean existsByMerchantId(String merchantId);
+    // Bulk import duplicate check: which of the given tax IDs are already registered
+    @Query(value = "SELECT DISTINCT tax_id FROM operators.merchants WHERE tax_id IN (:taxIds)",
+            nativeQuery = true)
+    List<String> findExistingTaxIds(Collection<String> taxIds);
+
+    // First number of a new block of merchant IDs; the block size is the sequence increment
+    @Query(value = "SELECT nextval('operators.merchant_id_seq')",
+            nativeQuery = true,
+            readOnly = false)
+    Long nextMerchantIdBlock();
+
+    // Several blocks in one round trip, for bulk imports
+    @Query(value = "SELECT nextval('operators.merchant_id_seq') FROM generate_series(1, :count)",
+            nativeQuery = true,
+            readOnly = false)
+    List<Long> nextMerchantIdBlocks(int count);
+
+    @Query(value = "SELECT increment_by FROM pg_sequences " +
+            "WHERE schemaname = 'operators' AND sequencename = 'merchant_id_seq'",
+            nativeQuery = true)
+    Long getMerchantIdBlockSize();
 }
\ No newline at end of file
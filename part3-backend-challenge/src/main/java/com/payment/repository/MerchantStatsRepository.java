@@ -0,0 +1,138 @@
+package com.payment.repository;
+
+import com.payment.dto.merchant.MerchantStatsDTO;
+import com.payment.entity.MerchantStats;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.annotation.Repository;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Access to merchant_stats, one row of lifetime totals per merchant.
+ *
+ * Reads return {@link MerchantStatsDTO} with the merchant's name from operators.merchants, so
+ * listing and details are primary key lookups instead of a GROUP BY over transactions.
+ */
+@Repository
+@JdbcRepository(dialect = Dialect.POSTGRES)
+public interface MerchantStatsRepository extends CrudRepository<MerchantStats, String> {
+
+    String STATS_SELECT = "SELECT s.merchant_id, m.merchant_name, " +
+           "s.total_transactions, s.total_revenue, s.completed_count, s.failed_count, s.pending_count, " +
+           "s.last_transaction_date, s.first_transaction_date " +
+           "FROM operators.merchant_stats s " +
+           "LEFT JOIN operators.merchants m ON m.merchant_id = s.merchant_id ";
+
+    // Write path: add one transaction to its merchant's row, creating the row on first use
+    @Query(value = "INSERT INTO operators.merchant_stats " +
+           "(merchant_id, total_transactions, total_revenue, completed_count, failed_count, pending_count, " +
+           "first_transaction_date, last_transaction_date) " +
+           "VALUES (:merchantId, 1, :amount, " +
+           "CASE WHEN :status = 'completed' THEN 1 ELSE 0 END, " +
+           "CASE WHEN :status = 'failed' THEN 1 ELSE 0 END, " +
+           "CASE WHEN :status = 'pending' THEN 1 ELSE 0 END, " +
+           ":txnDate, :txnDate) " +
+           "ON CONFLICT (merchant_id) DO UPDATE SET " +
+           "total_transactions = merchant_stats.total_transactions + 1, " +
+           "total_revenue = merchant_stats.total_revenue + EXCLUDED.total_revenue, " +
+           "completed_count = merchant_stats.completed_count + EXCLUDED.completed_count, " +
+           "failed_count = merchant_stats.failed_count + EXCLUDED.failed_count, " +
+           "pending_count = merchant_stats.pending_count + EXCLUDED.pending_count, " +
+           "first_transaction_date = LEAST(merchant_stats.first_transaction_date, EXCLUDED.first_transaction_date), " +
+           "last_transaction_date = GREATEST(merchant_stats.last_transaction_date, EXCLUDED.last_transaction_date), " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    void addTransaction(Date txnDate, String merchantId, String status, BigDecimal amount);
+
+    // Reconciliation: the merchants whose stored totals differ from a fresh aggregate of the
+    // rollup, including merchants missing on either side. One snapshot covers both tables, and
+    // the write path changes both in one transaction, so live inserts never show up as drift.
+    @Query(value = "SELECT COALESCE(r.merchant_id, s.merchant_id) as merchant_id FROM (" +
+           "SELECT merchant_id, SUM(txn_count) as total_transactions, SUM(total_amount) as total_revenue, " +
+           "SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END) as completed_count, " +
+           "SUM(CASE WHEN status = 'failed' THEN txn_count ELSE 0 END) as failed_count, " +
+           "SUM(CASE WHEN status = 'pending' THEN txn_count ELSE 0 END) as pending_count, " +
+           "MIN(txn_date) as first_transaction_date, MAX(txn_date) as last_transaction_date " +
+           "FROM operators.daily_merchant_stats " +
+           "GROUP BY merchant_id) r " +
+           "FULL OUTER JOIN operators.merchant_stats s ON s.merchant_id = r.merchant_id " +
+           "WHERE (r.total_transactions, r.total_revenue, r.completed_count, r.failed_count, r.pending_count, " +
+           "r.first_transaction_date, r.last_transaction_date) IS DISTINCT FROM (s.total_transactions, " +
+           "s.total_revenue, s.completed_count, s.failed_count, s.pending_count, s.first_transaction_date, " +
+           "s.last_transaction_date) " +
+           "ORDER BY 1",
+           nativeQuery = true,
+           readOnly = true)
+    List<String> findDriftedMerchantIds();
+
+    // Reconciliation: block the write path until the surrounding transaction commits, so the
+    // rebuild cannot overwrite increments made after it read the rollup
+    @Query(value = "LOCK TABLE operators.merchant_stats IN SHARE ROW EXCLUSIVE MODE",
+           nativeQuery = true)
+    void lockForRebuild();
+
+    // Reconciliation: drop the given merchants if they no longer have any rollup rows
+    @Query(value = "DELETE FROM operators.merchant_stats s " +
+           "WHERE s.merchant_id IN (:merchantIds) " +
+           "AND NOT EXISTS (SELECT 1 FROM operators.daily_merchant_stats d WHERE d.merchant_id = s.merchant_id)",
+           nativeQuery = true)
+    void deleteStale(Collection<String> merchantIds);
+
+    // Reconciliation: recompute the given merchants from the rollup (idx_daily_merchant_stats_merchant)
+    @Query(value = "INSERT INTO operators.merchant_stats " +
+           "(merchant_id, total_transactions, total_revenue, completed_count, failed_count, pending_count, " +
+           "first_transaction_date, last_transaction_date) " +
+           "SELECT merchant_id, SUM(txn_count), SUM(total_amount), " +
+           "SUM(CASE WHEN status = 'completed' THEN txn_count ELSE 0 END), " +
+           "SUM(CASE WHEN status = 'failed' THEN txn_count ELSE 0 END), " +
+           "SUM(CASE WHEN status = 'pending' THEN txn_count ELSE 0 END), " +
+           "MIN(txn_date), MAX(txn_date) " +
+           "FROM operators.daily_merchant_stats " +
+           "WHERE merchant_id IN (:merchantIds) " +
+           "GROUP BY merchant_id " +
+           "ON CONFLICT (merchant_id) DO UPDATE SET " +
+           "total_transactions = EXCLUDED.total_transactions, " +
+           "total_revenue = EXCLUDED.total_revenue, " +
+           "completed_count = EXCLUDED.completed_count, " +
+           "failed_count = EXCLUDED.failed_count, " +
+           "pending_count = EXCLUDED.pending_count, " +
+           "first_transaction_date = EXCLUDED.first_transaction_date, " +
+           "last_transaction_date = EXCLUDED.last_transaction_date, " +
+           "updated_at = NOW()",
+           nativeQuery = true)
+    void rebuildFromRollup(Collection<String> merchantIds);
+
+    // Exact merchant list total: one row per merchant, so no DISTINCT
+    @Query(value = "SELECT COUNT(*) FROM operators.merchant_stats",
+           nativeQuery = true,
+           readOnly = true)
+    Long countMerchants();
+
+    @Query(value = STATS_SELECT + "WHERE s.merchant_id = :merchantId",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantStatsDTO> getMerchantStatistics(String merchantId);
+
+    @Query(value = STATS_SELECT + "ORDER BY s.merchant_id LIMIT :limit OFFSET :offset",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantStatsDTO> getMerchantsWithStats(int limit, int offset);
+
+    // Keyset pages seek on the primary key, so every page costs the same as the first
+    @Query(value = STATS_SELECT + "WHERE s.merchant_id > :after ORDER BY s.merchant_id LIMIT :limit",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantStatsDTO> getMerchantsWithStatsAfter(String after, int limit);
+
+    // Search pages: the IDs come from MerchantSearchIndex, so this is a primary key lookup per merchant
+    @Query(value = STATS_SELECT + "WHERE s.merchant_id IN (:merchantIds) ORDER BY s.merchant_id",
+           nativeQuery = true,
+           readOnly = true)
+    List<MerchantStatsDTO> getMerchantsWithStatsByIds(Collection<String> merchantIds);
+}
@@ -0,0 +1,161 @@
+package com.payment.repository;
+
+import io.micronaut.data.jdbc.runtime.JdbcOperations;
+import io.micronaut.transaction.annotation.ReadOnly;
+import jakarta.inject.Singleton;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Streaming read paths over transaction_master and the daily_merchant_stats rollup.
+ *
+ * Rows are read through a server-side cursor with a bounded fetch size and handed to a
+ * callback one at a time, so memory use does not grow with the size of the range. Dates,
+ * amounts and hour of week are converted to integers in SQL; the same {@link Row} instance
+ * is reused for every row and must not be retained by the handler.
+ */
+@Singleton
+public class TransactionCursorRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private static final String STREAM_BY_DATE_RANGE_SQL = "SELECT (txn_date - DATE '1970-01-01') as epoch_day, " +
+        "(amount * 100)::bigint as amount_cents, " +
+        "merchant_id, status, card_type, currency, " +
+        "(EXTRACT(DOW FROM local_txn_date_time AT TIME ZONE 'UTC')::int * 24 + " +
+        "EXTRACT(HOUR FROM local_txn_date_time AT TIME ZONE 'UTC')::int) as hour_of_week " +
+        "FROM operators.transaction_master " +
+        "WHERE txn_date BETWEEN ? AND ? " +
+        "ORDER BY txn_date";
+
+    private static final String STREAM_DAILY_MERCHANT_TOTALS_SQL = "SELECT (txn_date - DATE '1970-01-01') as epoch_day, " +
+        "merchant_id, " +
+        "SUM(txn_count)::bigint as count, " +
+        "(SUM(total_amount) * 100)::bigint as amount_cents " +
+        "FROM operators.daily_merchant_stats " +
+        "WHERE txn_date BETWEEN ? AND ? " +
+        "GROUP BY txn_date, merchant_id";
+
+    private final JdbcOperations jdbcOperations;
+
+    public TransactionCursorRepository(JdbcOperations jdbcOperations) {
+        this.jdbcOperations = jdbcOperations;
+    }
+
+    /**
+     * Feed every transaction between the given dates (inclusive) to the handler, in txn_date order.
+     * The cursor needs an open transaction, which @ReadOnly provides.
+     *
+     * @return number of rows read
+     */
+    @ReadOnly
+    public long streamByDateRange(LocalDate startDate, LocalDate endDate, RowHandler handler) {
+        return jdbcOperations.prepareStatement(STREAM_BY_DATE_RANGE_SQL, statement -> {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setDate(1, Date.valueOf(startDate));
+            statement.setDate(2, Date.valueOf(endDate));
+
+            Row row = new Row();
+            long rows = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    row.read(rs);
+                    handler.accept(row);
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+
+    /**
+     * Feed each merchant's transaction count and total per day between the given dates
+     * (inclusive) to the handler, in no particular order.
+     *
+     * @return number of (day, merchant) rows read
+     */
+    @ReadOnly
+    public long streamDailyMerchantTotals(LocalDate startDate, LocalDate endDate, MerchantDayHandler handler) {
+        return jdbcOperations.prepareStatement(STREAM_DAILY_MERCHANT_TOTALS_SQL, statement -> {
+            statement.setFetchSize(FETCH_SIZE);
+            statement.setDate(1, Date.valueOf(startDate));
+            statement.setDate(2, Date.valueOf(endDate));
+
+            long rows = 0;
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    handler.accept(rs.getInt(1), rs.getString(2), rs.getLong(3), rs.getLong(4));
+                    rows++;
+                }
+            }
+            return rows;
+        });
+    }
+
+    @FunctionalInterface
+    public interface RowHandler {
+        void accept(Row row);
+    }
+
+    @FunctionalInterface
+    public interface MerchantDayHandler {
+        void accept(int epochDay, String merchantId, long count, long amountCents);
+    }
+
+    /**
+     * Current cursor position. Reused between rows.
+     */
+    public static final class Row {
+        private int epochDay;
+        private long amountCents;
+        private String merchantId;
+        private String status;
+        private String cardType;
+        private String currency;
+        private int hourOfWeek;
+
+        private void read(ResultSet rs) throws SQLException {
+            epochDay = rs.getInt(1);
+            amountCents = rs.getLong(2);
+            merchantId = rs.getString(3);
+            status = rs.getString(4);
+            cardType = rs.getString(5);
+            currency = rs.getString(6);
+            hourOfWeek = rs.getInt(7);
+        }
+
+        public int getEpochDay() {
+            return epochDay;
+        }
+
+        public long getAmountCents() {
+            return amountCents;
+        }
+
+        public String getMerchantId() {
+            return merchantId;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getCardType() {
+            return cardType;
+        }
+
+        public String getCurrency() {
+            return currency;
+        }
+
+        /**
+         * UTC day of week (Sunday = 0) * 24 + hour of day.
+         */
+        public int getHourOfWeek() {
+            return hourOfWeek;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.payment.repository;
 
+import com.payment.dto.projection.DailyValueProjection;
+import com.payment.dto.projection.PeakTimesProjection;
+import com.payment.dto.projection.TransactionSummaryProjection;
 import com.payment.entity.TransactionMaster;
 import io.micronaut.data.annotation.Query;
 import io.micronaut.data.annotation.Repository;
@@ -44,15 +47,21 @@ public interface TransactionRepository extends PageableRepository<TransactionMas
            nativeQuery = true)
     List<TransactionMaster> findByDateRangeForAnalytics(Date startDate, Date endDate);
 
+    // Hour and day of week are taken in UTC; DOW is 0-6 with Sunday = 0
+    @Query(value = "SELECT EXTRACT(HOUR FROM local_txn_date_time AT TIME ZONE 'UTC')::int as hour, " +
+           "EXTRACT(DOW FROM local_txn_date_time AT TIME ZONE 'UTC')::int as day_of_week, " +
+           "COUNT(*)::bigint as count " +
+           "FROM operators.transaction_master " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate " +
+           "GROUP BY hour, day_of_week",
+           nativeQuery = true,
+           readOnly = true)
+    List<PeakTimesProjection> getPeakTimes(Date startDate, Date endDate);
+
     @Query(value = "SELECT * FROM operators.transaction_master WHERE merchant_id = :merchantId AND txn_date BETWEEN :startDate AND :endDate",
            nativeQuery = true)
     List<TransactionMaster> findByMerchantIdAndDateRange(String merchantId, Date startDate, Date endDate);
 
-    @Query(value = "SELECT * FROM operators.transaction_master WHERE EXTRACT(YEAR FROM txn_date) IN (:year1, :year2)",
-           nativeQuery = true)
-    List<TransactionMaster> findByYears(int year1, int year2);
-
-
     // Recent transactions for real-time updates
     @Query(value = "SELECT * FROM operators.transaction_master " +
            "WHERE created_at > :since " +
@@ -91,14 +100,37 @@ public interface TransactionRepository extends PageableRepository<TransactionMas
            nativeQuery = true)
     Page<TransactionMaster> findByMerchantIdAndStatusAndDateRange(String merchantId, String status, Date startDate, Date endDate, Pageable pageable);
 
-    // Non-paginated versions for summary calculations
-    @Query(value = "SELECT * FROM operators.transaction_master WHERE status = :status AND txn_date BETWEEN :startDate AND :endDate",
-           nativeQuery = true)
-    List<TransactionMaster> findByStatusAndDateRange(String status, Date startDate, Date endDate);
+    // Summary of a filtered transaction list in one pass: counts per status and totals in cents,
+    // rounded like MoneyAccumulator.toCents
+    String SUMMARY_SELECT = "SELECT COUNT(*)::bigint as total_count, " +
+           "COALESCE(SUM(ROUND(amount * 100)), 0)::bigint as total_cents, " +
+           "MIN(ROUND(amount * 100))::bigint as min_cents, " +
+           "MAX(ROUND(amount * 100))::bigint as max_cents, " +
+           "COUNT(*) FILTER (WHERE LOWER(status) = 'completed')::bigint as completed_count, " +
+           "COUNT(*) FILTER (WHERE LOWER(status) = 'pending')::bigint as pending_count, " +
+           "COUNT(*) FILTER (WHERE LOWER(status) = 'failed')::bigint as failed_count " +
+           "FROM operators.transaction_master " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate ";
 
-    @Query(value = "SELECT * FROM operators.transaction_master WHERE merchant_id = :merchantId AND status = :status AND txn_date BETWEEN :startDate AND :endDate",
-           nativeQuery = true)
-    List<TransactionMaster> findByMerchantIdAndStatusAndDateRange(String merchantId, String status, Date startDate, Date endDate);
+    @Query(value = SUMMARY_SELECT,
+           nativeQuery = true,
+           readOnly = true)
+    TransactionSummaryProjection getSummary(Date startDate, Date endDate);
+
+    @Query(value = SUMMARY_SELECT + "AND merchant_id = :merchantId",
+           nativeQuery = true,
+           readOnly = true)
+    TransactionSummaryProjection getSummaryByMerchant(String merchantId, Date startDate, Date endDate);
+
+    @Query(value = SUMMARY_SELECT + "AND status = :status",
+           nativeQuery = true,
+           readOnly = true)
+    TransactionSummaryProjection getSummaryByStatus(String status, Date startDate, Date endDate);
+
+    @Query(value = SUMMARY_SELECT + "AND merchant_id = :merchantId AND status = :status",
+           nativeQuery = true,
+           readOnly = true)
+    TransactionSummaryProjection getSummaryByMerchantAndStatus(String merchantId, String status, Date startDate, Date endDate);
 
     // Merchant aggregation queries - using raw JDBC query execution
     // IMPORTANT: Native queries with aggregations return List<Object[]>
@@ -108,60 +140,22 @@ public interface TransactionRepository extends PageableRepository<TransactionMas
            nativeQuery = true)
     List<String> findDistinctMerchantIds();
 
-    @Query(value = "SELECT merchant_id, " +
-           "COUNT(*)::bigint as total_transactions, " +
-           "SUM(amount)::numeric as total_revenue, " +
-           "SUM(CASE WHEN status = 'completed' THEN 1 ELSE 0 END)::bigint as completed_count, " +
-           "SUM(CASE WHEN status = 'failed' THEN 1 ELSE 0 END)::bigint as failed_count, " +
-           "SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END)::bigint as pending_count, " +
-           "MAX(txn_date) as last_transaction_date, " +
-           "MIN(txn_date) as first_transaction_date " +
-           "FROM operators.transaction_master " +
-           "WHERE merchant_id = :merchantId " +
-           "GROUP BY merchant_id",
-           nativeQuery = true,
-           readOnly = true)
-    List<com.payment.dto.merchant.MerchantStatsDTO> getMerchantStatistics(String merchantId);
-
-    @Query(value = "SELECT merchant_id, " +
-           "COUNT(*)::bigint as total_transactions, " +
-           "SUM(amount)::numeric as total_revenue, " +
-           "SUM(CASE WHEN status = 'completed' THEN 1 ELSE 0 END)::bigint as completed_count, " +
-           "SUM(CASE WHEN status = 'failed' THEN 1 ELSE 0 END)::bigint as failed_count, " +
-           "SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END)::bigint as pending_count, " +
-           "MAX(txn_date) as last_transaction_date, " +
-           "MIN(txn_date) as first_transaction_date " +
-           "FROM operators.transaction_master " +
-           "GROUP BY merchant_id " +
-           "ORDER BY merchant_id " +
-           "LIMIT :limit OFFSET :offset",
-           nativeQuery = true,
-           readOnly = true)
-    List<com.payment.dto.merchant.MerchantStatsDTO> getMerchantsWithStats(int limit, int offset);
-
     @Query(value = "SELECT COUNT(DISTINCT merchant_id) FROM operators.transaction_master",
            nativeQuery = true)
     Long countDistinctMerchants();
 
-    @Query(value = "SELECT merchant_id, " +
-           "COUNT(*)::bigint as total_transactions, " +
-           "SUM(amount)::numeric as total_revenue, " +
-           "SUM(CASE WHEN status = 'completed' THEN 1 ELSE 0 END)::bigint as completed_count, " +
-           "SUM(CASE WHEN status = 'failed' THEN 1 ELSE 0 END)::bigint as failed_count, " +
-           "SUM(CASE WHEN status = 'pending' THEN 1 ELSE 0 END)::bigint as pending_count, " +
-           "MAX(txn_date) as last_transaction_date, " +
-           "MIN(txn_date) as first_transaction_date " +
-           "FROM operators.transaction_master " +
-           "WHERE LOWER(merchant_id) LIKE LOWER(CONCAT('%', :search, '%')) " +
-           "GROUP BY merchant_id " +
-           "ORDER BY merchant_id " +
-           "LIMIT :limit OFFSET :offset",
-           nativeQuery = true,
-           readOnly = true)
-    List<com.payment.dto.merchant.MerchantStatsDTO> searchMerchantsWithStats(String search, int limit, int offset);
-
     @Query(value = "SELECT COUNT(DISTINCT merchant_id) FROM operators.transaction_master " +
            "WHERE LOWER(merchant_id) LIKE LOWER(CONCAT('%', :search, '%'))",
            nativeQuery = true)
     Long countMerchantsBySearch(String search);
+
+    // Card fingerprint is card type plus last four digits, the most the table stores about a card
+    @Query(value = "SELECT (txn_date - DATE '1970-01-01')::bigint as epoch_day, " +
+           "COALESCE(card_type, '') || ':' || card_last4 as value " +
+           "FROM operators.transaction_master " +
+           "WHERE txn_date BETWEEN :startDate AND :endDate AND card_last4 IS NOT NULL " +
+           "GROUP BY txn_date, COALESCE(card_type, ''), card_last4",
+           nativeQuery = true,
+           readOnly = true)
+    List<DailyValueProjection> getDailyCardFingerprints(Date startDate, Date endDate);
 }
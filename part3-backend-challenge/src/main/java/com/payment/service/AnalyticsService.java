@@ -32,5 +32,17 @@ public interface AnalyticsService {
      * Get card type distribution.
      */
     CardDistributionResponse getCardDistribution(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get the approximate number of distinct merchants and cards that transacted in the range.
+     */
+    ActiveMerchantsResponse getActiveMerchants(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Get p50/p90/p99 transaction amounts overall, per merchant or per card type
+     * ("none", "merchant" or "cardType"), optionally for a single merchant or card type.
+     */
+    AmountPercentilesResponse getAmountPercentiles(LocalDate startDate, LocalDate endDate, String groupBy,
+                                                   String value, int limit);
 }
 
@@ -1,8 +1,18 @@
 package com.payment.service;
 
 
+import com.payment.analytics.AmountQuantileTracker;
+import com.payment.analytics.CardinalityTracker;
+import com.payment.analytics.MoneyAccumulator;
+import com.payment.analytics.TransactionDimension;
+import com.payment.analytics.DashboardAggregator;
+import com.payment.analytics.PeriodGrain;
+import com.payment.analytics.RangeMetrics;
 import com.payment.dto.analytics.*;
-import com.payment.entity.TransactionMaster;
+import com.payment.dto.projection.CardDistributionProjection;
+import com.payment.dto.projection.PeakTimesProjection;
+import com.payment.dto.projection.StatusDistributionProjection;
+import com.payment.dto.projection.VolumeProjection;
 import com.payment.repository.TransactionRepository;
 import jakarta.inject.Singleton;
 
@@ -17,39 +27,34 @@ import java.util.stream.Collectors;
 public class AnalyticsServiceImpl implements AnalyticsService {
 
     private final TransactionRepository transactionRepository;
-
-    public AnalyticsServiceImpl(TransactionRepository transactionRepository) {
+    private final DashboardAggregator dashboardAggregator;
+    private final CardinalityTracker cardinalityTracker;
+    private final AmountQuantileTracker amountQuantileTracker;
+
+    public AnalyticsServiceImpl(TransactionRepository transactionRepository,
+                                DashboardAggregator dashboardAggregator,
+                                CardinalityTracker cardinalityTracker,
+                                AmountQuantileTracker amountQuantileTracker) {
         this.transactionRepository = transactionRepository;
+        this.dashboardAggregator = dashboardAggregator;
+        this.cardinalityTracker = cardinalityTracker;
+        this.amountQuantileTracker = amountQuantileTracker;
     }
 
     @Override
     public VolumeAnalyticsResponse getTransactionVolume(LocalDate startDate, LocalDate endDate, String groupBy) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group transactions by period
-        Map<String, List<TransactionMaster>> groupedByPeriod = new LinkedHashMap<>();
-
-        for (TransactionMaster txn : transactions) {
-            String period = formatPeriod(txn.getTxnDate(), groupBy);
-            groupedByPeriod.computeIfAbsent(period, k -> new ArrayList<>()).add(txn);
-        }
+        // Shared with the other dashboard metrics for the same range
+        PeriodGrain grain = PeriodGrain.from(groupBy);
+        List<VolumeProjection> rows = dashboardAggregator.getMetrics(startDate, endDate).getVolumeByPeriod(grain);
 
         // Calculate volume data for each period
-        List<VolumeDataPoint> dataPoints = groupedByPeriod.entrySet().stream()
-            .map(entry -> {
-                String period = entry.getKey();
-                List<TransactionMaster> txns = entry.getValue();
-
-                long count = txns.size();
-                BigDecimal total = txns.stream()
-                    .map(TransactionMaster::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        List<VolumeDataPoint> dataPoints = rows.stream()
+            .map(row -> {
+                long count = row.getCount() != null ? row.getCount() : 0L;
+                BigDecimal total = row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO;
                 BigDecimal average = count > 0 ? total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
 
-                return new VolumeDataPoint(period, count, total, average);
+                return new VolumeDataPoint(row.getPeriod(), count, total, average);
             })
             .collect(Collectors.toList());
 
@@ -57,50 +62,37 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return new VolumeAnalyticsResponse(dataPoints, groupBy, dateRange);
     }
 
-    private String formatPeriod(java.sql.Date date, String groupBy) {
-        LocalDate localDate = date.toLocalDate();
-        switch (groupBy.toLowerCase()) {
-            case "week":
-                return localDate.with(java.time.DayOfWeek.MONDAY).toString();
-            case "month":
-                return localDate.withDayOfMonth(1).toString();
-            default:
-                return localDate.toString();
-        }
-    }
-
     @Override
     public SuccessRateResponse getSuccessRate(LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
+        List<StatusDistributionProjection> rows = dashboardAggregator.getMetrics(startDate, endDate).getStatusDistribution();
 
         SuccessRateResponse response = new SuccessRateResponse();
         Map<String, Long> breakdown = new HashMap<>();
 
-        long total = transactions.size();
+        long total = 0;
         long completed = 0;
         long pending = 0;
         long failed = 0;
         long reversed = 0;
 
-        for (TransactionMaster txn : transactions) {
-            String status = txn.getStatus();
-            breakdown.merge(status, 1L, Long::sum);
+        for (StatusDistributionProjection row : rows) {
+            String status = row.getStatus();
+            long count = row.getCount() != null ? row.getCount() : 0L;
+            breakdown.merge(status, count, Long::sum);
+            total += count;
 
             switch (status.toLowerCase()) {
                 case "completed":
-                    completed++;
+                    completed += count;
                     break;
                 case "pending":
-                    pending++;
+                    pending += count;
                     break;
                 case "failed":
-                    failed++;
+                    failed += count;
                     break;
                 case "reversed":
-                    reversed++;
+                    reversed += count;
                     break;
             }
         }
@@ -125,27 +117,18 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public TrendsResponse getTransactionTrends(LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by day
-        Map<String, List<TransactionMaster>> dailyGroups = new LinkedHashMap<>();
-        for (TransactionMaster txn : transactions) {
-            String day = txn.getTxnDate().toLocalDate().toString();
-            dailyGroups.computeIfAbsent(day, k -> new ArrayList<>()).add(txn);
-        }
+        // Daily totals, already ordered by day
+        List<VolumeProjection> dailyRows = dashboardAggregator.getMetrics(startDate, endDate).getVolumeByPeriod(PeriodGrain.DAY);
 
         List<TrendDataPoint> trends = new ArrayList<>();
         BigDecimal previousAvg = null;
 
-        for (Map.Entry<String, List<TransactionMaster>> entry : dailyGroups.entrySet()) {
-            List<TransactionMaster> dayTxns = entry.getValue();
-            BigDecimal total = dayTxns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-            BigDecimal avgAmount = dayTxns.isEmpty() ? BigDecimal.ZERO : total.divide(BigDecimal.valueOf(dayTxns.size()), 2, RoundingMode.HALF_UP);
+        for (VolumeProjection row : dailyRows) {
+            long count = row.getCount() != null ? row.getCount() : 0L;
+            BigDecimal total = row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO;
+            BigDecimal avgAmount = count == 0 ? BigDecimal.ZERO : total.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
 
-            TrendDataPoint point = new TrendDataPoint(entry.getKey(), avgAmount, (long) dayTxns.size());
+            TrendDataPoint point = new TrendDataPoint(row.getPeriod(), avgAmount, count);
 
             // Calculate change percentage from previous period
             if (previousAvg != null && previousAvg.compareTo(BigDecimal.ZERO) > 0) {
@@ -189,32 +172,14 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
     @Override
     public PeakTimesResponse getPeakTimes(LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by hour and day of week (all in UTC)
-        Map<String, Long> timeCounts = new HashMap<>();
-        for (TransactionMaster txn : transactions) {
-            if (txn.getLocalTxnDateTime() != null) {
-                // Convert Instant to LocalDateTime in UTC
-                java.time.LocalDateTime dateTime = java.time.LocalDateTime.ofInstant(
-                    txn.getLocalTxnDateTime(),
-                    java.time.ZoneOffset.UTC
-                );
-                int hour = dateTime.getHour();
-                int dayOfWeek = dateTime.getDayOfWeek().getValue() % 7; // Convert to 0-6 (Sunday=0)
-                String key = hour + "-" + dayOfWeek;
-                timeCounts.merge(key, 1L, Long::sum);
-            }
-        }
-
-        List<HeatmapCell> heatmapData = timeCounts.entrySet().stream()
-            .map(entry -> {
-                String[] parts = entry.getKey().split("-");
-                return new HeatmapCell(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), entry.getValue());
-            })
+        // Grouped by hour and day of week (all in UTC)
+        RangeMetrics metrics = dashboardAggregator.getMetrics(startDate, endDate);
+        List<PeakTimesProjection> rows = metrics.hasPeakTimes()
+            ? metrics.getPeakTimes()
+            : getPeakTimesByDay(startDate, endDate);
+
+        List<HeatmapCell> heatmapData = rows.stream()
+            .map(row -> new HeatmapCell(row.getHour(), row.getDayOfWeek(), row.getCount()))
             .collect(Collectors.toList());
 
         PeakTimesResponse response = new PeakTimesResponse(heatmapData);
@@ -235,29 +200,57 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         return response;
     }
 
+    /**
+     * Only the cube carries the time of day, and only for days it has in full. Those days are
+     * summed from their segments; the rest (today, back-dated days, days outside the window)
+     * are grouped from transaction_master, one query per run of consecutive days.
+     */
+    private List<PeakTimesProjection> getPeakTimesByDay(LocalDate startDate, LocalDate endDate) {
+        long[] counts = new long[7 * 24];
+        List<RangeMetrics> days = dashboardAggregator.getDays(startDate, endDate);
+        int d = 0;
+        while (d < days.size()) {
+            if (days.get(d).hasPeakTimes()) {
+                for (PeakTimesProjection cell : days.get(d).getPeakTimes()) {
+                    counts[cell.getDayOfWeek() * 24 + cell.getHour()] += cell.getCount();
+                }
+                d++;
+                continue;
+            }
+            int runEnd = d;
+            while (runEnd + 1 < days.size() && !days.get(runEnd + 1).hasPeakTimes()) {
+                runEnd++;
+            }
+            for (PeakTimesProjection cell : transactionRepository.getPeakTimes(
+                    Date.valueOf(days.get(d).getStartDate()), Date.valueOf(days.get(runEnd).getStartDate()))) {
+                counts[cell.getDayOfWeek() * 24 + cell.getHour()] += cell.getCount();
+            }
+            d = runEnd + 1;
+        }
+
+        List<PeakTimesProjection> rows = new ArrayList<>();
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] > 0) {
+                rows.add(new PeakTimesProjection(slot % 24, slot / 24, counts[slot]));
+            }
+        }
+        return rows;
+    }
+
     @Override
     public CardDistributionResponse getCardDistribution(LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        // Fetch all transactions and group by card type in Java
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
+        List<CardDistributionProjection> rows = dashboardAggregator.getMetrics(startDate, endDate).getCardDistribution();
 
-        // Group by card type
-        Map<String, CardTypeData> cardTypeMap = new HashMap<>();
+        List<CardTypeData> distribution = new ArrayList<>();
         long totalTransactions = 0;
 
-        for (TransactionMaster txn : transactions) {
-            String cardType = txn.getCardType();
-            CardTypeData data = cardTypeMap.computeIfAbsent(cardType, k -> new CardTypeData(k, 0L, BigDecimal.ZERO));
-
-            data.setCount(data.getCount() + 1);
-            data.setTotalAmount(data.getTotalAmount().add(txn.getAmount()));
-            totalTransactions++;
+        for (CardDistributionProjection row : rows) {
+            long count = row.getCount() != null ? row.getCount() : 0L;
+            BigDecimal totalAmount = row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO;
+            distribution.add(new CardTypeData(row.getCardType(), count, totalAmount));
+            totalTransactions += count;
         }
 
-        List<CardTypeData> distribution = new ArrayList<>(cardTypeMap.values());
-
         // Calculate percentages
         final long total = totalTransactions;
         distribution.forEach(data -> {
@@ -271,5 +264,46 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
         return new CardDistributionResponse(distribution, totalTransactions);
     }
+
+    @Override
+    public ActiveMerchantsResponse getActiveMerchants(LocalDate startDate, LocalDate endDate) {
+        CardinalityTracker.ActiveCounts counts = cardinalityTracker.countActive(startDate, endDate);
+        return new ActiveMerchantsResponse(counts.getMerchants(), counts.getCards(),
+            counts.getRelativeStandardError(), startDate + " to " + endDate);
+    }
+
+    @Override
+    public AmountPercentilesResponse getAmountPercentiles(LocalDate startDate, LocalDate endDate, String groupBy,
+                                                          String value, int limit) {
+        TransactionDimension dimension = null;
+        if (!"none".equalsIgnoreCase(groupBy)) {
+            dimension = TransactionDimension.fromCategory(groupBy);
+            if (dimension != TransactionDimension.MERCHANT && dimension != TransactionDimension.CARD_TYPE) {
+                throw new IllegalArgumentException("groupBy must be 'none', 'merchant' or 'cardType'");
+            }
+        }
+
+        List<AmountPercentileData> groups = amountQuantileTracker
+            .distributions(startDate, endDate, dimension, dimension != null ? value : null, limit).stream()
+            .map(distribution -> {
+                AmountPercentileData data = new AmountPercentileData();
+                data.setKey(distribution.getKey());
+                data.setCount(distribution.getCount());
+                data.setMin(MoneyAccumulator.toAmount(distribution.getMinCents()));
+                data.setP50(MoneyAccumulator.toAmount(distribution.getP50Cents()));
+                data.setP90(MoneyAccumulator.toAmount(distribution.getP90Cents()));
+                data.setP99(MoneyAccumulator.toAmount(distribution.getP99Cents()));
+                data.setMax(MoneyAccumulator.toAmount(distribution.getMaxCents()));
+                return data;
+            })
+            .collect(Collectors.toList());
+
+        AmountPercentilesResponse response = new AmountPercentilesResponse();
+        response.setGroups(groups);
+        response.setGroupBy(groupBy);
+        response.setRelativeAccuracy(amountQuantileTracker.getRelativeAccuracy());
+        response.setDateRange(startDate + " to " + endDate);
+        return response;
+    }
 }
 
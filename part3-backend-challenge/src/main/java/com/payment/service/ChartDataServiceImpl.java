@@ -1,14 +1,25 @@
 package com.payment.service;
 
+import com.payment.analytics.AnalyticsSegmentCache;
+import com.payment.analytics.DashboardAggregator;
+import com.payment.analytics.MerchantRankingMetric;
+import com.payment.analytics.MoneyAccumulator;
+import com.payment.analytics.PeriodAccumulator;
+import com.payment.analytics.PeriodGrain;
+import com.payment.analytics.RangeMetrics;
+import com.payment.analytics.TransactionDimension;
 import com.payment.dto.chart.ChartDataResponse;
 import com.payment.dto.chart.ChartDataset;
+import com.payment.dto.projection.CardDistributionProjection;
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.dto.projection.StatusDistributionProjection;
+import com.payment.dto.projection.VolumeProjection;
 import com.payment.entity.TransactionMaster;
 import com.payment.repository.TransactionRepository;
 import jakarta.inject.Singleton;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.sql.Date;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
@@ -18,50 +29,45 @@ import java.util.stream.Collectors;
 public class ChartDataServiceImpl implements ChartDataService {
 
     private final TransactionRepository transactionRepository;
+    private final DashboardAggregator dashboardAggregator;
+    private final AnalyticsSegmentCache segmentCache;
 
-    public ChartDataServiceImpl(TransactionRepository transactionRepository) {
+    public ChartDataServiceImpl(TransactionRepository transactionRepository,
+                                DashboardAggregator dashboardAggregator,
+                                AnalyticsSegmentCache segmentCache) {
         this.transactionRepository = transactionRepository;
+        this.dashboardAggregator = dashboardAggregator;
+        this.segmentCache = segmentCache;
     }
 
     @Override
     public ChartDataResponse getLineChartData(String metric, LocalDate startDate, LocalDate endDate, String groupBy) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
+        PeriodGrain grain = PeriodGrain.from(groupBy);
+        List<VolumeProjection> grouped = dashboardAggregator.getMetrics(startDate, endDate).getVolumeByPeriod(grain);
 
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by period
-        Map<String, List<TransactionMaster>> grouped = new LinkedHashMap<>();
-        for (TransactionMaster txn : transactions) {
-            String period = formatPeriod(txn.getTxnDate(), groupBy);
-            grouped.computeIfAbsent(period, k -> new ArrayList<>()).add(txn);
-        }
-
-        List<String> labels = new ArrayList<>(grouped.keySet());
+        List<String> labels = grouped.stream().map(VolumeProjection::getPeriod).collect(Collectors.toList());
         List<Object> data;
         String datasetLabel;
 
         switch (metric.toLowerCase()) {
             case "volume":
             case "count":
-                data = grouped.values().stream()
-                    .map(txns -> (Object) (long) txns.size())
+                data = grouped.stream()
+                    .map(row -> (Object) row.getCount())
                     .collect(Collectors.toList());
                 datasetLabel = "Transaction Volume";
                 break;
             case "avgamount":
             case "average":
-                data = grouped.values().stream()
-                    .map(txns -> {
-                        BigDecimal total = txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                        return (Object) (txns.isEmpty() ? BigDecimal.ZERO : total.divide(BigDecimal.valueOf(txns.size()), 2, RoundingMode.HALF_UP));
-                    })
+                data = grouped.stream()
+                    .map(row -> (Object) (row.getCount() == 0 ? BigDecimal.ZERO
+                        : row.getTotalAmount().divide(BigDecimal.valueOf(row.getCount()), 2, RoundingMode.HALF_UP)))
                     .collect(Collectors.toList());
                 datasetLabel = "Average Transaction Amount";
                 break;
             default: // revenue
-                data = grouped.values().stream()
-                    .map(txns -> (Object) txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                data = grouped.stream()
+                    .map(row -> (Object) row.getTotalAmount())
                     .collect(Collectors.toList());
                 datasetLabel = "Revenue";
         }
@@ -80,24 +86,9 @@ public class ChartDataServiceImpl implements ChartDataService {
         return response;
     }
 
-    private String formatPeriod(java.sql.Date date, String groupBy) {
-        LocalDate localDate = date.toLocalDate();
-        switch (groupBy.toLowerCase()) {
-            case "week":
-                return localDate.with(java.time.DayOfWeek.MONDAY).toString();
-            case "month":
-                return localDate.withDayOfMonth(1).toString();
-            default:
-                return localDate.toString();
-        }
-    }
-
     @Override
     public ChartDataResponse getBarChartData(String compareBy, LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
+        RangeMetrics metrics = dashboardAggregator.getMetrics(startDate, endDate);
 
         List<String> labels;
         List<Object> revenueData;
@@ -106,46 +97,34 @@ public class ChartDataServiceImpl implements ChartDataService {
         switch (compareBy.toLowerCase()) {
             case "cardtype":
             case "card":
-                Map<String, List<TransactionMaster>> byCard = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getCardType));
-                labels = new ArrayList<>(byCard.keySet());
-                revenueData = byCard.values().stream()
-                    .map(txns -> (Object) txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                List<CardDistributionProjection> byCard = metrics.getCardDistribution();
+                labels = byCard.stream().map(CardDistributionProjection::getCardType).collect(Collectors.toList());
+                revenueData = byCard.stream()
+                    .map(row -> (Object) row.getTotalAmount())
                     .collect(Collectors.toList());
-                countData = byCard.values().stream()
-                    .map(txns -> (Object) (long) txns.size())
+                countData = byCard.stream()
+                    .map(row -> (Object) row.getCount())
                     .collect(Collectors.toList());
                 break;
 
             case "status":
-                Map<String, List<TransactionMaster>> byStatus = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getStatus));
-                labels = new ArrayList<>(byStatus.keySet());
-                countData = byStatus.values().stream()
-                    .map(txns -> (Object) (long) txns.size())
+                List<StatusDistributionProjection> byStatus = metrics.getStatusDistribution();
+                labels = byStatus.stream().map(StatusDistributionProjection::getStatus).collect(Collectors.toList());
+                countData = byStatus.stream()
+                    .map(row -> (Object) row.getCount())
                     .collect(Collectors.toList());
                 revenueData = new ArrayList<>();
                 break;
 
             default: // merchant
-                Map<String, List<TransactionMaster>> byMerchant = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getMerchantId));
-
-                List<Map.Entry<String, List<TransactionMaster>>> sorted = byMerchant.entrySet().stream()
-                    .sorted((a, b) -> {
-                        BigDecimal revA = a.getValue().stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                        BigDecimal revB = b.getValue().stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                        return revB.compareTo(revA);
-                    })
-                    .limit(10)
-                    .collect(Collectors.toList());
+                List<MerchantRankingProjection> top = metrics.getTopMerchants(MerchantRankingMetric.REVENUE, 10);
 
-                labels = sorted.stream().map(Map.Entry::getKey).collect(Collectors.toList());
-                revenueData = sorted.stream()
-                    .map(e -> (Object) e.getValue().stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+                labels = top.stream().map(MerchantRankingProjection::getMerchantId).collect(Collectors.toList());
+                revenueData = top.stream()
+                    .map(row -> (Object) row.getTotalAmount())
                     .collect(Collectors.toList());
-                countData = sorted.stream()
-                    .map(e -> (Object) (long) e.getValue().size())
+                countData = top.stream()
+                    .map(row -> (Object) row.getCount())
                     .collect(Collectors.toList());
         }
 
@@ -175,10 +154,7 @@ public class ChartDataServiceImpl implements ChartDataService {
 
     @Override
     public ChartDataResponse getPieChartData(String distributeBy, LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
+        RangeMetrics metrics = dashboardAggregator.getMetrics(startDate, endDate);
 
         List<String> labels;
         List<Object> data;
@@ -186,31 +162,22 @@ public class ChartDataServiceImpl implements ChartDataService {
         switch (distributeBy.toLowerCase()) {
             case "cardtype":
             case "card":
-                Map<String, Long> byCard = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getCardType, Collectors.counting()));
-                labels = new ArrayList<>(byCard.keySet());
-                data = new ArrayList<>(byCard.values());
+                List<CardDistributionProjection> byCard = metrics.getCardDistribution();
+                labels = byCard.stream().map(CardDistributionProjection::getCardType).collect(Collectors.toList());
+                data = byCard.stream().map(row -> (Object) row.getCount()).collect(Collectors.toList());
                 break;
 
             case "merchant":
-                Map<String, BigDecimal> byMerchant = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getMerchantId,
-                        Collectors.reducing(BigDecimal.ZERO, TransactionMaster::getAmount, BigDecimal::add)));
-
-                List<Map.Entry<String, BigDecimal>> sorted = byMerchant.entrySet().stream()
-                    .sorted((a, b) -> b.getValue().compareTo(a.getValue()))
-                    .limit(5)
-                    .collect(Collectors.toList());
+                List<MerchantRankingProjection> top = metrics.getTopMerchants(MerchantRankingMetric.REVENUE, 5);
 
-                labels = sorted.stream().map(Map.Entry::getKey).collect(Collectors.toList());
-                data = sorted.stream().map(Map.Entry::getValue).collect(Collectors.toList());
+                labels = top.stream().map(MerchantRankingProjection::getMerchantId).collect(Collectors.toList());
+                data = top.stream().map(row -> (Object) row.getTotalAmount()).collect(Collectors.toList());
                 break;
 
             default: // status
-                Map<String, Long> byStatus = transactions.stream()
-                    .collect(Collectors.groupingBy(TransactionMaster::getStatus, Collectors.counting()));
-                labels = new ArrayList<>(byStatus.keySet());
-                data = new ArrayList<>(byStatus.values());
+                List<StatusDistributionProjection> byStatus = metrics.getStatusDistribution();
+                labels = byStatus.stream().map(StatusDistributionProjection::getStatus).collect(Collectors.toList());
+                data = byStatus.stream().map(row -> (Object) row.getCount()).collect(Collectors.toList());
         }
 
         String[] colors = {"rgba(255, 99, 132, 0.8)", "rgba(54, 162, 235, 0.8)",
@@ -235,43 +202,23 @@ public class ChartDataServiceImpl implements ChartDataService {
 
     @Override
     public ChartDataResponse getDrillDownData(String category, String categoryValue, LocalDate startDate, LocalDate endDate) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
         // For drill-down, we'll show daily breakdown for the specific category
-        List<TransactionMaster> transactions;
-
-        if ("merchant".equalsIgnoreCase(category)) {
-            transactions = transactionRepository.findByMerchantIdAndDateRange(categoryValue, sqlStartDate, sqlEndDate);
-        } else {
-            transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-            // Filter by category value
-            final String finalCategoryValue = categoryValue;
-            transactions = transactions.stream()
-                .filter(txn -> {
-                    if ("cardtype".equalsIgnoreCase(category)) {
-                        return finalCategoryValue.equals(txn.getCardType());
-                    } else if ("status".equalsIgnoreCase(category)) {
-                        return finalCategoryValue.equals(txn.getStatus());
-                    }
-                    return true;
-                })
-                .collect(Collectors.toList());
+        TransactionDimension dimension = TransactionDimension.fromCategory(category);
+        PeriodAccumulator daily = new PeriodAccumulator(PeriodGrain.DAY);
+        for (RangeMetrics day : segmentCache.getDays(startDate, endDate)) {
+            MoneyAccumulator totals = day.getTotals(dimension, categoryValue);
+            if (totals != null && totals.getCount() > 0) {
+                daily.add(day.getStartDate().toEpochDay(), totals.getCount(), totals.getSumCents());
+            }
         }
+        List<VolumeProjection> dailyGroups = daily.toProjections();
 
-        // Group by day
-        Map<String, List<TransactionMaster>> dailyGroups = new LinkedHashMap<>();
-        for (TransactionMaster txn : transactions) {
-            String day = txn.getTxnDate().toLocalDate().toString();
-            dailyGroups.computeIfAbsent(day, k -> new ArrayList<>()).add(txn);
-        }
-
-        List<String> labels = new ArrayList<>(dailyGroups.keySet());
-        List<Object> revenueData = dailyGroups.values().stream()
-            .map(txns -> (Object) txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add))
+        List<String> labels = dailyGroups.stream().map(VolumeProjection::getPeriod).collect(Collectors.toList());
+        List<Object> revenueData = dailyGroups.stream()
+            .map(row -> (Object) row.getTotalAmount())
             .collect(Collectors.toList());
-        List<Object> countData = dailyGroups.values().stream()
-            .map(txns -> (Object) (long) txns.size())
+        List<Object> countData = dailyGroups.stream()
+            .map(row -> (Object) row.getCount())
             .collect(Collectors.toList());
 
         ChartDataset revenueDataset = new ChartDataset("Revenue", revenueData);
@@ -292,4 +239,3 @@ public class ChartDataServiceImpl implements ChartDataService {
         return response;
     }
 }
-
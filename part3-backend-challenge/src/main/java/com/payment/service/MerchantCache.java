@@ -0,0 +1,293 @@
+package com.payment.service;
+
+import com.payment.entity.Merchant;
+import com.payment.repository.MerchantRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Singleton;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process cache of {@link Merchant} entities by merchant ID.
+ *
+ * Lookups are read-through and writes made by this instance are written through once their
+ * transaction commits. Other writers are seen through Postgres LISTEN/NOTIFY: a trigger on
+ * operators.merchants (part1-database-challenge/create-merchant-change-notify.sql) sends the
+ * merchant ID of every updated or deleted row on {@value #CHANNEL}, and every
+ * {@code merchants.cache.poll-interval} each instance evicts the IDs it was sent. Listening
+ * needs a connection held for good, so it opens its own with the datasource URL and
+ * credentials rather than taking one of the pool's; while it is down the cache is emptied and
+ * lookups go to the database.
+ *
+ * At most {@code merchants.cache.max-size} merchants are kept (least recently used first out).
+ * Cached entities are shared and must not be modified.
+ */
+@Singleton
+public class MerchantCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MerchantCache.class);
+
+    static final String CHANNEL = "merchant_changed";
+
+    private final MerchantRepository merchantRepository;
+    private final TransactionOperations<Connection> transactionOperations;
+    private final String url;
+    private final Properties credentials = new Properties();
+    private final boolean enabled;
+    private final int maxSize;
+    private final Map<String, Merchant> merchants;
+
+    // Bumped by every eviction, so a load that raced with one is not cached
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private volatile Connection listener;
+
+    public MerchantCache(MerchantRepository merchantRepository,
+                         TransactionOperations<Connection> transactionOperations,
+                         @Value("${datasources.default.url}") String url,
+                         @Value("${datasources.default.username}") String username,
+                         @Value("${datasources.default.password}") String password,
+                         @Value("${merchants.cache.enabled:true}") boolean enabled,
+                         @Value("${merchants.cache.max-size:10000}") int maxSize) {
+        this.merchantRepository = merchantRepository;
+        this.transactionOperations = transactionOperations;
+        this.url = url;
+        credentials.setProperty("user", username);
+        credentials.setProperty("password", password);
+        credentials.setProperty("ApplicationName", "merchant-cache-listener");
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        // Access-ordered, so the eldest entry is the least recently used merchant
+        this.merchants = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Merchant> eldest) {
+                return size() > MerchantCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * The merchant with the given ID, from memory when cached. Absent merchants are not cached.
+     */
+    public Optional<Merchant> find(String merchantId) {
+        if (!isActive()) {
+            return merchantRepository.findById(merchantId);
+        }
+        synchronized (merchants) {
+            Merchant merchant = merchants.get(merchantId);
+            if (merchant != null) {
+                hits.incrementAndGet();
+                return Optional.of(merchant);
+            }
+        }
+
+        misses.incrementAndGet();
+        long loadedAt = generation.get();
+        Optional<Merchant> merchant = merchantRepository.findById(merchantId);
+        merchant.ifPresent(loaded -> {
+            synchronized (merchants) {
+                if (generation.get() == loadedAt) {
+                    merchants.put(merchantId, loaded);
+                }
+            }
+        });
+        return merchant;
+    }
+
+    /**
+     * The merchants with the given IDs that exist, by ID: cached ones from memory and the rest
+     * with one IN-list query.
+     */
+    public Map<String, Merchant> findAll(Collection<String> merchantIds) {
+        Map<String, Merchant> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        boolean active = isActive();
+        if (active) {
+            synchronized (merchants) {
+                for (String merchantId : merchantIds) {
+                    Merchant merchant = merchants.get(merchantId);
+                    if (merchant != null) {
+                        found.put(merchantId, merchant);
+                    } else {
+                        missing.add(merchantId);
+                    }
+                }
+            }
+            hits.addAndGet(found.size());
+            misses.addAndGet(missing.size());
+        } else {
+            missing.addAll(merchantIds);
+        }
+        if (missing.isEmpty()) {
+            return found;
+        }
+
+        long loadedAt = generation.get();
+        List<Merchant> loaded = merchantRepository.findByMerchantIdIn(missing);
+        synchronized (merchants) {
+            boolean current = active && generation.get() == loadedAt;
+            for (Merchant merchant : loaded) {
+                found.put(merchant.getMerchantId(), merchant);
+                if (current) {
+                    merchants.put(merchant.getMerchantId(), merchant);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Cache a merchant this instance has just saved. Inside a transaction the entry is written
+     * when it commits, and dropped instead if it rolls back.
+     */
+    public void put(Merchant merchant) {
+        if (!isActive()) {
+            return;
+        }
+        String merchantId = merchant.getMerchantId();
+        Optional<? extends TransactionStatus<?>> transaction = transactionOperations.findTransactionStatus();
+        if (transaction.isEmpty()) {
+            store(merchant);
+            return;
+        }
+        // Anything cached before the commit would be visible even if the transaction rolls back
+        evict(merchantId);
+        transaction.get().registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                store(merchant);
+            }
+        });
+    }
+
+    public void evict(String merchantId) {
+        synchronized (merchants) {
+            generation.incrementAndGet();
+            merchants.remove(merchantId);
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (merchants) {
+            generation.incrementAndGet();
+            merchants.clear();
+        }
+    }
+
+    /**
+     * Evict the merchants other writers have changed since the last poll, (re)connecting the
+     * listener first if needed.
+     */
+    @Scheduled(fixedDelay = "${merchants.cache.poll-interval:1s}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Connection connection = listener;
+            if (connection == null) {
+                connection = listen();
+            }
+            // Notifications are only read off the socket while a statement runs
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT 1");
+            }
+            PGNotification[] notifications = connection.unwrap(PGConnection.class).getNotifications();
+            if (notifications != null) {
+                for (PGNotification notification : notifications) {
+                    evict(notification.getParameter());
+                }
+            }
+        } catch (SQLException e) {
+            LOG.warn("Merchant cache listener failed, serving merchants from the database until it reconnects: {}",
+                e.getMessage());
+            close();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public int size() {
+        synchronized (merchants) {
+            return merchants.size();
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        Connection connection = listener;
+        listener = null;
+        invalidateAll();
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                LOG.debug("Failed to close merchant cache listener: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Connection listen() throws SQLException {
+        Connection connection = connect();
+        try {
+            connection.setAutoCommit(true);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + CHANNEL);
+            }
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        // Changes made while nobody was listening were missed
+        invalidateAll();
+        listener = connection;
+        LOG.info("Merchant cache listening for changes on {}", CHANNEL);
+        return connection;
+    }
+
+    /**
+     * A connection outside the pool, so listening never takes one from request handling.
+     */
+    Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, credentials);
+    }
+
+    private void store(Merchant merchant) {
+        synchronized (merchants) {
+            merchants.put(merchant.getMerchantId(), merchant);
+        }
+    }
+
+    private boolean isActive() {
+        return enabled && listener != null;
+    }
+}
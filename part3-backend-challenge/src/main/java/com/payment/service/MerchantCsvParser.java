@@ -0,0 +1,188 @@
+package com.payment.service;
+
+import com.payment.dto.merchant.CreateMerchantRequest;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads merchants for bulk import from CSV (RFC 4180: comma separated, double-quoted fields
+ * may contain commas, quotes doubled, and line breaks).
+ *
+ * The first record is a header naming a {@link CreateMerchantRequest} field per column, in
+ * camelCase or snake_case ("businessName" or "business_name"); columns may appear in any order.
+ * Empty cells leave the field at its default. A record that cannot be read becomes a row with
+ * an error instead of failing the whole file; an unknown column fails the file.
+ */
+final class MerchantCsvParser {
+
+    private MerchantCsvParser() {
+    }
+
+    /**
+     * One data record: the request, or null with the reason it could not be read.
+     */
+    static final class Row {
+        final CreateMerchantRequest request;
+        final String error;
+
+        private Row(CreateMerchantRequest request, String error) {
+            this.request = request;
+            this.error = error;
+        }
+
+        static Row of(CreateMerchantRequest request) {
+            return new Row(request, null);
+        }
+
+        static Row error(String error) {
+            return new Row(null, error);
+        }
+    }
+
+    static List<Row> parse(String csv) {
+        List<List<String>> records = readRecords(csv);
+        if (records.isEmpty()) {
+            throw new IllegalArgumentException("CSV must start with a header row");
+        }
+
+        List<String> header = records.get(0);
+        List<BiConsumer<CreateMerchantRequest, String>> setters = new ArrayList<>(header.size());
+        for (String column : header) {
+            setters.add(setterFor(column));
+        }
+
+        List<Row> rows = new ArrayList<>(records.size() - 1);
+        for (int r = 1; r < records.size(); r++) {
+            List<String> cells = records.get(r);
+            if (cells.size() != header.size()) {
+                rows.add(Row.error("Expected " + header.size() + " columns but found " + cells.size()));
+                continue;
+            }
+            CreateMerchantRequest request = new CreateMerchantRequest();
+            try {
+                for (int c = 0; c < cells.size(); c++) {
+                    String value = cells.get(c).trim();
+                    if (!value.isEmpty()) {
+                        setters.get(c).accept(request, value);
+                    }
+                }
+                rows.add(Row.of(request));
+            } catch (DateTimeParseException e) {
+                rows.add(Row.error("Registration date must be an ISO date (yyyy-MM-dd)"));
+            }
+        }
+        return rows;
+    }
+
+    private static BiConsumer<CreateMerchantRequest, String> setterFor(String column) {
+        String name = column.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]", "");
+        switch (name) {
+            case "merchantname":
+                return CreateMerchantRequest::setMerchantName;
+            case "businessname":
+                return CreateMerchantRequest::setBusinessName;
+            case "businesstype":
+                return CreateMerchantRequest::setBusinessType;
+            case "taxid":
+                return CreateMerchantRequest::setTaxId;
+            case "email":
+                return CreateMerchantRequest::setEmail;
+            case "phone":
+                return CreateMerchantRequest::setPhone;
+            case "website":
+                return CreateMerchantRequest::setWebsite;
+            case "addressline1":
+                return CreateMerchantRequest::setAddressLine1;
+            case "addressline2":
+                return CreateMerchantRequest::setAddressLine2;
+            case "city":
+                return CreateMerchantRequest::setCity;
+            case "state":
+                return CreateMerchantRequest::setState;
+            case "postalcode":
+                return CreateMerchantRequest::setPostalCode;
+            case "country":
+                return CreateMerchantRequest::setCountry;
+            case "registrationdate":
+                return (request, value) -> request.setRegistrationDate(LocalDate.parse(value));
+            case "industry":
+                return CreateMerchantRequest::setIndustry;
+            case "annualrevenuerange":
+                return CreateMerchantRequest::setAnnualRevenueRange;
+            case "employeecountrange":
+                return CreateMerchantRequest::setEmployeeCountRange;
+            case "status":
+                return CreateMerchantRequest::setStatus;
+            case "risklevel":
+                return CreateMerchantRequest::setRiskLevel;
+            case "notes":
+                return CreateMerchantRequest::setNotes;
+            default:
+                throw new IllegalArgumentException("Unknown CSV column: " + column);
+        }
+    }
+
+    /**
+     * Split the text into records of cells, skipping blank lines.
+     */
+    private static List<List<String>> readRecords(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        boolean blank = true;
+
+        int start = csv.startsWith("\uFEFF") ? 1 : 0;
+        for (int i = start; i < csv.length(); i++) {
+            char ch = csv.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                        cell.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    cell.append(ch);
+                }
+            } else if (ch == '"') {
+                quoted = true;
+                blank = false;
+            } else if (ch == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+                blank = false;
+            } else if (ch == '\n' || ch == '\r') {
+                if (ch == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                if (!blank) {
+                    cells.add(cell.toString());
+                    records.add(cells);
+                }
+                cells = new ArrayList<>();
+                cell.setLength(0);
+                blank = true;
+            } else {
+                cell.append(ch);
+                if (!Character.isWhitespace(ch)) {
+                    blank = false;
+                }
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV ends inside a quoted field");
+        }
+        if (!blank) {
+            cells.add(cell.toString());
+            records.add(cells);
+        }
+        return records;
+    }
+}
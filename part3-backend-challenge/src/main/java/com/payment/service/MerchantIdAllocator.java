@@ -0,0 +1,80 @@
+package com.payment.service;
+
+import com.payment.repository.MerchantRepository;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out merchant IDs (MCH-00051, ...) from blocks reserved in operators.merchant_id_seq.
+ *
+ * One nextval() reserves a whole block (the sequence increment) for this instance, and IDs
+ * within it come from memory, so a create costs a database round trip only once per block and
+ * instances never collide. Numbers left in a block at shutdown are skipped.
+ */
+@Singleton
+public class MerchantIdAllocator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MerchantIdAllocator.class);
+    private static final String PREFIX = "MCH-";
+
+    private final MerchantRepository merchantRepository;
+
+    private long blockSize;
+    private long next;
+    private long limit;
+
+    public MerchantIdAllocator(MerchantRepository merchantRepository) {
+        this.merchantRepository = merchantRepository;
+    }
+
+    public synchronized String nextId() {
+        if (next >= limit) {
+            next = merchantRepository.nextMerchantIdBlock();
+            limit = next + getBlockSize();
+            LOG.debug("Reserved merchant ID block {} to {}", next, limit - 1);
+        }
+        return format(next++);
+    }
+
+    /**
+     * The given number of IDs, reserving every further block they need in one round trip.
+     */
+    public synchronized List<String> nextIds(int count) {
+        List<String> ids = new ArrayList<>(count);
+        while (ids.size() < count && next < limit) {
+            ids.add(format(next++));
+        }
+        if (ids.size() < count) {
+            long size = getBlockSize();
+            int blocks = (int) ((count - ids.size() + size - 1) / size);
+            for (Long block : merchantRepository.nextMerchantIdBlocks(blocks)) {
+                next = block;
+                limit = block + size;
+                while (ids.size() < count && next < limit) {
+                    ids.add(format(next++));
+                }
+            }
+            LOG.debug("Reserved {} merchant ID block(s) for {} IDs", blocks, count);
+        }
+        return ids;
+    }
+
+    private long getBlockSize() {
+        if (blockSize == 0) {
+            Long size = merchantRepository.getMerchantIdBlockSize();
+            if (size == null || size < 1) {
+                throw new IllegalStateException("Sequence operators.merchant_id_seq is missing or has no positive increment");
+            }
+            blockSize = size;
+        }
+        return blockSize;
+    }
+
+    private static String format(long number) {
+        return PREFIX + String.format("%05d", number);
+    }
+}
@@ -0,0 +1,821 @@
+package com.payment.service;
+
+import com.payment.dto.merchant.MerchantSuggestion;
+import com.payment.dto.projection.MerchantSearchProjection;
+import com.payment.entity.Merchant;
+import com.payment.repository.MerchantRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * In-memory trigram index over merchant ID, merchant name and business name.
+ *
+ * Every merchant with a profile or a merchant_stats row is a document; each distinct
+ * lower-case trigram of its three fields points to a sorted posting list of documents. A
+ * substring query of three or more characters intersects the posting lists of its trigrams,
+ * starting with the shortest, and only checks the text of the documents left, so a search
+ * costs the size of its rarest trigram's list rather than the number of merchants. Shorter
+ * queries check every document. Autocomplete also offers near misses that share at least
+ * {@code merchants.search.min-similarity} of the query's trigrams.
+ *
+ * The index is loaded on first use and rebuilt every {@code merchants.search.refresh-interval},
+ * which also picks up changes made by other instances. Creates and updates on this instance
+ * are applied as they commit, and a merchant's first transaction lists it.
+ *
+ * Searches read the current index through a volatile field and never lock. A change is made
+ * to a copy and then published, so writers never wait for searches. The copy shares every
+ * piece the change does not write: both maps are split into shards, the documents into pages
+ * and each posting list into blocks, and only the shards, pages and blocks written are copied,
+ * so a change costs about its own size rather than the size of the index. A change that is
+ * already in the index copies nothing.
+ */
+@Singleton
+public class MerchantSearchIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MerchantSearchIndex.class);
+
+    private static final String[] FIELD_NAMES = {"merchantId", "merchantName", "businessName"};
+
+    // Match types, best first; the index is also the rank
+    private static final String[] MATCH_TYPES = {"exact", "prefix", "word", "substring", "similar"};
+    private static final int SIMILAR = 4;
+
+    // Pieces of the index a copy shares until it writes them; all powers of two
+    private static final int SHARD_BITS = 10;
+    private static final int PAGE_BITS = 10;
+    private static final int BLOCK_SIZE = 128;
+
+    private final MerchantRepository merchantRepository;
+    private final double minSimilarity;
+
+    // Held for a whole rebuild; taken before this, never while holding it
+    private final Object rebuildLock = new Object();
+
+    // Published indexes are never modified again
+    private volatile Index index;
+    // Changes made while a rebuild is reading the database, applied to the new index before it is used
+    private List<Consumer<Index>> pending;
+
+    public MerchantSearchIndex(MerchantRepository merchantRepository,
+                               @Value("${merchants.search.min-similarity:0.5}") double minSimilarity) {
+        if (minSimilarity <= 0 || minSimilarity > 1) {
+            throw new IllegalArgumentException("merchants.search.min-similarity must be above 0 and at most 1");
+        }
+        this.merchantRepository = merchantRepository;
+        this.minSimilarity = minSimilarity;
+    }
+
+    @Scheduled(fixedDelay = "${merchants.search.refresh-interval:5m}",
+               initialDelay = "${merchants.search.refresh-interval:5m}")
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            LOG.error("Failed to rebuild merchant search index: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Index a merchant profile this instance has just saved.
+     */
+    public void put(Merchant merchant) {
+        putAll(List.of(merchant));
+    }
+
+    /**
+     * Index merchant profiles this instance has just saved, with one copy of the index.
+     */
+    public void putAll(List<Merchant> merchants) {
+        String[][] names = new String[merchants.size()][];
+        for (int i = 0; i < names.length; i++) {
+            Merchant merchant = merchants.get(i);
+            names[i] = new String[] {merchant.getMerchantId(), merchant.getMerchantName(), merchant.getBusinessName()};
+        }
+        apply(target -> {
+            for (String[] merchant : names) {
+                target.setNames(merchant[0], merchant[1], merchant[2]);
+            }
+        }, current -> {
+            for (String[] merchant : names) {
+                if (!current.hasNames(merchant[0], merchant[1], merchant[2])) {
+                    return false;
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Include a merchant in list searches once it has transactions (a merchant_stats row).
+     */
+    public void markListed(String merchantId) {
+        apply(target -> target.setListed(merchantId), current -> current.isListed(merchantId));
+    }
+
+    /**
+     * IDs of the listed merchants with the query in any field (case-insensitive), in
+     * merchant ID order.
+     */
+    public List<String> findMerchantIds(String query) {
+        String needle = normalize(query);
+        ensureLoaded();
+        List<String> merchantIds = new ArrayList<>();
+        Index current = index;
+        current.forEachCandidate(needle, doc -> {
+            Doc entry = current.doc(doc);
+            if (entry.listed && current.classify(doc, needle) >= 0) {
+                merchantIds.add(entry.merchantId);
+            }
+        });
+        Collections.sort(merchantIds);
+        return merchantIds;
+    }
+
+    /**
+     * The best matches for a search box: exact, then prefix, word-start and substring matches,
+     * merchant ID before merchant name before business name, then near misses by similarity.
+     */
+    public List<MerchantSuggestion> suggest(String query, int limit) {
+        String needle = normalize(query);
+        ensureLoaded();
+        Index current = index;
+        // Worst kept match at the head
+        PriorityQueue<Match> best = new PriorityQueue<>(Comparator.reverseOrder());
+        current.forEachCandidate(needle, doc -> {
+            int rank = current.classify(doc, needle);
+            if (rank >= 0) {
+                int field = rank % FIELD_NAMES.length;
+                Doc entry = current.doc(doc);
+                offer(best, new Match(doc, rank / FIELD_NAMES.length, field, 1.0,
+                    entry.lowered[field].length(), entry.merchantId), limit);
+            }
+        });
+        // Fewer substring matches than the limit, so skipping them below is cheap
+        if (best.size() < limit) {
+            current.forEachSimilar(needle, minSimilarity, (doc, similarity) -> {
+                if (current.classify(doc, needle) < 0) {
+                    int field = current.closestField(doc, needle);
+                    Doc entry = current.doc(doc);
+                    offer(best, new Match(doc, SIMILAR, field, similarity,
+                        entry.lowered[field].length(), entry.merchantId), limit);
+                }
+            });
+        }
+
+        List<Match> ranked = new ArrayList<>(best);
+        Collections.sort(ranked);
+        List<MerchantSuggestion> suggestions = new ArrayList<>(ranked.size());
+        for (Match match : ranked) {
+            Doc entry = current.doc(match.doc);
+            suggestions.add(new MerchantSuggestion(entry.merchantId, entry.merchantName, entry.businessName,
+                FIELD_NAMES[match.field], MATCH_TYPES[match.type]));
+        }
+        return suggestions;
+    }
+
+    private static void offer(PriorityQueue<Match> best, Match match, int limit) {
+        if (best.size() < limit) {
+            best.add(match);
+        } else if (limit > 0 && match.compareTo(best.peek()) < 0) {
+            best.poll();
+            best.add(match);
+        }
+    }
+
+    /**
+     * Publish a copy of the index with the change made, unless it is already there.
+     * Writers serialize on this object; searches do not take it.
+     */
+    private synchronized void apply(Consumer<Index> change, Predicate<Index> applied) {
+        if (pending != null) {
+            pending.add(change);
+        }
+        Index current = index;
+        if (current != null && !applied.test(current)) {
+            Index next = current.copy();
+            change.accept(next);
+            index = next;
+        }
+    }
+
+    private void ensureLoaded() {
+        if (index != null) {
+            return;
+        }
+        synchronized (rebuildLock) {
+            if (index == null) {
+                rebuild();
+            }
+        }
+    }
+
+    private void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+            Index built = new Index();
+            try {
+                for (MerchantSearchProjection row : merchantRepository.findSearchEntries()) {
+                    built.setNames(row.getMerchantId(), row.getMerchantName(), row.getBusinessName());
+                    if (Boolean.TRUE.equals(row.getListed())) {
+                        built.setListed(row.getMerchantId());
+                    }
+                }
+            } catch (RuntimeException e) {
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+            synchronized (this) {
+                pending.forEach(change -> change.accept(built));
+                pending = null;
+                index = built;
+            }
+            LOG.debug("Built merchant search index: {} merchants, {} trigrams in {} ms",
+                built.size, built.postings.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    private static String normalize(String query) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        return query.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String lower(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+
+    private static long[] trigrams(String text) {
+        Set<Long> grams = new HashSet<>();
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(trigram(text, i));
+        }
+        long[] result = new long[grams.size()];
+        int n = 0;
+        for (long gram : grams) {
+            result[n++] = gram;
+        }
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface DocConsumer {
+        void accept(int doc);
+    }
+
+    @FunctionalInterface
+    private interface SimilarConsumer {
+        void accept(int doc, double similarity);
+    }
+
+    private static final class Index {
+        private final ShardedMap<String, Integer> docs;
+        private final ShardedMap<Long, Postings> postings;
+        private Doc[][] pages;
+        private int[] pageVersions;
+        private int size;
+        // Pieces stamped with this version were created by this copy and may be modified
+        private final int version;
+
+        Index() {
+            this.version = 0;
+            this.docs = new ShardedMap<>(version);
+            this.postings = new ShardedMap<>(version);
+            this.pages = new Doc[1][];
+            this.pageVersions = new int[1];
+        }
+
+        private Index(Index source) {
+            this.version = source.version + 1;
+            // Shares the shards, pages and posting lists; each is copied before it is modified
+            this.docs = source.docs.copy(version);
+            this.postings = source.postings.copy(version);
+            this.pages = source.pages.clone();
+            this.pageVersions = source.pageVersions.clone();
+            this.size = source.size;
+        }
+
+        Index copy() {
+            return new Index(this);
+        }
+
+        Doc doc(int doc) {
+            return pages[doc >>> PAGE_BITS][doc & ((1 << PAGE_BITS) - 1)];
+        }
+
+        boolean hasNames(String merchantId, String merchantName, String businessName) {
+            Integer doc = docs.get(merchantId);
+            return doc != null && Objects.equals(doc(doc).merchantName, merchantName)
+                && Objects.equals(doc(doc).businessName, businessName);
+        }
+
+        boolean isListed(String merchantId) {
+            Integer doc = docs.get(merchantId);
+            return doc != null && doc(doc).listed;
+        }
+
+        void setNames(String merchantId, String merchantName, String businessName) {
+            int doc = docOf(merchantId);
+            Doc entry = doc(doc);
+            String[] fields = {lower(merchantId), lower(merchantName), lower(businessName)};
+            Set<Long> before = gramsOf(entry.lowered);
+            Set<Long> after = gramsOf(fields);
+            for (long gram : before) {
+                if (!after.contains(gram)) {
+                    Postings list = writable(gram);
+                    list.remove(doc);
+                    if (list.size == 0) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+            for (long gram : after) {
+                if (!before.contains(gram)) {
+                    writable(gram).add(doc);
+                }
+            }
+            setDoc(doc, new Doc(merchantId, merchantName, businessName, fields, entry.listed));
+        }
+
+        void setListed(String merchantId) {
+            Integer doc = docs.get(merchantId);
+            if (doc == null) {
+                // Transactions for a merchant without a profile
+                setNames(merchantId, null, null);
+                doc = docs.get(merchantId);
+            }
+            Doc entry = doc(doc);
+            setDoc(doc, new Doc(entry.merchantId, entry.merchantName, entry.businessName, entry.lowered, true));
+        }
+
+        /**
+         * Every document that may contain the needle: the intersection of its trigram
+         * posting lists, or all documents for needles shorter than a trigram.
+         */
+        void forEachCandidate(String needle, DocConsumer consumer) {
+            if (needle.length() < 3) {
+                for (int doc = 0; doc < size; doc++) {
+                    consumer.accept(doc);
+                }
+                return;
+            }
+            long[] grams = trigrams(needle);
+            Postings[] lists = new Postings[grams.length];
+            for (int i = 0; i < grams.length; i++) {
+                lists[i] = postings.get(grams[i]);
+                if (lists[i] == null) {
+                    return;
+                }
+            }
+            Arrays.sort(lists, Comparator.comparingInt((Postings list) -> list.size));
+            lists[0].forEach(doc -> {
+                boolean inAll = true;
+                for (int j = 1; j < lists.length && inAll; j++) {
+                    inAll = lists[j].contains(doc);
+                }
+                if (inAll) {
+                    consumer.accept(doc);
+                }
+            });
+        }
+
+        /**
+         * Every document sharing at least minSimilarity of the needle's trigrams.
+         */
+        void forEachSimilar(String needle, double minSimilarity, SimilarConsumer consumer) {
+            if (needle.length() < 3) {
+                return;
+            }
+            long[] grams = trigrams(needle);
+            int required = Math.max(1, (int) Math.ceil(minSimilarity * grams.length));
+            int[] hits = new int[size];
+            List<Integer> touched = new ArrayList<>();
+            for (long gram : grams) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    continue;
+                }
+                list.forEach(doc -> {
+                    if (hits[doc]++ == 0) {
+                        touched.add(doc);
+                    }
+                });
+            }
+            for (int doc : touched) {
+                if (hits[doc] >= required) {
+                    consumer.accept(doc, (double) hits[doc] / grams.length);
+                }
+            }
+        }
+
+        /**
+         * Best rank of the needle in the document, match type * fields + field, or -1 when no
+         * field contains it.
+         */
+        int classify(int doc, String needle) {
+            int best = -1;
+            String[] fields = doc(doc).lowered;
+            for (int field = 0; field < fields.length; field++) {
+                int type = matchType(fields[field], needle);
+                if (type >= 0) {
+                    int rank = type * FIELD_NAMES.length + field;
+                    if (best < 0 || rank < best) {
+                        best = rank;
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * The field sharing the most trigrams with the needle.
+         */
+        int closestField(int doc, String needle) {
+            long[] grams = trigrams(needle);
+            int best = 0;
+            int bestShared = -1;
+            String[] fields = doc(doc).lowered;
+            for (int field = 0; field < fields.length; field++) {
+                Set<Long> fieldGrams = gramsOf(new String[] {fields[field]});
+                int shared = 0;
+                for (long gram : grams) {
+                    if (fieldGrams.contains(gram)) {
+                        shared++;
+                    }
+                }
+                if (shared > bestShared) {
+                    best = field;
+                    bestShared = shared;
+                }
+            }
+            return best;
+        }
+
+        private static int matchType(String text, String needle) {
+            int at = text.indexOf(needle);
+            if (at < 0) {
+                return -1;
+            }
+            if (at == 0) {
+                return text.length() == needle.length() ? 0 : 1;
+            }
+            for (; at >= 0; at = text.indexOf(needle, at + 1)) {
+                if (!Character.isLetterOrDigit(text.charAt(at - 1))) {
+                    return 2;
+                }
+            }
+            return 3;
+        }
+
+        private int docOf(String merchantId) {
+            Integer doc = docs.get(merchantId);
+            if (doc != null) {
+                return doc;
+            }
+            setDoc(size, new Doc(merchantId, null, null, new String[] {"", "", ""}, false));
+            docs.put(merchantId, size);
+            return size++;
+        }
+
+        /**
+         * Store the document in its page, created or copied for this index if needed.
+         */
+        private void setDoc(int doc, Doc entry) {
+            int page = doc >>> PAGE_BITS;
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, page * 2);
+                pageVersions = Arrays.copyOf(pageVersions, page * 2);
+            }
+            if (pages[page] == null) {
+                pages[page] = new Doc[1 << PAGE_BITS];
+                pageVersions[page] = version;
+            } else if (pageVersions[page] != version) {
+                pages[page] = pages[page].clone();
+                pageVersions[page] = version;
+            }
+            pages[page][doc & ((1 << PAGE_BITS) - 1)] = entry;
+        }
+
+        /**
+         * The posting list of the trigram, created or copied for this index if needed.
+         */
+        private Postings writable(long gram) {
+            Postings list = postings.get(gram);
+            if (list == null || list.version != version) {
+                list = list == null ? new Postings(version) : list.copy(version);
+                postings.put(gram, list);
+            }
+            return list;
+        }
+
+        private static Set<Long> gramsOf(String[] fields) {
+            Set<Long> grams = new HashSet<>();
+            for (String field : fields) {
+                for (int i = 0; i + 3 <= field.length(); i++) {
+                    grams.add(trigram(field, i));
+                }
+            }
+            return grams;
+        }
+    }
+
+    /**
+     * One merchant's names as indexed; replaced rather than modified.
+     */
+    private static final class Doc {
+        private final String merchantId;
+        private final String merchantName;
+        private final String businessName;
+        private final String[] lowered;
+        private final boolean listed;
+
+        Doc(String merchantId, String merchantName, String businessName, String[] lowered, boolean listed) {
+            this.merchantId = merchantId;
+            this.merchantName = merchantName;
+            this.businessName = businessName;
+            this.lowered = lowered;
+            this.listed = listed;
+        }
+    }
+
+    /**
+     * A hash map split into shards; a copy shares every shard until it writes to it.
+     */
+    private static final class ShardedMap<K, V> {
+        private final Map<K, V>[] shards;
+        private final int[] versions;
+        private final int version;
+        private int size;
+
+        @SuppressWarnings("unchecked")
+        ShardedMap(int version) {
+            this.shards = new Map[1 << SHARD_BITS];
+            this.versions = new int[1 << SHARD_BITS];
+            this.version = version;
+        }
+
+        private ShardedMap(ShardedMap<K, V> source, int version) {
+            this.shards = source.shards.clone();
+            this.versions = source.versions.clone();
+            this.version = version;
+            this.size = source.size;
+        }
+
+        ShardedMap<K, V> copy(int version) {
+            return new ShardedMap<>(this, version);
+        }
+
+        V get(K key) {
+            Map<K, V> shard = shards[shardOf(key)];
+            return shard != null ? shard.get(key) : null;
+        }
+
+        void put(K key, V value) {
+            if (writable(shardOf(key)).put(key, value) == null) {
+                size++;
+            }
+        }
+
+        void remove(K key) {
+            int shard = shardOf(key);
+            if (shards[shard] != null && shards[shard].containsKey(key)) {
+                writable(shard).remove(key);
+                size--;
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        private Map<K, V> writable(int shard) {
+            if (shards[shard] == null || versions[shard] != version) {
+                shards[shard] = shards[shard] == null ? new HashMap<>() : new HashMap<>(shards[shard]);
+                versions[shard] = version;
+            }
+            return shards[shard];
+        }
+
+        private static int shardOf(Object key) {
+            // Fibonacci hashing; the high bits of the product depend on every bit of the hash
+            return (key.hashCode() * 0x9E3779B9) >>> (32 - SHARD_BITS);
+        }
+    }
+
+    /**
+     * Sorted document numbers containing one trigram, in blocks of at most
+     * {@value #BLOCK_SIZE}; a copy shares every block until it writes to it.
+     */
+    private static final class Postings {
+        private final int version;
+        private int[][] blocks;
+        private int[] lengths;
+        private int[] versions;
+        private int blockCount;
+        private int size;
+
+        Postings(int version) {
+            this.version = version;
+            this.blocks = new int[1][];
+            this.lengths = new int[1];
+            this.versions = new int[1];
+        }
+
+        Postings copy(int version) {
+            Postings copy = new Postings(version);
+            int capacity = Math.max(blockCount, 1);
+            copy.blocks = Arrays.copyOf(blocks, capacity);
+            copy.lengths = Arrays.copyOf(lengths, capacity);
+            copy.versions = Arrays.copyOf(versions, capacity);
+            copy.blockCount = blockCount;
+            copy.size = size;
+            return copy;
+        }
+
+        void add(int doc) {
+            if (blockCount == 0) {
+                insertBlock(0, new int[] {doc, 0, 0, 0}, 1);
+                size++;
+                return;
+            }
+            int block = blockOf(doc);
+            int length = lengths[block];
+            int position = Arrays.binarySearch(blocks[block], 0, length, doc);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (length == BLOCK_SIZE) {
+                if (block == blockCount - 1 && position == length) {
+                    // New merchants get the highest document numbers, so lists mostly grow at the end
+                    insertBlock(blockCount, new int[] {doc, 0, 0, 0}, 1);
+                    size++;
+                    return;
+                }
+                int half = length / 2;
+                insertBlock(block + 1, Arrays.copyOfRange(blocks[block], half, BLOCK_SIZE), length - half);
+                blocks[block] = Arrays.copyOf(blocks[block], BLOCK_SIZE);
+                lengths[block] = half;
+                versions[block] = version;
+                add(doc);
+                return;
+            }
+            int[] docs = writable(block, length + 1);
+            System.arraycopy(docs, position, docs, position + 1, length - position);
+            docs[position] = doc;
+            lengths[block]++;
+            size++;
+        }
+
+        void remove(int doc) {
+            if (blockCount == 0) {
+                return;
+            }
+            int block = blockOf(doc);
+            int length = lengths[block];
+            int position = Arrays.binarySearch(blocks[block], 0, length, doc);
+            if (position < 0) {
+                return;
+            }
+            if (length == 1) {
+                blockCount--;
+                System.arraycopy(blocks, block + 1, blocks, block, blockCount - block);
+                System.arraycopy(lengths, block + 1, lengths, block, blockCount - block);
+                System.arraycopy(versions, block + 1, versions, block, blockCount - block);
+                blocks[blockCount] = null;
+            } else {
+                int[] docs = writable(block, length);
+                System.arraycopy(docs, position + 1, docs, position, length - position - 1);
+                lengths[block]--;
+            }
+            size--;
+        }
+
+        boolean contains(int doc) {
+            if (blockCount == 0) {
+                return false;
+            }
+            int block = blockOf(doc);
+            return Arrays.binarySearch(blocks[block], 0, lengths[block], doc) >= 0;
+        }
+
+        void forEach(DocConsumer consumer) {
+            for (int block = 0; block < blockCount; block++) {
+                int[] docs = blocks[block];
+                for (int i = 0; i < lengths[block]; i++) {
+                    consumer.accept(docs[i]);
+                }
+            }
+        }
+
+        /**
+         * The first block whose last document is at least doc, or the last block.
+         */
+        private int blockOf(int doc) {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (blocks[mid][lengths[mid] - 1] < doc) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * The block with room for capacity documents, copied for this list if needed.
+         */
+        private int[] writable(int block, int capacity) {
+            int[] docs = blocks[block];
+            if (versions[block] != version || docs.length < capacity) {
+                int length = docs.length < capacity ? Math.min(BLOCK_SIZE, Math.max(capacity, docs.length * 2)) : docs.length;
+                docs = Arrays.copyOf(docs, length);
+                blocks[block] = docs;
+                versions[block] = version;
+            }
+            return docs;
+        }
+
+        private void insertBlock(int at, int[] docs, int length) {
+            if (blockCount == blocks.length) {
+                blocks = Arrays.copyOf(blocks, blockCount * 2);
+                lengths = Arrays.copyOf(lengths, blockCount * 2);
+                versions = Arrays.copyOf(versions, blockCount * 2);
+            }
+            System.arraycopy(blocks, at, blocks, at + 1, blockCount - at);
+            System.arraycopy(lengths, at, lengths, at + 1, blockCount - at);
+            System.arraycopy(versions, at, versions, at + 1, blockCount - at);
+            blocks[at] = docs;
+            lengths[at] = length;
+            versions[at] = version;
+            blockCount++;
+        }
+    }
+
+    /**
+     * A ranked candidate; compares best first.
+     */
+    private static final class Match implements Comparable<Match> {
+        private final int doc;
+        private final int type;
+        private final int field;
+        private final double similarity;
+        private final int length;
+        private final String merchantId;
+
+        Match(int doc, int type, int field, double similarity, int length, String merchantId) {
+            this.doc = doc;
+            this.type = type;
+            this.field = field;
+            this.similarity = similarity;
+            this.length = length;
+            this.merchantId = merchantId;
+        }
+
+        @Override
+        public int compareTo(Match other) {
+            int result = Integer.compare(type, other.type);
+            if (result == 0) {
+                result = Double.compare(other.similarity, similarity);
+            }
+            if (result == 0) {
+                result = Integer.compare(field, other.field);
+            }
+            if (result == 0) {
+                // A shorter field is a closer match for the same query
+                result = Integer.compare(length, other.length);
+            }
+            return result != 0 ? result : merchantId.compareTo(other.merchantId);
+        }
+    }
+}
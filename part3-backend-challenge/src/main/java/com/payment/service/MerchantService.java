@@ -1,11 +1,15 @@
 package com.payment.service;
 
+import com.payment.dto.merchant.BulkMerchantImportResponse;
+import com.payment.dto.merchant.MerchantAutocompleteResponse;
+import com.payment.dto.merchant.MerchantBatchResponse;
 import com.payment.dto.merchant.CreateMerchantRequest;
 import com.payment.dto.merchant.MerchantListResponse;
 import com.payment.dto.merchant.MerchantResponse;
 import com.payment.dto.merchant.MerchantSummary;
 import com.payment.dto.merchant.UpdateMerchantRequest;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface MerchantService {
@@ -14,11 +18,29 @@ public interface MerchantService {
      * Get paginated list of merchants with statistics
      *
      * @param limit Maximum number of merchants per page
-     * @param offset Number of merchants to skip
-     * @param search Optional search term to filter merchants by ID
+     * @param offset Number of merchants to skip (ignored when after is present)
+     * @param after Optional cursor from a previous page's nextCursor; the page starts after it
+     * @param search Optional search term to filter merchants by ID, merchant name or business name
      * @return Paginated merchant list with statistics
      */
-    MerchantListResponse listMerchants(int limit, int offset, Optional<String> search);
+    MerchantListResponse listMerchants(int limit, int offset, Optional<String> after, Optional<String> search);
+
+    /**
+     * Summaries for many merchants in one call, in the order requested
+     *
+     * @param merchantIds Merchant IDs; blanks and repeats are ignored
+     * @return Summaries of the merchants found, and the IDs that were not
+     */
+    MerchantBatchResponse getMerchantsByIds(List<String> merchantIds);
+
+    /**
+     * Best matching merchants for a search box, ranked
+     *
+     * @param query Text typed so far
+     * @param limit Maximum number of suggestions
+     * @return Ranked suggestions
+     */
+    MerchantAutocompleteResponse autocomplete(String query, int limit);
 
     /**
      * Get detailed statistics for a specific merchant
@@ -36,6 +58,22 @@ public interface MerchantService {
      */
     MerchantResponse createMerchant(CreateMerchantRequest request);
 
+    /**
+     * Create many merchants at once, reporting the outcome of every row
+     *
+     * @param requests Merchants to create, in row order
+     * @return Per-row results and counts
+     */
+    BulkMerchantImportResponse importMerchants(List<CreateMerchantRequest> requests);
+
+    /**
+     * Create many merchants from CSV with a header row of CreateMerchantRequest field names
+     *
+     * @param csv CSV text
+     * @return Per-row results and counts
+     */
+    BulkMerchantImportResponse importMerchantsCsv(String csv);
+
     /**
      * Update an existing merchant
      *
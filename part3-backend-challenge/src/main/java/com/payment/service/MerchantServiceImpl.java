@@ -4,47 +4,102 @@ import com.payment.dto.merchant.*;
 import com.payment.dto.merchant.MerchantListResponse.PaginationMetadata;
 import com.payment.entity.Merchant;
 import com.payment.repository.MerchantRepository;
-import com.payment.repository.TransactionRepository;
+import com.payment.repository.MerchantStatsRepository;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
 import jakarta.inject.Singleton;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
 import java.sql.Date;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Singleton
 public class MerchantServiceImpl implements MerchantService {
 
     private static final Logger LOG = LoggerFactory.getLogger(MerchantServiceImpl.class);
+    private static final String CURSOR_PREFIX = "m1:";
+    // SQLSTATE unique_violation, and the unique index on merchants.tax_id
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String TAX_ID_INDEX = "idx_merchants_tax_id";
 
-    private final TransactionRepository transactionRepository;
     private final MerchantRepository merchantRepository;
-
-    public MerchantServiceImpl(TransactionRepository transactionRepository, MerchantRepository merchantRepository) {
-        this.transactionRepository = transactionRepository;
+    private final MerchantStatsRepository merchantStatsRepository;
+    private final MerchantIdAllocator merchantIdAllocator;
+    private final MerchantCache merchantCache;
+    private final MerchantSearchIndex merchantSearchIndex;
+    private final Validator validator;
+    private final TransactionOperations<Connection> transactionOperations;
+    private final int bulkBatchSize;
+    private final int bulkMaxRows;
+    private final int batchMaxIds;
+
+    public MerchantServiceImpl(MerchantRepository merchantRepository, MerchantStatsRepository merchantStatsRepository,
+                               MerchantIdAllocator merchantIdAllocator,
+                               MerchantCache merchantCache, MerchantSearchIndex merchantSearchIndex,
+                               Validator validator, TransactionOperations<Connection> transactionOperations,
+                               @Value("${merchants.bulk.batch-size:1000}") int bulkBatchSize,
+                               @Value("${merchants.bulk.max-rows:50000}") int bulkMaxRows,
+                               @Value("${merchants.batch.max-ids:500}") int batchMaxIds) {
         this.merchantRepository = merchantRepository;
+        this.merchantStatsRepository = merchantStatsRepository;
+        this.merchantIdAllocator = merchantIdAllocator;
+        this.merchantCache = merchantCache;
+        this.merchantSearchIndex = merchantSearchIndex;
+        this.validator = validator;
+        this.transactionOperations = transactionOperations;
+        this.bulkBatchSize = bulkBatchSize;
+        this.bulkMaxRows = bulkMaxRows;
+        this.batchMaxIds = batchMaxIds;
     }
 
     @Override
-    public MerchantListResponse listMerchants(int limit, int offset, Optional<String> search) {
-        LOG.info("Listing merchants with limit={}, offset={}, search={}", limit, offset, search.orElse("none"));
+    public MerchantListResponse listMerchants(int limit, int offset, Optional<String> after, Optional<String> search) {
+        LOG.info("Listing merchants with limit={}, offset={}, after={}, search={}",
+                 limit, offset, after.orElse("none"), search.orElse("none"));
 
         List<MerchantStatsDTO> results;
         Long totalCount;
+        // A cursor seeks past the last merchant instead of skipping offset groups
+        String afterMerchantId = after.filter(token -> !token.isBlank()).map(MerchantServiceImpl::decodeCursor).orElse(null);
 
+        // Lifetime totals are read from merchant_stats, one row per merchant, rather than aggregated per request
         if (search.isPresent() && !search.get().trim().isEmpty()) {
-            String searchTerm = search.get().trim();
-            results = transactionRepository.searchMerchantsWithStats(searchTerm, limit, offset);
-            totalCount = transactionRepository.countMerchantsBySearch(searchTerm);
+            // Matching IDs, in merchant ID order, come from the in-memory trigram index; only the page is read
+            List<String> matches = merchantSearchIndex.findMerchantIds(search.get());
+            int from = Math.min(offset, matches.size());
+            if (afterMerchantId != null) {
+                int position = Collections.binarySearch(matches, afterMerchantId);
+                from = position >= 0 ? position + 1 : -position - 1;
+            }
+            List<String> page = matches.subList(from, Math.min(from + limit, matches.size()));
+            results = page.isEmpty() ? new ArrayList<>() : merchantStatsRepository.getMerchantsWithStatsByIds(page);
+            totalCount = (long) matches.size();
         } else {
-            results = transactionRepository.getMerchantsWithStats(limit, offset);
-            totalCount = transactionRepository.countDistinctMerchants();
+            results = afterMerchantId != null
+                ? merchantStatsRepository.getMerchantsWithStatsAfter(afterMerchantId, limit)
+                : merchantStatsRepository.getMerchantsWithStats(limit, offset);
+            totalCount = merchantStatsRepository.countMerchants();
         }
 
         LOG.debug("Query returned {} results", results != null ? results.size() : 0);
@@ -68,19 +123,87 @@ public class MerchantServiceImpl implements MerchantService {
             }
         }
 
-        PaginationMetadata pagination = new PaginationMetadata(totalCount, limit, offset);
+        int rows = results != null ? results.size() : 0;
+        PaginationMetadata pagination;
+        if (afterMerchantId != null) {
+            // The position of a cursor page is unknown without counting the merchants before it
+            pagination = new PaginationMetadata();
+            pagination.setTotal(totalCount);
+            pagination.setLimit(limit);
+            pagination.setHasNext(rows == limit);
+            pagination.setHasPrevious(true);
+        } else {
+            pagination = new PaginationMetadata(totalCount, limit, offset);
+        }
+        if (Boolean.TRUE.equals(pagination.getHasNext()) && rows > 0 && results.get(rows - 1) != null) {
+            pagination.setNextCursor(encodeCursor(results.get(rows - 1).getMerchantId()));
+        }
 
         LOG.info("Found {} merchants (total: {})", merchants.size(), totalCount);
 
         return new MerchantListResponse(merchants, pagination);
     }
 
+    /**
+     * Profiles come from the merchant cache (one IN-list query for the ones not cached) and
+     * totals from merchant_stats with one more; merchants with a profile but no transactions
+     * get zero totals.
+     */
+    @Override
+    public MerchantBatchResponse getMerchantsByIds(List<String> merchantIds) {
+        Set<String> ids = new LinkedHashSet<>();
+        for (String merchantId : merchantIds) {
+            if (merchantId != null && !merchantId.isBlank()) {
+                ids.add(merchantId.trim());
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("At least one merchant ID is required");
+        }
+        if (ids.size() > batchMaxIds) {
+            throw new IllegalArgumentException("A batch lookup accepts at most " + batchMaxIds + " merchant IDs");
+        }
+
+        Map<String, Merchant> profiles = merchantCache.findAll(ids);
+        Map<String, MerchantStatsDTO> stats = new HashMap<>();
+        for (MerchantStatsDTO dto : merchantStatsRepository.getMerchantsWithStatsByIds(ids)) {
+            stats.put(dto.getMerchantId(), dto);
+        }
+
+        List<MerchantSummary> merchants = new ArrayList<>(ids.size());
+        List<String> notFound = new ArrayList<>();
+        for (String merchantId : ids) {
+            MerchantStatsDTO dto = stats.get(merchantId);
+            Merchant profile = profiles.get(merchantId);
+            if (dto == null && profile == null) {
+                notFound.add(merchantId);
+                continue;
+            }
+            if (dto == null) {
+                dto = new MerchantStatsDTO();
+                dto.setMerchantId(merchantId);
+            }
+            if (profile != null) {
+                dto.setMerchantName(profile.getMerchantName());
+            }
+            merchants.add(mapDTOToMerchantSummary(dto));
+        }
+
+        LOG.debug("Batch lookup: {} of {} merchants found", merchants.size(), ids.size());
+        return new MerchantBatchResponse(merchants, notFound);
+    }
+
+    @Override
+    public MerchantAutocompleteResponse autocomplete(String query, int limit) {
+        return new MerchantAutocompleteResponse(query, merchantSearchIndex.suggest(query, limit));
+    }
+
     @Override
     public Optional<MerchantSummary> getMerchantById(String merchantId) {
         LOG.info("Getting merchant details for merchantId={}", merchantId);
 
         try {
-            List<MerchantStatsDTO> results = transactionRepository.getMerchantStatistics(merchantId);
+            List<MerchantStatsDTO> results = merchantStatsRepository.getMerchantStatistics(merchantId);
 
             if (results == null || results.isEmpty()) {
                 LOG.warn("Merchant not found: {}", merchantId);
@@ -179,6 +302,26 @@ public class MerchantServiceImpl implements MerchantService {
         return merchant;
     }
 
+    /**
+     * Opaque page cursor: the last merchant ID of the page, versioned and URL-safe Base64 encoded
+     */
+    private static String encodeCursor(String merchantId) {
+        byte[] bytes = (CURSOR_PREFIX + merchantId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (decoded.startsWith(CURSOR_PREFIX) && decoded.length() > CURSOR_PREFIX.length()) {
+                return decoded.substring(CURSOR_PREFIX.length());
+            }
+        } catch (IllegalArgumentException e) {
+            // Not Base64; reported below
+        }
+        throw new IllegalArgumentException("Invalid pagination cursor");
+    }
+
     /**
      * Generate a display name from merchant ID
      * For now, we use the merchant ID as display name
@@ -218,7 +361,7 @@ public class MerchantServiceImpl implements MerchantService {
         MerchantSummary merchant = new MerchantSummary();
 
         merchant.setMerchantId(dto.getMerchantId());
-        merchant.setMerchantName(generateMerchantName(dto.getMerchantId()));
+        merchant.setMerchantName(dto.getMerchantName() != null ? dto.getMerchantName() : generateMerchantName(dto.getMerchantId()));
         merchant.setTotalTransactions(dto.getTotalTransactions() != null ? dto.getTotalTransactions() : 0L);
         merchant.setTotalRevenue(dto.getTotalRevenue() != null ? dto.getTotalRevenue() : BigDecimal.ZERO);
         merchant.setCompletedCount(dto.getCompletedCount() != null ? dto.getCompletedCount() : 0L);
@@ -261,15 +404,243 @@ public class MerchantServiceImpl implements MerchantService {
     public MerchantResponse createMerchant(CreateMerchantRequest request) {
         LOG.info("Creating new merchant: {}", request.getBusinessName());
 
-        // Generate unique merchant ID
-        String merchantId = generateNewMerchantId();
+        // Unique across instances: each one allocates from its own block of the ID sequence
+        String merchantId = merchantIdAllocator.nextId();
+
+        // Save merchant
+        Merchant savedMerchant;
+        try {
+            savedMerchant = merchantRepository.save(toMerchant(merchantId, request));
+        } catch (RuntimeException e) {
+            if (isDuplicateTaxId(e)) {
+                throw new IllegalArgumentException("A merchant with tax ID " + request.getTaxId() + " already exists");
+            }
+            throw e;
+        }
+        merchantCache.put(savedMerchant);
+        afterCommit(() -> merchantSearchIndex.put(savedMerchant));
+
+        LOG.info("Merchant created successfully: {}", savedMerchant.getMerchantId());
+
+        return mapToMerchantResponse(savedMerchant);
+    }
+
+    @Override
+    public BulkMerchantImportResponse importMerchants(List<CreateMerchantRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one merchant is required");
+        }
+        List<MerchantCsvParser.Row> rows = new ArrayList<>(requests.size());
+        for (CreateMerchantRequest request : requests) {
+            rows.add(request != null ? MerchantCsvParser.Row.of(request) : MerchantCsvParser.Row.error("Row is empty"));
+        }
+        return importRows(rows);
+    }
+
+    @Override
+    public BulkMerchantImportResponse importMerchantsCsv(String csv) {
+        if (csv == null || csv.isBlank()) {
+            throw new IllegalArgumentException("CSV body is empty");
+        }
+        return importRows(MerchantCsvParser.parse(csv));
+    }
+
+    /**
+     * Validate every row in memory, then per batch: one query for tax IDs that are already
+     * registered, one round trip for the batch's IDs and one JDBC batch insert in its own
+     * transaction. A failing batch only rejects its own rows. The tax ID query is only a fast
+     * path: idx_merchants_tax_id is unique, so a tax ID registered concurrently fails the batch,
+     * which is then retried row by row to reject just the duplicates.
+     */
+    private BulkMerchantImportResponse importRows(List<MerchantCsvParser.Row> rows) {
+        if (rows.size() > bulkMaxRows) {
+            throw new IllegalArgumentException("A bulk import accepts at most " + bulkMaxRows + " merchants");
+        }
+        long started = System.currentTimeMillis();
+
+        List<BulkMerchantRowResult> results = new ArrayList<>(rows.size());
+        List<Integer> accepted = new ArrayList<>(rows.size());
+        Map<String, Integer> rowByTaxId = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            MerchantCsvParser.Row row = rows.get(i);
+            CreateMerchantRequest request = row.request;
+            BulkMerchantRowResult result = new BulkMerchantRowResult(i + 1, request != null ? request.getBusinessName() : null);
+            results.add(result);
+
+            List<String> errors = new ArrayList<>();
+            if (row.error != null) {
+                errors.add(row.error);
+            } else {
+                for (ConstraintViolation<CreateMerchantRequest> violation : validator.validate(request)) {
+                    errors.add(violation.getMessage());
+                }
+            }
+            if (!errors.isEmpty()) {
+                Collections.sort(errors);
+                reject(result, BulkMerchantRowResult.INVALID, errors);
+                continue;
+            }
+
+            if (request.getTaxId() != null && request.getTaxId().isBlank()) {
+                request.setTaxId(null);
+            } else if (request.getTaxId() != null) {
+                request.setTaxId(request.getTaxId().trim());
+                Integer firstRow = rowByTaxId.putIfAbsent(request.getTaxId(), i + 1);
+                if (firstRow != null) {
+                    reject(result, BulkMerchantRowResult.DUPLICATE,
+                        List.of("Tax ID " + request.getTaxId() + " already appears in row " + firstRow));
+                    continue;
+                }
+            }
+            accepted.add(i);
+        }
+
+        int created = 0;
+        for (int from = 0; from < accepted.size(); from += bulkBatchSize) {
+            created += importBatch(rows, results, accepted.subList(from, Math.min(from + bulkBatchSize, accepted.size())));
+        }
+
+        BulkMerchantImportResponse response = new BulkMerchantImportResponse();
+        response.setTotalRows(rows.size());
+        response.setCreatedCount(created);
+        response.setRejectedCount(rows.size() - created);
+        response.setElapsedMs(System.currentTimeMillis() - started);
+        response.setResults(results);
+
+        LOG.info("Bulk import: {} of {} merchants created in {} ms", created, rows.size(), response.getElapsedMs());
+        return response;
+    }
+
+    private int importBatch(List<MerchantCsvParser.Row> rows, List<BulkMerchantRowResult> results, List<Integer> batch) {
+        Set<String> taxIds = new HashSet<>();
+        for (int i : batch) {
+            if (rows.get(i).request.getTaxId() != null) {
+                taxIds.add(rows.get(i).request.getTaxId());
+            }
+        }
+        Set<String> existing = taxIds.isEmpty()
+            ? Collections.emptySet()
+            : new HashSet<>(merchantRepository.findExistingTaxIds(taxIds));
+
+        List<Integer> inserting = new ArrayList<>(batch.size());
+        for (int i : batch) {
+            String taxId = rows.get(i).request.getTaxId();
+            if (taxId != null && existing.contains(taxId)) {
+                reject(results.get(i), BulkMerchantRowResult.DUPLICATE,
+                    List.of("A merchant with tax ID " + taxId + " already exists"));
+            } else {
+                inserting.add(i);
+            }
+        }
+        if (inserting.isEmpty()) {
+            return 0;
+        }
+
+        List<String> merchantIds = merchantIdAllocator.nextIds(inserting.size());
+        List<Merchant> merchants = new ArrayList<>(inserting.size());
+        for (int k = 0; k < inserting.size(); k++) {
+            merchants.add(toMerchant(merchantIds.get(k), rows.get(inserting.get(k)).request));
+        }
+
+        try {
+            transactionOperations.executeWrite(status -> merchantRepository.saveAll(merchants));
+        } catch (Exception e) {
+            if (isDuplicateTaxId(e)) {
+                LOG.info("Bulk import batch of {} merchants hit a registered tax ID, inserting row by row", merchants.size());
+                return importRowByRow(rows, results, inserting, merchants);
+            }
+            LOG.error("Bulk import batch of {} merchants failed: {}", merchants.size(), e.getMessage(), e);
+            for (int i : inserting) {
+                reject(results.get(i), BulkMerchantRowResult.FAILED, List.of("Batch insert failed: " + e.getMessage()));
+            }
+            return 0;
+        }
+
+        for (int k = 0; k < inserting.size(); k++) {
+            created(results.get(inserting.get(k)), merchants.get(k));
+        }
+        merchantSearchIndex.putAll(merchants);
+        return inserting.size();
+    }
 
-        // Check if merchant ID already exists (should not happen)
-        if (merchantRepository.existsByMerchantId(merchantId)) {
-            throw new RuntimeException("Generated merchant ID already exists: " + merchantId);
+    /**
+     * Insert each merchant of a failed batch in its own transaction, so only the rows that
+     * violate the tax ID index are rejected. The merchants created are indexed for search
+     * together at the end.
+     */
+    private int importRowByRow(List<MerchantCsvParser.Row> rows, List<BulkMerchantRowResult> results,
+                               List<Integer> inserting, List<Merchant> merchants) {
+        List<Merchant> created = new ArrayList<>(inserting.size());
+        for (int k = 0; k < inserting.size(); k++) {
+            Merchant merchant = merchants.get(k);
+            BulkMerchantRowResult result = results.get(inserting.get(k));
+            try {
+                transactionOperations.executeWrite(status -> merchantRepository.save(merchant));
+            } catch (Exception e) {
+                if (isDuplicateTaxId(e)) {
+                    reject(result, BulkMerchantRowResult.DUPLICATE,
+                        List.of("A merchant with tax ID " + rows.get(inserting.get(k)).request.getTaxId() + " already exists"));
+                } else {
+                    LOG.error("Bulk import of merchant {} failed: {}", merchant.getMerchantId(), e.getMessage(), e);
+                    reject(result, BulkMerchantRowResult.FAILED, List.of("Insert failed: " + e.getMessage()));
+                }
+                continue;
+            }
+            created(result, merchant);
+            created.add(merchant);
         }
+        merchantSearchIndex.putAll(created);
+        return created.size();
+    }
+
+    private void created(BulkMerchantRowResult result, Merchant merchant) {
+        result.setStatus(BulkMerchantRowResult.CREATED);
+        result.setMerchantId(merchant.getMerchantId());
+    }
 
-        // Create merchant entity
+    /**
+     * Whether the failure is a unique violation of idx_merchants_tax_id. JDBC batches report
+     * the server error as the next exception of a BatchUpdateException rather than its cause.
+     */
+    private static boolean isDuplicateTaxId(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                for (SQLException e = (SQLException) cause; e != null; e = e.getNextException()) {
+                    if (UNIQUE_VIOLATION.equals(e.getSQLState()) && String.valueOf(e.getMessage()).contains(TAX_ID_INDEX)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Run the action once the current transaction commits, or right away outside one.
+     */
+    private void afterCommit(Runnable action) {
+        Optional<? extends TransactionStatus<?>> transaction = transactionOperations.findTransactionStatus();
+        if (transaction.isEmpty()) {
+            action.run();
+            return;
+        }
+        transaction.get().registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static void reject(BulkMerchantRowResult result, String status, List<String> errors) {
+        result.setStatus(status);
+        result.setErrors(errors);
+    }
+
+    /**
+     * Build a new merchant entity from a create request
+     */
+    private Merchant toMerchant(String merchantId, CreateMerchantRequest request) {
         Merchant merchant = new Merchant();
         merchant.setMerchantId(merchantId);
         merchant.setMerchantName(request.getMerchantName());
@@ -292,13 +663,7 @@ public class MerchantServiceImpl implements MerchantService {
         merchant.setStatus(request.getStatus());
         merchant.setRiskLevel(request.getRiskLevel());
         merchant.setNotes(request.getNotes());
-
-        // Save merchant
-        Merchant savedMerchant = merchantRepository.save(merchant);
-
-        LOG.info("Merchant created successfully: {}", savedMerchant.getMerchantId());
-
-        return mapToMerchantResponse(savedMerchant);
+        return merchant;
     }
 
     @Override
@@ -306,7 +671,7 @@ public class MerchantServiceImpl implements MerchantService {
     public MerchantResponse updateMerchant(String merchantId, UpdateMerchantRequest request) {
         LOG.info("Updating merchant: {}", merchantId);
 
-        // Find existing merchant
+        // Read the row itself rather than the cached entity, which must not be modified
         Merchant merchant = merchantRepository.findById(merchantId)
                 .orElseThrow(() -> new RuntimeException("Merchant not found: " + merchantId));
 
@@ -373,7 +738,17 @@ public class MerchantServiceImpl implements MerchantService {
         }
 
         // Update merchant
-        Merchant updatedMerchant = merchantRepository.update(merchant);
+        Merchant updatedMerchant;
+        try {
+            updatedMerchant = merchantRepository.update(merchant);
+        } catch (RuntimeException e) {
+            if (isDuplicateTaxId(e)) {
+                throw new IllegalArgumentException("A merchant with tax ID " + merchant.getTaxId() + " already exists");
+            }
+            throw e;
+        }
+        merchantCache.put(updatedMerchant);
+        afterCommit(() -> merchantSearchIndex.put(updatedMerchant));
 
         LOG.info("Merchant updated successfully: {}", updatedMerchant.getMerchantId());
 
@@ -384,7 +759,7 @@ public class MerchantServiceImpl implements MerchantService {
     public Optional<MerchantResponse> getMerchantDetails(String merchantId) {
         LOG.info("Getting merchant details: {}", merchantId);
 
-        Optional<Merchant> merchantOpt = merchantRepository.findById(merchantId);
+        Optional<Merchant> merchantOpt = merchantCache.find(merchantId);
 
         if (merchantOpt.isEmpty()) {
             return Optional.empty();
@@ -426,17 +801,6 @@ public class MerchantServiceImpl implements MerchantService {
         return Optional.of(response);
     }
 
-    /**
-     * Generate a new unique merchant ID
-     */
-    private String generateNewMerchantId() {
-        // Get count of existing merchants
-        Long count = merchantRepository.count();
-
-        // Generate MCH-XXXXX format
-        return "MCH-" + String.format("%05d", count + 51); // Start from 51 since we have 50 existing
-    }
-
     /**
      * Map Merchant entity to MerchantResponse DTO
      */
@@ -9,24 +9,33 @@ import java.time.LocalDate;
 public interface RevenueService {
 
     /**
-     * Get revenue breakdown by time period (daily/weekly/monthly).
+     * Get revenue breakdown by time period (daily/weekly/monthly), optionally for one currency
+     * only and optionally converted into normalizeTo (both may be null).
      */
-    RevenueByPeriodResponse getRevenueByPeriod(LocalDate startDate, LocalDate endDate, String period);
+    RevenueByPeriodResponse getRevenueByPeriod(LocalDate startDate, LocalDate endDate, String period,
+                                               String currency, String normalizeTo);
 
     /**
-     * Get revenue breakdown by merchant.
+     * Get revenue per currency, each also converted into normalizeTo when it is given.
      */
-    RevenueByMerchantResponse getRevenueByMerchant(LocalDate startDate, LocalDate endDate, Integer limit);
+    RevenueByCurrencyResponse getRevenueByCurrency(LocalDate startDate, LocalDate endDate, String normalizeTo);
 
     /**
-     * Forecast revenue based on historical trends.
+     * Get revenue breakdown by merchant, ranked by revenue or count ("revenue" or "count").
+     * When approximate is true the ranking comes from bounded heavy hitter sketches.
      */
-    RevenueForecastResponse forecastRevenue(int periods);
+    RevenueByMerchantResponse getRevenueByMerchant(LocalDate startDate, LocalDate endDate, Integer limit,
+                                                   String sortBy, boolean approximate);
 
     /**
-     * Analyze year-over-year growth.
+     * Forecast daily revenue for the platform, or for one merchant when merchantId is given.
      */
-    GrowthAnalysisResponse analyzeGrowth(int currentYear, int comparisonYear);
+    RevenueForecastResponse forecastRevenue(int periods, String merchantId);
+
+    /**
+     * Compare revenue of any two years per month or per quarter ("monthly" or "quarterly").
+     */
+    GrowthAnalysisResponse analyzeGrowth(int currentYear, int comparisonYear, String grain);
 
     /**
      * Get top performing merchants.
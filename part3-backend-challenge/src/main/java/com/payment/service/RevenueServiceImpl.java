@@ -1,8 +1,21 @@
 package com.payment.service;
 
+import com.payment.analytics.DashboardAggregator;
+import com.payment.analytics.FxRateTable;
+import com.payment.analytics.HeavyHitterTracker;
+import com.payment.analytics.MerchantRanker;
+import com.payment.analytics.MerchantRankingMetric;
+import com.payment.analytics.MoneyAccumulator;
+import com.payment.analytics.PeriodGrain;
+import com.payment.analytics.RangeMetrics;
+import com.payment.analytics.RequestCoalescer;
+import com.payment.analytics.RevenueForecaster;
+import com.payment.analytics.TransactionDimension;
+import com.payment.dto.projection.MerchantRankingProjection;
+import com.payment.dto.projection.VolumeProjection;
+import com.payment.dto.projection.YearMonthRevenueProjection;
 import com.payment.dto.revenue.*;
-import com.payment.entity.TransactionMaster;
-import com.payment.repository.TransactionRepository;
+import com.payment.repository.DailyMerchantStatsRepository;
 import jakarta.inject.Singleton;
 
 import java.math.BigDecimal;
@@ -16,273 +29,329 @@ import java.util.stream.Collectors;
 @Singleton
 public class RevenueServiceImpl implements RevenueService {
 
-    private final TransactionRepository transactionRepository;
-
-    public RevenueServiceImpl(TransactionRepository transactionRepository) {
-        this.transactionRepository = transactionRepository;
+    // Bounds are a 95% prediction interval: forecast +/- 1.96 standard deviations
+    private static final double FORECAST_CONFIDENCE = 0.95;
+    private static final double FORECAST_Z_SCORE = 1.96;
+    private static final int MAX_FORECAST_PERIODS = 90;
+    private static final int MIN_YEAR = 1970;
+    private static final int MAX_YEAR = 9999;
+
+    private final DashboardAggregator dashboardAggregator;
+    private final RequestCoalescer requestCoalescer;
+    private final RevenueForecaster revenueForecaster;
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private final MerchantRanker merchantRanker;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final FxRateTable fxRateTable;
+
+    public RevenueServiceImpl(DashboardAggregator dashboardAggregator,
+                              RequestCoalescer requestCoalescer,
+                              RevenueForecaster revenueForecaster,
+                              DailyMerchantStatsRepository dailyMerchantStatsRepository,
+                              MerchantRanker merchantRanker,
+                              HeavyHitterTracker heavyHitterTracker,
+                              FxRateTable fxRateTable) {
+        this.dashboardAggregator = dashboardAggregator;
+        this.requestCoalescer = requestCoalescer;
+        this.revenueForecaster = revenueForecaster;
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+        this.merchantRanker = merchantRanker;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.fxRateTable = fxRateTable;
     }
 
     @Override
-    public RevenueByPeriodResponse getRevenueByPeriod(LocalDate startDate, LocalDate endDate, String period) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by period
-        Map<String, List<TransactionMaster>> grouped = new LinkedHashMap<>();
-        for (TransactionMaster txn : transactions) {
-            String periodKey = formatPeriod(txn.getTxnDate(), period);
-            grouped.computeIfAbsent(periodKey, k -> new ArrayList<>()).add(txn);
+    public RevenueByPeriodResponse getRevenueByPeriod(LocalDate startDate, LocalDate endDate, String period,
+                                                      String currency, String normalizeTo) {
+        PeriodGrain grain = PeriodGrain.from(period);
+        RangeMetrics metrics = dashboardAggregator.getMetrics(startDate, endDate);
+
+        // Conversion multiplies each currency's period subtotal by its rate, never individual rows
+        List<VolumeProjection> rows;
+        if (currency != null && normalizeTo != null) {
+            BigDecimal rate = fxRateTable.rate(currency, normalizeTo);
+            rows = metrics.getVolumeByPeriod(grain, currency).stream()
+                .map(row -> new VolumeProjection(row.getPeriod(), row.getCount(),
+                    row.getTotalAmount().multiply(rate).setScale(2, RoundingMode.HALF_UP)))
+                .collect(Collectors.toList());
+        } else if (currency != null) {
+            rows = metrics.getVolumeByPeriod(grain, currency);
+        } else if (normalizeTo != null) {
+            rows = metrics.getVolumeByPeriod(grain, from -> fxRateTable.rate(from, normalizeTo));
+        } else {
+            rows = metrics.getVolumeByPeriod(grain);
         }
 
-        List<PeriodRevenue> periods = grouped.entrySet().stream()
-            .map(entry -> {
-                List<TransactionMaster> txns = entry.getValue();
-                BigDecimal revenue = txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                long count = txns.size();
-                BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
-                return new PeriodRevenue(entry.getKey(), revenue, count, avg);
-            })
+        List<PeriodRevenue> periods = rows.stream()
+            .map(this::toPeriodRevenue)
             .collect(Collectors.toList());
 
         RevenueByPeriodResponse response = new RevenueByPeriodResponse();
         response.setPeriods(periods);
         response.setGroupBy(period);
+        response.setCurrency(normalizeTo != null ? normalizeTo.toUpperCase() : currency);
+
+        if (currency == null && normalizeTo == null) {
+            MoneyAccumulator total = metrics.getTotal();
+            response.setTotalRevenue(total.getSum());
+            response.setTotalTransactions(total.getCount());
+        } else {
+            response.setTotalRevenue(periods.stream()
+                .map(PeriodRevenue::getRevenue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add));
+            response.setTotalTransactions(periods.stream().mapToLong(PeriodRevenue::getTransactionCount).sum());
+        }
 
-        // Calculate totals
-        BigDecimal totalRevenue = periods.stream().map(PeriodRevenue::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
-        Long totalTransactions = periods.stream().map(PeriodRevenue::getTransactionCount).reduce(0L, Long::sum);
+        return response;
+    }
 
-        response.setTotalRevenue(totalRevenue);
-        response.setTotalTransactions(totalTransactions);
+    @Override
+    public RevenueByCurrencyResponse getRevenueByCurrency(LocalDate startDate, LocalDate endDate, String normalizeTo) {
+        RangeMetrics metrics = dashboardAggregator.getMetrics(startDate, endDate);
+
+        List<CurrencyRevenue> currencies = new ArrayList<>();
+        BigDecimal normalizedTotal = normalizeTo != null ? BigDecimal.ZERO : null;
+        long totalTransactions = 0;
+        for (Map.Entry<String, MoneyAccumulator> entry : metrics.getTotalsBy(TransactionDimension.CURRENCY).entrySet()) {
+            MoneyAccumulator amounts = entry.getValue();
+            BigDecimal revenue = amounts.getSum();
+            long count = amounts.getCount();
+            BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+
+            CurrencyRevenue data = new CurrencyRevenue(entry.getKey(), revenue, count, avg, null, null);
+            if (normalizeTo != null) {
+                BigDecimal rate = fxRateTable.rate(entry.getKey(), normalizeTo);
+                BigDecimal normalized = revenue.multiply(rate).setScale(2, RoundingMode.HALF_UP);
+                data.setRate(rate);
+                data.setNormalizedRevenue(normalized);
+                normalizedTotal = normalizedTotal.add(normalized);
+            }
+            currencies.add(data);
+            totalTransactions += count;
+        }
+        currencies.sort(Comparator.comparing(CurrencyRevenue::getTransactionCount).reversed()
+            .thenComparing(CurrencyRevenue::getCurrency, Comparator.nullsLast(Comparator.naturalOrder())));
 
+        RevenueByCurrencyResponse response = new RevenueByCurrencyResponse();
+        response.setCurrencies(currencies);
+        response.setTotalTransactions(totalTransactions);
+        response.setNormalizedTo(normalizeTo != null ? normalizeTo.toUpperCase() : null);
+        response.setNormalizedTotalRevenue(normalizedTotal);
         return response;
     }
 
-    private String formatPeriod(java.sql.Date date, String period) {
-        LocalDate localDate = date.toLocalDate();
-        switch (period.toLowerCase()) {
-            case "weekly":
-            case "week":
-                return localDate.with(java.time.DayOfWeek.MONDAY).toString();
-            case "monthly":
-            case "month":
-                return localDate.withDayOfMonth(1).toString();
-            default:
-                return localDate.toString();
-        }
+    private PeriodRevenue toPeriodRevenue(VolumeProjection row) {
+        BigDecimal revenue = row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO;
+        long count = row.getCount() != null ? row.getCount() : 0L;
+        BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return new PeriodRevenue(row.getPeriod(), revenue, count, avg);
     }
 
     @Override
-    public RevenueByMerchantResponse getRevenueByMerchant(LocalDate startDate, LocalDate endDate, Integer limit) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        if (limit == null || limit <= 0) {
-            limit = 10;
+    public RevenueByMerchantResponse getRevenueByMerchant(LocalDate startDate, LocalDate endDate, Integer limit,
+                                                          String sortBy, boolean approximate) {
+        int merchantLimit = limit == null || limit <= 0 ? 10 : limit;
+        MerchantRankingMetric metric = MerchantRankingMetric.from(sortBy);
+        if (metric == MerchantRankingMetric.SUCCESS_RATE) {
+            throw new IllegalArgumentException("Revenue by merchant can be sorted by revenue or count");
         }
 
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by merchant
-        Map<String, List<TransactionMaster>> byMerchant = transactions.stream()
-            .collect(Collectors.groupingBy(TransactionMaster::getMerchantId));
-
-        // Calculate revenue for each merchant
-        List<MerchantRevenueData> merchants = byMerchant.entrySet().stream()
-            .map(entry -> {
-                List<TransactionMaster> txns = entry.getValue();
-                BigDecimal revenue = txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                long count = txns.size();
-                BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
-
-                MerchantRevenueData data = new MerchantRevenueData();
-                data.setMerchantId(entry.getKey());
-                data.setRevenue(revenue);
-                data.setTransactionCount(count);
-                data.setAverageTransaction(avg);
-                return data;
-            })
-            .sorted(Comparator.comparing(MerchantRevenueData::getRevenue).reversed())
-            .limit(limit)
-            .collect(Collectors.toList());
+        // Identical concurrent requests (e.g. every dashboard opening at 9am) share one computation
+        return requestCoalescer.execute("revenue-by-merchant",
+            startDate + "/" + endDate + "/" + merchantLimit + "/" + metric + "/" + approximate,
+            () -> approximate
+                ? buildApproximateRevenueByMerchant(startDate, endDate, merchantLimit, metric)
+                : buildRevenueByMerchant(startDate, endDate, merchantLimit, metric));
+    }
 
-        // Calculate total and add rankings and percentages
-        BigDecimal totalRevenue = merchants.stream().map(MerchantRevenueData::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        int rank = 1;
-        for (MerchantRevenueData data : merchants) {
-            data.setRank(rank++);
-            if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = data.getRevenue().divide(totalRevenue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
-                data.setPercentageOfTotal(percentage.doubleValue());
-            } else {
-                data.setPercentageOfTotal(0.0);
-            }
-        }
+    private RevenueByMerchantResponse buildRevenueByMerchant(LocalDate startDate, LocalDate endDate, int limit,
+                                                             MerchantRankingMetric metric) {
+        List<MerchantRevenueData> merchants = topMerchants(startDate, endDate, metric, limit);
+        BigDecimal totalRevenue = rankMerchants(merchants);
 
         RevenueByMerchantResponse response = new RevenueByMerchantResponse();
         response.setMerchants(merchants);
         response.setTotalRevenue(totalRevenue);
         response.setTotalMerchants(merchants.size());
+        response.setApproximate(false);
 
         return response;
     }
 
-    @Override
-    public RevenueForecastResponse forecastRevenue(int periods) {
-        // Get last 30 days of data for forecasting
-        LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusDays(30);
+    private RevenueByMerchantResponse buildApproximateRevenueByMerchant(LocalDate startDate, LocalDate endDate, int limit,
+                                                                        MerchantRankingMetric metric) {
+        HeavyHitterTracker.HeavyHitters heavyHitters = heavyHitterTracker.topMerchants(startDate, endDate, metric, limit);
+        List<MerchantRevenueData> merchants = heavyHitters.getMerchants().stream()
+            .map(this::toMerchantRevenueData)
+            .collect(Collectors.toList());
+        BigDecimal totalRevenue = rankMerchants(merchants);
 
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
+        RevenueByMerchantResponse response = new RevenueByMerchantResponse();
+        response.setMerchants(merchants);
+        response.setTotalRevenue(totalRevenue);
+        response.setTotalMerchants(merchants.size());
+        response.setApproximate(true);
+        response.setRevenueErrorBound(MoneyAccumulator.toAmount(heavyHitters.getRevenueErrorCents()));
+        response.setCountErrorBound(heavyHitters.getCountError());
 
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
+        return response;
+    }
 
-        // Group by day
-        Map<String, List<TransactionMaster>> dailyGroups = new LinkedHashMap<>();
-        for (TransactionMaster txn : transactions) {
-            String day = txn.getTxnDate().toLocalDate().toString();
-            dailyGroups.computeIfAbsent(day, k -> new ArrayList<>()).add(txn);
+    @Override
+    public RevenueForecastResponse forecastRevenue(int periods, String merchantId) {
+        if (periods < 1 || periods > MAX_FORECAST_PERIODS) {
+            throw new IllegalArgumentException("periods must be between 1 and " + MAX_FORECAST_PERIODS);
         }
 
-        List<PeriodRevenue> historicalData = dailyGroups.entrySet().stream()
-            .map(entry -> {
-                List<TransactionMaster> txns = entry.getValue();
-                BigDecimal revenue = txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                long count = txns.size();
-                BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
-                return new PeriodRevenue(entry.getKey(), revenue, count, avg);
-            })
-            .collect(Collectors.toList());
+        // Read from model state kept up to date as days close; no history is reloaded here
+        RevenueForecaster.Forecast model = revenueForecaster.forecast(merchantId, periods);
+
+        List<PeriodRevenue> historicalData = new ArrayList<>();
+        LocalDate firstHistoryDate = model.getFirstHistoryDate();
+        long[] historyCounts = model.getHistoryCounts();
+        long[] historyCents = model.getHistoryCents();
+        for (int i = 0; i < historyCents.length; i++) {
+            MoneyAccumulator day = new MoneyAccumulator();
+            day.addGroup(historyCounts[i], historyCents[i]);
+            historicalData.add(new PeriodRevenue(firstHistoryDate.plusDays(i).toString(),
+                day.getSum(), day.getCount(), day.getAverage()));
+        }
 
-        // Simple moving average forecast
-        List<ForecastDataPoint> forecast = calculateMovingAverageForecast(historicalData, periods);
+        List<ForecastDataPoint> forecast = new ArrayList<>();
+        LocalDate firstForecastDate = firstHistoryDate.plusDays(historyCents.length);
+        double[] predictedCents = model.getPredictedCents();
+        double[] stdDevCents = model.getStdDevCents();
+        for (int i = 0; i < predictedCents.length; i++) {
+            double margin = FORECAST_Z_SCORE * stdDevCents[i];
+            ForecastDataPoint point = new ForecastDataPoint(firstForecastDate.plusDays(i).toString(),
+                centsToAmount(predictedCents[i]));
+            point.setLowerBound(centsToAmount(predictedCents[i] - margin));
+            point.setUpperBound(centsToAmount(predictedCents[i] + margin));
+            forecast.add(point);
+        }
 
         RevenueForecastResponse response = new RevenueForecastResponse();
+        response.setMerchantId(merchantId);
         response.setHistoricalData(historicalData);
         response.setForecast(forecast);
-        response.setMethod("moving_average");
-        response.setConfidence(0.75); // 75% confidence for simple forecast
+        response.setMethod(model.getMethod());
+        response.setConfidence(FORECAST_CONFIDENCE);
 
         return response;
     }
 
+    /**
+     * Revenue can't be negative, so predictions and bounds are floored at zero.
+     */
+    private static BigDecimal centsToAmount(double cents) {
+        return MoneyAccumulator.toAmount(Math.max(0L, Math.round(cents)));
+    }
+
     @Override
-    public GrowthAnalysisResponse analyzeGrowth(int currentYear, int comparisonYear) {
-        List<TransactionMaster> transactions = transactionRepository.findByYears(currentYear, comparisonYear);
+    public GrowthAnalysisResponse analyzeGrowth(int currentYear, int comparisonYear, String grain) {
+        PeriodGrain periodGrain = PeriodGrain.from(grain);
+        if (periodGrain != PeriodGrain.MONTH && periodGrain != PeriodGrain.QUARTER) {
+            throw new IllegalArgumentException("grain must be monthly or quarterly");
+        }
+        validateYear(currentYear);
+        validateYear(comparisonYear);
 
-        Map<Integer, Map<Integer, BigDecimal>> yearMonthRevenue = new HashMap<>();
+        return requestCoalescer.execute("growth-analysis", currentYear + "/" + comparisonYear + "/" + periodGrain,
+            () -> buildGrowthAnalysis(currentYear, comparisonYear, periodGrain));
+    }
 
-        for (TransactionMaster txn : transactions) {
-            LocalDate date = txn.getTxnDate().toLocalDate();
-            int year = date.getYear();
-            int month = date.getMonthValue();
-            BigDecimal revenue = txn.getAmount();
+    private static void validateYear(int year) {
+        if (year < MIN_YEAR || year > MAX_YEAR) {
+            throw new IllegalArgumentException("Year must be between " + MIN_YEAR + " and " + MAX_YEAR + ": " + year);
+        }
+    }
 
-            yearMonthRevenue.computeIfAbsent(year, k -> new HashMap<>())
-                .merge(month, revenue, BigDecimal::add);
+    private GrowthAnalysisResponse buildGrowthAnalysis(int currentYear, int comparisonYear, PeriodGrain grain) {
+        // 24 monthly rows from the daily rollup, selected by date range so no raw transactions are read
+        List<YearMonthRevenueProjection> rows = dailyMerchantStatsRepository.getMonthlyRevenue(
+            Date.valueOf(LocalDate.of(currentYear, 1, 1)), Date.valueOf(LocalDate.of(currentYear, 12, 31)),
+            Date.valueOf(LocalDate.of(comparisonYear, 1, 1)), Date.valueOf(LocalDate.of(comparisonYear, 12, 31)));
+
+        int periodCount = grain == PeriodGrain.QUARTER ? 4 : 12;
+        long[] currentCents = new long[periodCount];
+        long[] comparisonCents = new long[periodCount];
+        for (YearMonthRevenueProjection row : rows) {
+            int period = grain == PeriodGrain.QUARTER ? (row.getMonth() - 1) / 3 : row.getMonth() - 1;
+            long cents = row.getTotalAmount() != null ? MoneyAccumulator.toCents(row.getTotalAmount()) : 0L;
+            // Both arrays when the two years are the same
+            if (row.getYear() == currentYear) {
+                currentCents[period] += cents;
+            }
+            if (row.getYear() == comparisonYear) {
+                comparisonCents[period] += cents;
+            }
         }
 
-        List<MonthlyComparison> monthlyComparisons = new ArrayList<>();
+        List<MonthlyComparison> comparisons = new ArrayList<>();
+        long currentTotalCents = 0;
+        long comparisonTotalCents = 0;
 
-        for (int month = 1; month <= 12; month++) {
-            BigDecimal currentYearRevenue = yearMonthRevenue.getOrDefault(currentYear, new HashMap<>()).getOrDefault(month, BigDecimal.ZERO);
-            BigDecimal previousYearRevenue = yearMonthRevenue.getOrDefault(comparisonYear, new HashMap<>()).getOrDefault(month, BigDecimal.ZERO);
+        for (int period = 0; period < periodCount; period++) {
+            BigDecimal currentYearRevenue = MoneyAccumulator.toAmount(currentCents[period]);
+            BigDecimal previousYearRevenue = MoneyAccumulator.toAmount(comparisonCents[period]);
+            currentTotalCents += currentCents[period];
+            comparisonTotalCents += comparisonCents[period];
 
             MonthlyComparison comparison = new MonthlyComparison();
-            comparison.setMonth(month);
-            comparison.setMonthName(Month.of(month).name());
-            comparison.setCurrentYearRevenue(currentYearRevenue);
-            comparison.setPreviousYearRevenue(previousYearRevenue);
-
-            // Calculate growth rate
-            if (previousYearRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal growth = currentYearRevenue.subtract(previousYearRevenue)
-                    .divide(previousYearRevenue, 4, RoundingMode.HALF_UP)
-                    .multiply(BigDecimal.valueOf(100));
-                comparison.setGrowthRate(growth.doubleValue());
+            if (grain == PeriodGrain.QUARTER) {
+                comparison.setQuarter(period + 1);
             } else {
-                comparison.setGrowthRate(0.0);
+                comparison.setMonth(period + 1);
+                comparison.setMonthName(Month.of(period + 1).name());
             }
+            comparison.setCurrentYearRevenue(currentYearRevenue);
+            comparison.setPreviousYearRevenue(previousYearRevenue);
+            comparison.setGrowthRate(growthRate(currentYearRevenue, previousYearRevenue));
 
-            monthlyComparisons.add(comparison);
+            comparisons.add(comparison);
         }
 
-        BigDecimal currentYearTotal = monthlyComparisons.stream()
-            .map(MonthlyComparison::getCurrentYearRevenue)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal comparisonYearTotal = monthlyComparisons.stream()
-            .map(MonthlyComparison::getPreviousYearRevenue)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        double overallGrowthRate = 0.0;
-        if (comparisonYearTotal.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal growth = currentYearTotal.subtract(comparisonYearTotal)
-                .divide(comparisonYearTotal, 4, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
-            overallGrowthRate = growth.doubleValue();
-        }
+        BigDecimal currentYearTotal = MoneyAccumulator.toAmount(currentTotalCents);
+        BigDecimal comparisonYearTotal = MoneyAccumulator.toAmount(comparisonTotalCents);
 
         GrowthAnalysisResponse response = new GrowthAnalysisResponse();
         response.setCurrentYear(currentYear);
         response.setComparisonYear(comparisonYear);
-        response.setOverallGrowthRate(overallGrowthRate);
+        response.setGrain(grain == PeriodGrain.QUARTER ? "quarterly" : "monthly");
+        response.setOverallGrowthRate(growthRate(currentYearTotal, comparisonYearTotal));
         response.setCurrentYearTotal(currentYearTotal);
         response.setComparisonYearTotal(comparisonYearTotal);
-        response.setMonthlyComparison(monthlyComparisons);
+        response.setMonthlyComparison(comparisons);
 
         return response;
     }
 
-    @Override
-    public TopPerformersResponse getTopPerformers(LocalDate startDate, LocalDate endDate, Integer limit, String sortBy) {
-        Date sqlStartDate = Date.valueOf(startDate);
-        Date sqlEndDate = Date.valueOf(endDate);
-
-        if (limit == null || limit <= 0) {
-            limit = 10;
+    /**
+     * Percentage change from previous to current, or 0 when there is nothing to compare against.
+     */
+    private static double growthRate(BigDecimal current, BigDecimal previous) {
+        if (previous.compareTo(BigDecimal.ZERO) <= 0) {
+            return 0.0;
         }
+        return current.subtract(previous)
+            .divide(previous, 4, RoundingMode.HALF_UP)
+            .multiply(BigDecimal.valueOf(100))
+            .doubleValue();
+    }
 
-        List<TransactionMaster> transactions = transactionRepository.findByDateRangeForAnalytics(sqlStartDate, sqlEndDate);
-
-        // Group by merchant
-        Map<String, List<TransactionMaster>> byMerchant = transactions.stream()
-            .collect(Collectors.groupingBy(TransactionMaster::getMerchantId));
-
-        // Calculate revenue for each merchant
-        List<MerchantRevenueData> topMerchants = byMerchant.entrySet().stream()
-            .map(entry -> {
-                List<TransactionMaster> txns = entry.getValue();
-                BigDecimal revenue = txns.stream().map(TransactionMaster::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-                long count = txns.size();
-                BigDecimal avg = count > 0 ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
-
-                MerchantRevenueData data = new MerchantRevenueData();
-                data.setMerchantId(entry.getKey());
-                data.setRevenue(revenue);
-                data.setTransactionCount(count);
-                data.setAverageTransaction(avg);
-                return data;
-            })
-            .sorted(Comparator.comparing(MerchantRevenueData::getRevenue).reversed())
-            .limit(limit)
-            .collect(Collectors.toList());
+    @Override
+    public TopPerformersResponse getTopPerformers(LocalDate startDate, LocalDate endDate, Integer limit, String sortBy) {
+        int merchantLimit = limit == null || limit <= 0 ? 10 : limit;
+        MerchantRankingMetric metric = MerchantRankingMetric.from(sortBy);
 
-        BigDecimal totalRevenue = topMerchants.stream().map(MerchantRevenueData::getRevenue).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return requestCoalescer.execute("top-performers", startDate + "/" + endDate + "/" + merchantLimit + "/" + metric,
+            () -> buildTopPerformers(startDate, endDate, merchantLimit, metric, sortBy));
+    }
 
-        int rank = 1;
-        for (MerchantRevenueData data : topMerchants) {
-            data.setRank(rank++);
-            if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal percentage = data.getRevenue().divide(totalRevenue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
-                data.setPercentageOfTotal(percentage.doubleValue());
-            } else {
-                data.setPercentageOfTotal(0.0);
-            }
-        }
+    private TopPerformersResponse buildTopPerformers(LocalDate startDate, LocalDate endDate, int limit,
+                                                     MerchantRankingMetric metric, String sortBy) {
+        List<MerchantRevenueData> topMerchants = topMerchants(startDate, endDate, metric, limit);
+        rankMerchants(topMerchants);
 
         TopPerformersResponse response = new TopPerformersResponse();
         response.setTopMerchants(topMerchants);
@@ -292,50 +361,54 @@ public class RevenueServiceImpl implements RevenueService {
         return response;
     }
 
-    /**
-     * Calculate simple moving average forecast.
-     */
-    private List<ForecastDataPoint> calculateMovingAverageForecast(List<PeriodRevenue> historical, int periods) {
-        if (historical.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        // Use last 7 days for moving average
-        int window = Math.min(7, historical.size());
-        List<BigDecimal> lastRevenues = historical.stream()
-            .skip(Math.max(0, historical.size() - window))
-            .map(PeriodRevenue::getRevenue)
+    private List<MerchantRevenueData> topMerchants(LocalDate startDate, LocalDate endDate,
+                                                   MerchantRankingMetric metric, int limit) {
+        return merchantRanker.topMerchants(startDate, endDate, metric, limit).stream()
+            .map(this::toMerchantRevenueData)
             .collect(Collectors.toList());
+    }
 
-        BigDecimal avgRevenue = lastRevenues.stream()
-            .reduce(BigDecimal.ZERO, BigDecimal::add)
-            .divide(BigDecimal.valueOf(lastRevenues.size()), 2, RoundingMode.HALF_UP);
-
-        // Calculate standard deviation for confidence bounds
-        BigDecimal variance = BigDecimal.ZERO;
-        for (BigDecimal rev : lastRevenues) {
-            BigDecimal diff = rev.subtract(avgRevenue);
-            variance = variance.add(diff.multiply(diff));
+    private MerchantRevenueData toMerchantRevenueData(MerchantRankingProjection row) {
+        BigDecimal revenue = row.getTotalAmount() != null ? row.getTotalAmount() : BigDecimal.ZERO;
+        long count = row.getCount() != null ? row.getCount() : 0L;
+        long completed = row.getCompletedCount() != null ? row.getCompletedCount() : 0L;
+
+        MerchantRevenueData data = new MerchantRevenueData();
+        data.setMerchantId(row.getMerchantId());
+        data.setRevenue(revenue);
+        data.setTransactionCount(count);
+        data.setAverageTransaction(count > 0
+            ? revenue.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+        // Approximate rankings do not track completed transactions
+        if (row.getCompletedCount() != null) {
+            data.setSuccessRate(count > 0
+                ? BigDecimal.valueOf(completed * 100.0 / count).setScale(2, RoundingMode.HALF_UP).doubleValue() : 0.0);
         }
-        BigDecimal stdDev = BigDecimal.valueOf(Math.sqrt(
-            variance.divide(BigDecimal.valueOf(lastRevenues.size()), 2, RoundingMode.HALF_UP).doubleValue()
-        ));
-
-        List<ForecastDataPoint> forecast = new ArrayList<>();
-        LocalDate lastDate = LocalDate.parse(historical.get(historical.size() - 1).getPeriod());
-
-        for (int i = 1; i <= periods; i++) {
-            LocalDate forecastDate = lastDate.plusDays(i);
-            ForecastDataPoint point = new ForecastDataPoint(forecastDate.toString(), avgRevenue);
-
-            // Add confidence bounds (±1 std deviation)
-            point.setLowerBound(avgRevenue.subtract(stdDev).max(BigDecimal.ZERO));
-            point.setUpperBound(avgRevenue.add(stdDev));
+        return data;
+    }
 
-            forecast.add(point);
+    /**
+     * Set rank and share of the listed total on each merchant, in list order.
+     *
+     * @return the listed total
+     */
+    private BigDecimal rankMerchants(List<MerchantRevenueData> merchants) {
+        MoneyAccumulator listed = new MoneyAccumulator();
+        for (MerchantRevenueData data : merchants) {
+            listed.addGroup(data.getTransactionCount(), MoneyAccumulator.toCents(data.getRevenue()));
         }
+        BigDecimal totalRevenue = listed.getSum();
 
-        return forecast;
+        int rank = 1;
+        for (MerchantRevenueData data : merchants) {
+            data.setRank(rank++);
+            if (totalRevenue.compareTo(BigDecimal.ZERO) > 0) {
+                BigDecimal percentage = data.getRevenue().divide(totalRevenue, 4, RoundingMode.HALF_UP).multiply(BigDecimal.valueOf(100));
+                data.setPercentageOfTotal(percentage.doubleValue());
+            } else {
+                data.setPercentageOfTotal(0.0);
+            }
+        }
+        return totalRevenue;
     }
 }
-
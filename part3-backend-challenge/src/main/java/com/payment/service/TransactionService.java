@@ -0,0 +1,14 @@
+package com.payment.service;
+
+import com.payment.entity.TransactionMaster;
+
+/**
+ * Service for the transaction write path.
+ */
+public interface TransactionService {
+
+    /**
+     * Save a new transaction for a merchant and add it to the daily merchant rollup.
+     */
+    TransactionMaster createTransaction(String merchantId, TransactionMaster transaction);
+}
@@ -0,0 +1,130 @@
+package com.payment.service;
+
+import com.payment.analytics.AmountQuantileTracker;
+import com.payment.analytics.AnalyticsSegmentCache;
+import com.payment.analytics.CardinalityTracker;
+import com.payment.analytics.HeavyHitterTracker;
+import com.payment.analytics.TransactionCube;
+import com.payment.analytics.TransactionSummaryCache;
+import com.payment.entity.TransactionMaster;
+import com.payment.repository.DailyMerchantStatsRepository;
+import com.payment.repository.MerchantStatsRepository;
+import com.payment.repository.TransactionRepository;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import jakarta.inject.Singleton;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.Optional;
+
+@Singleton
+public class TransactionServiceImpl implements TransactionService {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TransactionServiceImpl.class);
+
+    private final TransactionRepository transactionRepository;
+    private final DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private final MerchantStatsRepository merchantStatsRepository;
+    private final TransactionCube transactionCube;
+    private final AnalyticsSegmentCache segmentCache;
+    private final HeavyHitterTracker heavyHitterTracker;
+    private final CardinalityTracker cardinalityTracker;
+    private final AmountQuantileTracker amountQuantileTracker;
+    private final MerchantSearchIndex merchantSearchIndex;
+    private final TransactionSummaryCache transactionSummaryCache;
+    private final TransactionOperations<Connection> transactionOperations;
+
+    public TransactionServiceImpl(TransactionRepository transactionRepository,
+                                  DailyMerchantStatsRepository dailyMerchantStatsRepository,
+                                  MerchantStatsRepository merchantStatsRepository,
+                                  TransactionCube transactionCube,
+                                  AnalyticsSegmentCache segmentCache,
+                                  HeavyHitterTracker heavyHitterTracker,
+                                  CardinalityTracker cardinalityTracker,
+                                  AmountQuantileTracker amountQuantileTracker,
+                                  MerchantSearchIndex merchantSearchIndex,
+                                  TransactionSummaryCache transactionSummaryCache,
+                                  TransactionOperations<Connection> transactionOperations) {
+        this.transactionRepository = transactionRepository;
+        this.dailyMerchantStatsRepository = dailyMerchantStatsRepository;
+        this.merchantStatsRepository = merchantStatsRepository;
+        this.transactionCube = transactionCube;
+        this.segmentCache = segmentCache;
+        this.heavyHitterTracker = heavyHitterTracker;
+        this.cardinalityTracker = cardinalityTracker;
+        this.amountQuantileTracker = amountQuantileTracker;
+        this.merchantSearchIndex = merchantSearchIndex;
+        this.transactionSummaryCache = transactionSummaryCache;
+        this.transactionOperations = transactionOperations;
+    }
+
+    /**
+     * The insert and the rollup upserts share one transaction, so neither daily_merchant_stats
+     * nor merchant_stats ever counts a transaction that was rolled back. The day's rollup lock
+     * is held shared until commit, so a reconciliation of that day either sees the new row or
+     * runs before the increment is applied (see DailyRollupReconciler). The in-memory caches,
+     * sketches and search index are only told once it commits: a rollback leaves them
+     * untouched, and a reload that starts after an invalidation reads the new row.
+     */
+    @Override
+    @Transactional
+    public TransactionMaster createTransaction(String merchantId, TransactionMaster transaction) {
+        transaction.setMerchantId(merchantId);
+        TransactionMaster saved = transactionRepository.save(transaction);
+
+        dailyMerchantStatsRepository.lockDayForInsert(saved.getTxnDate());
+        dailyMerchantStatsRepository.addTransaction(
+            saved.getTxnDate(),
+            saved.getMerchantId(),
+            saved.getStatus(),
+            saved.getCardType(),
+            saved.getCurrency(),
+            saved.getAmount()
+        );
+        merchantStatsRepository.addTransaction(
+            saved.getTxnDate(),
+            saved.getMerchantId(),
+            saved.getStatus(),
+            saved.getAmount()
+        );
+
+        afterCommit(() -> {
+            // Closed days are cached indefinitely; a back-dated transaction must drop its day
+            LocalDate txnDate = saved.getTxnDate().toLocalDate();
+            if (txnDate.isBefore(LocalDate.now())) {
+                transactionCube.markChanged(txnDate);
+                segmentCache.invalidate(txnDate);
+            }
+            transactionSummaryCache.invalidate(txnDate);
+            heavyHitterTracker.record(txnDate, saved.getMerchantId(), saved.getAmount());
+            cardinalityTracker.record(txnDate, saved.getMerchantId(), saved.getCardType(), saved.getCardLast4());
+            amountQuantileTracker.record(txnDate, saved.getMerchantId(), saved.getCardType(), saved.getAmount());
+            merchantSearchIndex.markListed(saved.getMerchantId());
+        });
+
+        LOG.debug("Transaction {} created for merchant {}", saved.getTxnId(), merchantId);
+        return saved;
+    }
+
+    /**
+     * Run the action once the current transaction commits, or right away outside one.
+     */
+    private void afterCommit(Runnable action) {
+        Optional<? extends TransactionStatus<?>> transaction = transactionOperations.findTransactionStatus();
+        if (transaction.isEmpty()) {
+            action.run();
+            return;
+        }
+        transaction.get().registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
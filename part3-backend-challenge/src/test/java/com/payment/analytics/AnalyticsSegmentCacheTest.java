@@ -0,0 +1,165 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.DailyBreakdownProjection;
+import com.payment.repository.DailyMerchantStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for AnalyticsSegmentCache: closed days served from the cache, invalidation,
+ * loads racing an invalidation, slot-bounded eviction and which days come from the cube.
+ */
+public class AnalyticsSegmentCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private final List<DailyBreakdownProjection> rows = new ArrayList<>();
+    private TransactionCube transactionCube;
+    private DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private DimensionDictionary dictionary;
+
+    @BeforeEach
+    public void setUp() {
+        transactionCube = mock(TransactionCube.class);
+        when(transactionCube.snapshotCovering(any(), any())).thenReturn(Optional.empty());
+        dailyMerchantStatsRepository = mock(DailyMerchantStatsRepository.class);
+        when(dailyMerchantStatsRepository.getDailyBreakdown(any(), any())).thenAnswer(invocation -> {
+            long from = invocation.<Date>getArgument(0).toLocalDate().toEpochDay();
+            long to = invocation.<Date>getArgument(1).toLocalDate().toEpochDay();
+            return rows.stream().filter(row -> row.getEpochDay() >= from && row.getEpochDay() <= to).toList();
+        });
+        dictionary = new DimensionDictionary();
+    }
+
+    @Test
+    public void testClosedDaysAreServedFromCache() {
+        addRow(TODAY.minusDays(3), "MCH-00001", 2, 1000);
+        addRow(TODAY.minusDays(2), "MCH-00002", 1, 500);
+        AnalyticsSegmentCache cache = newCache(1000);
+
+        assertEquals(3, cache.getRange(TODAY.minusDays(3), TODAY.minusDays(1)).getTotalCount());
+        assertTrue(cache.isCached(TODAY.minusDays(3), TODAY.minusDays(1)));
+        assertEquals(3, cache.getRange(TODAY.minusDays(3), TODAY.minusDays(1)).getTotalCount());
+
+        verify(dailyMerchantStatsRepository, times(1)).getDailyBreakdown(any(), any());
+        assertEquals(3, cache.getHitCount());
+        assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void testInvalidateReloadsOnlyThatDay() {
+        addRow(TODAY.minusDays(3), "MCH-00001", 2, 1000);
+        addRow(TODAY.minusDays(2), "MCH-00002", 1, 500);
+        AnalyticsSegmentCache cache = newCache(1000);
+        cache.getRange(TODAY.minusDays(3), TODAY.minusDays(1));
+
+        addRow(TODAY.minusDays(2), "MCH-00003", 4, 800);
+        assertEquals(3, cache.getRange(TODAY.minusDays(3), TODAY.minusDays(1)).getTotalCount());
+
+        cache.invalidate(TODAY.minusDays(2));
+        assertFalse(cache.isCached(TODAY.minusDays(3), TODAY.minusDays(1)));
+        assertTrue(cache.isCached(TODAY.minusDays(3), TODAY.minusDays(3)));
+        assertEquals(7, cache.getRange(TODAY.minusDays(3), TODAY.minusDays(1)).getTotalCount());
+
+        verify(dailyMerchantStatsRepository).getDailyBreakdown(
+            Date.valueOf(TODAY.minusDays(2)), Date.valueOf(TODAY.minusDays(2)));
+    }
+
+    @Test
+    public void testInvalidateAllClearsEveryDay() {
+        addRow(TODAY.minusDays(2), "MCH-00001", 1, 100);
+        AnalyticsSegmentCache cache = newCache(1000);
+        cache.getRange(TODAY.minusDays(2), TODAY.minusDays(1));
+        assertEquals(2, cache.getSize());
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.getSize());
+        assertEquals(0, cache.getSlotCount());
+        assertFalse(cache.isCached(TODAY.minusDays(2), TODAY.minusDays(2)));
+    }
+
+    @Test
+    public void testLoadAcrossInvalidationIsNotCached() {
+        addRow(TODAY.minusDays(2), "MCH-00001", 1, 100);
+        AnalyticsSegmentCache cache = newCache(1000);
+        doAnswer(invocation -> {
+            // A back-dated insert commits while the day is being read
+            cache.invalidate(TODAY.minusDays(2));
+            return List.copyOf(rows);
+        }).doAnswer(invocation -> List.copyOf(rows))
+            .when(dailyMerchantStatsRepository).getDailyBreakdown(any(), any());
+
+        assertEquals(1, cache.getRange(TODAY.minusDays(2), TODAY.minusDays(2)).getTotalCount());
+        assertFalse(cache.isCached(TODAY.minusDays(2), TODAY.minusDays(2)));
+
+        cache.getRange(TODAY.minusDays(2), TODAY.minusDays(2));
+        assertTrue(cache.isCached(TODAY.minusDays(2), TODAY.minusDays(2)));
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedDaysBySlots() {
+        // One merchant, status, card type and currency, plus the day itself: 5 slots per day
+        for (int d = 1; d <= 3; d++) {
+            addRow(TODAY.minusDays(d), "MCH-00001", 1, 100);
+        }
+        AnalyticsSegmentCache cache = newCache(10);
+
+        cache.getRange(TODAY.minusDays(3), TODAY.minusDays(3));
+        cache.getRange(TODAY.minusDays(2), TODAY.minusDays(2));
+        cache.getRange(TODAY.minusDays(3), TODAY.minusDays(3));
+        cache.getRange(TODAY.minusDays(1), TODAY.minusDays(1));
+
+        assertEquals(2, cache.getSize());
+        assertEquals(10, cache.getSlotCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertTrue(cache.isCached(TODAY.minusDays(3), TODAY.minusDays(3)));
+        assertFalse(cache.isCached(TODAY.minusDays(2), TODAY.minusDays(2)));
+    }
+
+    @Test
+    public void testDaysFromTheSnapshotLoadDayComeFromTheRollup() {
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dictionary, TODAY.minusDays(2), TODAY, 16);
+        builder.add((int) TODAY.minusDays(2).toEpochDay(), 100, "MCH-00001", "completed", "VISA", "USD", 0);
+        builder.add((int) TODAY.minusDays(1).toEpochDay(), 200, "MCH-00001", "completed", "VISA", "USD", 0);
+        CubeSnapshot snapshot = builder.build();
+        when(transactionCube.snapshotCovering(any(), any())).thenReturn(Optional.of(snapshot));
+        when(transactionCube.changedDays(any(), any(), any())).thenReturn(Set.of(TODAY.minusDays(1).toEpochDay()));
+        // Committed after the snapshot was read
+        addRow(TODAY.minusDays(1), "MCH-00001", 2, 700);
+        addRow(TODAY, "MCH-00002", 3, 900);
+        AnalyticsSegmentCache cache = newCache(1000);
+
+        List<RangeMetrics> days = cache.getDays(TODAY.minusDays(2), TODAY);
+
+        assertEquals(1, days.get(0).getTotalCount());
+        assertTrue(days.get(0).hasPeakTimes());
+        assertEquals(2, days.get(1).getTotalCount());
+        assertEquals(3, days.get(2).getTotalCount());
+        assertFalse(days.get(2).hasPeakTimes());
+        verify(dailyMerchantStatsRepository).getDailyBreakdown(
+            Date.valueOf(TODAY.minusDays(1)), Date.valueOf(TODAY.minusDays(1)));
+        verify(dailyMerchantStatsRepository).getDailyBreakdown(Date.valueOf(TODAY), Date.valueOf(TODAY));
+    }
+
+    private AnalyticsSegmentCache newCache(long maxSlots) {
+        return new AnalyticsSegmentCache(transactionCube, dailyMerchantStatsRepository,
+            new ParallelSliceExecutor(62, 7, 2), dictionary, maxSlots, Duration.ofSeconds(30));
+    }
+
+    private void addRow(LocalDate day, String merchantId, long count, long cents) {
+        rows.add(new DailyBreakdownProjection(day.toEpochDay(), merchantId, "completed", "VISA", "USD", count, cents));
+    }
+}
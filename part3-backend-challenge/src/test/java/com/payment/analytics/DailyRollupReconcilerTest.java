@@ -0,0 +1,121 @@
+package com.payment.analytics;
+
+import com.payment.repository.DailyMerchantStatsRepository;
+import io.micronaut.transaction.TransactionCallback;
+import io.micronaut.transaction.TransactionOperations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for DailyRollupReconciler: one locked transaction per day, then cache
+ * invalidation and the merchant_stats pass.
+ */
+public class DailyRollupReconcilerTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 3);
+
+    private final List<String> calls = new ArrayList<>();
+    private DailyMerchantStatsRepository dailyMerchantStatsRepository;
+    private AnalyticsSegmentCache segmentCache;
+    private HeavyHitterTracker heavyHitterTracker;
+    private CardinalityTracker cardinalityTracker;
+    private AmountQuantileTracker amountQuantileTracker;
+    private MerchantStatsReconciler merchantStatsReconciler;
+    private DailyRollupReconciler reconciler;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        dailyMerchantStatsRepository = mock(DailyMerchantStatsRepository.class);
+        doAnswer(invocation -> record("lock", invocation.getArgument(0))).when(dailyMerchantStatsRepository).lockDayForRebuild(any());
+        doAnswer(invocation -> record("delete", invocation.getArgument(0))).when(dailyMerchantStatsRepository).deleteStaleByDateRange(any(), any());
+        doAnswer(invocation -> record("rebuild", invocation.getArgument(0))).when(dailyMerchantStatsRepository).rebuildByDateRange(any(), any());
+
+        TransactionOperations<Connection> transactionOperations = mock(TransactionOperations.class);
+        when(transactionOperations.executeWrite(any())).thenAnswer(invocation -> {
+            calls.add("begin");
+            Object result = invocation.<TransactionCallback<Connection, Object>>getArgument(0).call(null);
+            calls.add("commit");
+            return result;
+        });
+
+        segmentCache = mock(AnalyticsSegmentCache.class);
+        heavyHitterTracker = mock(HeavyHitterTracker.class);
+        cardinalityTracker = mock(CardinalityTracker.class);
+        amountQuantileTracker = mock(AmountQuantileTracker.class);
+        merchantStatsReconciler = mock(MerchantStatsReconciler.class);
+        reconciler = new DailyRollupReconciler(dailyMerchantStatsRepository, segmentCache, heavyHitterTracker,
+            cardinalityTracker, amountQuantileTracker, merchantStatsReconciler, transactionOperations, true, 7);
+    }
+
+    @Test
+    public void testRebuildsEachDayInItsOwnLockedTransaction() {
+        reconciler.reconcile(START, END);
+
+        List<String> expected = new ArrayList<>();
+        for (LocalDate day = START; !day.isAfter(END); day = day.plusDays(1)) {
+            expected.addAll(List.of("begin", "lock " + day, "delete " + day, "rebuild " + day, "commit"));
+        }
+        assertEquals(expected, calls);
+        verify(dailyMerchantStatsRepository).deleteStaleByDateRange(Date.valueOf(START), Date.valueOf(START));
+        verify(dailyMerchantStatsRepository).rebuildByDateRange(Date.valueOf(END), Date.valueOf(END));
+    }
+
+    @Test
+    public void testInvalidatesCachesBeforeReconcilingMerchantStats() {
+        reconciler.reconcile(START, END);
+
+        InOrder inOrder = inOrder(dailyMerchantStatsRepository, segmentCache, heavyHitterTracker,
+            cardinalityTracker, amountQuantileTracker, merchantStatsReconciler);
+        inOrder.verify(dailyMerchantStatsRepository).rebuildByDateRange(Date.valueOf(END), Date.valueOf(END));
+        inOrder.verify(segmentCache).invalidate(START, END);
+        inOrder.verify(heavyHitterTracker).invalidate(START, END);
+        inOrder.verify(cardinalityTracker).invalidate(START, END);
+        inOrder.verify(amountQuantileTracker).invalidate(START, END);
+        inOrder.verify(merchantStatsReconciler).reconcile();
+    }
+
+    @Test
+    public void testFailedDayStopsBeforeCachesAreTouched() {
+        doThrow(new IllegalStateException("deadlock detected")).when(dailyMerchantStatsRepository)
+            .rebuildByDateRange(Date.valueOf(START.plusDays(1)), Date.valueOf(START.plusDays(1)));
+
+        assertThrows(IllegalStateException.class, () -> reconciler.reconcile(START, END));
+
+        verify(dailyMerchantStatsRepository, never()).lockDayForRebuild(Date.valueOf(END));
+        verifyNoInteractions(segmentCache, merchantStatsReconciler);
+    }
+
+    @Test
+    public void testRejectsInvertedRange() {
+        assertThrows(IllegalArgumentException.class, () -> reconciler.reconcile(END, START));
+        verifyNoInteractions(dailyMerchantStatsRepository);
+    }
+
+    @Test
+    public void testNightlyRunCoversClosedDaysOnly() {
+        reconciler.reconcileRecentDays();
+
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        verify(segmentCache).invalidate(yesterday.minusDays(6), yesterday);
+        verify(dailyMerchantStatsRepository, never()).lockDayForRebuild(Date.valueOf(LocalDate.now()));
+        verify(dailyMerchantStatsRepository, times(7)).rebuildByDateRange(any(), any());
+    }
+
+    private Object record(String call, Date date) {
+        calls.add(call + " " + date.toLocalDate());
+        return null;
+    }
+}
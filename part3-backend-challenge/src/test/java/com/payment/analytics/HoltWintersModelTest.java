@@ -0,0 +1,87 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HoltWintersModel: warm-up, weekly seasonality and calendar alignment.
+ */
+public class HoltWintersModelTest {
+
+    private static final double[] WEEK = {100, 120, 90, 150, 200, 260, 80};
+
+    @Test
+    public void testNotReadyDuringWarmUp() {
+        HoltWintersModel model = new HoltWintersModel(0.3, 0.05, 0.3);
+        for (int day = 0; day < 13; day++) {
+            model.update(day, 100);
+        }
+
+        assertFalse(model.isReady());
+        assertEquals(13, model.getObservations());
+        assertThrows(IllegalStateException.class, () -> model.forecast(1));
+
+        model.update(13, 100);
+        assertTrue(model.isReady());
+        assertEquals(13, model.getLastDay());
+    }
+
+    @Test
+    public void testReproducesExactWeeklyPattern() {
+        HoltWintersModel model = new HoltWintersModel(0.3, 0.05, 0.3);
+        long firstDay = 20_000;
+        for (long day = firstDay; day < firstDay + 56; day++) {
+            model.update(day, WEEK[Math.floorMod(day, 7)]);
+        }
+
+        for (int h = 1; h <= 14; h++) {
+            assertEquals(WEEK[Math.floorMod(model.getLastDay() + h, 7)], model.forecast(h), 1e-6, "h=" + h);
+            assertEquals(0.0, model.forecastStdDev(h), 1e-6);
+        }
+    }
+
+    @Test
+    public void testSeasonFollowsCalendarWhateverTheStartDay() {
+        // Same calendar pattern, fed from different weekdays and across epoch day 0
+        HoltWintersModel early = new HoltWintersModel(0.3, 0.05, 0.3);
+        HoltWintersModel late = new HoltWintersModel(0.3, 0.05, 0.3);
+        for (long day = -30; day <= 40; day++) {
+            early.update(day, WEEK[Math.floorMod(day, 7)]);
+        }
+        for (long day = -24; day <= 40; day++) {
+            late.update(day, WEEK[Math.floorMod(day, 7)]);
+        }
+
+        for (int h = 1; h <= 7; h++) {
+            assertEquals(early.forecast(h), late.forecast(h), 1e-6, "h=" + h);
+        }
+    }
+
+    @Test
+    public void testIntervalWidensWithHorizon() {
+        HoltWintersModel model = new HoltWintersModel(0.3, 0.05, 0.3);
+        Random random = new Random(9);
+        for (long day = 0; day < 56; day++) {
+            model.update(day, WEEK[(int) (day % 7)] + random.nextGaussian() * 10);
+        }
+
+        assertTrue(model.forecastStdDev(1) > 0);
+        for (int h = 2; h <= 14; h++) {
+            assertTrue(model.forecastStdDev(h) >= model.forecastStdDev(h - 1), "h=" + h);
+        }
+    }
+
+    @Test
+    public void testRejectsGapsAndInvalidParameters() {
+        HoltWintersModel model = new HoltWintersModel(0.3, 0.05, 0.3);
+        model.update(10, 1);
+        assertThrows(IllegalArgumentException.class, () -> model.update(12, 1));
+
+        assertThrows(IllegalArgumentException.class, () -> new HoltWintersModel(0, 0.05, 0.3));
+        assertThrows(IllegalArgumentException.class, () -> new HoltWintersModel(0.3, 1, 0.3));
+        assertThrows(IllegalArgumentException.class, () -> new HoltWintersModel(0.3, 0.05, -0.1));
+    }
+}
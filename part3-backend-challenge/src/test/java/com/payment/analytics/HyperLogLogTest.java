@@ -0,0 +1,84 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for HyperLogLog: estimate accuracy, idempotent adds and merge as set union.
+ */
+public class HyperLogLogTest {
+
+    private static final int PRECISION = 12;
+
+    @Test
+    public void testEmptySketchEstimatesZero() {
+        assertEquals(0, new HyperLogLog(PRECISION).estimate());
+    }
+
+    @Test
+    public void testSmallCardinalityIsNearlyExact() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 100; i++) {
+            sketch.add("MCH-" + i);
+        }
+        assertEquals(100, sketch.estimate(), 2);
+    }
+
+    @Test
+    public void testLargeCardinalityWithinErrorBound() {
+        double error = HyperLogLog.relativeStandardError(PRECISION);
+        for (int n : new int[] {10_000, 100_000, 500_000}) {
+            HyperLogLog sketch = new HyperLogLog(PRECISION);
+            for (int i = 0; i < n; i++) {
+                sketch.add("card-" + i);
+            }
+            // Four standard errors; the hash is deterministic, so this cannot flake
+            assertEquals(n, sketch.estimate(), 4 * error * n, "estimate for " + n);
+        }
+    }
+
+    @Test
+    public void testAddingDuplicatesDoesNotChangeEstimate() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("MCH-" + i);
+        }
+        long before = sketch.estimate();
+        for (int i = 0; i < 5_000; i++) {
+            sketch.add("MCH-" + i);
+        }
+        assertEquals(before, sketch.estimate());
+    }
+
+    @Test
+    public void testMergeEqualsSketchOfUnion() {
+        HyperLogLog first = new HyperLogLog(PRECISION);
+        HyperLogLog second = new HyperLogLog(PRECISION);
+        HyperLogLog union = new HyperLogLog(PRECISION);
+        for (int i = 0; i < 30_000; i++) {
+            first.add("v" + i);
+            union.add("v" + i);
+        }
+        for (int i = 20_000; i < 60_000; i++) {
+            second.add("v" + i);
+            union.add("v" + i);
+        }
+
+        first.merge(second);
+        assertEquals(union.estimate(), first.estimate());
+        assertEquals(60_000, first.estimate(), 4 * HyperLogLog.relativeStandardError(PRECISION) * 60_000);
+    }
+
+    @Test
+    public void testRejectsMismatchedPrecision() {
+        HyperLogLog sketch = new HyperLogLog(PRECISION);
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new HyperLogLog(PRECISION + 1)));
+    }
+
+    @Test
+    public void testRejectsPrecisionOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MIN_PRECISION - 1));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(HyperLogLog.MAX_PRECISION + 1));
+    }
+}
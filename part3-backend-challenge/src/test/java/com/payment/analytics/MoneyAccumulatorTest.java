@@ -0,0 +1,130 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MoneyAccumulator: cents rounding, exact totals and overflow of large amounts.
+ */
+public class MoneyAccumulatorTest {
+
+    @Test
+    public void testToCentsRoundsHalfUp() {
+        assertEquals(101, MoneyAccumulator.toCents(new BigDecimal("1.005")));
+        assertEquals(100, MoneyAccumulator.toCents(new BigDecimal("1.004")));
+        assertEquals(-101, MoneyAccumulator.toCents(new BigDecimal("-1.005")));
+        assertEquals(1200, MoneyAccumulator.toCents(new BigDecimal("12")));
+        assertEquals(new BigDecimal("12.34"), MoneyAccumulator.toAmount(1234));
+        assertEquals(new BigDecimal("-0.05"), MoneyAccumulator.toAmount(-5));
+    }
+
+    @Test
+    public void testToCentsRejectsAmountsBeyondLong() {
+        BigDecimal tooLarge = BigDecimal.valueOf(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> MoneyAccumulator.toCents(tooLarge));
+    }
+
+    @Test
+    public void testTotalsAndStatistics() {
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        for (String amount : new String[] {"2", "4", "4", "4", "5", "5", "7", "9"}) {
+            accumulator.add(new BigDecimal(amount));
+        }
+
+        assertEquals(8, accumulator.getCount());
+        assertEquals(new BigDecimal("40.00"), accumulator.getSum());
+        assertEquals(new BigDecimal("5.00"), accumulator.getAverage());
+        assertEquals(new BigDecimal("2.00"), accumulator.getMin());
+        assertEquals(new BigDecimal("9.00"), accumulator.getMax());
+        assertEquals(new BigDecimal("2.00"), accumulator.getStandardDeviation());
+    }
+
+    @Test
+    public void testAverageRoundsToCents() {
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        accumulator.add(33);
+        accumulator.add(33);
+        accumulator.add(34);
+        assertEquals(new BigDecimal("0.33"), accumulator.getAverage());
+        assertEquals(BigDecimal.ZERO, new MoneyAccumulator().getAverage());
+    }
+
+    @Test
+    public void testSumOfSquaresDoesNotOverflow() {
+        // Each square is 9e18 cents^2, so two of them overflow a long
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        accumulator.add(3_000_000_000L);
+        accumulator.add(3_000_000_200L);
+
+        assertEquals(new BigDecimal("1.00"), accumulator.getStandardDeviation());
+        assertEquals(new BigDecimal("60000002.00"), accumulator.getSum());
+    }
+
+    @Test
+    public void testMergeMatchesAddingEverything() {
+        MoneyAccumulator first = new MoneyAccumulator();
+        MoneyAccumulator second = new MoneyAccumulator();
+        MoneyAccumulator all = new MoneyAccumulator();
+        for (long cents = -500; cents <= 5000; cents += 37) {
+            (cents % 2 == 0 ? first : second).add(cents);
+            all.add(cents);
+        }
+
+        first.merge(second);
+        first.merge(new MoneyAccumulator());
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getSum(), first.getSum());
+        assertEquals(all.getMin(), first.getMin());
+        assertEquals(all.getMax(), first.getMax());
+        assertEquals(all.getStandardDeviation(), first.getStandardDeviation());
+    }
+
+    @Test
+    public void testGroupsDropRowStatistics() {
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        accumulator.add(100);
+        accumulator.addGroup(3, 900);
+
+        assertEquals(4, accumulator.getCount());
+        assertEquals(new BigDecimal("10.00"), accumulator.getSum());
+        assertFalse(accumulator.hasRowStatistics());
+        assertNull(accumulator.getMin());
+        assertNull(accumulator.getMax());
+        assertNull(accumulator.getStandardDeviation());
+
+        MoneyAccumulator rows = new MoneyAccumulator();
+        rows.add(100);
+        rows.merge(accumulator);
+        assertFalse(rows.hasRowStatistics());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        accumulator.addGroup(2, 500);
+        MoneyAccumulator copy = accumulator.copy();
+        accumulator.add(100);
+
+        assertEquals(2, copy.getCount());
+        assertEquals(new BigDecimal("5.00"), copy.getSum());
+        assertFalse(copy.hasRowStatistics());
+    }
+
+    @Test
+    public void testSumOverflowThrows() {
+        MoneyAccumulator accumulator = new MoneyAccumulator();
+        accumulator.add(Long.MAX_VALUE - 1);
+
+        assertThrows(ArithmeticException.class, () -> accumulator.add(2));
+        assertThrows(ArithmeticException.class, () -> accumulator.addGroup(1, 2));
+        MoneyAccumulator other = new MoneyAccumulator();
+        other.add(2);
+        assertThrows(ArithmeticException.class, () -> accumulator.merge(other));
+
+        assertEquals(1, accumulator.getCount());
+        assertEquals(Long.MAX_VALUE - 1, accumulator.getSumCents());
+    }
+}
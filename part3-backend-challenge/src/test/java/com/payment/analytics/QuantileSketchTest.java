@@ -0,0 +1,110 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for QuantileSketch: relative error of every quantile and lossless merges.
+ */
+public class QuantileSketchTest {
+
+    private static final double ACCURACY = 0.01;
+
+    @Test
+    public void testQuantilesWithinRelativeAccuracy() {
+        Random random = new Random(11);
+        long[] amounts = new long[20_000];
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < amounts.length; i++) {
+            // Log-uniform between 1 cent and 1,000,000.00
+            amounts[i] = Math.max(1, Math.round(Math.pow(10, random.nextDouble() * 8)));
+            sketch.add(amounts[i]);
+        }
+        Arrays.sort(amounts);
+
+        assertEquals(amounts.length, sketch.getCount());
+        assertEquals(amounts[0], sketch.getMin());
+        assertEquals(amounts[amounts.length - 1], sketch.getMax());
+        for (int step = 0; step <= 100; step++) {
+            double q = step / 100.0;
+            long exact = amounts[(int) Math.floor(q * (amounts.length - 1))];
+            long estimate = sketch.quantile(q);
+            // Rounding to whole cents adds at most one
+            assertEquals(exact, estimate, ACCURACY * exact + 1, "quantile " + q);
+        }
+    }
+
+    @Test
+    public void testMergeMatchesSketchOfAllAmounts() {
+        Random random = new Random(3);
+        QuantileSketch first = new QuantileSketch(ACCURACY);
+        QuantileSketch second = new QuantileSketch(ACCURACY);
+        QuantileSketch all = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < 10_000; i++) {
+            long amount = 1 + random.nextInt(1_000_000);
+            (i % 3 == 0 ? first : second).add(amount);
+            all.add(amount);
+        }
+        first.add(0);
+        all.add(0);
+
+        first.merge(second);
+        assertEquals(all.getCount(), first.getCount());
+        assertEquals(all.getMin(), first.getMin());
+        assertEquals(all.getMax(), first.getMax());
+        for (int step = 0; step <= 100; step++) {
+            assertEquals(all.quantile(step / 100.0), first.quantile(step / 100.0), "quantile " + step / 100.0);
+        }
+    }
+
+    @Test
+    public void testMergeWithEmptySketchChangesNothing() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(500);
+        sketch.add(1500);
+        sketch.merge(new QuantileSketch(ACCURACY));
+
+        assertEquals(2, sketch.getCount());
+        assertEquals(500, sketch.getMin());
+        assertEquals(1500, sketch.getMax());
+        assertEquals(500, sketch.quantile(0), ACCURACY * 500 + 1);
+        assertEquals(1500, sketch.quantile(1), ACCURACY * 1500 + 1);
+    }
+
+    @Test
+    public void testZeroAmountsShareOneBucket() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        for (int i = 0; i < 9; i++) {
+            sketch.add(0);
+        }
+        sketch.add(10_000);
+
+        assertEquals(0, sketch.quantile(0.5));
+        assertEquals(10_000, sketch.quantile(1), ACCURACY * 10_000 + 1);
+    }
+
+    @Test
+    public void testSingleAmountIsExact() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        sketch.add(12_345);
+
+        assertEquals(12_345, sketch.quantile(0));
+        assertEquals(12_345, sketch.quantile(0.5));
+        assertEquals(12_345, sketch.quantile(1));
+    }
+
+    @Test
+    public void testRejectsInvalidArguments() {
+        QuantileSketch sketch = new QuantileSketch(ACCURACY);
+        assertThrows(IllegalStateException.class, () -> sketch.quantile(0.5));
+        sketch.add(100);
+        assertThrows(IllegalArgumentException.class, () -> sketch.quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> sketch.merge(new QuantileSketch(0.02)));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1));
+    }
+}
@@ -0,0 +1,110 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RequestCoalescer: concurrent calls share one computation and its outcome.
+ */
+public class RequestCoalescerTest {
+
+    @Test
+    public void testConcurrentCallsShareOneComputation() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> coalescer.execute("dashboard", "2025-11", () -> {
+                runs.incrementAndGet();
+                await(release);
+                return new Object();
+            }));
+            waitUntil(() -> runs.get() == 1);
+            Future<Object> second = executor.submit(() -> coalescer.execute("dashboard", "2025-11", () -> {
+                runs.incrementAndGet();
+                return new Object();
+            }));
+            waitUntil(() -> coalescer.getCoalescedCount() == 1);
+            release.countDown();
+
+            assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+            assertEquals(2L, coalescer.getStats().get("dashboard").get("calls"));
+            assertEquals(1L, coalescer.getStats().get("dashboard").get("coalesced"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testWaitersReceiveTheSameException() throws Exception {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> first = executor.submit(() -> coalescer.execute("report", "k", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalArgumentException("bad range");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Object> second = executor.submit(() -> coalescer.execute("report", "k", Object::new));
+            waitUntil(() -> coalescer.getCoalescedCount() == 1);
+            release.countDown();
+
+            for (Future<Object> future : List.of(first, second)) {
+                Exception e = assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS));
+                assertInstanceOf(IllegalArgumentException.class, e.getCause());
+                assertEquals("bad range", e.getCause().getMessage());
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testSequentialCallsAndOtherKeysRecompute() {
+        RequestCoalescer coalescer = new RequestCoalescer();
+        AtomicInteger runs = new AtomicInteger();
+
+        assertEquals(1, coalescer.execute("op", "a", runs::incrementAndGet));
+        assertEquals(2, coalescer.execute("op", "a", runs::incrementAndGet));
+        assertEquals(3, coalescer.execute("op", "b", runs::incrementAndGet));
+        assertEquals(4, coalescer.execute("other", "a", runs::incrementAndGet));
+        assertEquals(0, coalescer.getCoalescedCount());
+        assertEquals(3L, coalescer.getStats().get("op").get("calls"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the test to release the computation");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SpaceSavingSketch: exactness below capacity and the error bounds once full.
+ */
+public class SpaceSavingSketchTest {
+
+    @Test
+    public void testExactWhileBelowCapacity() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.add("a", 5);
+        sketch.add("b", 3);
+        sketch.add("a", 2);
+
+        assertEquals(2, sketch.size());
+        assertEquals(0, sketch.getFloor());
+        assertEquals(7, sketch.getUpperBound("a"));
+        assertEquals(7, sketch.getLowerBound("a"));
+        assertEquals(3, sketch.getUpperBound("b"));
+        assertEquals(0, sketch.getUpperBound("missing"));
+        assertEquals(10, sketch.getTotalWeight());
+    }
+
+    @Test
+    public void testIgnoresNonPositiveWeights() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(2);
+        sketch.add("a", 0);
+        sketch.add("b", -4);
+
+        assertEquals(0, sketch.size());
+        assertEquals(0, sketch.getTotalWeight());
+    }
+
+    @Test
+    public void testRejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSavingSketch(0));
+    }
+
+    @Test
+    public void testBoundsHoldForSkewedStream() {
+        int capacity = 32;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50_000; i++) {
+            // Roughly Zipfian over 1000 keys
+            String key = "m" + (int) Math.floor(Math.pow(1000, random.nextDouble()));
+            long weight = 1 + random.nextInt(500);
+            sketch.add(key, weight);
+            exact.merge(key, weight, Long::sum);
+        }
+
+        long total = exact.values().stream().mapToLong(Long::longValue).sum();
+        assertEquals(total, sketch.getTotalWeight());
+        assertEquals(capacity, sketch.size());
+        assertTrue(sketch.getFloor() <= total / capacity, "floor is at most total / capacity");
+
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long trueWeight = entry.getValue();
+            long upper = sketch.getUpperBound(entry.getKey());
+            long lower = sketch.getLowerBound(entry.getKey());
+            assertTrue(lower <= trueWeight, "lower bound for " + entry.getKey());
+            assertTrue(upper >= trueWeight, "upper bound for " + entry.getKey());
+            assertTrue(upper - trueWeight <= sketch.getFloor(), "overestimate within floor for " + entry.getKey());
+            if (trueWeight > sketch.getFloor()) {
+                assertTrue(isMonitored(sketch, entry.getKey()), "heavy key " + entry.getKey() + " is monitored");
+            }
+        }
+    }
+
+    @Test
+    public void testSummedBoundsOverSeveralSketches() {
+        // HeavyHitterTracker ranks a range by summing per-day upper bounds
+        int capacity = 8;
+        SpaceSavingSketch[] days = {new SpaceSavingSketch(capacity), new SpaceSavingSketch(capacity)};
+        Map<String, Long> exact = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            String key = "m" + random.nextInt(40);
+            long weight = 1 + random.nextInt(100);
+            days[i % 2].add(key, weight);
+            exact.merge(key, weight, Long::sum);
+        }
+
+        long floors = days[0].getFloor() + days[1].getFloor();
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            long upper = days[0].getUpperBound(entry.getKey()) + days[1].getUpperBound(entry.getKey());
+            long lower = days[0].getLowerBound(entry.getKey()) + days[1].getLowerBound(entry.getKey());
+            assertTrue(lower <= entry.getValue() && entry.getValue() <= upper, "bounds for " + entry.getKey());
+            assertTrue(upper - entry.getValue() <= floors, "overestimate within summed floors for " + entry.getKey());
+        }
+    }
+
+    private static boolean isMonitored(SpaceSavingSketch sketch, String key) {
+        for (int i = 0; i < sketch.size(); i++) {
+            if (sketch.keyAt(i).equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
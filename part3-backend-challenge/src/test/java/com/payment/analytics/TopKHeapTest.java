@@ -0,0 +1,94 @@
+package com.payment.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for TopKHeap: best-first order, ties and k larger than the input.
+ */
+public class TopKHeapTest {
+
+    @Test
+    public void testKeepsBestInOrderWithTieBreak() {
+        long[] values = {5, 9, 1, 9, 3, 5, 7, 9};
+        // Higher value first, then lower index, as the trackers rank codes
+        TopKHeap heap = new TopKHeap(4, values.length, (a, b) -> {
+            int result = Long.compare(values[a], values[b]);
+            return result != 0 ? result : Integer.compare(b, a);
+        });
+        for (int i = 0; i < values.length; i++) {
+            heap.offer(i);
+        }
+
+        assertArrayEquals(new int[] {1, 3, 7, 6}, heap.drainBestFirst());
+    }
+
+    @Test
+    public void testTiesWithoutTieBreakKeepBestValues() {
+        long[] values = {4, 4, 4, 4, 2, 4, 1};
+        TopKHeap heap = new TopKHeap(3, values.length, (a, b) -> Long.compare(values[a], values[b]));
+        for (int i = 0; i < values.length; i++) {
+            heap.offer(i);
+        }
+
+        int[] best = heap.drainBestFirst();
+        assertEquals(3, best.length);
+        for (int index : best) {
+            assertEquals(4, values[index]);
+        }
+    }
+
+    @Test
+    public void testKLargerThanInputReturnsEverything() {
+        long[] values = {3, 1, 2};
+        TopKHeap heap = new TopKHeap(100, values.length, (a, b) -> Long.compare(values[a], values[b]));
+        for (int i = 0; i < values.length; i++) {
+            heap.offer(i);
+        }
+
+        assertArrayEquals(new int[] {0, 2, 1}, heap.drainBestFirst());
+    }
+
+    @Test
+    public void testZeroKAndEmptyInput() {
+        TopKHeap none = new TopKHeap(0, 5, (a, b) -> Integer.compare(a, b));
+        none.offer(1);
+        assertEquals(0, none.drainBestFirst().length);
+
+        TopKHeap empty = new TopKHeap(10, 0, (a, b) -> Integer.compare(a, b));
+        assertEquals(0, empty.drainBestFirst().length);
+    }
+
+    @Test
+    public void testRejectsNegativeK() {
+        assertThrows(IllegalArgumentException.class, () -> new TopKHeap(-1, 5, (a, b) -> 0));
+    }
+
+    @Test
+    public void testMatchesFullSort() {
+        Random random = new Random(5);
+        for (int round = 0; round < 50; round++) {
+            int n = random.nextInt(200);
+            int k = random.nextInt(60);
+            long[] values = new long[n];
+            for (int i = 0; i < n; i++) {
+                values[i] = random.nextInt(20);
+            }
+            Comparator<Integer> best = Comparator.<Integer>comparingLong(i -> values[i]).reversed()
+                .thenComparingInt(i -> i);
+            TopKHeap heap = new TopKHeap(k, n, (a, b) -> best.compare(b, a));
+            for (int i = 0; i < n; i++) {
+                heap.offer(i);
+            }
+
+            int[] expected = IntStream.range(0, n).boxed().sorted(best).limit(k).mapToInt(Integer::intValue).toArray();
+            assertArrayEquals(expected, heap.drainBestFirst(), "n=" + n + " k=" + k + " " + Arrays.toString(values));
+        }
+    }
+}
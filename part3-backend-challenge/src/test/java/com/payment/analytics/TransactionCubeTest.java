@@ -0,0 +1,183 @@
+package com.payment.analytics;
+
+import com.payment.dto.projection.PeakTimesProjection;
+import com.payment.dto.projection.VolumeProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CubeSnapshot aggregation and TransactionCube window sizing and change tracking.
+ */
+public class TransactionCubeTest {
+
+    private static final LocalDate FIRST = LocalDate.of(2024, 3, 1);
+
+    private DimensionDictionary dictionary;
+
+    @BeforeEach
+    public void setUp() {
+        dictionary = new DimensionDictionary();
+    }
+
+    @Test
+    public void testRangeMetricsAggregateRowsOfTheRange() {
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dictionary, FIRST, FIRST.plusDays(2), 2);
+        builder.add(day(0), 1000, "MCH-00001", "completed", "VISA", "USD", 10);
+        builder.add(day(0), 500, "MCH-00002", "failed", "MASTERCARD", "USD", 10);
+        builder.add(day(1), 250, "MCH-00001", "completed", "VISA", "EUR", 35);
+        builder.add(day(2), 9999, "MCH-00003", "completed", "AMEX", "USD", 0);
+        CubeSnapshot snapshot = builder.build();
+
+        RangeMetrics metrics = snapshot.getRangeMetrics(FIRST, FIRST.plusDays(1));
+
+        assertEquals(4, snapshot.getRowCount());
+        assertEquals(3, metrics.getTotalCount());
+        assertEquals(1750, metrics.getTotal().getSumCents());
+        assertEquals(new BigDecimal("2.50"), metrics.getTotal().getMin());
+        Map<String, MoneyAccumulator> byMerchant = metrics.getTotalsBy(TransactionDimension.MERCHANT);
+        assertEquals(1250, byMerchant.get("MCH-00001").getSumCents());
+        assertEquals(500, byMerchant.get("MCH-00002").getSumCents());
+        assertFalse(byMerchant.containsKey("MCH-00003"));
+        assertEquals(2, metrics.getTotals(TransactionDimension.STATUS, "completed").getCount());
+
+        List<VolumeProjection> volume = metrics.getVolumeByPeriod(PeriodGrain.DAY);
+        assertEquals(2, volume.size());
+        assertEquals(2L, volume.get(0).getCount());
+        assertEquals(new BigDecimal("2.50"), volume.get(1).getTotalAmount());
+
+        List<PeakTimesProjection> peaks = metrics.getPeakTimes();
+        assertEquals(2, peaks.size());
+        PeakTimesProjection busiest = peaks.stream().filter(p -> p.getCount() == 2).findFirst().orElseThrow();
+        assertEquals(10, busiest.getHour());
+        assertEquals(0, busiest.getDayOfWeek());
+    }
+
+    @Test
+    public void testForEachRowVisitsOnlyThatDay() {
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dictionary, FIRST, FIRST.plusDays(1), 4);
+        builder.add(day(0), 100, "MCH-00001", "completed", "VISA", "USD", 0);
+        builder.add(day(1), 200, "MCH-00002", "completed", "VISA", "USD", 0);
+        builder.add(day(1), 300, "MCH-00001", "completed", "AMEX", "USD", 0);
+        CubeSnapshot snapshot = builder.build();
+
+        List<Long> amounts = new ArrayList<>();
+        snapshot.forEachRow(FIRST.plusDays(1), (cents, merchantCode, cardTypeCode) -> amounts.add(cents));
+
+        assertEquals(List.of(200L, 300L), amounts);
+    }
+
+    @Test
+    public void testCoversOnlyItsOwnDays() {
+        CubeSnapshot snapshot = new CubeSnapshot.Builder(dictionary, FIRST, FIRST.plusDays(6), 0).build();
+
+        assertTrue(snapshot.covers(FIRST, FIRST.plusDays(6)));
+        assertFalse(snapshot.covers(FIRST.minusDays(1), FIRST.plusDays(6)));
+        assertFalse(snapshot.covers(FIRST, FIRST.plusDays(7)));
+        assertThrows(IllegalArgumentException.class, () -> snapshot.getRangeMetrics(FIRST, FIRST.plusDays(7)));
+    }
+
+    @Test
+    public void testRejectsRowsOutsideTheRange() {
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dictionary, FIRST, FIRST, 0);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> builder.add(day(1), 100, "MCH-00001", "completed", "VISA", "USD", 0));
+    }
+
+    @Test
+    public void testHoldsMoreThanAByteOfDistinctValues() {
+        CubeSnapshot.Builder builder = new CubeSnapshot.Builder(dictionary, FIRST, FIRST, 16);
+        for (int i = 0; i < 300; i++) {
+            builder.add(day(0), 100 + i, "MCH-00001", "completed", "CARD-" + i, "USD", 0);
+        }
+
+        RangeMetrics metrics = builder.build().getRangeMetrics(FIRST, FIRST);
+
+        assertEquals(300, metrics.getTotalsBy(TransactionDimension.CARD_TYPE).size());
+        assertEquals(399, metrics.getTotals(TransactionDimension.CARD_TYPE, "CARD-299").getSumCents());
+    }
+
+    @Test
+    public void testRefreshHalvesTheWindowUntilItFits() {
+        TransactionCubeLoader loader = mock(TransactionCubeLoader.class);
+        LocalDate today = LocalDate.now();
+        CubeSnapshot fitting = new CubeSnapshot.Builder(dictionary, today.minusDays(22), today, 0).build();
+        when(loader.load(any(), eq(today), anyInt())).thenReturn(Optional.empty());
+        when(loader.load(today.minusDays(22), today, 1000)).thenReturn(Optional.of(fitting));
+        TransactionCube cube = new TransactionCube(loader, true, 92, 1000);
+
+        cube.refresh();
+
+        verify(loader).load(today.minusDays(91), today, 1000);
+        verify(loader).load(today.minusDays(45), today, 1000);
+        verify(loader).load(today.minusDays(22), today, 1000);
+        verifyNoMoreInteractions(loader);
+        assertTrue(cube.snapshotCovering(today.minusDays(22), today).isPresent());
+        assertTrue(cube.snapshotCovering(today.minusDays(23), today).isEmpty());
+    }
+
+    @Test
+    public void testChangedDaysAreThoseWrittenAfterTheSnapshotWasRead() {
+        TransactionCubeLoader loader = mock(TransactionCubeLoader.class);
+        LocalDate today = LocalDate.now();
+        cubeLoadedBy(loader, today);
+        TransactionCube cube = new TransactionCube(loader, true, 10, 1000);
+        cube.markChanged(today.minusDays(5));
+        cube.refresh();
+        CubeSnapshot snapshot = cube.snapshotCovering(today.minusDays(9), today).orElseThrow();
+
+        cube.markChanged(today.minusDays(2));
+
+        assertEquals(Set.of(today.minusDays(2).toEpochDay()),
+            cube.changedDays(snapshot, today.minusDays(9), today));
+    }
+
+    @Test
+    public void testOutdatedSnapshotReportsEveryDayChanged() {
+        TransactionCubeLoader loader = mock(TransactionCubeLoader.class);
+        LocalDate today = LocalDate.now();
+        cubeLoadedBy(loader, today);
+        TransactionCube cube = new TransactionCube(loader, true, 10, 1000);
+        cube.refresh();
+        CubeSnapshot old = cube.snapshotCovering(today.minusDays(9), today).orElseThrow();
+
+        cube.refresh();
+
+        assertEquals(3, cube.changedDays(old, today.minusDays(2), today).size());
+    }
+
+    @Test
+    public void testDisabledCubeNeverLoads() {
+        TransactionCubeLoader loader = mock(TransactionCubeLoader.class);
+        TransactionCube cube = new TransactionCube(loader, false, 92, 1000);
+
+        cube.refresh();
+        cube.markChanged(LocalDate.now());
+
+        verifyNoInteractions(loader);
+        assertTrue(cube.snapshotCovering(LocalDate.now(), LocalDate.now()).isEmpty());
+    }
+
+    private void cubeLoadedBy(TransactionCubeLoader loader, LocalDate today) {
+        when(loader.load(any(), any(), anyInt())).thenAnswer(invocation ->
+            Optional.of(new CubeSnapshot.Builder(dictionary, invocation.getArgument(0), today, 0).build()));
+    }
+
+    private static int day(int offset) {
+        return (int) FIRST.plusDays(offset).toEpochDay();
+    }
+}
@@ -0,0 +1,169 @@
+package com.payment.analytics;
+
+import com.payment.analytics.TransactionSummaryCache.TransactionSummary;
+import com.payment.dto.projection.TransactionSummaryProjection;
+import com.payment.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for TransactionSummaryCache: the query chosen per filter set, summaries cached
+ * until invalidated, expired or evicted, and loads racing an invalidation.
+ */
+public class TransactionSummaryCacheTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 3, 1);
+    private static final LocalDate END = LocalDate.of(2024, 3, 31);
+
+    private TransactionRepository transactionRepository;
+    private TransactionSummaryCache cache;
+
+    @BeforeEach
+    public void setUp() {
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.getSummary(any(), any())).thenReturn(row(4, 10000, 500, 4000, 2, 1, 1));
+        when(transactionRepository.getSummaryByMerchant(any(), any(), any())).thenReturn(row(1, 700, 700, 700, 1, 0, 0));
+        when(transactionRepository.getSummaryByStatus(any(), any(), any())).thenReturn(row(2, 3000, 1000, 2000, 2, 0, 0));
+        when(transactionRepository.getSummaryByMerchantAndStatus(any(), any(), any(), any())).thenReturn(row(0, 0, null, null, 0, 0, 0));
+        cache = new TransactionSummaryCache(transactionRepository, 2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    public void testSummaryFromTheAggregateRow() {
+        TransactionSummary summary = cache.get(null, null, START, END);
+
+        assertEquals(4, summary.getTotalCount());
+        assertEquals(new BigDecimal("100.00"), summary.getTotalAmount());
+        assertEquals(new BigDecimal("25.00"), summary.getAverageAmount());
+        assertEquals(new BigDecimal("5.00"), summary.getMinAmount());
+        assertEquals(new BigDecimal("40.00"), summary.getMaxAmount());
+        assertEquals(2, summary.getCompletedCount());
+        assertEquals(1, summary.getPendingCount());
+        assertEquals(1, summary.getFailedCount());
+        verify(transactionRepository).getSummary(Date.valueOf(START), Date.valueOf(END));
+    }
+
+    @Test
+    public void testEmptyResultHasNoMinOrMax() {
+        TransactionSummary summary = cache.get("MCH-00001", "failed", START, END);
+
+        assertEquals(0, summary.getTotalCount());
+        assertEquals(BigDecimal.ZERO, summary.getAverageAmount());
+        assertNull(summary.getMinAmount());
+        assertNull(summary.getMaxAmount());
+    }
+
+    @Test
+    public void testEachFilterSetUsesItsQuery() {
+        assertEquals(1, cache.get("MCH-00001", null, START, END).getTotalCount());
+        assertEquals(2, cache.get(null, "completed", START, END).getTotalCount());
+        cache.get("MCH-00001", "completed", START, END);
+
+        verify(transactionRepository).getSummaryByMerchant("MCH-00001", Date.valueOf(START), Date.valueOf(END));
+        verify(transactionRepository).getSummaryByStatus("completed", Date.valueOf(START), Date.valueOf(END));
+        verify(transactionRepository).getSummaryByMerchantAndStatus("MCH-00001", "completed",
+            Date.valueOf(START), Date.valueOf(END));
+        verify(transactionRepository, never()).getSummary(any(), any());
+    }
+
+    @Test
+    public void testPagingThroughOneResultQueriesOnce() {
+        TransactionSummary first = cache.get(null, "completed", START, END);
+
+        assertSame(first, cache.get(null, "completed", START, END));
+        verify(transactionRepository, times(1)).getSummaryByStatus(any(), any(), any());
+    }
+
+    @Test
+    public void testInvalidateDropsOnlyRangesContainingTheDate() {
+        cache.get(null, null, START, END);
+        cache.get(null, null, START.minusMonths(1), START.minusDays(1));
+
+        cache.invalidate(END);
+        cache.get(null, null, START, END);
+        cache.get(null, null, START.minusMonths(1), START.minusDays(1));
+
+        verify(transactionRepository, times(2)).getSummary(Date.valueOf(START), Date.valueOf(END));
+        verify(transactionRepository, times(1)).getSummary(Date.valueOf(START.minusMonths(1)), Date.valueOf(START.minusDays(1)));
+    }
+
+    @Test
+    public void testInvalidateAllDropsEverySummary() {
+        cache.get(null, null, START, END);
+        cache.get("MCH-00001", null, START, END);
+
+        cache.invalidateAll();
+        cache.get(null, null, START, END);
+        cache.get("MCH-00001", null, START, END);
+
+        verify(transactionRepository, times(2)).getSummary(any(), any());
+        verify(transactionRepository, times(2)).getSummaryByMerchant(any(), any(), any());
+    }
+
+    @Test
+    public void testLoadAcrossInvalidationIsNotCached() {
+        doAnswer(invocation -> {
+            // A transaction in the range commits while the summary is computed
+            cache.invalidate(START);
+            return row(1, 100, 100, 100, 1, 0, 0);
+        }).doAnswer(invocation -> row(2, 200, 100, 100, 2, 0, 0))
+            .when(transactionRepository).getSummary(any(), any());
+
+        assertEquals(1, cache.get(null, null, START, END).getTotalCount());
+        assertEquals(2, cache.get(null, null, START, END).getTotalCount());
+        assertEquals(2, cache.get(null, null, START, END).getTotalCount());
+        verify(transactionRepository, times(2)).getSummary(any(), any());
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedFilterSet() {
+        cache.get(null, null, START, END);
+        cache.get(null, "completed", START, END);
+        cache.get(null, null, START, END);
+        cache.get(null, "failed", START, END);
+
+        cache.get(null, null, START, END);
+        cache.get(null, "completed", START, END);
+
+        verify(transactionRepository, times(1)).getSummary(any(), any());
+        verify(transactionRepository, times(2)).getSummaryByStatus(eq("completed"), any(), any());
+    }
+
+    @Test
+    public void testExpiredSummaryIsRecomputed() {
+        TransactionSummaryCache expiring = new TransactionSummaryCache(transactionRepository, 10, Duration.ZERO);
+
+        expiring.get(null, null, START, END);
+        expiring.get(null, null, START, END);
+
+        verify(transactionRepository, times(2)).getSummary(any(), any());
+    }
+
+    private static TransactionSummaryProjection row(long count, long totalCents, Long minCents, Long maxCents,
+                                                    long completed, long pending, long failed) {
+        TransactionSummaryProjection row = new TransactionSummaryProjection();
+        row.setTotalCount(count);
+        row.setTotalCents(totalCents);
+        row.setMinCents(minCents);
+        row.setMaxCents(maxCents);
+        row.setCompletedCount(completed);
+        row.setPendingCount(pending);
+        row.setFailedCount(failed);
+        return row;
+    }
+
+    private static TransactionSummaryProjection row(long count, long totalCents, long minCents, long maxCents,
+                                                    long completed, long pending, long failed) {
+        return row(count, totalCents, Long.valueOf(minCents), Long.valueOf(maxCents), completed, pending, failed);
+    }
+}
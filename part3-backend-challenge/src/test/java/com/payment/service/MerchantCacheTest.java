@@ -0,0 +1,205 @@
+package com.payment.service;
+
+import com.payment.entity.Merchant;
+import com.payment.repository.MerchantRepository;
+import io.micronaut.transaction.TransactionOperations;
+import io.micronaut.transaction.TransactionStatus;
+import io.micronaut.transaction.support.TransactionSynchronization;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MerchantCache: read-through lookups, writes cached after commit, eviction
+ * through notifications and lookups going to the database while nobody is listening.
+ */
+public class MerchantCacheTest {
+
+    private MerchantRepository merchantRepository;
+    private TransactionOperations<Connection> transactionOperations;
+    private Connection connection;
+    private PGConnection pgConnection;
+    private MerchantCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() throws SQLException {
+        merchantRepository = mock(MerchantRepository.class);
+        when(merchantRepository.findById(any())).thenAnswer(invocation ->
+            Optional.of(merchant(invocation.getArgument(0))));
+        transactionOperations = mock(TransactionOperations.class);
+        doReturn(Optional.empty()).when(transactionOperations).findTransactionStatus();
+
+        connection = mock(Connection.class);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        pgConnection = mock(PGConnection.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        cache = newCache(true, 2);
+    }
+
+    @Test
+    public void testFindLoadsOnceThenServesFromMemory() {
+        cache.poll();
+
+        assertEquals("MCH-00001", cache.find("MCH-00001").orElseThrow().getMerchantId());
+        cache.find("MCH-00001");
+
+        verify(merchantRepository, times(1)).findById("MCH-00001");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testPutInsideTransactionIsCachedOnlyAfterCommit() {
+        cache.poll();
+        cache.find("MCH-00001");
+        TransactionStatus<?> status = mock(TransactionStatus.class);
+        doReturn(Optional.of(status)).when(transactionOperations).findTransactionStatus();
+        Merchant updated = merchant("MCH-00001");
+
+        cache.put(updated);
+
+        assertEquals(0, cache.size());
+        ArgumentCaptor<TransactionSynchronization> synchronization = ArgumentCaptor.forClass(TransactionSynchronization.class);
+        verify(status).registerSynchronization(synchronization.capture());
+        synchronization.getValue().afterCommit();
+        assertSame(updated, cache.find("MCH-00001").orElseThrow());
+        verify(merchantRepository, times(1)).findById("MCH-00001");
+    }
+
+    @Test
+    public void testPutOutsideTransactionIsCachedAtOnce() {
+        cache.poll();
+        Merchant saved = merchant("MCH-00001");
+
+        cache.put(saved);
+
+        assertSame(saved, cache.find("MCH-00001").orElseThrow());
+        verifyNoInteractions(merchantRepository);
+    }
+
+    @Test
+    public void testNotifiedMerchantsAreEvicted() throws SQLException {
+        cache.poll();
+        cache.find("MCH-00001");
+        cache.find("MCH-00002");
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn("MCH-00001");
+        when(pgConnection.getNotifications()).thenReturn(new PGNotification[] {notification});
+
+        cache.poll();
+
+        assertEquals(1, cache.size());
+        cache.find("MCH-00001");
+        verify(merchantRepository, times(2)).findById("MCH-00001");
+    }
+
+    @Test
+    public void testEvictAndInvalidateAll() {
+        cache.poll();
+        cache.find("MCH-00001");
+        cache.find("MCH-00002");
+
+        cache.evict("MCH-00001");
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testLoadRacingAnEvictionIsNotCached() {
+        cache.poll();
+        doAnswer(invocation -> {
+            // Another instance changes the merchant while it is being read
+            cache.evict("MCH-00001");
+            return Optional.of(merchant("MCH-00001"));
+        }).when(merchantRepository).findById("MCH-00001");
+
+        assertTrue(cache.find("MCH-00001").isPresent());
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testKeepsAtMostMaxSizeMerchants() {
+        cache.poll();
+        cache.find("MCH-00001");
+        cache.find("MCH-00002");
+        cache.find("MCH-00001");
+        cache.find("MCH-00003");
+
+        assertEquals(2, cache.size());
+        cache.find("MCH-00001");
+        verify(merchantRepository, times(1)).findById("MCH-00001");
+    }
+
+    @Test
+    public void testFindAllLoadsOnlyMissingMerchants() {
+        cache.poll();
+        cache.find("MCH-00001");
+        when(merchantRepository.findByMerchantIdIn(any())).thenReturn(List.of(merchant("MCH-00002")));
+
+        Map<String, Merchant> found = cache.findAll(List.of("MCH-00001", "MCH-00002", "MCH-00009"));
+
+        assertEquals(2, found.size());
+        verify(merchantRepository).findByMerchantIdIn(List.of("MCH-00002", "MCH-00009"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testFailedListenerSendsLookupsToTheDatabase() throws SQLException {
+        cache.poll();
+        cache.find("MCH-00001");
+        when(connection.createStatement()).thenThrow(new SQLException("connection reset"));
+
+        cache.poll();
+
+        assertEquals(0, cache.size());
+        verify(connection).close();
+        cache.find("MCH-00001");
+        cache.find("MCH-00001");
+        verify(merchantRepository, times(3)).findById("MCH-00001");
+    }
+
+    @Test
+    public void testDisabledCacheNeverConnects() {
+        MerchantCache disabled = newCache(false, 2);
+
+        disabled.poll();
+        disabled.find("MCH-00001");
+        disabled.put(merchant("MCH-00001"));
+        disabled.find("MCH-00001");
+
+        verify(merchantRepository, times(2)).findById("MCH-00001");
+        verifyNoInteractions(connection);
+        assertEquals(0, disabled.size());
+    }
+
+    private MerchantCache newCache(boolean enabled, int maxSize) {
+        return new MerchantCache(merchantRepository, transactionOperations,
+            "jdbc:postgresql://localhost/payment_platform", "admin", "admin", enabled, maxSize) {
+            @Override
+            Connection connect() {
+                return connection;
+            }
+        };
+    }
+
+    private static Merchant merchant(String merchantId) {
+        return new Merchant(merchantId, "Merchant " + merchantId, "Business " + merchantId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.payment.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MerchantCsvParser: RFC 4180 quoting, line endings, BOM and per-row errors.
+ */
+public class MerchantCsvParserTest {
+
+    @Test
+    public void testMapsCamelAndSnakeCaseColumnsInAnyOrder() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse(
+            "tax_id,businessName,Merchant Name,registration_date\n"
+                + "TAX-1,Gloria's Cafe LLC,Gloria's Cafe,2024-03-01\n");
+
+        assertEquals(1, rows.size());
+        MerchantCsvParser.Row row = rows.get(0);
+        assertNull(row.error);
+        assertEquals("TAX-1", row.request.getTaxId());
+        assertEquals("Gloria's Cafe LLC", row.request.getBusinessName());
+        assertEquals("Gloria's Cafe", row.request.getMerchantName());
+        assertEquals(LocalDate.of(2024, 3, 1), row.request.getRegistrationDate());
+    }
+
+    @Test
+    public void testQuotedFieldsKeepCommasQuotesAndLineBreaks() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse(
+            "merchantName,businessName,notes\n"
+                + "\"Smith, Jones & Co\",\"The \"\"Best\"\" Shop\",\"line one\nline two\"\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("Smith, Jones & Co", rows.get(0).request.getMerchantName());
+        assertEquals("The \"Best\" Shop", rows.get(0).request.getBusinessName());
+        assertEquals("line one\nline two", rows.get(0).request.getNotes());
+    }
+
+    @Test
+    public void testCrlfLineEndingsAndBlankLines() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse(
+            "merchantName,businessName\r\nFirst Shop,First LLC\r\n\r\n   \r\nSecond Shop,Second LLC\r\n");
+
+        assertEquals(2, rows.size());
+        assertEquals("First LLC", rows.get(0).request.getBusinessName());
+        assertEquals("Second Shop", rows.get(1).request.getMerchantName());
+        assertEquals("Second LLC", rows.get(1).request.getBusinessName());
+    }
+
+    @Test
+    public void testQuotedCrlfIsKeptInsideTheField() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse(
+            "merchantName,notes\r\nShop,\"a\r\nb\"\r\n");
+
+        assertEquals(1, rows.size());
+        assertEquals("a\r\nb", rows.get(0).request.getNotes());
+    }
+
+    @Test
+    public void testLeadingByteOrderMarkIsSkipped() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse("﻿merchantName,businessName\nShop,Shop LLC");
+
+        assertEquals(1, rows.size());
+        assertEquals("Shop", rows.get(0).request.getMerchantName());
+        assertEquals("Shop LLC", rows.get(0).request.getBusinessName());
+    }
+
+    @Test
+    public void testEmptyCellsKeepDefaults() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse("merchantName,status,country\nShop,  ,\n");
+
+        assertEquals("Shop", rows.get(0).request.getMerchantName());
+        assertEquals("pending", rows.get(0).request.getStatus());
+        assertEquals("USA", rows.get(0).request.getCountry());
+    }
+
+    @Test
+    public void testBadRecordsBecomeRowErrors() {
+        List<MerchantCsvParser.Row> rows = MerchantCsvParser.parse(
+            "merchantName,registrationDate\nOne,2024-01-01\nTwo\nThree,01/02/2024\n");
+
+        assertEquals(3, rows.size());
+        assertNull(rows.get(0).error);
+        assertNull(rows.get(1).request);
+        assertEquals("Expected 2 columns but found 1", rows.get(1).error);
+        assertNull(rows.get(2).request);
+        assertTrue(rows.get(2).error.contains("ISO date"));
+    }
+
+    @Test
+    public void testInvalidFilesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MerchantCsvParser.parse("\n\n"));
+        assertThrows(IllegalArgumentException.class, () -> MerchantCsvParser.parse("merchantName,favouriteColour\nShop,red\n"));
+        assertThrows(IllegalArgumentException.class, () -> MerchantCsvParser.parse("merchantName\n\"Unterminated\n"));
+    }
+}
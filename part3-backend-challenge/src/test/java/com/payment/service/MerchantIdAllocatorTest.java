@@ -0,0 +1,106 @@
+package com.payment.service;
+
+import com.payment.repository.MerchantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MerchantIdAllocator: IDs handed out from memory within a block, one round
+ * trip for every block a batch needs, and blocks other instances took in between.
+ */
+public class MerchantIdAllocatorTest {
+
+    private MerchantRepository merchantRepository;
+    private MerchantIdAllocator allocator;
+
+    @BeforeEach
+    public void setUp() {
+        merchantRepository = mock(MerchantRepository.class);
+        when(merchantRepository.getMerchantIdBlockSize()).thenReturn(50L);
+        allocator = new MerchantIdAllocator(merchantRepository);
+    }
+
+    @Test
+    public void testOneRoundTripPerBlock() {
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(51L, 151L);
+
+        assertEquals("MCH-00051", allocator.nextId());
+        for (int i = 0; i < 48; i++) {
+            allocator.nextId();
+        }
+        assertEquals("MCH-00100", allocator.nextId());
+        verify(merchantRepository, times(1)).nextMerchantIdBlock();
+
+        // Another instance reserved 101 to 150
+        assertEquals("MCH-00151", allocator.nextId());
+        verify(merchantRepository, times(2)).nextMerchantIdBlock();
+        verify(merchantRepository, times(1)).getMerchantIdBlockSize();
+    }
+
+    @Test
+    public void testBatchUsesTheRestOfTheBlockThenReservesWhatItNeeds() {
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(1L);
+        when(merchantRepository.nextMerchantIdBlocks(3)).thenReturn(List.of(101L, 201L, 351L));
+        for (int i = 0; i < 40; i++) {
+            allocator.nextId();
+        }
+
+        // 10 left in the block, then 130 more: three blocks, the last one partly used
+        List<String> ids = allocator.nextIds(140);
+
+        assertEquals(140, ids.size());
+        assertEquals("MCH-00041", ids.get(0));
+        assertEquals("MCH-00050", ids.get(9));
+        assertEquals("MCH-00101", ids.get(10));
+        assertEquals("MCH-00250", ids.get(109));
+        assertEquals("MCH-00351", ids.get(110));
+        assertEquals("MCH-00380", ids.get(139));
+        assertEquals("MCH-00381", allocator.nextId());
+        verify(merchantRepository, times(1)).nextMerchantIdBlocks(anyInt());
+        verify(merchantRepository, times(1)).nextMerchantIdBlock();
+    }
+
+    @Test
+    public void testBatchWithinTheCurrentBlockSkipsTheDatabase() {
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(1L);
+        allocator.nextId();
+
+        assertEquals(List.of("MCH-00002", "MCH-00003", "MCH-00004"), allocator.nextIds(3));
+        assertEquals(46, allocator.nextIds(46).size());
+
+        verify(merchantRepository, never()).nextMerchantIdBlocks(anyInt());
+        verify(merchantRepository, times(1)).nextMerchantIdBlock();
+    }
+
+    @Test
+    public void testBatchOfWholeBlocks() {
+        when(merchantRepository.nextMerchantIdBlocks(2)).thenReturn(List.of(1L, 51L));
+
+        List<String> ids = allocator.nextIds(100);
+
+        assertEquals("MCH-00100", ids.get(99));
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(101L);
+        assertEquals("MCH-00101", allocator.nextId());
+    }
+
+    @Test
+    public void testNumbersPastFiveDigitsKeepEveryDigit() {
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(123451L);
+
+        assertEquals("MCH-123451", allocator.nextId());
+    }
+
+    @Test
+    public void testMissingSequenceFails() {
+        when(merchantRepository.getMerchantIdBlockSize()).thenReturn(null);
+        when(merchantRepository.nextMerchantIdBlock()).thenReturn(1L);
+
+        assertThrows(IllegalStateException.class, () -> allocator.nextId());
+    }
+}
@@ -0,0 +1,194 @@
+package com.payment.service;
+
+import com.payment.dto.merchant.MerchantSuggestion;
+import com.payment.dto.projection.MerchantSearchProjection;
+import com.payment.entity.Merchant;
+import com.payment.repository.MerchantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MerchantSearchIndex: trigram candidates checked against a brute-force
+ * substring scan, copy-on-write updates and suggestion ranking.
+ */
+public class MerchantSearchIndexTest {
+
+    private final List<MerchantSearchProjection> entries = new ArrayList<>();
+    private MerchantRepository merchantRepository;
+
+    @BeforeEach
+    public void setUp() {
+        merchantRepository = mock(MerchantRepository.class);
+        when(merchantRepository.findSearchEntries()).thenAnswer(invocation -> new ArrayList<>(entries));
+    }
+
+    @Test
+    public void testMatchesBruteForceSubstringSearch() {
+        Random random = new Random(17);
+        for (int i = 0; i < 400; i++) {
+            // Small alphabet, so trigrams are shared widely and intersections matter
+            entries.add(new MerchantSearchProjection(String.format("MCH-%05d", i), randomName(random),
+                random.nextInt(5) == 0 ? null : randomName(random), random.nextInt(4) != 0));
+        }
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+
+        List<String> queries = new ArrayList<>(List.of("MCH-001", "mch", "ab", "a", "ZZZZ", "bca ", "-0"));
+        for (int i = 0; i < 300; i++) {
+            MerchantSearchProjection entry = entries.get(random.nextInt(entries.size()));
+            String text = random.nextBoolean() || entry.getBusinessName() == null
+                ? entry.getMerchantName() : entry.getBusinessName();
+            int from = random.nextInt(text.length());
+            int to = Math.min(text.length(), from + 1 + random.nextInt(6));
+            queries.add(random.nextBoolean() ? text.substring(from, to).toUpperCase(Locale.ROOT) : text.substring(from, to));
+            queries.add(randomName(random).substring(0, 3 + random.nextInt(3)));
+        }
+
+        for (String query : queries) {
+            if (query.isBlank()) {
+                continue;
+            }
+            assertEquals(bruteForce(query), index.findMerchantIds(query), "query '" + query + "'");
+        }
+    }
+
+    @Test
+    public void testUpdatesAreVisibleAndOldNamesStopMatching() {
+        entries.add(new MerchantSearchProjection("MCH-00001", "Blue Harbor Books", "Blue Harbor LLC", true));
+        entries.add(new MerchantSearchProjection("MCH-00002", "Harbor Freight Cafe", null, true));
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+        assertEquals(List.of("MCH-00001", "MCH-00002"), index.findMerchantIds("harbor"));
+
+        index.put(merchant("MCH-00001", "Red Canyon Books", "Red Canyon LLC"));
+        assertEquals(List.of("MCH-00002"), index.findMerchantIds("harbor"));
+        assertEquals(List.of("MCH-00001"), index.findMerchantIds("canyon"));
+
+        // Not listed until it has transactions
+        index.putAll(List.of(merchant("MCH-00003", "Canyon Coffee", null)));
+        assertEquals(List.of("MCH-00001"), index.findMerchantIds("canyon"));
+        index.markListed("MCH-00003");
+        assertEquals(List.of("MCH-00001", "MCH-00003"), index.findMerchantIds("canyon"));
+
+        // Transactions for a merchant without a profile
+        index.markListed("MCH-09999");
+        assertEquals(List.of("MCH-09999"), index.findMerchantIds("09999"));
+        verify(merchantRepository, times(1)).findSearchEntries();
+    }
+
+    @Test
+    public void testSingleWritesMatchBruteForceSubstringSearch() {
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+        index.findMerchantIds("mch");
+        Random random = new Random(29);
+        // Enough merchants for several document pages and posting blocks per common trigram
+        for (int i = 0; i < 1500; i++) {
+            String merchantId = String.format("MCH-%05d", i);
+            String merchantName = randomName(random);
+            index.put(merchant(merchantId, merchantName, null));
+            index.markListed(merchantId);
+            entries.add(new MerchantSearchProjection(merchantId, merchantName, null, true));
+        }
+        // Renames take documents out of the middle of posting lists and put them back
+        for (int i = 0; i < 500; i++) {
+            int k = random.nextInt(entries.size());
+            MerchantSearchProjection entry = entries.get(k);
+            String businessName = randomName(random);
+            index.put(merchant(entry.getMerchantId(), entry.getMerchantName(), businessName));
+            entries.set(k, new MerchantSearchProjection(entry.getMerchantId(), entry.getMerchantName(), businessName, true));
+        }
+
+        for (String query : List.of("mch", "MCH-001", "-014", "abc", "bca", "aab", "cab c", "a", "ZZZZ")) {
+            assertEquals(bruteForce(query), index.findMerchantIds(query), "query '" + query + "'");
+        }
+        for (int i = 0; i < 200; i++) {
+            String query = randomName(random).substring(0, 3 + random.nextInt(3));
+            if (!query.isBlank()) {
+                assertEquals(bruteForce(query), index.findMerchantIds(query), "query '" + query + "'");
+            }
+        }
+        verify(merchantRepository, times(1)).findSearchEntries();
+    }
+
+    @Test
+    public void testRebuildKeepsChangesAndPicksUpNewRows() {
+        entries.add(new MerchantSearchProjection("MCH-00001", "Alpha Market", null, true));
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+        assertEquals(List.of("MCH-00001"), index.findMerchantIds("market"));
+
+        entries.add(new MerchantSearchProjection("MCH-00002", "Beta Market", null, true));
+        index.refresh();
+        assertEquals(List.of("MCH-00001", "MCH-00002"), index.findMerchantIds("market"));
+    }
+
+    @Test
+    public void testSuggestionsRankedByMatchType() {
+        entries.add(new MerchantSearchProjection("MCH-00001", "Sunrise Bakery", null, true));
+        entries.add(new MerchantSearchProjection("MCH-00002", "Bakery", null, true));
+        entries.add(new MerchantSearchProjection("MCH-00003", "The Bakery Shop", null, true));
+        entries.add(new MerchantSearchProjection("MCH-00004", "Bakeryland", null, true));
+        entries.add(new MerchantSearchProjection("MCH-00005", "Minibakery", null, false));
+        entries.add(new MerchantSearchProjection("MCH-00006", "Bakerz Outlet", null, true));
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+
+        // Same match type: the shorter field first
+        List<MerchantSuggestion> suggestions = index.suggest("bakery", 10);
+        List<String> order = new ArrayList<>();
+        for (MerchantSuggestion suggestion : suggestions) {
+            order.add(suggestion.getMerchantId() + ":" + suggestion.getMatchType());
+        }
+        assertEquals(List.of("MCH-00002:exact", "MCH-00004:prefix", "MCH-00001:word", "MCH-00003:word",
+            "MCH-00005:substring", "MCH-00006:similar"), order);
+        assertEquals("merchantName", suggestions.get(0).getMatchedField());
+
+        assertEquals(2, index.suggest("bakery", 2).size());
+    }
+
+    @Test
+    public void testRejectsBlankQuery() {
+        MerchantSearchIndex index = new MerchantSearchIndex(merchantRepository, 0.5);
+        assertThrows(IllegalArgumentException.class, () -> index.findMerchantIds("  "));
+        assertThrows(IllegalArgumentException.class, () -> new MerchantSearchIndex(merchantRepository, 0));
+    }
+
+    private List<String> bruteForce(String query) {
+        String needle = query.trim().toLowerCase(Locale.ROOT);
+        TreeSet<String> merchantIds = new TreeSet<>();
+        for (MerchantSearchProjection entry : entries) {
+            if (Boolean.TRUE.equals(entry.getListed())
+                && (contains(entry.getMerchantId(), needle) || contains(entry.getMerchantName(), needle)
+                    || contains(entry.getBusinessName(), needle))) {
+                merchantIds.add(entry.getMerchantId());
+            }
+        }
+        return new ArrayList<>(merchantIds);
+    }
+
+    private static boolean contains(String field, String needle) {
+        return field != null && field.toLowerCase(Locale.ROOT).contains(needle);
+    }
+
+    private static String randomName(Random random) {
+        StringBuilder name = new StringBuilder();
+        int length = 6 + random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            name.append(random.nextInt(6) == 0 ? ' ' : "abcdeABC".charAt(random.nextInt(8)));
+        }
+        return name.toString().trim().isEmpty() ? "abc" : name.toString();
+    }
+
+    private static Merchant merchant(String merchantId, String merchantName, String businessName) {
+        Merchant merchant = new Merchant();
+        merchant.setMerchantId(merchantId);
+        merchant.setMerchantName(merchantName);
+        merchant.setBusinessName(businessName);
+        return merchant;
+    }
+}
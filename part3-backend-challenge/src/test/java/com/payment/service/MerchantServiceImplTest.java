@@ -0,0 +1,147 @@
+package com.payment.service;
+
+import com.payment.dto.merchant.MerchantListResponse;
+import com.payment.dto.merchant.MerchantListResponse.PaginationMetadata;
+import com.payment.dto.merchant.MerchantStatsDTO;
+import com.payment.repository.MerchantRepository;
+import com.payment.repository.MerchantStatsRepository;
+import io.micronaut.transaction.TransactionOperations;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for MerchantServiceImpl list pagination: cursor encoding and decoding, keyset
+ * seeks past the cursor and cursors within search results.
+ */
+public class MerchantServiceImplTest {
+
+    private MerchantStatsRepository merchantStatsRepository;
+    private MerchantSearchIndex merchantSearchIndex;
+    private MerchantServiceImpl service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        merchantStatsRepository = mock(MerchantStatsRepository.class);
+        when(merchantStatsRepository.countMerchants()).thenReturn(5L);
+        merchantSearchIndex = mock(MerchantSearchIndex.class);
+        service = new MerchantServiceImpl(mock(MerchantRepository.class), merchantStatsRepository,
+            mock(MerchantIdAllocator.class), mock(MerchantCache.class), merchantSearchIndex,
+            mock(Validator.class), mock(TransactionOperations.class), 1000, 50000, 500);
+    }
+
+    @Test
+    public void testNextCursorSeeksPastTheLastMerchantOfThePage() {
+        when(merchantStatsRepository.getMerchantsWithStats(2, 0)).thenReturn(stats("MCH-00001", "MCH-00002"));
+        when(merchantStatsRepository.getMerchantsWithStatsAfter("MCH-00002", 2)).thenReturn(stats("MCH-00003", "MCH-00004"));
+
+        PaginationMetadata first = service.listMerchants(2, 0, Optional.empty(), Optional.empty()).getPagination();
+        MerchantListResponse second = service.listMerchants(2, 0, Optional.of(first.getNextCursor()), Optional.empty());
+
+        assertTrue(first.getHasNext());
+        assertEquals(List.of("MCH-00003", "MCH-00004"), merchantIds(second));
+        assertTrue(second.getPagination().getHasNext());
+        assertTrue(second.getPagination().getHasPrevious());
+        assertEquals(5L, second.getPagination().getTotal());
+        verify(merchantStatsRepository, times(1)).getMerchantsWithStats(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testCursorIsVersionedUrlSafeBase64() {
+        when(merchantStatsRepository.getMerchantsWithStats(1, 0)).thenReturn(stats("MCH-00001"));
+
+        String cursor = service.listMerchants(1, 0, Optional.empty(), Optional.empty()).getPagination().getNextCursor();
+
+        assertFalse(cursor.contains("=") || cursor.contains("+") || cursor.contains("/"));
+        assertEquals("m1:MCH-00001", new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testLastPageHasNoCursor() {
+        when(merchantStatsRepository.getMerchantsWithStatsAfter("MCH-00004", 2)).thenReturn(stats("MCH-00005"));
+
+        PaginationMetadata pagination = service.listMerchants(2, 0, Optional.of(cursor("MCH-00004")), Optional.empty())
+            .getPagination();
+
+        assertFalse(pagination.getHasNext());
+        assertNull(pagination.getNextCursor());
+    }
+
+    @Test
+    public void testBlankCursorPagesByOffset() {
+        when(merchantStatsRepository.getMerchantsWithStats(2, 2)).thenReturn(stats("MCH-00003", "MCH-00004"));
+
+        MerchantListResponse response = service.listMerchants(2, 2, Optional.of(" "), Optional.empty());
+
+        assertEquals(List.of("MCH-00003", "MCH-00004"), merchantIds(response));
+        verify(merchantStatsRepository, never()).getMerchantsWithStatsAfter(anyString(), anyInt());
+    }
+
+    @Test
+    public void testRejectsInvalidCursors() {
+        for (String cursor : List.of("not a cursor!", encode("MCH-00001"), encode("m1:"), encode("m2:MCH-00001"))) {
+            assertThrows(IllegalArgumentException.class,
+                () -> service.listMerchants(2, 0, Optional.of(cursor), Optional.empty()), cursor);
+        }
+        verifyNoInteractions(merchantStatsRepository);
+    }
+
+    @Test
+    public void testCursorWithinSearchResults() {
+        when(merchantSearchIndex.findMerchantIds("cafe"))
+            .thenReturn(List.of("MCH-00001", "MCH-00002", "MCH-00004", "MCH-00007", "MCH-00009"));
+        when(merchantStatsRepository.getMerchantsWithStatsByIds(any())).thenAnswer(invocation ->
+            stats(invocation.<List<String>>getArgument(0).toArray(new String[0])));
+
+        MerchantListResponse page = service.listMerchants(2, 0, Optional.of(cursor("MCH-00002")), Optional.of("cafe"));
+        // The cursor's merchant no longer matches: the page starts after where it would be
+        MerchantListResponse moved = service.listMerchants(2, 0, Optional.of(cursor("MCH-00005")), Optional.of("cafe"));
+
+        assertEquals(List.of("MCH-00004", "MCH-00007"), merchantIds(page));
+        assertEquals(cursor("MCH-00007"), page.getPagination().getNextCursor());
+        assertEquals(5L, page.getPagination().getTotal());
+        assertEquals(List.of("MCH-00007", "MCH-00009"), merchantIds(moved));
+        verify(merchantStatsRepository, never()).getMerchantsWithStatsAfter(anyString(), anyInt());
+    }
+
+    private static String cursor(String merchantId) {
+        return encode("m1:" + merchantId);
+    }
+
+    private static String encode(String text) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<MerchantStatsDTO> stats(String... merchantIds) {
+        List<MerchantStatsDTO> rows = new ArrayList<>();
+        for (String merchantId : merchantIds) {
+            MerchantStatsDTO dto = new MerchantStatsDTO();
+            dto.setMerchantId(merchantId);
+            dto.setTotalTransactions(2L);
+            dto.setTotalRevenue(new BigDecimal("20.00"));
+            dto.setCompletedCount(2L);
+            rows.add(dto);
+        }
+        return rows;
+    }
+
+    private static List<String> merchantIds(MerchantListResponse response) {
+        List<String> merchantIds = new ArrayList<>();
+        response.getMerchants().forEach(merchant -> merchantIds.add(merchant.getMerchantId()));
+        return merchantIds;
+    }
+}